@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.providers.elasticache;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import net.spy.memcached.MemcachedClientIF;
+import net.spy.memcached.internal.BulkFuture;
+import net.spy.memcached.internal.BulkGetCompletionListener;
+import net.spy.memcached.internal.GetCompletionListener;
+import net.spy.memcached.internal.GetFuture;
+import net.spy.memcached.internal.OperationCompletionListener;
+import net.spy.memcached.internal.OperationFuture;
+
+import com.google.code.ssm.providers.AsyncCacheClient;
+import com.google.code.ssm.providers.CacheException;
+import com.google.code.ssm.providers.CacheTranscoder;
+
+/**
+ * Completes returned futures from spymemcached's completion listeners so no thread is blocked while waiting for
+ * memcached. Listeners are invoked by spymemcached's listener executor, dependent stages should not block it. Futures
+ * not completed within the operation timeout of the client are completed with {@link TimeoutException} by a shared
+ * timer thread.
+ *
+ * @author Jakub Białek
+ * @since 4.1.4
+ *
+ */
+class AsyncMemcacheClientWrapper implements AsyncCacheClient {
+
+    private static final ScheduledThreadPoolExecutor TIMER = new ScheduledThreadPoolExecutor(1, runnable -> {
+        final Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+        thread.setName("ssm-async-timeout");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        // operations usually complete in time, cancelled timeouts shouldn't wait in the queue
+        TIMER.setRemoveOnCancelPolicy(true);
+    }
+
+    private final MemcachedClientIF memcachedClient;
+
+    private final MemcacheClientWrapper clientWrapper;
+
+    // time in milliseconds after which returned futures are completed with TimeoutException
+    private final long operationTimeout;
+
+    AsyncMemcacheClientWrapper(final MemcachedClientIF memcachedClient, final MemcacheClientWrapper clientWrapper) {
+        this(memcachedClient, clientWrapper, MemcacheClientWrapper.getOperationTimeout(memcachedClient));
+    }
+
+    AsyncMemcacheClientWrapper(final MemcachedClientIF memcachedClient, final MemcacheClientWrapper clientWrapper,
+            final long operationTimeout) {
+        this.memcachedClient = memcachedClient;
+        this.clientWrapper = clientWrapper;
+        this.operationTimeout = operationTimeout;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> add(final String key, final int exp, final Object value) {
+        return execute(() -> memcachedClient.add(key, exp, value));
+    }
+
+    @Override
+    public <T> CompletableFuture<Boolean> add(final String key, final int exp, final T value, final CacheTranscoder transcoder) {
+        return execute(() -> memcachedClient.add(key, exp, value, clientWrapper.<T> getTranscoder(transcoder)));
+    }
+
+    @Override
+    public CompletableFuture<Long> decr(final String key, final int by) {
+        return execute(() -> memcachedClient.asyncDecr(key, by));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> delete(final String key) {
+        return execute(() -> memcachedClient.delete(key));
+    }
+
+    @Override
+    public CompletableFuture<Object> get(final String key) {
+        return execute(() -> memcachedClient.asyncGet(key));
+    }
+
+    @Override
+    public <T> CompletableFuture<T> get(final String key, final CacheTranscoder transcoder) {
+        return execute(() -> memcachedClient.asyncGet(key, clientWrapper.<T> getTranscoder(transcoder)));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> getBulk(final Collection<String> keys) {
+        return execute(() -> memcachedClient.asyncGetBulk(keys));
+    }
+
+    @Override
+    public <T> CompletableFuture<Map<String, T>> getBulk(final Collection<String> keys, final CacheTranscoder transcoder) {
+        return execute(() -> memcachedClient.asyncGetBulk(keys, clientWrapper.<T> getTranscoder(transcoder)));
+    }
+
+    @Override
+    public CompletableFuture<Long> incr(final String key, final int by, final long def) {
+        return execute(() -> memcachedClient.asyncIncr(key, by, def));
+    }
+
+    @Override
+    public CompletableFuture<Long> incr(final String key, final int by, final long def, final int exp) {
+        return execute(() -> memcachedClient.asyncIncr(key, by, def, exp));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> set(final String key, final int exp, final Object value) {
+        return execute(() -> memcachedClient.set(key, exp, value));
+    }
+
+    @Override
+    public <T> CompletableFuture<Boolean> set(final String key, final int exp, final T value, final CacheTranscoder transcoder) {
+        return execute(() -> memcachedClient.set(key, exp, value, clientWrapper.<T> getTranscoder(transcoder)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> execute(final Supplier<? extends Future<T>> operation) {
+        final CompletableFuture<T> result = new CompletableFuture<T>();
+        final Future<T> future;
+        try {
+            future = operation.get();
+        } catch (RuntimeException e) {
+            result.completeExceptionally(translateException(e));
+            return result;
+        }
+
+        if (future instanceof OperationFuture) {
+            ((OperationFuture<T>) future).addListener((OperationCompletionListener) completed -> complete(result, future));
+        } else if (future instanceof GetFuture) {
+            ((GetFuture<T>) future).addListener((GetCompletionListener) completed -> complete(result, future));
+        } else if (future instanceof BulkFuture) {
+            ((BulkFuture<T>) future).addListener((BulkGetCompletionListener) completed -> complete(result, future));
+        } else {
+            // futures not supporting listeners are awaited in the calling thread
+            complete(result, future, operationTimeout);
+            return result;
+        }
+
+        if (!result.isDone()) {
+            final ScheduledFuture<?> timeout = TIMER.schedule(
+                    () -> result.completeExceptionally(new TimeoutException("Operation timed out after " + operationTimeout + " ms")),
+                    operationTimeout, TimeUnit.MILLISECONDS);
+            result.whenComplete((value, e) -> timeout.cancel(false));
+        }
+
+        return result;
+    }
+
+    private <T> void complete(final CompletableFuture<T> result, final Future<T> completed) {
+        complete(result, completed, 0);
+    }
+
+    private <T> void complete(final CompletableFuture<T> result, final Future<T> completed, final long timeout) {
+        try {
+            result.complete(timeout > 0 ? completed.get(timeout, TimeUnit.MILLISECONDS) : completed.get());
+        } catch (TimeoutException e) {
+            result.completeExceptionally(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(new CacheException(e));
+        } catch (ExecutionException e) {
+            result.completeExceptionally(e.getCause() instanceof TimeoutException ? e.getCause() : new CacheException(e));
+        } catch (RuntimeException e) {
+            result.completeExceptionally(translateException(e));
+        }
+    }
+
+    private Throwable translateException(final RuntimeException e) {
+        if (e.getCause() instanceof InterruptedException || e.getCause() instanceof ExecutionException) {
+            return new CacheException(e);
+        } else if (e.getCause() instanceof TimeoutException) {
+            return e.getCause();
+        }
+
+        return e;
+    }
+
+}
@@ -19,6 +19,7 @@ package com.google.code.ssm.providers.elasticache;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.slf4j.Logger;
@@ -34,6 +35,7 @@ import net.spy.memcached.MemcachedClient;
 import com.google.code.ssm.providers.CacheClient;
 import com.google.code.ssm.providers.CacheClientFactory;
 import com.google.code.ssm.providers.CacheConfiguration;
+import com.google.code.ssm.providers.PooledCacheClient;
 
 /**
  * 
@@ -60,7 +62,7 @@ public class MemcacheClientFactoryImpl implements CacheClientFactory {
             if (elasticacheConf != null && Boolean.TRUE.equals(elasticacheConf.getUseAutoDiscovery())) {
                 // there is no way to use custom client settings and auto discovery together
                 LOGGER.info("All cache settings will be ignored because useAutoDiscovery is true");
-                return new MemcacheClientWrapper(new MemcachedClient(addrs));
+                return new MemcacheClientWrapper(new MemcachedClient(addrs), conf.isPipelinedBulkOperations());
             }
             
             
@@ -83,7 +85,33 @@ public class MemcacheClientFactoryImpl implements CacheClientFactory {
             connectionFactory = builder.build();
         }
 
-        return new MemcacheClientWrapper(new MemcachedClient(connectionFactory, addrs));
+        final int poolSize = getPoolSize(conf);
+        if (poolSize <= 1) {
+            return new MemcacheClientWrapper(new MemcachedClient(connectionFactory, addrs), conf.isPipelinedBulkOperations());
+        }
+
+        // all clients share the same connection factory, each of them opens own connections
+        final List<CacheClient> clients = new ArrayList<CacheClient>(poolSize);
+        try {
+            for (int i = 0; i < poolSize; i++) {
+                clients.add(new MemcacheClientWrapper(new MemcachedClient(connectionFactory, addrs), conf.isPipelinedBulkOperations()));
+            }
+        } catch (IOException e) {
+            for (CacheClient client : clients) {
+                client.shutdown();
+            }
+            throw e;
+        }
+
+        return new PooledCacheClient(clients, connectionFactory.getOperationTimeout());
+    }
+
+    private int getPoolSize(final CacheConfiguration conf) {
+        if (conf instanceof ElastiCacheConfiguration && ((ElastiCacheConfiguration) conf).getPoolSize() != null) {
+            return ((ElastiCacheConfiguration) conf).getPoolSize();
+        }
+
+        return 1;
     }
 
     private void setProviderSpecificSettings(final ConnectionFactoryBuilder builder, final ElastiCacheConfiguration conf) {
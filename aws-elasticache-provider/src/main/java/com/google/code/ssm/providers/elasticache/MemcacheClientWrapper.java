@@ -18,8 +18,10 @@
 package com.google.code.ssm.providers.elasticache;
 
 import java.net.SocketAddress;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -27,7 +29,10 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import net.spy.memcached.CachedData;
+import net.spy.memcached.DefaultConnectionFactory;
+import net.spy.memcached.MemcachedClient;
 import net.spy.memcached.MemcachedClientIF;
+import net.spy.memcached.MemcachedNode;
 import net.spy.memcached.OperationTimeoutException;
 import net.spy.memcached.transcoders.Transcoder;
 
@@ -35,10 +40,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.code.ssm.providers.AbstractMemcacheClientWrapper;
+import com.google.code.ssm.providers.AsyncCacheClient;
 import com.google.code.ssm.providers.CacheException;
 import com.google.code.ssm.providers.CacheTranscoder;
 import com.google.code.ssm.providers.CachedObject;
 import com.google.code.ssm.providers.CachedObjectImpl;
+import com.google.code.ssm.providers.TranscoderAdapterRegistry;
 
 /**
  * 
@@ -50,12 +57,31 @@ class MemcacheClientWrapper extends AbstractMemcacheClientWrapper {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MemcacheClientWrapper.class);
 
-    private final Map<CacheTranscoder, Object> adapters = new HashMap<CacheTranscoder, Object>();
+    private final TranscoderAdapterRegistry<Transcoder<Object>> adapters = new TranscoderAdapterRegistry<Transcoder<Object>>(
+            TranscoderAdapter::new);
 
     private final MemcachedClientIF memcachedClient;
 
+    private final boolean pipelinedBulkOperations;
+
+    // time in milliseconds to wait for all operations of single bulk
+    private final long bulkTimeout;
+
+    private final AsyncCacheClient asyncClient;
+
     MemcacheClientWrapper(final MemcachedClientIF memcachedClient) {
+        this(memcachedClient, false);
+    }
+
+    MemcacheClientWrapper(final MemcachedClientIF memcachedClient, final boolean pipelinedBulkOperations) {
+        this(memcachedClient, pipelinedBulkOperations, getOperationTimeout(memcachedClient));
+    }
+
+    MemcacheClientWrapper(final MemcachedClientIF memcachedClient, final boolean pipelinedBulkOperations, final long bulkTimeout) {
         this.memcachedClient = memcachedClient;
+        this.pipelinedBulkOperations = pipelinedBulkOperations;
+        this.bulkTimeout = bulkTimeout;
+        this.asyncClient = new AsyncMemcacheClientWrapper(memcachedClient, this);
     }
 
     @Override
@@ -122,6 +148,30 @@ class MemcacheClientWrapper extends AbstractMemcacheClientWrapper {
         }
     }
 
+    /**
+     * Sends delete commands for all keys without waiting for replies of the previous ones and then waits for all of
+     * them. Missing keys aren't treated as failures, keys that couldn't be deleted are logged together.
+     */
+    @Override
+    public void delete(final Collection<String> keys) throws TimeoutException, CacheException {
+        if (!pipelinedBulkOperations) {
+            super.delete(keys);
+            return;
+        }
+        if (keys == null || keys.isEmpty()) {
+            return;
+        }
+
+        final Map<String, Object> items = new LinkedHashMap<String, Object>();
+        for (final String key : keys) {
+            if (key != null) {
+                items.put(key, null);
+            }
+        }
+
+        executeBulk(items, "delete", (key, value) -> memcachedClient.delete(key));
+    }
+
     @Override
     public void flush() throws CacheException {
         try {
@@ -178,6 +228,12 @@ class MemcacheClientWrapper extends AbstractMemcacheClientWrapper {
         return memcachedClient.getAvailableServers();
     }
 
+    @Override
+    public SocketAddress getServer(final String key) {
+        final MemcachedNode node = memcachedClient.getNodeLocator().getPrimary(key);
+        return node == null ? null : node.getSocketAddress();
+    }
+
     @Override
     public Map<String, Object> getBulk(final Collection<String> keys) throws TimeoutException, CacheException {
         try {
@@ -279,6 +335,55 @@ class MemcacheClientWrapper extends AbstractMemcacheClientWrapper {
         }
     }
 
+    @Override
+    public void setBulk(final Map<String, ?> items, final int exp) throws TimeoutException, CacheException {
+        if (!pipelinedBulkOperations) {
+            super.setBulk(items, exp);
+            return;
+        }
+
+        executeBulk(items, "set", (key, value) -> memcachedClient.set(key, exp, value));
+    }
+
+    @Override
+    public void setBulk(final Map<String, ?> items, final int exp, final CacheTranscoder transcoder) throws TimeoutException,
+            CacheException {
+        if (!pipelinedBulkOperations) {
+            super.setBulk(items, exp, transcoder);
+            return;
+        }
+
+        final Transcoder<Object> transcoderAdapter = getTranscoder(transcoder);
+        executeBulk(items, "set", (key, value) -> memcachedClient.set(key, exp, value, transcoderAdapter));
+    }
+
+    @Override
+    public void addBulk(final Map<String, ?> items, final int exp) throws TimeoutException, CacheException {
+        if (!pipelinedBulkOperations) {
+            super.addBulk(items, exp);
+            return;
+        }
+
+        executeBulk(items, "add", (key, value) -> memcachedClient.add(key, exp, value));
+    }
+
+    @Override
+    public void addBulk(final Map<String, ?> items, final int exp, final CacheTranscoder transcoder) throws TimeoutException,
+            CacheException {
+        if (!pipelinedBulkOperations) {
+            super.addBulk(items, exp, transcoder);
+            return;
+        }
+
+        final Transcoder<Object> transcoderAdapter = getTranscoder(transcoder);
+        executeBulk(items, "add", (key, value) -> memcachedClient.add(key, exp, value, transcoderAdapter));
+    }
+
+    @Override
+    public AsyncCacheClient getAsyncClient() {
+        return asyncClient;
+    }
+
     @Override
     public void shutdown() {
         memcachedClient.shutdown();
@@ -294,15 +399,91 @@ class MemcacheClientWrapper extends AbstractMemcacheClientWrapper {
         return memcachedClient;
     }
 
+    @Override
+    public void registerTranscoder(final CacheTranscoder transcoder) {
+        adapters.register(transcoder);
+    }
+
     @SuppressWarnings("unchecked")
-    private <T> Transcoder<T> getTranscoder(final CacheTranscoder transcoder) {
-        Transcoder<T> transcoderAdapter = (Transcoder<T>) adapters.get(transcoder);
-        if (transcoderAdapter == null) {
-            transcoderAdapter = (Transcoder<T>) new TranscoderAdapter(transcoder);
-            adapters.put(transcoder, transcoderAdapter);
+    <T> Transcoder<T> getTranscoder(final CacheTranscoder transcoder) {
+        return (Transcoder<T>) adapters.get(transcoder);
+    }
+
+    /**
+     * 
+     * @return the operation timeout in milliseconds configured in the client or the default one
+     */
+    static long getOperationTimeout(final MemcachedClientIF memcachedClient) {
+        return memcachedClient instanceof MemcachedClient ? ((MemcachedClient) memcachedClient).getOperationTimeout()
+                : DefaultConnectionFactory.DEFAULT_OPERATION_TIMEOUT;
+    }
+
+    /**
+     * Sends all operations first and then waits for all of them, spymemcached pipelines operations queued for the same
+     * node. All operations share one deadline, operations not completed in time are cancelled.
+     */
+    private void executeBulk(final Map<String, ?> items, final String operation, final BulkOperation bulkOperation)
+            throws TimeoutException, CacheException {
+        if (items == null || items.isEmpty()) {
+            return;
         }
 
-        return transcoderAdapter;
+        final Map<String, Future<Boolean>> futures = new LinkedHashMap<String, Future<Boolean>>();
+        try {
+            for (final Map.Entry<String, ?> entry : items.entrySet()) {
+                futures.put(entry.getKey(), bulkOperation.submit(entry.getKey(), entry.getValue()));
+            }
+        } catch (RuntimeException e) {
+            cancel(futures.values());
+            if (translateException(e)) {
+                throw new CacheException(e);
+            }
+            throw e;
+        }
+
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(bulkTimeout);
+        final List<String> failedKeys = new ArrayList<String>();
+        Exception failure = null;
+        for (final Map.Entry<String, Future<Boolean>> entry : futures.entrySet()) {
+            try {
+                entry.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel(futures.values());
+                throw new CacheException(e);
+            } catch (TimeoutException e) {
+                cancel(entry.getValue());
+                failedKeys.add(entry.getKey());
+                failure = e;
+            } catch (ExecutionException | RuntimeException e) {
+                failedKeys.add(entry.getKey());
+                failure = e;
+            }
+        }
+
+        if (failure != null) {
+            LOGGER.warn("Bulk {} failed for {} of {} keys: {}", new Object[] { operation, failedKeys.size(), futures.size(), failedKeys });
+            if (failure instanceof TimeoutException) {
+                throw (TimeoutException) failure;
+            }
+            if (failure instanceof RuntimeException) {
+                final RuntimeException e = (RuntimeException) failure;
+                if (translateException(e)) {
+                    throw new CacheException(e);
+                } else if (e.getCause() instanceof TimeoutException) {
+                    throw (TimeoutException) e.getCause();
+                }
+
+                throw e;
+            }
+            throw new CacheException(failure);
+        }
+    }
+
+    private void cancel(final Collection<Future<Boolean>> futures) {
+        for (final Future<Boolean> f : futures) {
+            cancel(f);
+        }
     }
 
     private void cancel(final Future<?> f) {
@@ -315,6 +496,12 @@ class MemcacheClientWrapper extends AbstractMemcacheClientWrapper {
         return e.getCause() instanceof InterruptedException || e.getCause() instanceof ExecutionException;
     }
 
+    private interface BulkOperation {
+
+        Future<Boolean> submit(String key, Object value);
+
+    }
+
     private static class TranscoderWrapper implements CacheTranscoder {
 
         private final Transcoder<Object> transcoder;
@@ -331,7 +518,8 @@ class MemcacheClientWrapper extends AbstractMemcacheClientWrapper {
         @Override
         public CachedObject encode(final Object o) {
             CachedData cachedData = transcoder.encode(o);
-            return new CachedObjectImpl(cachedData.getFlags(), cachedData.getData());
+            final byte[] data = cachedData.getData();
+            return new CachedObjectImpl(cachedData.getFlags(), data, 0, data.length);
         }
     }
 
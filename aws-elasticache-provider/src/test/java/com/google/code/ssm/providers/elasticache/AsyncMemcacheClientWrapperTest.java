@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.providers.elasticache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import net.spy.memcached.MemcachedClientIF;
+import net.spy.memcached.internal.BulkFuture;
+import net.spy.memcached.internal.BulkGetCompletionListener;
+import net.spy.memcached.internal.GetCompletionListener;
+import net.spy.memcached.internal.GetFuture;
+import net.spy.memcached.internal.OperationCompletionListener;
+import net.spy.memcached.internal.OperationFuture;
+import net.spy.memcached.transcoders.Transcoder;
+
+import org.easymock.Capture;
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.code.ssm.providers.AsyncCacheClient;
+import com.google.code.ssm.providers.CacheException;
+import com.google.code.ssm.providers.CacheTranscoder;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class AsyncMemcacheClientWrapperTest {
+
+    private MemcachedClientIF client;
+
+    private AsyncCacheClient asyncClient;
+
+    @Before
+    public void setUp() {
+        client = EasyMock.createMock(MemcachedClientIF.class);
+        asyncClient = new MemcacheClientWrapper(client).getAsyncClient();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void getCompletesWhenListenerIsNotified() throws Exception {
+        GetFuture<Object> getFuture = EasyMock.createMock(GetFuture.class);
+        Capture<GetCompletionListener> listener = EasyMock.newCapture();
+        EasyMock.expect(getFuture.addListener(EasyMock.capture(listener))).andReturn(getFuture);
+        EasyMock.expect(getFuture.get()).andReturn("value1");
+        EasyMock.expect(client.asyncGet("key1")).andReturn(getFuture);
+        EasyMock.replay(client, getFuture);
+
+        CompletableFuture<Object> result = asyncClient.get("key1");
+        assertFalse(result.isDone());
+
+        listener.getValue().onComplete(getFuture);
+        assertEquals("value1", result.get(1, TimeUnit.SECONDS));
+        EasyMock.verify(client, getFuture);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void setWithTranscoder() throws Exception {
+        CacheTranscoder transcoder = EasyMock.createMock(CacheTranscoder.class);
+        OperationFuture<Boolean> operationFuture = getCompletedOperationFuture(true);
+        EasyMock.expect(client.set(EasyMock.eq("key1"), EasyMock.eq(1), EasyMock.eq("value1"), EasyMock.anyObject(Transcoder.class)))
+                .andReturn(operationFuture);
+        EasyMock.replay(client);
+
+        assertTrue(asyncClient.set("key1", 1, "value1", transcoder).get(1, TimeUnit.SECONDS));
+        EasyMock.verify(client, operationFuture);
+    }
+
+    @Test
+    public void incr() throws Exception {
+        OperationFuture<Long> operationFuture = getCompletedOperationFuture(7L);
+        EasyMock.expect(client.asyncIncr("key1", 2, 5L, 10)).andReturn(operationFuture);
+        EasyMock.replay(client);
+
+        assertEquals(Long.valueOf(7), asyncClient.incr("key1", 2, 5L, 10).get(1, TimeUnit.SECONDS));
+        EasyMock.verify(client, operationFuture);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void getBulk() throws Exception {
+        Map<String, Object> values = Collections.<String, Object> singletonMap("key1", "value1");
+        BulkFuture<Map<String, Object>> bulkFuture = EasyMock.createMock(BulkFuture.class);
+        EasyMock.expect(bulkFuture.addListener(EasyMock.anyObject(BulkGetCompletionListener.class))).andAnswer(() -> {
+            ((BulkGetCompletionListener) EasyMock.getCurrentArguments()[0]).onComplete(null);
+            return bulkFuture;
+        });
+        EasyMock.expect(bulkFuture.get()).andReturn(values);
+        EasyMock.expect(client.asyncGetBulk(Collections.singletonList("key1"))).andReturn(bulkFuture);
+        EasyMock.replay(client, bulkFuture);
+
+        assertEquals(values, asyncClient.getBulk(Collections.singletonList("key1")).get(1, TimeUnit.SECONDS));
+        EasyMock.verify(client, bulkFuture);
+    }
+
+    @Test
+    public void failedSubmission() throws InterruptedException {
+        EasyMock.expect(client.delete("key1")).andThrow(new IllegalStateException("Shutting down"));
+        EasyMock.replay(client);
+
+        assertFailure(asyncClient.delete("key1"), IllegalStateException.class);
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void timedOutOperation() throws InterruptedException {
+        CompletableFuture<Boolean> operationFuture = new CompletableFuture<Boolean>();
+        operationFuture.completeExceptionally(new TimeoutException("timeout"));
+        EasyMock.expect(client.add("key1", 1, "value1")).andReturn(operationFuture);
+        EasyMock.replay(client);
+
+        assertFailure(asyncClient.add("key1", 1, "value1"), TimeoutException.class);
+        EasyMock.verify(client);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void operationNotCompletedInTime() throws InterruptedException {
+        OperationFuture<Boolean> operationFuture = EasyMock.createMock(OperationFuture.class);
+        EasyMock.expect(operationFuture.addListener(EasyMock.anyObject(OperationCompletionListener.class))).andReturn(operationFuture);
+        EasyMock.expect(client.set("key1", 1, "value1")).andReturn(operationFuture);
+        EasyMock.replay(client, operationFuture);
+
+        asyncClient = new AsyncMemcacheClientWrapper(client, new MemcacheClientWrapper(client), 50);
+        assertFailure(asyncClient.set("key1", 1, "value1"), TimeoutException.class);
+        EasyMock.verify(client, operationFuture);
+    }
+
+    @Test
+    public void failedOperation() throws InterruptedException {
+        CompletableFuture<Boolean> operationFuture = new CompletableFuture<Boolean>();
+        operationFuture.completeExceptionally(new IllegalStateException("failed"));
+        EasyMock.expect(client.add("key1", 1, "value1")).andReturn(operationFuture);
+        EasyMock.replay(client);
+
+        assertFailure(asyncClient.add("key1", 1, "value1"), CacheException.class);
+        EasyMock.verify(client);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> OperationFuture<T> getCompletedOperationFuture(final T value) throws Exception {
+        OperationFuture<T> future = EasyMock.createMock(OperationFuture.class);
+        EasyMock.expect(future.addListener(EasyMock.anyObject(OperationCompletionListener.class))).andAnswer(() -> {
+            ((OperationCompletionListener) EasyMock.getCurrentArguments()[0]).onComplete(future);
+            return future;
+        });
+        EasyMock.expect(future.get()).andReturn(value);
+        EasyMock.replay(future);
+        return future;
+    }
+
+    private void assertFailure(final CompletableFuture<?> future, final Class<? extends Exception> expectedCause)
+            throws InterruptedException {
+        try {
+            future.get();
+            fail("Expected ExecutionException");
+        } catch (ExecutionException e) {
+            assertEquals(expectedCause, e.getCause().getClass());
+        }
+    }
+
+}
@@ -16,7 +16,9 @@
 
 package com.google.code.ssm.providers.elasticache;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
@@ -30,6 +32,7 @@ import org.junit.Test;
 
 import com.google.code.ssm.providers.CacheClient;
 import com.google.code.ssm.providers.CacheConfiguration;
+import com.google.code.ssm.providers.PooledCacheClient;
 import com.google.code.ssm.providers.elasticache.MemcacheClientFactoryImpl;
 import com.google.code.ssm.providers.elasticache.ElastiCacheConfiguration;
 
@@ -81,4 +84,15 @@ public class MemcacheClientFactoryImplTest {
         client.shutdown();
     }
 
+    @Test
+    public void createPooled() throws IOException {
+        ElastiCacheConfiguration conf = new ElastiCacheConfiguration();
+        conf.setOperationTimeout(1000);
+        conf.setPoolSize(3);
+        CacheClient client = factory.create(addrs, conf);
+        assertTrue(client instanceof PooledCacheClient);
+        assertEquals(3, ((PooledCacheClient) client).getPoolSize());
+        client.shutdown();
+    }
+
 }
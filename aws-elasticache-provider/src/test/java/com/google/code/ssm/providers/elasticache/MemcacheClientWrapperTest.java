@@ -19,16 +19,25 @@ package com.google.code.ssm.providers.elasticache;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.net.InetSocketAddress;
 import java.net.SocketAddress;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import net.spy.memcached.MemcachedClientIF;
+import net.spy.memcached.MemcachedNode;
+import net.spy.memcached.NodeLocator;
 import net.spy.memcached.transcoders.Transcoder;
 
 import org.easymock.EasyMock;
@@ -99,6 +108,56 @@ public class MemcacheClientWrapperTest {
         EasyMock.verify(client);
     }
 
+    @Test
+    public void deleteCollectionOfString() throws TimeoutException, CacheException {
+        EasyMock.expect(client.delete("key1")).andReturn(getFuture(true));
+        EasyMock.expect(client.delete("key2")).andReturn(getFuture(false));
+        EasyMock.replay(client);
+        pipelinedClientWrapper().delete(Arrays.asList("key1", null, "key2"));
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void deleteCollectionOfStringOneByOne() throws TimeoutException, CacheException {
+        // without pipelining the reply to the first delete is awaited before the next one is sent
+        final AtomicBoolean awaited = new AtomicBoolean();
+        EasyMock.expect(client.delete("key1")).andReturn(new CompletableFuture<Boolean>() {
+
+            @Override
+            public Boolean get() {
+                awaited.set(true);
+                return true;
+            }
+
+            @Override
+            public Boolean get(final long timeout, final TimeUnit unit) {
+                return get();
+            }
+
+        });
+        EasyMock.expect(client.delete("key2")).andAnswer(() -> {
+            assertTrue(awaited.get());
+            return getFuture(true);
+        });
+        EasyMock.replay(client);
+        clientWrapper.delete(Arrays.asList("key1", "key2"));
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void deleteCollectionOfStringWaitsForAllOperations() throws TimeoutException {
+        EasyMock.expect(client.delete("key1")).andReturn(getFailedFuture());
+        EasyMock.expect(client.delete("key2")).andReturn(getFuture(true));
+        EasyMock.replay(client);
+        try {
+            pipelinedClientWrapper().delete(Arrays.asList("key1", "key2"));
+            fail("Expected CacheException");
+        } catch (CacheException e) {
+            assertTrue(e.getCause() instanceof ExecutionException);
+        }
+        EasyMock.verify(client);
+    }
+
     @Test
     public void flush() throws CacheException {
         EasyMock.expect(client.flush()).andReturn(getFuture(true));
@@ -213,6 +272,99 @@ public class MemcacheClientWrapperTest {
         EasyMock.verify(client);
     }
 
+    @Test
+    public void setBulk() throws TimeoutException, CacheException {
+        EasyMock.expect(client.set("key1", 1, "value1")).andReturn(getFuture(true));
+        EasyMock.expect(client.set("key2", 1, "value2")).andReturn(getFuture(true));
+        EasyMock.replay(client);
+        pipelinedClientWrapper().setBulk(getItems(), 1);
+        EasyMock.verify(client);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void setBulkWithTranscoder() throws TimeoutException, CacheException {
+        CacheTranscoder transcoder = EasyMock.createMock(CacheTranscoder.class);
+        EasyMock.expect(client.set(EasyMock.eq("key1"), EasyMock.eq(1), EasyMock.eq("value1"), EasyMock.anyObject(Transcoder.class)))
+                .andReturn(getFuture(true));
+        EasyMock.expect(client.set(EasyMock.eq("key2"), EasyMock.eq(1), EasyMock.eq("value2"), EasyMock.anyObject(Transcoder.class)))
+                .andReturn(getFuture(true));
+        EasyMock.replay(client);
+        pipelinedClientWrapper().setBulk(getItems(), 1, transcoder);
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void setBulkWaitsForAllOperations() throws TimeoutException {
+        EasyMock.expect(client.set("key1", 1, "value1")).andReturn(getFailedFuture());
+        EasyMock.expect(client.set("key2", 1, "value2")).andReturn(getFuture(true));
+        EasyMock.replay(client);
+        try {
+            pipelinedClientWrapper().setBulk(getItems(), 1);
+            fail("Expected CacheException");
+        } catch (CacheException e) {
+            assertTrue(e.getCause() instanceof ExecutionException);
+        }
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void setBulkSharesOneDeadline() throws CacheException {
+        CompletableFuture<Boolean> future1 = new CompletableFuture<Boolean>();
+        CompletableFuture<Boolean> future2 = new CompletableFuture<Boolean>();
+        EasyMock.expect(client.set("key1", 1, "value1")).andReturn(future1);
+        EasyMock.expect(client.set("key2", 1, "value2")).andReturn(future2);
+        EasyMock.replay(client);
+        long start = System.nanoTime();
+        try {
+            new MemcacheClientWrapper(client, true, 300).setBulk(getItems(), 1);
+            fail("Expected TimeoutException");
+        } catch (TimeoutException e) {
+            // expected
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 600);
+        assertTrue(future1.isCancelled());
+        assertTrue(future2.isCancelled());
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void setBulkRestoresInterruptFlag() throws TimeoutException {
+        CompletableFuture<Boolean> future = new CompletableFuture<Boolean>();
+        EasyMock.expect(client.set("key1", 1, "value1")).andReturn(future);
+        EasyMock.replay(client);
+        Thread.currentThread().interrupt();
+        try {
+            pipelinedClientWrapper().setBulk(Collections.singletonMap("key1", "value1"), 1);
+            fail("Expected CacheException");
+        } catch (CacheException e) {
+            assertTrue(e.getCause() instanceof InterruptedException);
+        }
+        assertTrue(Thread.interrupted());
+        assertTrue(future.isCancelled());
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void addBulk() throws TimeoutException, CacheException {
+        EasyMock.expect(client.add("key1", 1, "value1")).andReturn(getFuture(true));
+        EasyMock.expect(client.add("key2", 1, "value2")).andReturn(getFuture(false));
+        EasyMock.replay(client);
+        pipelinedClientWrapper().addBulk(getItems(), 1);
+        EasyMock.verify(client);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void addBulkWithTranscoder() throws TimeoutException, CacheException {
+        CacheTranscoder transcoder = EasyMock.createMock(CacheTranscoder.class);
+        EasyMock.expect(client.add(EasyMock.eq("key1"), EasyMock.eq(1), EasyMock.eq("value1"), EasyMock.anyObject(Transcoder.class)))
+                .andReturn(getFuture(true));
+        EasyMock.replay(client);
+        pipelinedClientWrapper().addBulk(Collections.singletonMap("key1", "value1"), 1, transcoder);
+        EasyMock.verify(client);
+    }
+
     @Test
     public void shutdown() {
         client.shutdown();
@@ -222,6 +374,19 @@ public class MemcacheClientWrapperTest {
         EasyMock.verify(client);
     }
 
+    @Test
+    public void getServer() {
+        NodeLocator locator = EasyMock.createMock(NodeLocator.class);
+        MemcachedNode node = EasyMock.createMock(MemcachedNode.class);
+        SocketAddress server = new InetSocketAddress(11211);
+        EasyMock.expect(client.getNodeLocator()).andReturn(locator);
+        EasyMock.expect(locator.getPrimary("key1")).andReturn(node);
+        EasyMock.expect(node.getSocketAddress()).andReturn(server);
+        EasyMock.replay(client, locator, node);
+        assertSame(server, clientWrapper.getServer("key1"));
+        EasyMock.verify(client, locator, node);
+    }
+
     @Test
     public void getTranscoder() {
         EasyMock.expect(client.getTranscoder()).andReturn(null);
@@ -240,6 +405,23 @@ public class MemcacheClientWrapperTest {
         return EasyMock.createMock(MemcachedClientIF.class);
     }
 
+    private MemcacheClientWrapper pipelinedClientWrapper() {
+        return new MemcacheClientWrapper(client, true);
+    }
+
+    private Map<String, Object> getItems() {
+        Map<String, Object> items = new LinkedHashMap<String, Object>();
+        items.put("key1", "value1");
+        items.put("key2", "value2");
+        return items;
+    }
+
+    private <T> Future<T> getFailedFuture() {
+        CompletableFuture<T> future = new CompletableFuture<T>();
+        future.completeExceptionally(new IllegalStateException("failed"));
+        return future;
+    }
+
     private <T> Future<T> getFuture(final T value) {
         return new Future<T>() {
 
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import net.spy.memcached.CachedData;
+import net.spy.memcached.transcoders.SerializingTranscoder;
+
+import com.google.code.ssm.mapper.JsonObjectMapper;
+import com.google.code.ssm.mapper.SmileObjectMapper;
+import com.google.code.ssm.providers.CacheTranscoder;
+import com.google.code.ssm.providers.CachedObject;
+import com.google.code.ssm.transcoders.BinaryTranscoder;
+import com.google.code.ssm.transcoders.JavaTranscoder;
+import com.google.code.ssm.transcoders.JsonTranscoder;
+import com.google.code.ssm.transcoders.LongToStringTranscoder;
+
+/**
+ * Transcoders compared in benchmarks: transcoders of each {@link com.google.code.ssm.api.format.SerializationType}
+ * and default transcoders of providers ({@link com.google.code.ssm.api.format.SerializationType#PROVIDER}).
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+public enum Codec {
+
+    JAVA {
+        @Override
+        Transcoder create() {
+            return of(new JavaTranscoder());
+        }
+    },
+
+    JAVA_PRIMITIVES {
+        @Override
+        Transcoder create() {
+            final JavaTranscoder transcoder = new JavaTranscoder();
+            transcoder.setPrimitiveEncoding(true);
+            return of(transcoder);
+        }
+    },
+
+    JSON {
+        @Override
+        Transcoder create() {
+            return of(new JsonTranscoder(new JsonObjectMapper()));
+        }
+    },
+
+    JSON_ALIASES {
+        @Override
+        Transcoder create() {
+            final JsonObjectMapper mapper = new JsonObjectMapper();
+            mapper.setClassToId(aliases());
+            return of(new JsonTranscoder(mapper));
+        }
+    },
+
+    JSON_SMILE {
+        @Override
+        Transcoder create() {
+            final SmileObjectMapper smileMapper = new SmileObjectMapper();
+            smileMapper.setClassToId(aliases());
+            final JsonTranscoder transcoder = new JsonTranscoder(new JsonObjectMapper());
+            transcoder.setSmileMapper(smileMapper);
+            transcoder.setWriteSmile(true);
+            return of(transcoder);
+        }
+    },
+
+    BINARY {
+        @Override
+        Transcoder create() {
+            final BinaryTranscoder transcoder = new BinaryTranscoder();
+            final Map<Class<?>, Integer> classToId = new HashMap<Class<?>, Integer>();
+            classToId.put(Order.class, BinaryTranscoder.MIN_CLASS_ID);
+            classToId.put(LineItem.class, BinaryTranscoder.MIN_CLASS_ID + 1);
+            transcoder.setClassToId(classToId);
+            return of(transcoder);
+        }
+    },
+
+    LONG_TO_STRING {
+        @Override
+        Transcoder create() {
+            return of(new LongToStringTranscoder());
+        }
+    },
+
+    SPYMEMCACHED {
+        @Override
+        Transcoder create() {
+            final SerializingTranscoder transcoder = new SerializingTranscoder();
+            return new Transcoder() {
+
+                @Override
+                public Object encode(final Object o) {
+                    return transcoder.encode(o);
+                }
+
+                @Override
+                public Object decode(final Object encoded) {
+                    return transcoder.decode((CachedData) encoded);
+                }
+
+                @Override
+                public int size(final Object encoded) {
+                    return ((CachedData) encoded).getData().length;
+                }
+
+            };
+        }
+    },
+
+    XMEMCACHED {
+        @Override
+        Transcoder create() {
+            final net.rubyeye.xmemcached.transcoders.SerializingTranscoder transcoder =
+                    new net.rubyeye.xmemcached.transcoders.SerializingTranscoder();
+            return new Transcoder() {
+
+                @Override
+                public Object encode(final Object o) {
+                    return transcoder.encode(o);
+                }
+
+                @Override
+                public Object decode(final Object encoded) {
+                    return transcoder.decode((net.rubyeye.xmemcached.transcoders.CachedData) encoded);
+                }
+
+                @Override
+                public int size(final Object encoded) {
+                    return ((net.rubyeye.xmemcached.transcoders.CachedData) encoded).getData().length;
+                }
+
+            };
+        }
+    };
+
+    /**
+     * Common view of transcoders with different APIs.
+     */
+    public interface Transcoder {
+
+        Object encode(Object o);
+
+        Object decode(Object encoded);
+
+        int size(Object encoded);
+
+    }
+
+    /**
+     * 
+     * @return new transcoder
+     */
+    abstract Transcoder create();
+
+    private static Map<Class<?>, String> aliases() {
+        final Map<Class<?>, String> classToId = new HashMap<Class<?>, String>();
+        classToId.put(Order.class, "O");
+        classToId.put(LineItem.class, "L");
+        return classToId;
+    }
+
+    private static Transcoder of(final CacheTranscoder transcoder) {
+        return new Transcoder() {
+
+            @Override
+            public Object encode(final Object o) {
+                return transcoder.encode(o);
+            }
+
+            @Override
+            public Object decode(final Object encoded) {
+                return transcoder.decode((CachedObject) encoded);
+            }
+
+            @Override
+            public int size(final Object encoded) {
+                return ((CachedObject) encoded).getLength();
+            }
+
+        };
+    }
+
+}
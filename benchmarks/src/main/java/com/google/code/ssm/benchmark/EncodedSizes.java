@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.benchmark;
+
+/**
+ * Prints size in bytes of each {@link Payload} encoded by each {@link Codec}, the size doesn't depend on time so it
+ * isn't measured by JMH. Run with <code>java -cp benchmarks/target/benchmarks.jar com.google.code.ssm.benchmark.EncodedSizes</code>.
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+public final class EncodedSizes {
+
+    private EncodedSizes() {
+
+    }
+
+    public static void main(final String[] args) {
+        final StringBuilder header = new StringBuilder(String.format("%-18s", "payload"));
+        for (Codec codec : Codec.values()) {
+            header.append(String.format("%18s", codec));
+        }
+        System.out.println(header);
+
+        for (Payload payload : Payload.values()) {
+            final StringBuilder row = new StringBuilder(String.format("%-18s", payload));
+            final Object value = payload.create();
+            for (Codec codec : Codec.values()) {
+                row.append(String.format("%18s", size(codec, value)));
+            }
+            System.out.println(row);
+        }
+    }
+
+    private static String size(final Codec codec, final Object value) {
+        try {
+            final Codec.Transcoder transcoder = codec.create();
+            return String.valueOf(transcoder.size(transcoder.encode(value)));
+        } catch (RuntimeException e) {
+            // the codec doesn't support this payload
+            return "-";
+        }
+    }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Shapes of cached values used in benchmarks. Values are generated from fixed seed so each run uses the same data.
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+public enum Payload {
+
+    /**
+     * Single order with two items.
+     */
+    SMALL_POJO {
+        @Override
+        Object create(final Random random) {
+            return order(random, 2);
+        }
+    },
+
+    /**
+     * List of 50 orders, each with 20 items.
+     */
+    NESTED_LISTS {
+        @Override
+        Object create(final Random random) {
+            final List<Order> orders = new ArrayList<Order>();
+            for (int i = 0; i < 50; i++) {
+                orders.add(order(random, 20));
+            }
+            return orders;
+        }
+    },
+
+    /**
+     * 1 MB of random, incompressible bytes.
+     */
+    BLOB_1MB {
+        @Override
+        Object create(final Random random) {
+            final byte[] blob = new byte[1024 * 1024];
+            random.nextBytes(blob);
+            return blob;
+        }
+    },
+
+    /**
+     * About 64 KB of text made of few words, compresses well.
+     */
+    COMPRESSIBLE_TEXT {
+        @Override
+        Object create(final Random random) {
+            final StringBuilder sb = new StringBuilder();
+            while (sb.length() < 64 * 1024) {
+                sb.append(WORDS.get(random.nextInt(WORDS.size()))).append(' ');
+            }
+            return sb.toString();
+        }
+    },
+
+    /**
+     * Single counter value.
+     */
+    LONG {
+        @Override
+        Object create(final Random random) {
+            return random.nextLong();
+        }
+    };
+
+    private static final List<String> WORDS = Arrays.asList("memcached", "cache", "key", "value", "expiration", "namespace",
+            "serialization", "transcoder", "provider", "spring");
+
+    private static final long SEED = 42;
+
+    private static final long CREATED = 1546300800000L;
+
+    /**
+     * 
+     * @return the value of this shape
+     */
+    public Object create() {
+        return create(new Random(SEED));
+    }
+
+    abstract Object create(Random random);
+
+    private static Order order(final Random random, final int items) {
+        final List<LineItem> lines = new ArrayList<LineItem>();
+        for (int i = 0; i < items; i++) {
+            lines.add(new LineItem("SKU-" + random.nextInt(100000), 1 + random.nextInt(10), random.nextInt(100000) / 100.0));
+        }
+        return new Order(random.nextLong(), "customer-" + random.nextInt(1000), CREATED + random.nextInt(1000000), new ArrayList<String>(
+                Arrays.asList("priority", "gift")), lines);
+    }
+
+}
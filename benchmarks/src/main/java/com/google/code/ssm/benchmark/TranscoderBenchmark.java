@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of encoding and decoding each {@link Payload} by each {@link Codec}. Build the benchmarks with
+ * <code>mvn -pl benchmarks -am package</code> and run them with <code>java -jar benchmarks/target/benchmarks.jar</code>,
+ * add <code>-prof gc</code> to report allocation per operation. Sizes of encoded values are printed by
+ * {@link EncodedSizes}.
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TranscoderBenchmark {
+
+    @Param({ "JAVA", "JAVA_PRIMITIVES", "JSON", "JSON_ALIASES", "JSON_SMILE", "BINARY", "SPYMEMCACHED", "XMEMCACHED" })
+    private Codec codec;
+
+    @Param({ "SMALL_POJO", "NESTED_LISTS", "BLOB_1MB", "COMPRESSIBLE_TEXT" })
+    private Payload payload;
+
+    private Codec.Transcoder transcoder;
+
+    private Object value;
+
+    private Object encoded;
+
+    @Setup
+    public void setUp() {
+        transcoder = codec.create();
+        value = payload.create();
+        encoded = transcoder.encode(value);
+    }
+
+    @Benchmark
+    public Object encode() {
+        return transcoder.encode(value);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return transcoder.decode(encoded);
+    }
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import com.google.code.ssm.api.format.SerializationType;
+import com.google.code.ssm.providers.CacheException;
+
+/**
+ * Non blocking view of {@link Cache}, allows to issue several cache operations (or cache and database calls)
+ * concurrently. Returned futures are completed exceptionally with {@link CacheException} or {@link TimeoutException}
+ * if operation fails.
+ *
+ * @author Jakub Białek
+ * @since 4.1.4
+ *
+ */
+public interface AsyncCache {
+
+    /**
+     * Adds value to cache if there isn't any value under given key.
+     *
+     * @param key
+     *            the key
+     * @param expiration
+     *            expiration time in seconds as defined in memcached specification
+     * @param value
+     *            the value
+     * @param serializationType
+     *            the type of serialization to use
+     * @return future completed with true if value has been added
+     */
+    CompletableFuture<Boolean> add(final String key, final int expiration, final Object value, final SerializationType serializationType);
+
+    /**
+     * Decrements counter in cache by given value.
+     *
+     * @param key
+     *            the key
+     * @param by
+     *            decrement value
+     * @return future completed with new value of counter or -1 if counter doesn't exist
+     */
+    CompletableFuture<Long> decr(final String key, final int by);
+
+    /**
+     * Deletes value under given key.
+     *
+     * @param key
+     *            the key
+     * @return future completed with true if value has been deleted
+     */
+    CompletableFuture<Boolean> delete(final String key);
+
+    /**
+     * Get value by key.
+     *
+     * @param <T>
+     * @param key
+     *            the key
+     * @param serializationType
+     *            the type of serialization to use
+     * @return future completed with value associated with given key or null
+     */
+    <T> CompletableFuture<T> get(final String key, final SerializationType serializationType);
+
+    /**
+     * Get values by keys.
+     *
+     * @param keys
+     *            the keys
+     * @param serializationType
+     *            the type of serialization to use
+     * @return future completed with map containing only found keys and their values
+     */
+    CompletableFuture<Map<String, Object>> getBulk(final Collection<String> keys, final SerializationType serializationType);
+
+    /**
+     * Increments counter in cache by given value.
+     *
+     * @param key
+     *            the key
+     * @param by
+     *            increment value
+     * @param def
+     *            initial value
+     * @return future completed with new value of counter
+     */
+    CompletableFuture<Long> incr(final String key, final int by, final long def);
+
+    /**
+     * Increments counter in cache by given value.
+     *
+     * @param key
+     *            the key
+     * @param by
+     *            increment value
+     * @param def
+     *            initial value
+     * @param expiration
+     *            expiration time in seconds as defined in memcached specification
+     * @return future completed with new value of counter
+     */
+    CompletableFuture<Long> incr(final String key, final int by, final long def, final int expiration);
+
+    /**
+     * Stores value in cache.
+     *
+     * @param key
+     *            the key
+     * @param expiration
+     *            expiration time in seconds as defined in memcached specification
+     * @param value
+     *            the value
+     * @param serializationType
+     *            the type of serialization to use
+     * @return future completed with true if value has been stored
+     */
+    CompletableFuture<Boolean> set(final String key, final int expiration, final Object value, final SerializationType serializationType);
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import com.google.code.ssm.api.format.SerializationType;
+import com.google.code.ssm.providers.CacheException;
+
+/**
+ * Default {@link AsyncCache} of caches that don't support non blocking operations. Operations are executed
+ * synchronously in the calling thread and returned futures are already completed.
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+final class BlockingAsyncCache implements AsyncCache {
+
+    private final Cache cache;
+
+    BlockingAsyncCache(final Cache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> add(final String key, final int expiration, final Object value,
+            final SerializationType serializationType) {
+        return execute(() -> cache.add(key, expiration, value, serializationType));
+    }
+
+    @Override
+    public CompletableFuture<Long> decr(final String key, final int by) {
+        return execute(() -> cache.decr(key, by));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> delete(final String key) {
+        return execute(() -> cache.delete(key));
+    }
+
+    @Override
+    public <T> CompletableFuture<T> get(final String key, final SerializationType serializationType) {
+        return execute(() -> cache.<T> get(key, serializationType));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> getBulk(final Collection<String> keys, final SerializationType serializationType) {
+        return execute(() -> cache.getBulk(keys, serializationType));
+    }
+
+    @Override
+    public CompletableFuture<Long> incr(final String key, final int by, final long def) {
+        return execute(() -> cache.incr(key, by, def));
+    }
+
+    @Override
+    public CompletableFuture<Long> incr(final String key, final int by, final long def, final int expiration) {
+        return execute(() -> cache.incr(key, by, def, expiration));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> set(final String key, final int expiration, final Object value,
+            final SerializationType serializationType) {
+        return execute(() -> {
+            cache.set(key, expiration, value, serializationType);
+            return true;
+        });
+    }
+
+    private static <T> CompletableFuture<T> execute(final Call<T> call) {
+        final CompletableFuture<T> future = new CompletableFuture<T>();
+        try {
+            future.complete(call.call());
+        } catch (TimeoutException | CacheException | RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private interface Call<T> {
+
+        T call() throws TimeoutException, CacheException;
+
+    }
+
+}
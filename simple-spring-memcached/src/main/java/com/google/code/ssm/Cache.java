@@ -17,6 +17,7 @@
 
 package com.google.code.ssm;
 
+import java.lang.reflect.Type;
 import java.net.SocketAddress;
 import java.util.Collection;
 import java.util.Map;
@@ -154,6 +155,27 @@ public interface Cache {
      */
     <T> T get(final String key, final SerializationType serializationType) throws TimeoutException, CacheException;
 
+    /**
+     * Get value of known type by key. The type allows serializations supporting it to skip type information and to
+     * reuse readers of the type.
+     * 
+     * @param <T>
+     * @param key
+     *            the key
+     * @param serializationType
+     *            the type of serialization to use
+     * @param type
+     *            the type of value or null if unknown
+     * @return value associated with given key or null
+     * @throws TimeoutException
+     * @throws CacheException
+     * @since 4.1.4
+     */
+    default <T> T get(final String key, final SerializationType serializationType, final Type type) throws TimeoutException,
+            CacheException {
+        return get(key, serializationType);
+    }
+
     Map<String, Object> getBulk(final Collection<String> keys, final SerializationType serializationType)
             throws TimeoutException, CacheException;
 
@@ -207,6 +229,29 @@ public interface Cache {
     <T> void set(final String key, final int expiration, final Object value, final SerializationType serializationType)
             throws TimeoutException, CacheException;
 
+    /**
+     * Store key-value item of known type to memcached.
+     * 
+     * @param <T>
+     * @param key
+     *            stored key
+     * @param expiration
+     *            expiration time in seconds as defined in memcached specification
+     * @param value
+     *            stored data
+     * @param serializationType
+     *            the type of serialization to use
+     * @param type
+     *            the type of value or null if unknown
+     * @throws TimeoutException
+     * @throws CacheException
+     * @since 4.1.4
+     */
+    default <T> void set(final String key, final int expiration, final Object value, final SerializationType serializationType,
+            final Type type) throws TimeoutException, CacheException {
+        set(key, expiration, value, serializationType);
+    }
+
     /**
      * Store key-value item to memcached. Mute some exceptions.
      * 
@@ -224,6 +269,83 @@ public interface Cache {
      */
     <T> void setSilently(final String key, final int expiration, final Object value, final SerializationType serializationType);
 
+    /**
+     * Stores all key-value items in memcached. Depending on the provider items are pipelined so storing many items
+     * doesn't require a round-trip per item. By default items are stored one by one.
+     * 
+     * @param items
+     *            the items to store, cache key to value
+     * @param expiration
+     *            expiration time in seconds as defined in memcached specification
+     * @param serializationType
+     *            the type of serialization to use
+     * @throws TimeoutException
+     * @throws CacheException
+     * @since 4.1.4
+     */
+    default void setBulk(final Map<String, ?> items, final int expiration, final SerializationType serializationType)
+            throws TimeoutException, CacheException {
+        for (final Map.Entry<String, ?> entry : items.entrySet()) {
+            set(entry.getKey(), expiration, entry.getValue(), serializationType);
+        }
+    }
+
+    /**
+     * Stores all key-value items in memcached. Mute some exceptions.
+     * 
+     * @param items
+     *            the items to store, cache key to value
+     * @param expiration
+     *            expiration time in seconds as defined in memcached specification
+     * @param serializationType
+     *            the type of serialization to use
+     * @since 4.1.4
+     */
+    default void setBulkSilently(final Map<String, ?> items, final int expiration, final SerializationType serializationType) {
+        for (final Map.Entry<String, ?> entry : items.entrySet()) {
+            setSilently(entry.getKey(), expiration, entry.getValue(), serializationType);
+        }
+    }
+
+    /**
+     * Adds all key-value items to cache, items under keys that already exist are not modified. By default items are
+     * added one by one.
+     * 
+     * @param items
+     *            the items to add, cache key to value
+     * @param expiration
+     *            expiration time in seconds as defined in memcached specification
+     * @param serializationType
+     *            the type of serialization to use
+     * @throws TimeoutException
+     * @throws CacheException
+     * @since 4.1.4
+     */
+    default void addBulk(final Map<String, ?> items, final int expiration, final SerializationType serializationType)
+            throws TimeoutException, CacheException {
+        for (final Map.Entry<String, ?> entry : items.entrySet()) {
+            add(entry.getKey(), expiration, entry.getValue(), serializationType);
+        }
+    }
+
+    /**
+     * Adds all key-value items to cache, items under keys that already exist are not modified. Some exceptions are
+     * muted by this method.
+     * 
+     * @param items
+     *            the items to add, cache key to value
+     * @param expiration
+     *            expiration time in seconds as defined in memcached specification
+     * @param serializationType
+     *            the type of serialization to use
+     * @since 4.1.4
+     */
+    default void addBulkSilently(final Map<String, ?> items, final int expiration, final SerializationType serializationType) {
+        for (final Map.Entry<String, ?> entry : items.entrySet()) {
+            addSilently(entry.getKey(), expiration, entry.getValue(), serializationType);
+        }
+    }
+
     /**
      * Gets counter from cache without incrementing.
      * 
@@ -248,6 +370,17 @@ public interface Cache {
      */
     void setCounter(final String key, final int expiration, final long value) throws TimeoutException, CacheException;
 
+    /**
+     * Gets non blocking view of this cache. Operations on returned cache use the same memcached client. By default
+     * operations are executed synchronously in the calling thread and returned futures are already completed.
+     * 
+     * @return the asynchronous cache
+     * @since 4.1.4
+     */
+    default AsyncCache getAsyncCache() {
+        return new BlockingAsyncCache(this);
+    }
+
     /**
      * Shutdowns cache.
      */
@@ -47,6 +47,7 @@ import com.google.code.ssm.providers.CacheClient;
 import com.google.code.ssm.providers.CacheClientFactory;
 import com.google.code.ssm.providers.CacheConfiguration;
 import com.google.code.ssm.providers.CacheTranscoder;
+import com.google.code.ssm.transcoders.BinaryTranscoder;
 import com.google.code.ssm.transcoders.JavaTranscoder;
 import com.google.code.ssm.transcoders.JsonTranscoder;
 
@@ -91,6 +92,12 @@ public class CacheFactory implements AddressChangeListener, FactoryBean<Cache>,
     @Setter
     private JavaTranscoder javaTranscoder;
 
+    /**
+     * @since 4.1.4
+     */
+    @Setter
+    private BinaryTranscoder binaryTranscoder;
+
     @Setter
     private CacheTranscoder customTranscoder;
 
@@ -115,10 +122,14 @@ public class CacheFactory implements AddressChangeListener, FactoryBean<Cache>,
             if (javaTranscoder == null) {
                 javaTranscoder = new JavaTranscoder();
             }
+            if (binaryTranscoder == null) {
+                binaryTranscoder = new BinaryTranscoder();
+            }
         }
 
         validateTranscoder(SerializationType.JSON, jsonTranscoder, "jsonTranscoder");
         validateTranscoder(SerializationType.JAVA, javaTranscoder, "javaTranscoder");
+        validateTranscoder(SerializationType.BINARY, binaryTranscoder, "binaryTranscoder");
         validateTranscoder(SerializationType.CUSTOM, customTranscoder, "customTranscoder");
 
         if (addressChangeNotifier != null) {
@@ -156,7 +167,8 @@ public class CacheFactory implements AddressChangeListener, FactoryBean<Cache>,
             return;
         }
 
-        if (!(cache instanceof CacheImpl)) {
+        final Cache remoteCache = (cache instanceof NearCacheImpl) ? ((NearCacheImpl) cache).getCache() : cache;
+        if (!(remoteCache instanceof CacheImpl)) {
             LOGGER.warn("This client doesn't support changing memcached addresses on the fly");
             return;
         }
@@ -165,7 +177,10 @@ public class CacheFactory implements AddressChangeListener, FactoryBean<Cache>,
             LOGGER.info("Creating new memcached client for cache {} with new addresses: {}", cacheName, addresses);
             CacheClient memcacheClient = createClient(addresses);
             LOGGER.info("New memcached client for cache {} was created with addresses: {}", cacheName, addresses);
-            ((CacheImpl)cache).changeCacheClient(memcacheClient);
+            ((CacheImpl) remoteCache).changeCacheClient(memcacheClient);
+            if (cache instanceof NearCacheImpl) {
+                ((NearCacheImpl) cache).invalidateAll();
+            }
         } catch (IOException e) {
             if (LOGGER.isErrorEnabled()) {
                 LOGGER.error(String.format("Cannot change memcached client to new one with addresses %s", addresses), e);
@@ -199,7 +214,13 @@ public class CacheFactory implements AddressChangeListener, FactoryBean<Cache>,
 
         List<InetSocketAddress> addrs = addressProvider.getAddresses();
         cache = new CacheImpl(cacheName, cacheAliases, createClient(addrs), defaultSerializationType, jsonTranscoder, javaTranscoder,
-                customTranscoder, new CacheProperties(configuration.isUseNameAsKeyPrefix(), configuration.getKeyPrefixSeparator()));
+                binaryTranscoder, customTranscoder,
+                new CacheProperties(configuration.isUseNameAsKeyPrefix(), configuration.getKeyPrefixSeparator()));
+
+        if (configuration.getNearCacheMaxSize() > 0) {
+            LOGGER.info("Near cache with max size {} is enabled for cache {}", configuration.getNearCacheMaxSize(), cacheName);
+            cache = new NearCacheImpl(cache, configuration.getNearCacheMaxSize(), configuration.getNearCacheExpiration());
+        }
 
         return cache;
     }
@@ -17,9 +17,11 @@
 
 package com.google.code.ssm;
 
+import java.lang.reflect.Type;
 import java.net.SocketAddress;
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeoutException;
 
 import lombok.Getter;
@@ -29,9 +31,11 @@ import org.slf4j.LoggerFactory;
 import org.springframework.util.Assert;
 
 import com.google.code.ssm.api.format.SerializationType;
+import com.google.code.ssm.providers.AsyncCacheClient;
 import com.google.code.ssm.providers.CacheClient;
 import com.google.code.ssm.providers.CacheException;
 import com.google.code.ssm.providers.CacheTranscoder;
+import com.google.code.ssm.transcoders.BinaryTranscoder;
 import com.google.code.ssm.transcoders.JavaTranscoder;
 import com.google.code.ssm.transcoders.JsonTranscoder;
 import com.google.code.ssm.transcoders.LongToStringTranscoder;
@@ -61,15 +65,19 @@ class CacheImpl implements Cache {
 
     private final JavaTranscoder javaTranscoder;
 
+    private final BinaryTranscoder binaryTranscoder;
+
     private final LongToStringTranscoder longToStringTranscoder = new LongToStringTranscoder();
 
     private final CacheTranscoder customTranscoder;
 
     private volatile CacheClient cacheClient;
 
+    private final AsyncCache asyncCache = new AsyncCacheImpl();
+
     CacheImpl(final String name, final Collection<String> aliases, final CacheClient cacheClient,
             final SerializationType defaultSerializationType, final JsonTranscoder jsonTranscoder, final JavaTranscoder javaTranscoder,
-            final CacheTranscoder customTranscoder, final CacheProperties properties) {
+            final BinaryTranscoder binaryTranscoder, final CacheTranscoder customTranscoder, final CacheProperties properties) {
         Assert.hasText(name, "'name' must not be null, empty, or blank");
         Assert.notNull(aliases, "'aliases' cannot be null");
         Assert.notNull(cacheClient, "'cacheClient' cannot be null");
@@ -77,6 +85,7 @@ class CacheImpl implements Cache {
         Assert.notNull(properties, "'cacheProperties' cannot be null");
         validateTranscoder(SerializationType.JSON, jsonTranscoder, "jsonTranscoder");
         validateTranscoder(SerializationType.JAVA, javaTranscoder, "javaTranscoder");
+        validateTranscoder(SerializationType.BINARY, binaryTranscoder, "binaryTranscoder");
         validateTranscoder(SerializationType.CUSTOM, customTranscoder, "customTranscoder");
 
         this.name = name;
@@ -85,8 +94,10 @@ class CacheImpl implements Cache {
         this.defaultSerializationType = defaultSerializationType;
         this.jsonTranscoder = jsonTranscoder;
         this.javaTranscoder = javaTranscoder;
+        this.binaryTranscoder = binaryTranscoder;
         this.customTranscoder = customTranscoder;
         this.properties = properties;
+        registerTranscoders(cacheClient);
     }
 
     @Override
@@ -103,9 +114,11 @@ class CacheImpl implements Cache {
         case JSON:
             return get(cacheKey, SerializationType.JSON, jsonTranscoder);
         case PROVIDER:
-            return get(cacheKey, SerializationType.PROVIDER, null);
+            return get(cacheKey, SerializationType.PROVIDER, (CacheTranscoder) null);
         case CUSTOM:
             return get(cacheKey, SerializationType.CUSTOM, customTranscoder);
+        case BINARY:
+            return get(cacheKey, SerializationType.BINARY, binaryTranscoder);
         default:
             throw new IllegalArgumentException(String.format("Serialization type %s is not supported", serializationType));
         }
@@ -125,16 +138,40 @@ class CacheImpl implements Cache {
             set(cacheKey, expiration, (T) value, SerializationType.JSON, jsonTranscoder);
             break;
         case PROVIDER:
-            set(cacheKey, expiration, (T) value, SerializationType.PROVIDER, null);
+            set(cacheKey, expiration, (T) value, SerializationType.PROVIDER, (CacheTranscoder) null);
             break;
         case CUSTOM:
             set(cacheKey, expiration, (T) value, SerializationType.CUSTOM, customTranscoder);
             break;
+        case BINARY:
+            set(cacheKey, expiration, (T) value, SerializationType.BINARY, binaryTranscoder);
+            break;
         default:
             throw new IllegalArgumentException(String.format("Serialization type %s is not supported", serializationType));
         }
     }
 
+    @Override
+    public <T> T get(final String cacheKey, final SerializationType serializationType, final Type type) throws TimeoutException,
+            CacheException {
+        if (type == null || getSerializationType(serializationType) != SerializationType.JSON) {
+            return get(cacheKey, serializationType);
+        }
+
+        return get(cacheKey, SerializationType.JSON, jsonTranscoder.forType(type));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> void set(final String cacheKey, final int expiration, final Object value, final SerializationType serializationType,
+            final Type type) throws TimeoutException, CacheException {
+        if (type == null || getSerializationType(serializationType) != SerializationType.JSON) {
+            set(cacheKey, expiration, value, serializationType);
+        } else {
+            set(cacheKey, expiration, (T) value, SerializationType.JSON, jsonTranscoder.forType(type));
+        }
+    }
+
     @Override
     public <T> void setSilently(final String cacheKey, final int expiration, final Object value, final SerializationType serializationType) {
         try {
@@ -164,6 +201,9 @@ class CacheImpl implements Cache {
         case CUSTOM:
             added = add(cacheKey, expiration, value, SerializationType.CUSTOM, customTranscoder);
             break;
+        case BINARY:
+            added = add(cacheKey, expiration, value, SerializationType.BINARY, binaryTranscoder);
+            break;
         default:
             throw new IllegalArgumentException(String.format("Serialization type %s is not supported", serializationType));
         }
@@ -184,6 +224,50 @@ class CacheImpl implements Cache {
         return false;
     }
 
+    @Override
+    public void setBulk(final Map<String, ?> items, final int expiration, final SerializationType serializationType)
+            throws TimeoutException, CacheException {
+        final CacheTranscoder cacheTranscoder = getCacheTranscoder(serializationType);
+        if (cacheTranscoder == null) {
+            cacheClient.setBulk(items, expiration);
+        } else {
+            cacheClient.setBulk(items, expiration, cacheTranscoder);
+        }
+    }
+
+    @Override
+    public void setBulkSilently(final Map<String, ?> items, final int expiration, final SerializationType serializationType) {
+        try {
+            setBulk(items, expiration, serializationType);
+        } catch (TimeoutException e) {
+            warn(e, "Cannot set on keys %s", items.keySet());
+        } catch (CacheException e) {
+            warn(e, "Cannot set on keys %s", items.keySet());
+        }
+    }
+
+    @Override
+    public void addBulk(final Map<String, ?> items, final int expiration, final SerializationType serializationType)
+            throws TimeoutException, CacheException {
+        final CacheTranscoder cacheTranscoder = getCacheTranscoder(serializationType);
+        if (cacheTranscoder == null) {
+            cacheClient.addBulk(items, expiration);
+        } else {
+            cacheClient.addBulk(items, expiration, cacheTranscoder);
+        }
+    }
+
+    @Override
+    public void addBulkSilently(final Map<String, ?> items, final int expiration, final SerializationType serializationType) {
+        try {
+            addBulk(items, expiration, serializationType);
+        } catch (TimeoutException e) {
+            warn(e, "Cannot add to keys %s", items.keySet());
+        } catch (CacheException e) {
+            warn(e, "Cannot add to keys %s", items.keySet());
+        }
+    }
+
     @Override
     public Map<String, Object> getBulk(final Collection<String> keys, final SerializationType serializationType) throws TimeoutException,
             CacheException {
@@ -197,6 +281,8 @@ class CacheImpl implements Cache {
             return getBulk(keys, SerializationType.PROVIDER, null);
         case CUSTOM:
             return getBulk(keys, SerializationType.CUSTOM, customTranscoder);
+        case BINARY:
+            return getBulk(keys, SerializationType.BINARY, binaryTranscoder);
         default:
             throw new IllegalArgumentException(String.format("Serialization type %s is not supported", serializationType));
         }
@@ -247,6 +333,11 @@ class CacheImpl implements Cache {
         cacheClient.set(cacheKey, expiration, value, longToStringTranscoder);
     }
 
+    @Override
+    public AsyncCache getAsyncCache() {
+        return asyncCache;
+    }
+
     @Override
     public void shutdown() {
         cacheClient.shutdown();
@@ -261,6 +352,7 @@ class CacheImpl implements Cache {
         if (newCacheClient != null) {
             LOGGER.info("Replacing the cache client");
             CacheClient oldCacheClient = cacheClient;
+            registerTranscoders(newCacheClient);
             cacheClient = newCacheClient;
             LOGGER.info("Cache client replaced");
             LOGGER.info("Closing old cache client");
@@ -269,6 +361,15 @@ class CacheImpl implements Cache {
         }
     }
 
+    private void registerTranscoders(final CacheClient client) {
+        for (CacheTranscoder transcoder : new CacheTranscoder[] { jsonTranscoder, javaTranscoder, binaryTranscoder, customTranscoder,
+                longToStringTranscoder }) {
+            if (transcoder != null) {
+                client.registerTranscoder(transcoder);
+            }
+        }
+    }
+
     @SuppressWarnings("unchecked")
     private <T> T get(final String cacheKey, final SerializationType serializationType, final CacheTranscoder cacheTranscoder)
             throws TimeoutException, CacheException {
@@ -327,6 +428,38 @@ class CacheImpl implements Cache {
         return cacheClient.getBulk(keys, cacheTranscoder);
     }
 
+    /**
+     * Gets transcoder dedicated to given serialization type or null if {@link SerializationType#PROVIDER} is used.
+     */
+    private CacheTranscoder getCacheTranscoder(final SerializationType serializationType) {
+        final CacheTranscoder cacheTranscoder;
+        switch (getSerializationType(serializationType)) {
+        case JAVA:
+            cacheTranscoder = javaTranscoder;
+            break;
+        case JSON:
+            cacheTranscoder = jsonTranscoder;
+            break;
+        case PROVIDER:
+            return null;
+        case CUSTOM:
+            cacheTranscoder = customTranscoder;
+            break;
+        case BINARY:
+            cacheTranscoder = binaryTranscoder;
+            break;
+        default:
+            throw new IllegalArgumentException(String.format("Serialization type %s is not supported", serializationType));
+        }
+
+        if (cacheTranscoder == null) {
+            throw new IllegalArgumentException(String.format("Cannot use %s serialization because dedicated cache transcoder is null!",
+                    getSerializationType(serializationType)));
+        }
+
+        return cacheTranscoder;
+    }
+
     private SerializationType getSerializationType(final SerializationType serializationType) {
         return (serializationType != null) ? serializationType : defaultSerializationType;
     }
@@ -345,4 +478,100 @@ class CacheImpl implements Cache {
         }
     }
 
+    /**
+     * Always uses current cache client so it's not affected by {@link CacheImpl#changeCacheClient(CacheClient)}.
+     */
+    private class AsyncCacheImpl implements AsyncCache {
+
+        @Override
+        public CompletableFuture<Boolean> add(final String cacheKey, final int expiration, final Object value,
+                final SerializationType serializationType) {
+            return execute(serializationType, (asyncClient, cacheTranscoder) -> {
+                if (cacheTranscoder == null) {
+                    return asyncClient.add(cacheKey, expiration, value);
+                }
+
+                return asyncClient.add(cacheKey, expiration, value, cacheTranscoder);
+            });
+        }
+
+        @Override
+        public CompletableFuture<Long> decr(final String cacheKey, final int by) {
+            return cacheClient.getAsyncClient().decr(cacheKey, by);
+        }
+
+        @Override
+        public CompletableFuture<Boolean> delete(final String cacheKey) {
+            return cacheClient.getAsyncClient().delete(cacheKey);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> CompletableFuture<T> get(final String cacheKey, final SerializationType serializationType) {
+            return execute(serializationType, (asyncClient, cacheTranscoder) -> {
+                if (cacheTranscoder == null) {
+                    return (CompletableFuture<T>) (CompletableFuture<?>) asyncClient.get(cacheKey);
+                }
+
+                return asyncClient.<T> get(cacheKey, cacheTranscoder);
+            });
+        }
+
+        @Override
+        public CompletableFuture<Map<String, Object>> getBulk(final Collection<String> keys, final SerializationType serializationType) {
+            return execute(serializationType, (asyncClient, cacheTranscoder) -> {
+                if (cacheTranscoder == null) {
+                    return asyncClient.getBulk(keys);
+                }
+
+                return asyncClient.<Object> getBulk(keys, cacheTranscoder);
+            });
+        }
+
+        @Override
+        public CompletableFuture<Long> incr(final String cacheKey, final int by, final long def) {
+            return cacheClient.getAsyncClient().incr(cacheKey, by, def);
+        }
+
+        @Override
+        public CompletableFuture<Long> incr(final String cacheKey, final int by, final long def, final int expiration) {
+            return cacheClient.getAsyncClient().incr(cacheKey, by, def, expiration);
+        }
+
+        @Override
+        public CompletableFuture<Boolean> set(final String cacheKey, final int expiration, final Object value,
+                final SerializationType serializationType) {
+            return execute(serializationType, (asyncClient, cacheTranscoder) -> {
+                if (cacheTranscoder == null) {
+                    return asyncClient.set(cacheKey, expiration, value);
+                }
+
+                return asyncClient.set(cacheKey, expiration, value, cacheTranscoder);
+            });
+        }
+
+        /**
+         * Unsupported serialization type or missing transcoder is reported by returned future, not thrown.
+         */
+        private <T> CompletableFuture<T> execute(final SerializationType serializationType, final AsyncOperation<T> operation) {
+            final CacheTranscoder cacheTranscoder;
+            try {
+                cacheTranscoder = getCacheTranscoder(serializationType);
+            } catch (IllegalArgumentException e) {
+                final CompletableFuture<T> failed = new CompletableFuture<T>();
+                failed.completeExceptionally(e);
+                return failed;
+            }
+
+            return operation.execute(cacheClient.getAsyncClient(), cacheTranscoder);
+        }
+
+    }
+
+    private interface AsyncOperation<T> {
+
+        CompletableFuture<T> execute(AsyncCacheClient asyncClient, CacheTranscoder cacheTranscoder);
+
+    }
+
 }
@@ -0,0 +1,632 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm;
+
+import java.lang.reflect.Type;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.util.Assert;
+
+import com.google.code.ssm.api.format.SerializationType;
+import com.google.code.ssm.providers.CacheException;
+
+/**
+ * Keeps recently read values in local memory in front of memcached. Local entries expire after configured time which
+ * should be short as memcached doesn't return remaining expiration of read values. If the value has been stored through
+ * this cache, the local entry expires not later than the value in memcached. The least recently used entries are
+ * evicted if the limit of entries is exceeded. Keys are invalidated locally on each modification made through this
+ * cache (also by Update* and Invalidate* advices), modifications made by other nodes are visible after local
+ * expiration. A value read from memcached isn't stored locally if the key has been invalidated during the read. Values
+ * are returned to callers without copying so only immutable objects should be cached in caches with near cache
+ * enabled.
+ *
+ * @author Jakub Białek
+ * @since 4.1.4
+ *
+ */
+public class NearCacheImpl implements Cache {
+
+    private static final int SEGMENTS = 16;
+
+    private static final int MAX_RELATIVE_EXPIRATION = 60 * 60 * 24 * 30;
+
+    private final Cache cache;
+
+    private final long ttlNanos;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    private final AsyncCache asyncCache = new NearAsyncCacheImpl();
+
+    /**
+     *
+     * @param cache
+     *            the remote cache
+     * @param maxSize
+     *            the maximum number of locally stored values
+     * @param ttl
+     *            time in seconds after which local values expire
+     */
+    public NearCacheImpl(final Cache cache, final int maxSize, final int ttl) {
+        Assert.notNull(cache, "'cache' cannot be null");
+        Assert.isTrue(maxSize > 0, "'maxSize' must be positive");
+        Assert.isTrue(ttl > 0, "'ttl' must be positive");
+
+        this.cache = cache;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttl);
+        final int segmentSize = Math.max(1, (maxSize + SEGMENTS - 1) / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(segmentSize);
+        }
+    }
+
+    /**
+     *
+     * @return the remote cache
+     */
+    public Cache getCache() {
+        return cache;
+    }
+
+    /**
+     *
+     * @return the number of entries stored locally, including expired ones not evicted yet, pending reads and
+     *         expiration hints
+     */
+    public int getLocalSize() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+
+        return size;
+    }
+
+    /**
+     * Removes all values stored locally.
+     */
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    @Override
+    public Collection<SocketAddress> getAvailableServers() {
+        return cache.getAvailableServers();
+    }
+
+    @Override
+    public String getName() {
+        return cache.getName();
+    }
+
+    @Override
+    public Collection<String> getAliases() {
+        return cache.getAliases();
+    }
+
+    @Override
+    public CacheProperties getProperties() {
+        return cache.getProperties();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return cache.isEnabled();
+    }
+
+    @Override
+    public <T> boolean add(final String key, final int expiration, final Object value, final SerializationType serializationType)
+            throws TimeoutException, CacheException {
+        boolean added = false;
+        try {
+            added = cache.add(key, expiration, value, serializationType);
+            return added;
+        } finally {
+            // expiration of existing value isn't changed if the value isn't added
+            invalidate(key, added ? expiration : 0);
+        }
+    }
+
+    @Override
+    public <T> boolean addSilently(final String key, final int expiration, final Object value, final SerializationType serializationType) {
+        boolean added = false;
+        try {
+            added = cache.addSilently(key, expiration, value, serializationType);
+            return added;
+        } finally {
+            invalidate(key, added ? expiration : 0);
+        }
+    }
+
+    @Override
+    public long decr(final String key, final int by) throws TimeoutException, CacheException {
+        try {
+            return cache.decr(key, by);
+        } finally {
+            invalidate(key);
+        }
+    }
+
+    @Override
+    public boolean delete(final String key) throws TimeoutException, CacheException {
+        try {
+            return cache.delete(key);
+        } finally {
+            invalidate(key);
+        }
+    }
+
+    @Override
+    public void delete(final Collection<String> keys) throws TimeoutException, CacheException {
+        try {
+            cache.delete(keys);
+        } finally {
+            invalidate(keys);
+        }
+    }
+
+    @Override
+    public void flush() throws TimeoutException, CacheException {
+        try {
+            cache.flush();
+        } finally {
+            invalidateAll();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(final String key, final SerializationType serializationType) throws TimeoutException, CacheException {
+        final Object value = getLocal(key);
+        if (value != null) {
+            return (T) value;
+        }
+
+        final Entry token = reserveLocal(key);
+        T result = null;
+        try {
+            result = cache.<T> get(key, serializationType);
+            return result;
+        } finally {
+            putLocal(key, token, result);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(final String key, final SerializationType serializationType, final Type type) throws TimeoutException,
+            CacheException {
+        final Object value = getLocal(key);
+        if (value != null) {
+            return (T) value;
+        }
+
+        final Entry token = reserveLocal(key);
+        T result = null;
+        try {
+            result = cache.<T> get(key, serializationType, type);
+            return result;
+        } finally {
+            putLocal(key, token, result);
+        }
+    }
+
+    @Override
+    public Map<String, Object> getBulk(final Collection<String> keys, final SerializationType serializationType)
+            throws TimeoutException, CacheException {
+        final Map<String, Object> results = new HashMap<String, Object>();
+        final List<String> missed = new ArrayList<String>();
+        for (String key : keys) {
+            final Object value = getLocal(key);
+            if (value != null) {
+                results.put(key, value);
+            } else {
+                missed.add(key);
+            }
+        }
+
+        if (!missed.isEmpty()) {
+            final Map<String, Entry> tokens = reserveLocal(missed);
+            Map<String, Object> remoteResults = Collections.emptyMap();
+            try {
+                remoteResults = cache.getBulk(missed, serializationType);
+                results.putAll(remoteResults);
+            } finally {
+                putLocal(tokens, remoteResults);
+            }
+        }
+
+        return results;
+    }
+
+    @Override
+    public long incr(final String key, final int by, final long def) throws TimeoutException, CacheException {
+        try {
+            return cache.incr(key, by, def);
+        } finally {
+            invalidate(key);
+        }
+    }
+
+    @Override
+    public long incr(final String key, final int by, final long def, final int expiration) throws TimeoutException, CacheException {
+        try {
+            return cache.incr(key, by, def, expiration);
+        } finally {
+            invalidate(key);
+        }
+    }
+
+    @Override
+    public <T> void set(final String key, final int expiration, final Object value, final SerializationType serializationType)
+            throws TimeoutException, CacheException {
+        try {
+            cache.set(key, expiration, value, serializationType);
+        } finally {
+            invalidate(key, expiration);
+        }
+    }
+
+    @Override
+    public <T> void set(final String key, final int expiration, final Object value, final SerializationType serializationType,
+            final Type type) throws TimeoutException, CacheException {
+        try {
+            cache.set(key, expiration, value, serializationType, type);
+        } finally {
+            invalidate(key, expiration);
+        }
+    }
+
+    @Override
+    public <T> void setSilently(final String key, final int expiration, final Object value, final SerializationType serializationType) {
+        try {
+            cache.setSilently(key, expiration, value, serializationType);
+        } finally {
+            invalidate(key, expiration);
+        }
+    }
+
+    @Override
+    public void setBulk(final Map<String, ?> items, final int expiration, final SerializationType serializationType)
+            throws TimeoutException, CacheException {
+        try {
+            cache.setBulk(items, expiration, serializationType);
+        } finally {
+            invalidate(items.keySet(), expiration);
+        }
+    }
+
+    @Override
+    public void setBulkSilently(final Map<String, ?> items, final int expiration, final SerializationType serializationType) {
+        try {
+            cache.setBulkSilently(items, expiration, serializationType);
+        } finally {
+            invalidate(items.keySet(), expiration);
+        }
+    }
+
+    @Override
+    public void addBulk(final Map<String, ?> items, final int expiration, final SerializationType serializationType)
+            throws TimeoutException, CacheException {
+        try {
+            cache.addBulk(items, expiration, serializationType);
+        } finally {
+            invalidate(items.keySet());
+        }
+    }
+
+    @Override
+    public void addBulkSilently(final Map<String, ?> items, final int expiration, final SerializationType serializationType) {
+        try {
+            cache.addBulkSilently(items, expiration, serializationType);
+        } finally {
+            invalidate(items.keySet());
+        }
+    }
+
+    @Override
+    public Long getCounter(final String key) throws TimeoutException, CacheException {
+        // counters are modified remotely so they are never stored locally
+        return cache.getCounter(key);
+    }
+
+    @Override
+    public void setCounter(final String key, final int expiration, final long value) throws TimeoutException, CacheException {
+        try {
+            cache.setCounter(key, expiration, value);
+        } finally {
+            invalidate(key, expiration);
+        }
+    }
+
+    @Override
+    public AsyncCache getAsyncCache() {
+        return asyncCache;
+    }
+
+    @Override
+    public void shutdown() {
+        invalidateAll();
+        cache.shutdown();
+    }
+
+    @Override
+    public Object getNativeClient() {
+        return cache.getNativeClient();
+    }
+
+    private Object getLocal(final String key) {
+        return segmentFor(key).get(key, System.nanoTime());
+    }
+
+    /**
+     * Marks the key as being read from memcached. The returned token is removed by any invalidation of the key so a
+     * value read concurrently with a modification is never stored locally.
+     */
+    private Entry reserveLocal(final String key) {
+        return segmentFor(key).reserve(key, System.nanoTime(), ttlNanos);
+    }
+
+    private Map<String, Entry> reserveLocal(final Collection<String> keys) {
+        final Map<String, Entry> tokens = new HashMap<String, Entry>();
+        for (String key : keys) {
+            tokens.put(key, reserveLocal(key));
+        }
+
+        return tokens;
+    }
+
+    private void putLocal(final String key, final Entry token, final Object value) {
+        segmentFor(key).fill(key, token, value != null ? new Entry(value, token.expiresAt) : null);
+    }
+
+    private void putLocal(final Map<String, Entry> tokens, final Map<String, Object> values) {
+        for (Map.Entry<String, Entry> token : tokens.entrySet()) {
+            putLocal(token.getKey(), token.getValue(), values.get(token.getKey()));
+        }
+    }
+
+    private void invalidate(final String key) {
+        segmentFor(key).remove(key);
+    }
+
+    private void invalidate(final Collection<String> keys) {
+        for (String key : keys) {
+            invalidate(key);
+        }
+    }
+
+    /**
+     * Invalidates the key and remembers when the value stored in memcached expires, so the value read next time isn't
+     * kept locally longer.
+     */
+    private void invalidate(final String key, final int expiration) {
+        final long remaining = getRemainingNanos(expiration);
+        if (remaining > 0) {
+            segmentFor(key).put(key, new Entry(null, System.nanoTime() + remaining));
+        } else {
+            invalidate(key);
+        }
+    }
+
+    private void invalidate(final Collection<String> keys, final int expiration) {
+        for (String key : keys) {
+            invalidate(key, expiration);
+        }
+    }
+
+    /**
+     * Converts expiration as defined in memcached specification to remaining time.
+     * 
+     * @return the remaining time in nanoseconds or 0 if the value never expires or has already expired
+     */
+    private static long getRemainingNanos(final int expiration) {
+        if (expiration <= 0) {
+            return 0;
+        }
+        if (expiration <= MAX_RELATIVE_EXPIRATION) {
+            return TimeUnit.SECONDS.toNanos(expiration);
+        }
+
+        // expiration is an absolute unix time
+        return Math.max(0, TimeUnit.MILLISECONDS.toNanos(TimeUnit.SECONDS.toMillis(expiration) - System.currentTimeMillis()));
+    }
+
+    private Segment segmentFor(final String key) {
+        final int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    /**
+     * Locally stored value, entry without value is a token of pending read from memcached or a hint when the value
+     * stored in memcached expires.
+     */
+    private static final class Entry {
+
+        private final Object value;
+
+        private final long expiresAt;
+
+        Entry(final Object value, final long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+    }
+
+    /**
+     * LRU map guarded by its own lock, keys are spread over several segments to reduce contention.
+     */
+    @SuppressWarnings("serial")
+    private static final class Segment extends LinkedHashMap<String, Entry> {
+
+        private final int maxSize;
+
+        Segment(final int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        synchronized Object get(final String key, final long now) {
+            final Entry entry = super.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt - now <= 0) {
+                super.remove(key);
+                return null;
+            }
+
+            return entry.value;
+        }
+
+        /**
+         * Stores a token of pending read. The token and the value read expire at the remote expiration if it's known
+         * and earlier than the local one.
+         */
+        synchronized Entry reserve(final String key, final long now, final long ttl) {
+            final Entry previous = super.get(key);
+            long expiresAt = now + ttl;
+            if (previous != null && previous.value == null && previous.expiresAt - now > 0 && previous.expiresAt - expiresAt < 0) {
+                expiresAt = previous.expiresAt;
+            }
+
+            final Entry token = new Entry(null, expiresAt);
+            super.put(key, token);
+            return token;
+        }
+
+        /**
+         * Replaces the token with the entry (or removes the token if entry is null) only if the key hasn't been
+         * invalidated or reserved again since the token was stored.
+         */
+        synchronized void fill(final String key, final Entry token, final Entry entry) {
+            if (super.get(key) != token) {
+                return;
+            }
+            if (entry == null) {
+                super.remove(key);
+            } else {
+                super.put(key, entry);
+            }
+        }
+
+        @Override
+        public synchronized Entry put(final String key, final Entry entry) {
+            return super.put(key, entry);
+        }
+
+        @Override
+        public synchronized Entry remove(final Object key) {
+            return super.remove(key);
+        }
+
+        @Override
+        public synchronized void clear() {
+            super.clear();
+        }
+
+        @Override
+        public synchronized int size() {
+            return super.size();
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+            return size() > maxSize;
+        }
+
+    }
+
+    private class NearAsyncCacheImpl implements AsyncCache {
+
+        @Override
+        public CompletableFuture<Boolean> add(final String key, final int expiration, final Object value,
+                final SerializationType serializationType) {
+            invalidate(key);
+            return cache.getAsyncCache().add(key, expiration, value, serializationType)
+                    .whenComplete((added, e) -> invalidate(key, Boolean.TRUE.equals(added) ? expiration : 0));
+        }
+
+        @Override
+        public CompletableFuture<Long> decr(final String key, final int by) {
+            return invalidateOnComplete(key, cache.getAsyncCache().decr(key, by));
+        }
+
+        @Override
+        public CompletableFuture<Boolean> delete(final String key) {
+            return invalidateOnComplete(key, cache.getAsyncCache().delete(key));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> CompletableFuture<T> get(final String key, final SerializationType serializationType) {
+            final Object value = getLocal(key);
+            if (value != null) {
+                return CompletableFuture.completedFuture((T) value);
+            }
+
+            final Entry token = reserveLocal(key);
+            return cache.getAsyncCache().<T> get(key, serializationType).whenComplete((result, e) -> putLocal(key, token, result));
+        }
+
+        @Override
+        public CompletableFuture<Map<String, Object>> getBulk(final Collection<String> keys, final SerializationType serializationType) {
+            final Map<String, Entry> tokens = reserveLocal(keys);
+            return cache.getAsyncCache().getBulk(keys, serializationType).whenComplete((results, e) -> putLocal(tokens,
+                    results != null ? results : Collections.<String, Object> emptyMap()));
+        }
+
+        @Override
+        public CompletableFuture<Long> incr(final String key, final int by, final long def) {
+            return invalidateOnComplete(key, cache.getAsyncCache().incr(key, by, def));
+        }
+
+        @Override
+        public CompletableFuture<Long> incr(final String key, final int by, final long def, final int expiration) {
+            return invalidateOnComplete(key, cache.getAsyncCache().incr(key, by, def, expiration));
+        }
+
+        @Override
+        public CompletableFuture<Boolean> set(final String key, final int expiration, final Object value,
+                final SerializationType serializationType) {
+            invalidate(key);
+            return cache.getAsyncCache().set(key, expiration, value, serializationType)
+                    .whenComplete((result, e) -> invalidate(key, expiration));
+        }
+
+        private <T> CompletableFuture<T> invalidateOnComplete(final String key, final CompletableFuture<T> future) {
+            invalidate(key);
+            return future.whenComplete((result, e) -> invalidate(key));
+        }
+
+    }
+
+}
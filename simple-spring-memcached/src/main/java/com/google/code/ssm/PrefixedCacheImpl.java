@@ -17,12 +17,15 @@
 
 package com.google.code.ssm;
 
+import java.lang.reflect.Type;
 import java.net.SocketAddress;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeoutException;
 
 import com.google.code.ssm.api.format.SerializationType;
@@ -42,12 +45,34 @@ public class PrefixedCacheImpl implements Cache {
 
     private final String namePrefixSeparator;
 
+    private final AsyncCache asyncCache = new PrefixedAsyncCacheImpl();
+
     public PrefixedCacheImpl(final Cache cache, final String requestedName, final String namePrefixSeparator) {
         this.cache = cache;
         this.name = requestedName;
         this.namePrefixSeparator = namePrefixSeparator;
     }
 
+    /**
+     * 
+     * @return the cache storing values under prefixed keys
+     * @since 4.1.4
+     */
+    public Cache getCache() {
+        return cache;
+    }
+
+    /**
+     * 
+     * @param cacheKey
+     *            the key
+     * @return the key under which the value is stored in underlying cache
+     * @since 4.1.4
+     */
+    public String getPrefixedKey(final String cacheKey) {
+        return alterKey(cacheKey);
+    }
+
     @Override
     public Collection<SocketAddress> getAvailableServers() {
         return cache.getAvailableServers();
@@ -105,6 +130,12 @@ public class PrefixedCacheImpl implements Cache {
         return cache.get(alterKey(key), serializationType);
     }
 
+    @Override
+    public <T> T get(final String key, final SerializationType serializationType, final Type type) throws TimeoutException,
+            CacheException {
+        return cache.get(alterKey(key), serializationType, type);
+    }
+
     @Override
     public Map<String, Object> getBulk(final Collection<String> keys, final SerializationType serializationType) throws TimeoutException,
             CacheException {
@@ -133,11 +164,39 @@ public class PrefixedCacheImpl implements Cache {
         cache.set(alterKey(key), exp, value, serializationType);
     }
 
+    @Override
+    public <T> void set(final String key, final int exp, final Object value, final SerializationType serializationType, final Type type)
+            throws TimeoutException, CacheException {
+        cache.set(alterKey(key), exp, value, serializationType, type);
+    }
+
     @Override
     public <T> void setSilently(final String cacheKey, final int expiration, final Object value, final SerializationType serializationType) {
         cache.setSilently(alterKey(cacheKey), expiration, value, serializationType);
     }
 
+    @Override
+    public void setBulk(final Map<String, ?> items, final int expiration, final SerializationType serializationType)
+            throws TimeoutException, CacheException {
+        cache.setBulk(alterKeys(items), expiration, serializationType);
+    }
+
+    @Override
+    public void setBulkSilently(final Map<String, ?> items, final int expiration, final SerializationType serializationType) {
+        cache.setBulkSilently(alterKeys(items), expiration, serializationType);
+    }
+
+    @Override
+    public void addBulk(final Map<String, ?> items, final int expiration, final SerializationType serializationType)
+            throws TimeoutException, CacheException {
+        cache.addBulk(alterKeys(items), expiration, serializationType);
+    }
+
+    @Override
+    public void addBulkSilently(final Map<String, ?> items, final int expiration, final SerializationType serializationType) {
+        cache.addBulkSilently(alterKeys(items), expiration, serializationType);
+    }
+
     @Override
     public Long getCounter(final String cacheKey) throws TimeoutException, CacheException {
         return cache.getCounter(alterKey(cacheKey));
@@ -148,6 +207,11 @@ public class PrefixedCacheImpl implements Cache {
         cache.setCounter(alterKey(cacheKey), expiration, value);
     }
 
+    @Override
+    public AsyncCache getAsyncCache() {
+        return asyncCache;
+    }
+
     @Override
     public void shutdown() {
         cache.shutdown();
@@ -171,6 +235,15 @@ public class PrefixedCacheImpl implements Cache {
         return alteredKeys;
     }
 
+    private Map<String, Object> alterKeys(final Map<String, ?> items) {
+        final Map<String, Object> alteredItems = new LinkedHashMap<String, Object>();
+        for (final Map.Entry<String, ?> entry : items.entrySet()) {
+            alteredItems.put(alterKey(entry.getKey()), entry.getValue());
+        }
+
+        return alteredItems;
+    }
+
     private Map<String, Object> removeCacheNames(final Map<String, Object> resultsWithCacheName) {
         final Map<String, Object> results = new HashMap<String, Object>();
         for (final Map.Entry<String, Object> entry : resultsWithCacheName.entrySet()) {
@@ -181,4 +254,50 @@ public class PrefixedCacheImpl implements Cache {
         return results;
     }
 
+    private class PrefixedAsyncCacheImpl implements AsyncCache {
+
+        @Override
+        public CompletableFuture<Boolean> add(final String key, final int expiration, final Object value,
+                final SerializationType serializationType) {
+            return cache.getAsyncCache().add(alterKey(key), expiration, value, serializationType);
+        }
+
+        @Override
+        public CompletableFuture<Long> decr(final String key, final int by) {
+            return cache.getAsyncCache().decr(alterKey(key), by);
+        }
+
+        @Override
+        public CompletableFuture<Boolean> delete(final String key) {
+            return cache.getAsyncCache().delete(alterKey(key));
+        }
+
+        @Override
+        public <T> CompletableFuture<T> get(final String key, final SerializationType serializationType) {
+            return cache.getAsyncCache().get(alterKey(key), serializationType);
+        }
+
+        @Override
+        public CompletableFuture<Map<String, Object>> getBulk(final Collection<String> keys, final SerializationType serializationType) {
+            return cache.getAsyncCache().getBulk(alterKeys(keys), serializationType).thenApply(results -> removeCacheNames(results));
+        }
+
+        @Override
+        public CompletableFuture<Long> incr(final String key, final int by, final long def) {
+            return cache.getAsyncCache().incr(alterKey(key), by, def);
+        }
+
+        @Override
+        public CompletableFuture<Long> incr(final String key, final int by, final long def, final int expiration) {
+            return cache.getAsyncCache().incr(alterKey(key), by, def, expiration);
+        }
+
+        @Override
+        public CompletableFuture<Boolean> set(final String key, final int expiration, final Object value,
+                final SerializationType serializationType) {
+            return cache.getAsyncCache().set(alterKey(key), expiration, value, serializationType);
+        }
+
+    }
+
 }
@@ -51,4 +51,74 @@ public class Settings {
      * @since 4.1.0
      */
     private boolean enableAnnotationsInInterface = false; 
+
+    /**
+     * If true then Update* and ReadThrough* advices don't wait until values are stored in cache. Values are passed to
+     * bounded write behind queue and stored by worker threads. Repeated writes to the same key are coalesced and writes
+     * are dropped if the queue is full. Values computed while holding a lease are always stored synchronously.
+     * 
+     * @since 4.1.4
+     */
+    private boolean writeBehind = false;
+
+    /**
+     * The maximum number of writes waiting in write behind queue.
+     * 
+     * @since 4.1.4
+     */
+    private int writeBehindQueueCapacity = 10000;
+
+    /**
+     * The number of threads storing values from write behind queue.
+     * 
+     * @since 4.1.4
+     */
+    private int writeBehindThreads = 2;
+
+    /**
+     * The name of cache used to store versions of namespaces. If set then current version of namespace is a part of
+     * each cache key and incrementing it (see {@link com.google.code.ssm.aop.CacheBase#getNamespaceVersionStore()})
+     * invalidates whole namespace on all application nodes.
+     * 
+     * @since 4.1.4
+     */
+    private String namespaceVersionCache;
+
+    /**
+     * Time in milliseconds after which locally cached version of namespace is read again from memcached.
+     * 
+     * @since 4.1.4
+     */
+    private long namespaceVersionRefreshInterval = 1000;
+
+    /**
+     * If true then on cache miss ReadThroughSingleCache and ReadThroughAssignCache advices invoke intercepted method
+     * only once per key at a time, other concurrent callers wait for its result instead of invoking the method too.
+     * 
+     * @since 4.1.4
+     */
+    private boolean singleFlight = false;
+
+    /**
+     * The maximum time in milliseconds that caller waits for result of the method invoked by other thread. After that
+     * time the caller invokes the method itself.
+     * 
+     * @since 4.1.4
+     */
+    private long singleFlightMaxWait = 5000;
+
+    /**
+     * The number of threads refreshing stale values read by advices with soft expiration. If 0 then stale values are
+     * not refreshed in background but recomputed synchronously by the caller.
+     * 
+     * @since 4.1.4
+     */
+    private int refreshThreads = 2;
+
+    /**
+     * The maximum number of refreshes of stale values waiting for a free thread.
+     * 
+     * @since 4.1.4
+     */
+    private int refreshQueueCapacity = 1000;
 }
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import com.google.code.ssm.Cache;
+import com.google.code.ssm.aop.metrics.AdviceRecorder;
+import com.google.code.ssm.aop.support.AnnotationData;
+import com.google.code.ssm.api.format.SerializationType;
+
+/**
+ * Everything an advice needs to know about intercepted method that doesn't depend on invocation arguments. Instances
+ * are resolved once per target class, method and annotation type by {@link CacheBase#getAdviceMetadata} and shared
+ * between invocations so they must not be modified.
+ *
+ * @author Jakub Białek
+ * @since 4.1.4
+ *
+ * @param <T>
+ *            the type of SSM annotation
+ */
+@Getter
+@ToString(of = { "methodDesc", "annotation" })
+public class AdviceMetadata<T extends Annotation> {
+
+    /**
+     * The method to cache, found on target class (or implemented interface).
+     */
+    private final Method method;
+
+    private final T annotation;
+
+    private final AnnotationData annotationData;
+
+    /**
+     * Serialization type defined on method or class level, null if not set.
+     */
+    private final SerializationType serializationType;
+
+    /**
+     * The cache (optionally wrapped to prefix keys with cache name) used by annotated method.
+     */
+    private final Cache cache;
+
+    /**
+     * The result of {@link Method#toString()}, used in cache keys and error messages.
+     */
+    private final String methodDesc;
+
+    /**
+     * The recorder of advice metrics, null if metrics are disabled.
+     */
+    private final AdviceRecorder recorder;
+
+    AdviceMetadata(final Method method, final T annotation, final AnnotationData annotationData,
+            final SerializationType serializationType, final Cache cache) {
+        this(method, annotation, annotationData, serializationType, cache, null);
+    }
+
+    AdviceMetadata(final Method method, final T annotation, final AnnotationData annotationData,
+            final SerializationType serializationType, final Cache cache, final AdviceRecorder recorder) {
+        this.method = method;
+        this.annotation = annotation;
+        this.annotationData = annotationData;
+        this.serializationType = serializationType;
+        this.cache = cache;
+        this.methodDesc = method.toString();
+        this.recorder = recorder;
+    }
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.code.ssm.Cache;
+
+/**
+ * Executes refreshes of stale values in background daemon threads. Only one refresh of the same key in the same cache
+ * is scheduled or running at a time, subsequent requests are ignored until it completes. If all threads are busy and
+ * the queue is full the refresh is dropped, the stale value will be refreshed on one of the next reads.
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+public final class AsyncRefresher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncRefresher.class);
+
+    private final Set<Object> inProgress = ConcurrentHashMap.newKeySet();
+
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong droppedRefreshes = new AtomicLong();
+
+    private final AtomicLong completedRefreshes = new AtomicLong();
+
+    public AsyncRefresher(final int capacity, final int threads) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity of refresh queue must be positive");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of refresh threads must be positive");
+        }
+
+        final AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(capacity), runnable -> {
+            final Thread thread = new Thread(runnable, "ssm-refresh-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Schedules refresh of value stored in cache under given key unless refresh of this key is already in progress.
+     * 
+     * @param cache
+     *            the cache
+     * @param key
+     *            the key
+     * @param refresh
+     *            the task loading and storing new value
+     * @return true if refresh has been scheduled
+     */
+    public boolean refresh(final Cache cache, final String key, final Runnable refresh) {
+        final Object refreshKey = Arrays.<Object> asList(cache, key);
+        if (!inProgress.add(refreshKey)) {
+            return false;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    refresh.run();
+                    completedRefreshes.incrementAndGet();
+                } catch (RuntimeException e) {
+                    LOG.warn("Cannot refresh value of key " + key + " in cache " + cache.getName(), e);
+                } finally {
+                    inProgress.remove(refreshKey);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            inProgress.remove(refreshKey);
+            droppedRefreshes.incrementAndGet();
+            LOG.debug("Refresh queue is full, refresh of key {} dropped", key);
+            return false;
+        }
+    }
+
+    /**
+     * 
+     * @return the number of refreshes scheduled or running
+     */
+    public int getInProgressCount() {
+        return inProgress.size();
+    }
+
+    /**
+     * 
+     * @return the number of refreshes rejected because the queue was full or refresher shut down
+     */
+    public long getDroppedRefreshes() {
+        return droppedRefreshes.get();
+    }
+
+    /**
+     * 
+     * @return the number of completed refreshes
+     */
+    public long getCompletedRefreshes() {
+        return completedRefreshes.get();
+    }
+
+    /**
+     * Stops accepting new refreshes, scheduled refreshes are abandoned.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+}
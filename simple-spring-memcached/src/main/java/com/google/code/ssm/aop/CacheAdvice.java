@@ -16,9 +16,20 @@
  */
 package com.google.code.ssm.aop;
 
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 import org.slf4j.Logger;
 import org.springframework.core.Ordered;
 
+import com.google.code.ssm.Cache;
+import com.google.code.ssm.aop.metrics.AdviceRecorder;
+import com.google.code.ssm.api.format.SerializationType;
+import com.google.code.ssm.providers.CacheException;
+
 /**
  * 
  * @author Jakub Białek
@@ -27,6 +38,8 @@ import org.springframework.core.Ordered;
  */
 public abstract class CacheAdvice implements Ordered {
 
+    private static final int MAX_RELATIVE_EXPIRATION = 60 * 60 * 24 * 30;
+
     private CacheBase cacheBase;
 
     public CacheBase getCacheBase() {
@@ -46,6 +59,170 @@ public abstract class CacheAdvice implements Ordered {
         return cacheBase.isCacheDisabled();
     }
 
+    /**
+     * Stores value in cache. In write behind mode value is only queued and this method returns immediately.
+     * 
+     * @since 4.1.4
+     */
+    protected void populate(final Cache cache, final String cacheKey, final int expiration, final Object value,
+            final SerializationType serializationType) throws TimeoutException, CacheException {
+        populate(cache, cacheKey, expiration, value, serializationType, null);
+    }
+
+    /**
+     * Stores value of known type in cache. In write behind mode value is only queued and stored without the type.
+     * 
+     * @since 4.1.4
+     */
+    protected void populate(final Cache cache, final String cacheKey, final int expiration, final Object value,
+            final SerializationType serializationType, final Type type) throws TimeoutException, CacheException {
+        final WriteBehindQueue queue = cacheBase.getWriteBehindQueue();
+        if (queue != null) {
+            queue.set(cache, cacheKey, expiration, value, serializationType);
+        } else if (type != null) {
+            cache.set(cacheKey, expiration, value, serializationType, type);
+        } else {
+            cache.set(cacheKey, expiration, value, serializationType);
+        }
+    }
+
+    /**
+     * Stores value of known type in cache before returning also in write behind mode. Pending writes of the key are
+     * cancelled so they cannot overwrite the value later.
+     * 
+     * @since 4.1.4
+     */
+    protected void populateSynchronously(final Cache cache, final String cacheKey, final int expiration, final Object value,
+            final SerializationType serializationType, final Type type) throws TimeoutException, CacheException {
+        final WriteBehindQueue queue = cacheBase.getWriteBehindQueue();
+        if (queue != null) {
+            queue.cancel(cache, cacheKey);
+        }
+        if (type != null) {
+            cache.set(cacheKey, expiration, value, serializationType, type);
+        } else {
+            cache.set(cacheKey, expiration, value, serializationType);
+        }
+    }
+
+    /**
+     * Stores values in cache, errors are only logged. In write behind mode values are only queued.
+     * 
+     * @since 4.1.4
+     */
+    protected void populateBulk(final Cache cache, final Map<String, ?> items, final int expiration,
+            final SerializationType serializationType) {
+        final WriteBehindQueue queue = cacheBase.getWriteBehindQueue();
+        if (queue != null) {
+            queue.setBulk(cache, items, expiration, serializationType);
+        } else {
+            cache.setBulkSilently(items, expiration, serializationType);
+        }
+    }
+
+    /**
+     * Adds values to cache if there aren't any values under given keys, errors are only logged. In write behind mode
+     * values are only queued.
+     * 
+     * @since 4.1.4
+     */
+    protected void populateBulkIfAbsent(final Cache cache, final Map<String, ?> items, final int expiration,
+            final SerializationType serializationType) {
+        final WriteBehindQueue queue = cacheBase.getWriteBehindQueue();
+        if (queue != null) {
+            queue.addBulk(cache, items, expiration, serializationType);
+        } else {
+            cache.addBulkSilently(items, expiration, serializationType);
+        }
+    }
+
+    /**
+     * Removes value from cache. In write behind mode pending writes of the key are cancelled first so they cannot
+     * restore the value after it's removed.
+     * 
+     * @since 4.1.4
+     */
+    protected void invalidate(final Cache cache, final String cacheKey) throws TimeoutException, CacheException {
+        final WriteBehindQueue queue = cacheBase.getWriteBehindQueue();
+        if (queue != null) {
+            queue.cancel(cache, cacheKey);
+        }
+        cache.delete(cacheKey);
+    }
+
+    /**
+     * Removes values from cache. In write behind mode pending writes of the keys are cancelled first so they cannot
+     * restore the values after they're removed.
+     * 
+     * @since 4.1.4
+     */
+    protected void invalidate(final Cache cache, final Collection<String> cacheKeys) throws TimeoutException, CacheException {
+        final WriteBehindQueue queue = cacheBase.getWriteBehindQueue();
+        if (queue != null) {
+            queue.cancel(cache, cacheKeys);
+        }
+        cache.delete(cacheKeys);
+    }
+
+    /**
+     * Converts expiration in seconds as defined in memcached specification to time in milliseconds since epoch.
+     * 
+     * @return the expiration time or {@link Long#MAX_VALUE} if value never expires
+     * @since 4.1.4
+     */
+    protected long getExpirationTime(final int expiration, final long now) {
+        if (expiration <= 0) {
+            return Long.MAX_VALUE;
+        }
+        // memcached treats expiration longer than 30 days as unix time
+        if (expiration > MAX_RELATIVE_EXPIRATION) {
+            return TimeUnit.SECONDS.toMillis(expiration);
+        }
+        return now + TimeUnit.SECONDS.toMillis(expiration);
+    }
+
+    /**
+     * 
+     * @return current value of {@link System#nanoTime()} or 0 if there is no recorder
+     * @since 4.1.4
+     */
+    protected long startTimer(final AdviceRecorder recorder) {
+        return recorder == null ? 0 : System.nanoTime();
+    }
+
+    /**
+     * Records duration of cache write started at given time if there is a recorder.
+     * 
+     * @since 4.1.4
+     */
+    protected void recordWrite(final AdviceRecorder recorder, final long start) {
+        if (recorder != null) {
+            recorder.recordWrite(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Records duration of underlying method invocation started at given time if there is a recorder.
+     * 
+     * @since 4.1.4
+     */
+    protected void recordMethod(final AdviceRecorder recorder, final long start) {
+        if (recorder != null) {
+            recorder.recordMethod(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Records aborted cache operation if there is a recorder.
+     * 
+     * @since 4.1.4
+     */
+    protected void recordError(final AdviceRecorder recorder) {
+        if (recorder != null) {
+            recorder.recordError();
+        }
+    }
+
     protected void warn(final Exception e, final String format, final Object... args) {
         if (getLogger().isWarnEnabled()) {
             getLogger().warn(String.format(format, args), e);
@@ -26,12 +26,15 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.Signature;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.context.ApplicationContext;
@@ -40,15 +43,22 @@ import org.springframework.context.ApplicationContextAware;
 import com.google.code.ssm.Cache;
 import com.google.code.ssm.PrefixedCacheImpl;
 import com.google.code.ssm.Settings;
+import com.google.code.ssm.aop.metrics.AdviceMetrics;
+import com.google.code.ssm.aop.metrics.AdviceRecorder;
 import com.google.code.ssm.aop.support.AnnotationData;
+import com.google.code.ssm.aop.support.AnnotationDataBuilder;
 import com.google.code.ssm.aop.support.BridgeMethodMappingStore;
 import com.google.code.ssm.aop.support.BridgeMethodMappingStoreImpl;
 import com.google.code.ssm.aop.support.CacheKeyBuilder;
 import com.google.code.ssm.aop.support.CacheKeyBuilderImpl;
 import com.google.code.ssm.aop.support.InvalidAnnotationException;
+import com.google.code.ssm.aop.support.NamespaceVersionStore;
+import com.google.code.ssm.aop.support.NamespaceVersionStoreImpl;
 import com.google.code.ssm.aop.support.PertinentNegativeNull;
+import com.google.code.ssm.aop.support.SoftExpiringValue;
 import com.google.code.ssm.api.format.Serialization;
 import com.google.code.ssm.api.format.SerializationType;
+import com.google.code.ssm.util.SingleFlight;
 import com.google.code.ssm.util.Utils;
 
 /**
@@ -57,7 +67,7 @@ import com.google.code.ssm.util.Utils;
  * @author Jakub Białek
  * 
  */
-public class CacheBase implements ApplicationContextAware, InitializingBean {
+public class CacheBase implements ApplicationContextAware, InitializingBean, DisposableBean {
 
     public static final String DISABLE_CACHE_PROPERTY = "ssm.cache.disable";
 
@@ -70,8 +80,21 @@ public class CacheBase implements ApplicationContextAware, InitializingBean {
     // mapping cache zone <-> cache
     private final Map<String, Cache> caches = new HashMap<String, Cache>();
 
+    // mapping (annotation, target class, method) <-> resolved advice metadata
+    private final ConcurrentMap<MethodKey, AdviceMetadata<?>> metadata = new ConcurrentHashMap<MethodKey, AdviceMetadata<?>>();
+
     private Settings settings = new Settings();
 
+    private WriteBehindQueue writeBehindQueue;
+
+    private NamespaceVersionStore namespaceVersionStore;
+
+    private SingleFlight singleFlight;
+
+    private AsyncRefresher asyncRefresher;
+
+    private AdviceMetrics adviceMetrics;
+
     private ApplicationContext context;
 
     @Override
@@ -85,6 +108,41 @@ public class CacheBase implements ApplicationContextAware, InitializingBean {
         for (Cache cache : context.getBeansOfType(Cache.class).values()) {
             addCache(cache);
         }        
+
+        if (settings.getNamespaceVersionCache() != null) {
+            initNamespaceVersionStore(settings.getNamespaceVersionCache());
+        }
+
+        if (settings.isSingleFlight()) {
+            singleFlight = new SingleFlight(settings.getSingleFlightMaxWait());
+        }
+
+        if (settings.isWriteBehind()) {
+            writeBehindQueue = new WriteBehindQueue(settings.getWriteBehindQueueCapacity(), settings.getWriteBehindThreads());
+        }
+
+        if (settings.getRefreshThreads() > 0) {
+            // threads are started only when the first stale value is read
+            asyncRefresher = new AsyncRefresher(settings.getRefreshQueueCapacity(), settings.getRefreshThreads());
+        }
+
+        if (adviceMetrics == null) {
+            try {
+                adviceMetrics = context.getBean(AdviceMetrics.class);
+            } catch (NoSuchBeanDefinitionException ex) {
+                LOG.debug("Advice metrics not defined, metrics are disabled");
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (writeBehindQueue != null) {
+            writeBehindQueue.shutdown();
+        }
+        if (asyncRefresher != null) {
+            asyncRefresher.shutdown();
+        }
     }
 
     @Override
@@ -121,12 +179,101 @@ public class CacheBase implements ApplicationContextAware, InitializingBean {
         return cache;
     }
 
+    /**
+     * 
+     * @return the write behind queue or null if write behind mode is disabled
+     * @since 4.1.4
+     */
+    public WriteBehindQueue getWriteBehindQueue() {
+        return writeBehindQueue;
+    }
+
+    /**
+     * 
+     * @return the store of namespace versions or null if namespace versioning is disabled
+     * @since 4.1.4
+     */
+    public NamespaceVersionStore getNamespaceVersionStore() {
+        return namespaceVersionStore;
+    }
+
+    /**
+     * 
+     * @return the single flight used to load missed values or null if it's disabled
+     * @since 4.1.4
+     */
+    public SingleFlight getSingleFlight() {
+        return singleFlight;
+    }
+
+    /**
+     * 
+     * @return the refresher of stale values or null if background refresh is disabled
+     * @since 4.1.4
+     */
+    public AsyncRefresher getAsyncRefresher() {
+        return asyncRefresher;
+    }
+
+    /**
+     * 
+     * @return the source of recorders of advice metrics or null if metrics are disabled
+     * @since 4.1.4
+     */
+    public AdviceMetrics getAdviceMetrics() {
+        return adviceMetrics;
+    }
+
+    /**
+     * Sets the source of recorders of advice metrics. If not set, a bean of type {@link AdviceMetrics} is looked up in
+     * application context. Only methods which metadata is resolved after this call are recorded.
+     * 
+     * @since 4.1.4
+     */
+    public void setAdviceMetrics(final AdviceMetrics adviceMetrics) {
+        this.adviceMetrics = adviceMetrics;
+    }
+
     public boolean isCacheDisabled() {
         String disableProperty = System.getProperty(DISABLE_CACHE_PROPERTY);
         return Boolean.toString(true).equals(disableProperty) || !Boolean.toString(false).equals(disableProperty)
                 && settings.isDisableCache();
     }
     
+    /**
+     * Gets metadata of intercepted method. Method, annotation data, serialization type and cache are resolved only
+     * during the first invocation of each method, subsequent invocations only look up the result.
+     * 
+     * @param jp
+     *            the join point
+     * @param annotationClass
+     *            the type of SSM annotation handled by advice
+     * @return the metadata of intercepted method
+     * @throws NoSuchMethodException
+     * @since 4.1.4
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Annotation> AdviceMetadata<T> getAdviceMetadata(final JoinPoint jp, final Class<T> annotationClass)
+            throws NoSuchMethodException {
+        final Signature sig = jp.getSignature();
+        if (!(sig instanceof MethodSignature)) {
+            throw new InvalidAnnotationException("This annotation is only valid on a method.");
+        }
+
+        final MethodSignature msig = (MethodSignature) sig;
+        final MethodKey key = new MethodKey(annotationClass, jp.getTarget().getClass(), msig.getName(), msig.getParameterTypes());
+        AdviceMetadata<T> adviceMetadata = (AdviceMetadata<T>) metadata.get(key);
+        if (adviceMetadata == null) {
+            adviceMetadata = createAdviceMetadata(jp, annotationClass);
+            final AdviceMetadata<T> previous = (AdviceMetadata<T>) metadata.putIfAbsent(key, adviceMetadata);
+            if (previous != null) {
+                adviceMetadata = previous;
+            }
+        }
+
+        return adviceMetadata;
+    }
+
     public <T extends Annotation> Method getMethodToCache(final JoinPoint jp, final Class<T> annotationClass) throws NoSuchMethodException {
         final Signature sig = jp.getSignature();
         if (!(sig instanceof MethodSignature)) {
@@ -191,6 +338,9 @@ public class CacheBase implements ApplicationContextAware, InitializingBean {
     }
 
     protected Object getResult(final Object result) {
+        if (result instanceof SoftExpiringValue) {
+            return getResult(((SoftExpiringValue) result).getValue());
+        }
         return (result instanceof PertinentNegativeNull) ? null : result;
     }
 
@@ -253,6 +403,39 @@ public class CacheBase implements ApplicationContextAware, InitializingBean {
                 caches.put(alias, cache);
             }
         }
+        // resolved metadata may reference replaced cache
+        metadata.clear();
+    }
+
+    private void initNamespaceVersionStore(final String cacheName) {
+        final Cache cache = caches.get(cacheName);
+        if (cache == null) {
+            throw new UndefinedCacheException(cacheName);
+        }
+        if (!(cacheKeyBuilder instanceof CacheKeyBuilderImpl)) {
+            throw new IllegalStateException("Namespace versions are supported only by " + CacheKeyBuilderImpl.class.getName());
+        }
+
+        namespaceVersionStore = new NamespaceVersionStoreImpl(cache, settings.getNamespaceVersionRefreshInterval());
+        ((CacheKeyBuilderImpl) cacheKeyBuilder).setNamespaceVersionStore(namespaceVersionStore);
+    }
+
+    private <T extends Annotation> AdviceMetadata<T> createAdviceMetadata(final JoinPoint jp, final Class<T> annotationClass)
+            throws NoSuchMethodException {
+        final Method method = getMethodToCache(jp, annotationClass);
+        if (method == null) {
+            throw new InvalidAnnotationException(String.format("Annotation [%s] not found on method [%s]", annotationClass.getName(),
+                    jp.getSignature()));
+        }
+
+        final T annotation = method.getAnnotation(annotationClass);
+        final AnnotationData data = AnnotationDataBuilder.buildAnnotationData(annotation, annotationClass, method);
+
+        final Cache cache = getCache(data);
+        final AdviceRecorder recorder = adviceMetrics == null ? null : adviceMetrics.createRecorder(data.getCacheName(),
+                data.getNamespace(), annotationClass);
+
+        return new AdviceMetadata<T>(method, annotation, data, getSerializationType(method), cache, recorder);
     }
 
     private Method findMethodFromTargetGivenNameAndParams(final Object target, final String name, final Class<?>[] parameters)
@@ -263,4 +446,48 @@ public class CacheBase implements ApplicationContextAware, InitializingBean {
         return method;
     }
 
+    private static final class MethodKey {
+
+        private final Class<?> annotationClass;
+
+        private final Class<?> targetClass;
+
+        private final String name;
+
+        private final Class<?>[] parameterTypes;
+
+        private final int hashCode;
+
+        MethodKey(final Class<?> annotationClass, final Class<?> targetClass, final String name, final Class<?>[] parameterTypes) {
+            this.annotationClass = annotationClass;
+            this.targetClass = targetClass;
+            this.name = name;
+            this.parameterTypes = parameterTypes;
+            int result = annotationClass.hashCode();
+            result = 31 * result + targetClass.hashCode();
+            result = 31 * result + name.hashCode();
+            this.hashCode = 31 * result + Arrays.hashCode(parameterTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof MethodKey)) {
+                return false;
+            }
+
+            final MethodKey other = (MethodKey) obj;
+            return annotationClass == other.annotationClass && targetClass == other.targetClass && name.equals(other.name)
+                    && Arrays.equals(parameterTypes, other.parameterTypes);
+        }
+
+    }
+
 }
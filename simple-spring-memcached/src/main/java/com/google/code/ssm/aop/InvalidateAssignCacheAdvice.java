@@ -18,8 +18,6 @@
 
 package com.google.code.ssm.aop;
 
-import java.lang.reflect.Method;
-
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -27,8 +25,7 @@ import org.aspectj.lang.annotation.Pointcut;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.code.ssm.aop.support.AnnotationData;
-import com.google.code.ssm.aop.support.AnnotationDataBuilder;
+import com.google.code.ssm.aop.metrics.AdviceRecorder;
 import com.google.code.ssm.api.InvalidateAssignCache;
 
 /**
@@ -59,15 +56,18 @@ public class InvalidateAssignCacheAdvice extends CacheAdvice {
         // This is injected caching. If anything goes wrong in the caching, LOG
         // the crap outta it, but do not let it surface up past the AOP injection itself.
         String cacheKey = null;
+        AdviceRecorder recorder = null;
         try {
-            final Method methodToCache = getCacheBase().getMethodToCache(pjp, InvalidateAssignCache.class);
-            final InvalidateAssignCache annotation = methodToCache.getAnnotation(InvalidateAssignCache.class);
-            final AnnotationData data = AnnotationDataBuilder.buildAnnotationData(annotation, InvalidateAssignCache.class, methodToCache);
+            final AdviceMetadata<InvalidateAssignCache> metadata = getCacheBase().getAdviceMetadata(pjp, InvalidateAssignCache.class);
+            recorder = metadata.getRecorder();
 
-            cacheKey = getCacheBase().getCacheKeyBuilder().getAssignCacheKey(data);
+            cacheKey = getCacheBase().getCacheKeyBuilder().getAssignCacheKey(metadata.getAnnotationData());
 
-            getCacheBase().getCache(data).delete(cacheKey);
+            final long start = startTimer(recorder);
+            invalidate(metadata.getCache(), cacheKey);
+            recordWrite(recorder, start);
         } catch (Exception ex) {
+            recordError(recorder);
             warn(ex, "Caching on method %s and key [%s] aborted due to an error.", pjp.toShortString(), cacheKey);
         }
         return result;
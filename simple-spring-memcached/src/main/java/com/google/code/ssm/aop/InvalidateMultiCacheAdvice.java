@@ -29,8 +29,8 @@ import org.aspectj.lang.annotation.Pointcut;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.code.ssm.aop.metrics.AdviceRecorder;
 import com.google.code.ssm.aop.support.AnnotationData;
-import com.google.code.ssm.aop.support.AnnotationDataBuilder;
 import com.google.code.ssm.aop.support.InvalidAnnotationException;
 import com.google.code.ssm.api.InvalidateMultiCache;
 
@@ -59,21 +59,25 @@ public class InvalidateMultiCacheAdvice extends CacheAdvice {
         // This is injected caching. If anything goes wrong in the caching, LOG
         // the crap outta it, but do not let it surface up past the AOP injection itself.
         Collection<String> cacheKeys = null;
+        final AdviceMetadata<InvalidateMultiCache> metadata;
         final AnnotationData data;
-        final Method methodToCache;
+        AdviceRecorder recorder = null;
         try {
-            methodToCache = getCacheBase().getMethodToCache(pjp, InvalidateMultiCache.class);
-            final InvalidateMultiCache annotation = methodToCache.getAnnotation(InvalidateMultiCache.class);
-            data = AnnotationDataBuilder.buildAnnotationData(annotation, InvalidateMultiCache.class, methodToCache);
+            metadata = getCacheBase().getAdviceMetadata(pjp, InvalidateMultiCache.class);
+            recorder = metadata.getRecorder();
+            data = metadata.getAnnotationData();
             if (!data.isReturnKeyIndex()) {
-                cacheKeys = getCacheBase().getCacheKeyBuilder().getCacheKeys(data, pjp.getArgs(), methodToCache.toString());
+                cacheKeys = getCacheBase().getCacheKeyBuilder().getCacheKeys(data, pjp.getArgs(), metadata.getMethodDesc());
             }
         } catch (Exception ex) {
+            recordError(recorder);
             warn(ex, "Caching on method %s aborted due to an error.", pjp.toShortString());
             return pjp.proceed();
         }
 
+        final long methodStart = startTimer(recorder);
         final Object result = pjp.proceed();
+        recordMethod(recorder, methodStart);
 
         // This is injected caching. If anything goes wrong in the caching, LOG
         // the crap outta it, but do not let it surface up past the AOP injection itself.
@@ -82,15 +86,18 @@ public class InvalidateMultiCacheAdvice extends CacheAdvice {
             if (data.isReturnKeyIndex()) {
                 if (!getCacheBase().verifyTypeIsList(result.getClass())) {
                     throw new InvalidAnnotationException(String.format("The return type is not a [%s]. "
-                            + "The method [%s] does not fulfill the requirements.", List.class.getName(), methodToCache.toString()));
+                            + "The method [%s] does not fulfill the requirements.", List.class.getName(), metadata.getMethodDesc()));
                 }
 
                 @SuppressWarnings("unchecked")
                 final List<Object> keyObjects = (List<Object>) result;
                 cacheKeys = getCacheBase().getCacheKeyBuilder().getCacheKeys(keyObjects, data.getNamespace());
             }
-            getCacheBase().getCache(data).delete(cacheKeys);
+            final long start = startTimer(recorder);
+            invalidate(metadata.getCache(), cacheKeys);
+            recordWrite(recorder, start);
         } catch (Exception ex) {
+            recordError(recorder);
             warn(ex, "Caching on method %s aborted due to an error.", pjp.toShortString());
         }
         return result;
@@ -18,8 +18,6 @@
 
 package com.google.code.ssm.aop;
 
-import java.lang.reflect.Method;
-
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -27,8 +25,8 @@ import org.aspectj.lang.annotation.Pointcut;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.code.ssm.aop.metrics.AdviceRecorder;
 import com.google.code.ssm.aop.support.AnnotationData;
-import com.google.code.ssm.aop.support.AnnotationDataBuilder;
 import com.google.code.ssm.api.InvalidateSingleCache;
 
 /**
@@ -57,32 +55,39 @@ public class InvalidateSingleCacheAdvice extends CacheAdvice {
         // This is injected caching. If anything goes wrong in the caching, LOG
         // the crap outta it, but do not let it surface up past the AOP injection itself.
         String cacheKey = null;
+        final AdviceMetadata<InvalidateSingleCache> metadata;
         final AnnotationData data;
-        final Method methodToCache;
+        AdviceRecorder recorder = null;
         try {
-            methodToCache = getCacheBase().getMethodToCache(pjp, InvalidateSingleCache.class);
-            final InvalidateSingleCache annotation = methodToCache.getAnnotation(InvalidateSingleCache.class);
-            data = AnnotationDataBuilder.buildAnnotationData(annotation, InvalidateSingleCache.class, methodToCache);
+            metadata = getCacheBase().getAdviceMetadata(pjp, InvalidateSingleCache.class);
+            recorder = metadata.getRecorder();
+            data = metadata.getAnnotationData();
             if (!data.isReturnKeyIndex()) {
-                cacheKey = getCacheBase().getCacheKeyBuilder().getCacheKey(data, pjp.getArgs(), methodToCache.toString());
+                cacheKey = getCacheBase().getCacheKeyBuilder().getCacheKey(data, pjp.getArgs(), metadata.getMethodDesc());
             }
         } catch (Exception ex) {
+            recordError(recorder);
             warn(ex, "Caching on method %s and key [%s] aborted due to an error.", pjp.toShortString(), cacheKey);
             return pjp.proceed();
         }
 
+        final long methodStart = startTimer(recorder);
         final Object result = pjp.proceed();
+        recordMethod(recorder, methodStart);
 
         // This is injected caching. If anything goes wrong in the caching, LOG
         // the crap outta it, but do not let it surface up past the AOP injection itself.
         try {
             if (data.isReturnKeyIndex()) {
-                getCacheBase().verifyReturnTypeIsNoVoid(methodToCache, InvalidateSingleCache.class);
+                getCacheBase().verifyReturnTypeIsNoVoid(metadata.getMethod(), InvalidateSingleCache.class);
                 cacheKey = getCacheBase().getCacheKeyBuilder().getCacheKey(result, data.getNamespace());
             }
 
-            getCacheBase().getCache(data).delete(cacheKey);
+            final long start = startTimer(recorder);
+            invalidate(metadata.getCache(), cacheKey);
+            recordWrite(recorder, start);
         } catch (Exception ex) {
+            recordError(recorder);
             warn(ex, "Caching on method %s and key [%s] aborted due to an error.", pjp.toShortString(), cacheKey);
         }
         return result;
@@ -27,6 +27,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import com.google.code.ssm.Cache;
 import com.google.code.ssm.aop.support.AnnotationData;
 import com.google.code.ssm.aop.support.PertinentNegativeNull;
 import com.google.code.ssm.api.ParameterValueKeyProvider;
@@ -69,18 +70,27 @@ abstract class MultiCacheAdvice extends CacheAdvice {
 
     protected void addNullValues(final List<Object> missObjects, final MultiCacheCoordinator coord,
             final SerializationType serializationType) {
-        for (Object keyObject : missObjects) {
-            getCacheBase().getCache(coord.getAnnotationData()).addSilently(coord.getObj2Key().get(keyObject),
-                    coord.getAnnotationData().getExpiration(), PertinentNegativeNull.NULL, serializationType);
+        if (!missObjects.isEmpty()) {
+            populateBulkIfAbsent(coord.getCache(), createNullValues(missObjects, coord), coord.getAnnotationData().getExpiration(),
+                    serializationType);
         }
     }
 
     protected void setNullValues(final List<Object> missObjects, final MultiCacheCoordinator coord,
             final SerializationType serializationType) {
+        if (!missObjects.isEmpty()) {
+            populateBulk(coord.getCache(), createNullValues(missObjects, coord), coord.getAnnotationData().getExpiration(),
+                    serializationType);
+        }
+    }
+
+    private Map<String, Object> createNullValues(final List<Object> missObjects, final MultiCacheCoordinator coord) {
+        final Map<String, Object> nullValues = new LinkedHashMap<String, Object>();
         for (Object keyObject : missObjects) {
-            getCacheBase().getCache(coord.getAnnotationData()).setSilently(coord.getObj2Key().get(keyObject),
-                    coord.getAnnotationData().getExpiration(), PertinentNegativeNull.NULL, serializationType);
+            nullValues.put(coord.getObj2Key().get(keyObject), PertinentNegativeNull.NULL);
         }
+
+        return nullValues;
     }
 
     static class MapHolder {
@@ -99,6 +109,7 @@ abstract class MultiCacheAdvice extends CacheAdvice {
     static class MultiCacheCoordinator {
         private final Method method;
         private final AnnotationData data;
+        private final Cache cache;
         private final Map<String, Object> key2Obj = new LinkedHashMap<String, Object>();
         private final Map<Object, String> obj2Key = new LinkedHashMap<Object, String>();
         private final Map<String, Object> key2Result = new HashMap<String, Object>();
@@ -110,9 +121,10 @@ abstract class MultiCacheAdvice extends CacheAdvice {
         private boolean generateKeysFromResult;
         private boolean skipNullsInResult;
 
-        MultiCacheCoordinator(final Method method, final AnnotationData data) {
+        MultiCacheCoordinator(final Method method, final AnnotationData data, final Cache cache) {
             this.method = method;
             this.data = data;
+            this.cache = cache;
         }
 
         public Method getMethod() {
@@ -139,6 +151,10 @@ abstract class MultiCacheAdvice extends CacheAdvice {
             return data;
         }
 
+        public Cache getCache() {
+            return cache;
+        }
+
         public void setHolder(final MapHolder holder) {
             key2Obj.putAll(holder.getKey2Obj());
             obj2Key.putAll(holder.getObj2Key());
@@ -27,6 +27,7 @@ import org.slf4j.LoggerFactory;
 
 import com.google.code.ssm.aop.support.AnnotationData;
 import com.google.code.ssm.api.ReadThroughAssignCache;
+import com.google.code.ssm.api.ReadThroughSingleCacheOption;
 
 /**
  * 
@@ -58,6 +59,11 @@ public class ReadThroughAssignCacheAdvice extends SingleReadCacheAdvice<ReadThro
         return getCacheBase().getCacheKeyBuilder().getAssignCacheKey(data);
     }
 
+    @Override
+    protected ReadThroughSingleCacheOption getOption(final ReadThroughAssignCache annotation) {
+        return annotation.option();
+    }
+
     @Override
     protected Logger getLogger() {
         return LOG;
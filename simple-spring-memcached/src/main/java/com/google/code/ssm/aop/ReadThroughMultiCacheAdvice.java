@@ -18,9 +18,11 @@
 
 package com.google.code.ssm.aop;
 
-import java.lang.reflect.Method;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
@@ -29,8 +31,10 @@ import org.aspectj.lang.annotation.Pointcut;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.code.ssm.aop.metrics.AdviceRecorder;
 import com.google.code.ssm.aop.support.AnnotationData;
-import com.google.code.ssm.aop.support.AnnotationDataBuilder;
+import com.google.code.ssm.aop.support.PertinentNegativeNull;
+import com.google.code.ssm.aop.support.SoftExpiringValue;
 import com.google.code.ssm.api.ReadThroughMultiCache;
 import com.google.code.ssm.api.ReadThroughMultiCacheOption;
 import com.google.code.ssm.api.format.SerializationType;
@@ -62,34 +66,36 @@ public class ReadThroughMultiCacheAdvice extends MultiCacheAdvice {
 
         // This is injected caching. If anything goes wrong in the caching, LOG
         // the crap outta it, but do not let it surface up past the AOP injection itself.
-        final ReadThroughMultiCache annotation;
+        final AdviceMetadata<ReadThroughMultiCache> metadata;
         final MultiCacheCoordinator coord;
         final AnnotationData data;
         final SerializationType serializationType;
+        AdviceRecorder recorder = null;
 
         Object[] args = pjp.getArgs();
         try {
             // Get the target method being invoked, and make sure it returns the correct info.
-            final Method methodToCache = getCacheBase().getMethodToCache(pjp, ReadThroughMultiCache.class);
-            getCacheBase().verifyReturnTypeIsList(methodToCache, ReadThroughMultiCache.class);
+            metadata = getCacheBase().getAdviceMetadata(pjp, ReadThroughMultiCache.class);
+            recorder = metadata.getRecorder();
+            getCacheBase().verifyReturnTypeIsList(metadata.getMethod(), ReadThroughMultiCache.class);
 
-            // Get the annotation associated with this method, and make sure the values are valid.
-            annotation = methodToCache.getAnnotation(ReadThroughMultiCache.class);
-            serializationType = getCacheBase().getSerializationType(methodToCache);
-
-            data = AnnotationDataBuilder.buildAnnotationData(annotation, ReadThroughMultiCache.class, methodToCache);
-            coord = new MultiCacheCoordinator(methodToCache, data);
-            setMultiCacheOptions(coord, annotation.option());
+            serializationType = metadata.getSerializationType();
+            data = metadata.getAnnotationData();
+            coord = new MultiCacheCoordinator(metadata.getMethod(), data, metadata.getCache());
+            setMultiCacheOptions(coord, metadata.getAnnotation().option());
 
             // Create key->object and object->key mappings.
             coord.setHolder(createObjectIdCacheKeyMapping(data, args, coord.getMethod()));
 
-            List<Object> listKeyObjects = (List<Object>) Utils.getMethodArg(data.getListIndexInMethodArgs(), args, coord.getMethod()
-                    .toString());
+            List<Object> listKeyObjects = (List<Object>) Utils.getMethodArg(data.getListIndexInMethodArgs(), args,
+                    metadata.getMethodDesc());
             coord.setListKeyObjects(listKeyObjects);
 
             // Get the full list of cache keys and ask the cache for the corresponding values.
-            coord.setInitialKey2Result(getCacheBase().getCache(data).getBulk(coord.getKey2Obj().keySet(), serializationType));
+            final long start = startTimer(recorder);
+            coord.setInitialKey2Result(unwrap(coord.getCache().getBulk(coord.getKey2Obj().keySet(), serializationType),
+                    metadata.getAnnotation().option()));
+            recordBulkGet(recorder, coord, start);
 
             // We've gotten all positive cache results back, so build up a results list and return it.
             if (coord.getMissedObjects().isEmpty()) {
@@ -100,6 +106,7 @@ public class ReadThroughMultiCacheAdvice extends MultiCacheAdvice {
             // directly argument array from join point!
             args = coord.createModifiedArgumentList(args);
         } catch (Exception ex) {
+            recordError(recorder);
             warn(ex, "Caching on %s aborted due to an error.", pjp.toShortString());
             return pjp.proceed();
         }
@@ -109,23 +116,31 @@ public class ReadThroughMultiCacheAdvice extends MultiCacheAdvice {
          * in case there are some 'not our fault' problems with the target method. (Connection issues, etc...) Though,
          * this decision could go either way, really.
          */
+        final long start = System.currentTimeMillis();
+        final long methodStart = startTimer(recorder);
         final List<Object> results = (List<Object>) pjp.proceed(args);
+        recordMethod(recorder, methodStart);
+        final long computeTime = System.currentTimeMillis() - start;
 
         try {
+            final ReadThroughMultiCacheOption option = metadata.getAnnotation().option();
+            final long writeStart = startTimer(recorder);
+            final List<?> resultList;
             // there are no results
             if (results == null || results.isEmpty()) {
                 if (coord.isAddNullsToCache()) {
                     addNullValues(coord.getMissedObjects(), coord, serializationType);
                 }
-                return coord.generatePartialResultList();
-            }
-
-            if (coord.isGenerateKeysFromResult()) {
-                return generateByKeysFromResult(results, coord, serializationType);
+                resultList = coord.generatePartialResultList();
+            } else if (coord.isGenerateKeysFromResult()) {
+                resultList = generateByKeysFromResult(results, coord, serializationType, option, computeTime);
             } else {
-                return generateByKeysProviders(results, coord, serializationType);
+                resultList = generateByKeysProviders(results, coord, serializationType, option, computeTime);
             }
+            recordWrite(recorder, writeStart);
+            return resultList;
         } catch (Exception ex) {
+            recordError(recorder);
             warn(ex, "Caching on %s aborted due to an error. The underlying method will be called twice.", pjp.toShortString());
             // invoke underlying method again using unmodified arguments array
             return pjp.proceed(pjp.getArgs());
@@ -139,18 +154,22 @@ public class ReadThroughMultiCacheAdvice extends MultiCacheAdvice {
     }
 
     private List<?> generateByKeysFromResult(final List<Object> results, final MultiCacheCoordinator coord,
-            final SerializationType serializationType) throws Exception {
+            final SerializationType serializationType, final ReadThroughMultiCacheOption option, final long computeTime)
+            throws Exception {
         if (!results.isEmpty()) {
             final AnnotationData data = coord.getAnnotationData();
+            final Map<String, Object> toCache = new LinkedHashMap<String, Object>();
             String cacheKey;
 
             for (Object resultObject : results) {
                 cacheKey = getCacheBase().getCacheKeyBuilder().getCacheKey(resultObject, data.getNamespace());
-                getCacheBase().getCache(coord.getAnnotationData()).setSilently(cacheKey, data.getExpiration(), resultObject,
-                        serializationType);
+                toCache.put(cacheKey, resultObject);
                 coord.getMissedObjects().remove(coord.getKey2Obj().get(cacheKey));
                 coord.getKey2Result().put(cacheKey, resultObject);
             }
+
+            populateBulk(coord.getCache(), wrap(toCache, option, data.getExpiration(), computeTime), data.getExpiration(),
+                    serializationType);
         }
 
         if (coord.isAddNullsToCache()) {
@@ -161,7 +180,7 @@ public class ReadThroughMultiCacheAdvice extends MultiCacheAdvice {
     }
 
     private List<?> generateByKeysProviders(final List<Object> results, final MultiCacheCoordinator coord,
-            final SerializationType serializationType) {
+            final SerializationType serializationType, final ReadThroughMultiCacheOption option, final long computeTime) {
         if (results.size() != coord.getMissedObjects().size()) {
             getLogger().warn(
                     "Did not receive a correlated amount of data from the target method: {}. "
@@ -171,20 +190,80 @@ public class ReadThroughMultiCacheAdvice extends MultiCacheAdvice {
             return results;
         }
 
+        final Map<String, Object> toCache = new LinkedHashMap<String, Object>();
         Iterator<Object> misssedObjectsIter = coord.getMissedObjects().iterator();
         for (Object resultObject : results) {
             resultObject = getCacheBase().getSubmission(resultObject);
             Object keyObject = misssedObjectsIter.next();
             String cacheKey = coord.getObj2Key().get(keyObject);
-            getCacheBase().getCache(coord.getAnnotationData()).setSilently(cacheKey, coord.getAnnotationData().getExpiration(),
-                    resultObject, serializationType);
+            toCache.put(cacheKey, resultObject);
             coord.getKey2Result().put(cacheKey, resultObject);
-
         }
 
+        final int expiration = coord.getAnnotationData().getExpiration();
+        populateBulk(coord.getCache(), wrap(toCache, option, expiration, computeTime), expiration, serializationType);
+
         return coord.generateResultList();
     }
 
+    private void recordBulkGet(final AdviceRecorder recorder, final MultiCacheCoordinator coord, final long start) {
+        if (recorder == null) {
+            return;
+        }
+
+        final long nanos = System.nanoTime() - start;
+        int negativeHits = 0;
+        for (Object result : coord.getKey2Result().values()) {
+            if (result instanceof PertinentNegativeNull) {
+                negativeHits++;
+            }
+        }
+        final int keys = coord.getKey2Obj().size();
+        final int hits = Math.max(0, keys - coord.getMissedObjects().size() - negativeHits);
+        recorder.recordBulkGet(keys, hits, negativeHits, nanos);
+    }
+
+    // unwraps values stored with early expiration, values chosen to be recomputed early are removed as missed
+    private Map<String, Object> unwrap(final Map<String, Object> key2Result, final ReadThroughMultiCacheOption option) {
+        if (key2Result == null) {
+            return null;
+        }
+
+        final long now = System.currentTimeMillis();
+        Map<String, Object> unwrapped = key2Result;
+        for (Map.Entry<String, Object> entry : key2Result.entrySet()) {
+            if (entry.getValue() instanceof SoftExpiringValue) {
+                if (unwrapped == key2Result) {
+                    unwrapped = new HashMap<String, Object>(key2Result);
+                }
+
+                final SoftExpiringValue value = (SoftExpiringValue) entry.getValue();
+                if (option.earlyExpiration() ? value.isStale(now, option.earlyExpirationBeta()) : value.isStale(now)) {
+                    unwrapped.remove(entry.getKey());
+                } else {
+                    unwrapped.put(entry.getKey(), value.getValue());
+                }
+            }
+        }
+
+        return unwrapped;
+    }
+
+    private Map<String, Object> wrap(final Map<String, Object> toCache, final ReadThroughMultiCacheOption option, final int expiration,
+            final long computeTime) {
+        if (!option.earlyExpiration() || expiration <= 0) {
+            return toCache;
+        }
+
+        // all values computed by one invocation expire at the same time, early expiration spreads their recomputation
+        final long expiresAt = getExpirationTime(expiration, System.currentTimeMillis());
+        for (Map.Entry<String, Object> entry : toCache.entrySet()) {
+            entry.setValue(new SoftExpiringValue(entry.getValue(), expiresAt, computeTime));
+        }
+
+        return toCache;
+    }
+
     @Override
     protected Logger getLogger() {
         return LOG;
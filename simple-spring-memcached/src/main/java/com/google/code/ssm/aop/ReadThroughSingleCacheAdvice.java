@@ -27,6 +27,7 @@ import org.slf4j.LoggerFactory;
 
 import com.google.code.ssm.aop.support.AnnotationData;
 import com.google.code.ssm.api.ReadThroughSingleCache;
+import com.google.code.ssm.api.ReadThroughSingleCacheOption;
 
 /**
  * 
@@ -58,6 +59,11 @@ public class ReadThroughSingleCacheAdvice extends SingleReadCacheAdvice<ReadThro
         return getCacheBase().getCacheKeyBuilder().getCacheKey(data, args, methodDesc);
     }
 
+    @Override
+    protected ReadThroughSingleCacheOption getOption(final ReadThroughSingleCache annotation) {
+        return annotation.option();
+    }
+
     @Override
     protected Logger getLogger() {
         return LOG;
@@ -19,13 +19,19 @@
 package com.google.code.ssm.aop;
 
 import java.lang.annotation.Annotation;
-import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 
 import org.aspectj.lang.ProceedingJoinPoint;
 
+import com.google.code.ssm.Cache;
+import com.google.code.ssm.aop.metrics.AdviceRecorder;
 import com.google.code.ssm.aop.support.AnnotationData;
-import com.google.code.ssm.aop.support.AnnotationDataBuilder;
+import com.google.code.ssm.aop.support.PertinentNegativeNull;
+import com.google.code.ssm.aop.support.SoftExpiringValue;
+import com.google.code.ssm.api.ReadThroughSingleCacheOption;
 import com.google.code.ssm.api.format.SerializationType;
+import com.google.code.ssm.util.SingleFlight;
 
 /**
  * 
@@ -38,6 +44,10 @@ import com.google.code.ssm.api.format.SerializationType;
  */
 abstract class SingleReadCacheAdvice<T extends Annotation> extends CacheAdvice {
 
+    static final String LEASE_SUFFIX = ".lock";
+
+    private static final String LEASE_VALUE = "1";
+
     private final Class<T> annotationClass;
 
     protected SingleReadCacheAdvice(final Class<T> annotationClass) {
@@ -51,42 +61,208 @@ abstract class SingleReadCacheAdvice<T extends Annotation> extends CacheAdvice {
         }
         // This is injected caching. If anything goes wrong in the caching, LOG
         // the crap outta it, but do not let it surface up past the AOP injection itself.
-        final T annotation;
-        final AnnotationData data;
-        final SerializationType serializationType;
+        final AdviceMetadata<T> metadata;
+        AdviceRecorder recorder = null;
         String cacheKey = null;
+        boolean recompute = false;
         try {
-            final Method methodToCache = getCacheBase().getMethodToCache(pjp, annotationClass);
-            getCacheBase().verifyReturnTypeIsNoVoid(methodToCache, annotationClass);
-            annotation = methodToCache.getAnnotation(annotationClass);
-            serializationType = getCacheBase().getSerializationType(methodToCache);
-            data = AnnotationDataBuilder.buildAnnotationData(annotation, annotationClass, methodToCache);
+            metadata = getCacheBase().getAdviceMetadata(pjp, annotationClass);
+            recorder = metadata.getRecorder();
+            getCacheBase().verifyReturnTypeIsNoVoid(metadata.getMethod(), annotationClass);
 
-            cacheKey = getCacheKey(data, pjp.getArgs(), methodToCache.toString());
+            cacheKey = getCacheKey(metadata.getAnnotationData(), pjp.getArgs(), metadata.getMethodDesc());
 
-            final Object result = getCacheBase().getCache(data).get(cacheKey, serializationType);
+            final long start = startTimer(recorder);
+            final Object result = metadata.getCache().get(cacheKey, metadata.getSerializationType(),
+                    metadata.getMethod().getGenericReturnType());
             if (result != null) {
                 getLogger().debug("Cache hit.");
-                return getCacheBase().getResult(result);
+                final ReadThroughSingleCacheOption option = getOption(metadata.getAnnotation());
+                if (result instanceof SoftExpiringValue && isStale((SoftExpiringValue) result, option)) {
+                    // without background refresh stale value is recomputed by the caller
+                    final AsyncRefresher refresher = getCacheBase().getAsyncRefresher();
+                    if (option != null && option.softExpiration() > 0 && refresher != null) {
+                        refreshAsync(refresher, pjp, metadata, cacheKey);
+                    } else {
+                        recompute = true;
+                    }
+                }
+                if (!recompute) {
+                    recordHit(recorder, result, start);
+                    return getCacheBase().getResult(result);
+                }
+            }
+            if (recorder != null) {
+                recorder.recordMiss(System.nanoTime() - start);
             }
         } catch (Exception ex) {
+            recordError(recorder);
             warn(ex, "Caching on method %s and key [%s] aborted due to an error.", pjp.toShortString(), cacheKey);
             return pjp.proceed();
         }
 
+        if (recompute) {
+            // recomputed like a missing value so concurrent callers and other nodes don't invoke the method too
+            getLogger().debug("Value of key [{}] is stale or expires early, recomputing.", cacheKey);
+        }
+
+        final SingleFlight singleFlight = getCacheBase().getSingleFlight();
+        if (singleFlight == null) {
+            return load(pjp, metadata, cacheKey);
+        }
+
+        // only one thread per cache key invokes the method, others get its result
+        final String key = cacheKey;
+        return singleFlight.execute(Arrays.<Object> asList(metadata.getCache(), key), () -> load(pjp, metadata, key));
+    }
+
+    protected abstract ReadThroughSingleCacheOption getOption(final T annotation);
+
+    private Object load(final ProceedingJoinPoint pjp, final AdviceMetadata<T> metadata, final String cacheKey) throws Throwable {
+        final ReadThroughSingleCacheOption option = getOption(metadata.getAnnotation());
+        if (option == null || !option.lease()) {
+            return proceedAndCache(pjp, metadata, cacheKey, false);
+        }
+
+        final Cache cache = metadata.getCache();
+        final String leaseKey = cacheKey + LEASE_SUFFIX;
+        boolean leased = false;
+        try {
+            leased = cache.add(leaseKey, option.leaseExpiration(), LEASE_VALUE, SerializationType.PROVIDER);
+        } catch (Exception ex) {
+            warn(ex, "Acquiring lease on method %s and key [%s] aborted due to an error.", pjp.toShortString(), leaseKey);
+            return proceedAndCache(pjp, metadata, cacheKey, false);
+        }
+
+        if (leased) {
+            try {
+                // value has to be stored before the lease is released, nodes waiting for it would invoke method otherwise
+                return proceedAndCache(pjp, metadata, cacheKey, true);
+            } finally {
+                releaseLease(pjp, cache, leaseKey);
+            }
+        }
+
+        // other node holds the lease, wait until it stores the value
+        final long deadline = System.currentTimeMillis() + option.leaseWait();
+        try {
+            while (System.currentTimeMillis() < deadline) {
+                Thread.sleep(option.leasePollInterval());
+                final Object result = cache.get(cacheKey, metadata.getSerializationType(), metadata.getMethod().getGenericReturnType());
+                if (result != null) {
+                    getLogger().debug("Cache hit after waiting for lease.");
+                    return getCacheBase().getResult(result);
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (Exception ex) {
+            warn(ex, "Waiting for lease on method %s and key [%s] aborted due to an error.", pjp.toShortString(), cacheKey);
+        }
+
+        return proceedAndCache(pjp, metadata, cacheKey, false);
+    }
+
+    private void releaseLease(final ProceedingJoinPoint pjp, final Cache cache, final String leaseKey) {
+        try {
+            cache.delete(leaseKey);
+        } catch (Exception ex) {
+            warn(ex, "Releasing lease on method %s and key [%s] aborted due to an error.", pjp.toShortString(), leaseKey);
+        }
+    }
+
+    private boolean isStale(final SoftExpiringValue value, final ReadThroughSingleCacheOption option) {
+        final long now = System.currentTimeMillis();
+        if (option != null && option.earlyExpiration()) {
+            return value.isStale(now, option.earlyExpirationBeta());
+        }
+        return value.isStale(now);
+    }
+
+    private void refreshAsync(final AsyncRefresher refresher, final ProceedingJoinPoint pjp, final AdviceMetadata<T> metadata,
+            final String cacheKey) {
+        if (refresher.refresh(metadata.getCache(), cacheKey, () -> refresh(pjp, metadata, cacheKey))) {
+            getLogger().debug("Stale value of key [{}] returned, refresh scheduled.", cacheKey);
+        }
+    }
+
+    private void refresh(final ProceedingJoinPoint pjp, final AdviceMetadata<T> metadata, final String cacheKey) {
+        final ReadThroughSingleCacheOption option = getOption(metadata.getAnnotation());
+        final Cache cache = metadata.getCache();
+        final String leaseKey = cacheKey + LEASE_SUFFIX;
+        final boolean lease = option != null && option.lease();
+        try {
+            if (lease && !cache.add(leaseKey, option.leaseExpiration(), LEASE_VALUE, SerializationType.PROVIDER)) {
+                // other node is already refreshing the value
+                return;
+            }
+        } catch (Exception ex) {
+            warn(ex, "Acquiring lease on method %s and key [%s] aborted due to an error.", pjp.toShortString(), leaseKey);
+            return;
+        }
+
+        try {
+            proceedAndCache(pjp, metadata, cacheKey, lease);
+        } catch (Throwable ex) {
+            getLogger().warn(String.format("Refreshing value on method %s and key [%s] aborted due to an error.", pjp.toShortString(),
+                    cacheKey), ex);
+        } finally {
+            if (lease) {
+                releaseLease(pjp, cache, leaseKey);
+            }
+        }
+    }
+
+    private Object proceedAndCache(final ProceedingJoinPoint pjp, final AdviceMetadata<T> metadata, final String cacheKey,
+            final boolean synchronous) throws Throwable {
+        final AdviceRecorder recorder = metadata.getRecorder();
+        final long start = System.currentTimeMillis();
+        final long methodStart = startTimer(recorder);
         final Object result = pjp.proceed();
+        recordMethod(recorder, methodStart);
+        final long now = System.currentTimeMillis();
 
         // This is injected caching. If anything goes wrong in the caching, LOG
         // the crap outta it, but do not let it surface up past the AOP injection itself.
         try {
-            final Object submission = getCacheBase().getSubmission(result);
-            getCacheBase().getCache(data).set(cacheKey, data.getExpiration(), submission, serializationType);
+            final long writeStart = startTimer(recorder);
+            final int expiration = metadata.getAnnotationData().getExpiration();
+            Object submission = getCacheBase().getSubmission(result);
+            final ReadThroughSingleCacheOption option = getOption(metadata.getAnnotation());
+            if (option != null && option.softExpiration() > 0) {
+                submission = new SoftExpiringValue(submission, now + TimeUnit.SECONDS.toMillis(option.softExpiration()), now - start);
+            } else if (option != null && option.earlyExpiration() && expiration > 0) {
+                submission = new SoftExpiringValue(submission, getExpirationTime(expiration, now), now - start);
+            }
+            if (synchronous) {
+                populateSynchronously(metadata.getCache(), cacheKey, expiration, submission, metadata.getSerializationType(),
+                        metadata.getMethod().getGenericReturnType());
+            } else {
+                populate(metadata.getCache(), cacheKey, expiration, submission, metadata.getSerializationType(), metadata.getMethod()
+                        .getGenericReturnType());
+            }
+            recordWrite(recorder, writeStart);
         } catch (Exception ex) {
+            recordError(recorder);
             warn(ex, "Caching on method %s and key [%s] aborted due to an error.", pjp.toShortString(), cacheKey);
         }
         return result;
     }
 
+    private void recordHit(final AdviceRecorder recorder, final Object result, final long start) {
+        if (recorder == null) {
+            return;
+        }
+
+        final long nanos = System.nanoTime() - start;
+        final Object value = result instanceof SoftExpiringValue ? ((SoftExpiringValue) result).getValue() : result;
+        if (value instanceof PertinentNegativeNull) {
+            recorder.recordNegativeHit(nanos);
+        } else {
+            recorder.recordHit(nanos);
+        }
+    }
+
     protected abstract String getCacheKey(final AnnotationData data, final Object[] args, final String methodDesc) throws Exception;
 
 }
@@ -19,13 +19,11 @@
 package com.google.code.ssm.aop;
 
 import java.lang.annotation.Annotation;
-import java.lang.reflect.Method;
 
 import org.aspectj.lang.JoinPoint;
 
+import com.google.code.ssm.aop.metrics.AdviceRecorder;
 import com.google.code.ssm.aop.support.AnnotationData;
-import com.google.code.ssm.aop.support.AnnotationDataBuilder;
-import com.google.code.ssm.api.format.SerializationType;
 
 /**
  * 
@@ -54,22 +52,25 @@ abstract class SingleUpdateCacheAdvice<T extends Annotation> extends CacheAdvice
         // apply our caching after the underlying method completes successfully, and we will have
         // the same access to the method params.
         String cacheKey = null;
+        AdviceRecorder recorder = null;
         try {
-            final Method methodToCache = getCacheBase().getMethodToCache(jp, annotationClass);
-            final T annotation = methodToCache.getAnnotation(annotationClass);
-            final AnnotationData data = AnnotationDataBuilder.buildAnnotationData(annotation, annotationClass, methodToCache);
+            final AdviceMetadata<T> metadata = getCacheBase().getAdviceMetadata(jp, annotationClass);
+            recorder = metadata.getRecorder();
+            final AnnotationData data = metadata.getAnnotationData();
 
             if (data.isReturnKeyIndex()) {
                 cacheKey = getCacheBase().getCacheKeyBuilder().getCacheKey(retVal, data.getNamespace());
             } else {
-                cacheKey = getCacheKey(data, jp.getArgs(), methodToCache.toString());
+                cacheKey = getCacheKey(data, jp.getArgs(), metadata.getMethodDesc());
             }
 
-            final Object dataObject = getCacheBase().<Object> getUpdateData(data, methodToCache, jp.getArgs(), retVal);
-            final SerializationType serializationType = getCacheBase().getSerializationType(methodToCache);
+            final Object dataObject = getCacheBase().<Object> getUpdateData(data, metadata.getMethod(), jp.getArgs(), retVal);
             final Object submission = getCacheBase().getSubmission(dataObject);
-            getCacheBase().getCache(data).set(cacheKey, data.getExpiration(), submission, serializationType);
+            final long start = startTimer(recorder);
+            populate(metadata.getCache(), cacheKey, data.getExpiration(), submission, metadata.getSerializationType());
+            recordWrite(recorder, start);
         } catch (Exception ex) {
+            recordError(recorder);
             warn(ex, "Caching on method %s and key [%s] aborted due to an error.", jp.toShortString(), cacheKey);
         }
     }
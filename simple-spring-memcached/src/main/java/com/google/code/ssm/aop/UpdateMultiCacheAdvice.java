@@ -18,11 +18,11 @@
 
 package com.google.code.ssm.aop;
 
-import java.lang.reflect.Method;
 import java.security.InvalidParameterException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -33,8 +33,9 @@ import org.aspectj.lang.annotation.Pointcut;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.code.ssm.Cache;
+import com.google.code.ssm.aop.metrics.AdviceRecorder;
 import com.google.code.ssm.aop.support.AnnotationData;
-import com.google.code.ssm.aop.support.AnnotationDataBuilder;
 import com.google.code.ssm.aop.support.InvalidAnnotationException;
 import com.google.code.ssm.api.UpdateMultiCache;
 import com.google.code.ssm.api.UpdateMultiCacheOption;
@@ -66,13 +67,15 @@ public class UpdateMultiCacheAdvice extends MultiCacheAdvice {
         // For Update*Cache, an AfterReturning aspect is fine. We will only
         // apply our caching after the underlying method completes successfully, and we will have
         // the same access to the method params.
+        AdviceRecorder recorder = null;
         try {
-            final Method methodToCache = getCacheBase().getMethodToCache(jp, UpdateMultiCache.class);
-            final UpdateMultiCache annotation = methodToCache.getAnnotation(UpdateMultiCache.class);
-            final AnnotationData data = AnnotationDataBuilder.buildAnnotationData(annotation, UpdateMultiCache.class, methodToCache);
-            final List<Object> dataList = getCacheBase().<List<Object>> getUpdateData(data, methodToCache, jp.getArgs(), retVal);
-            final SerializationType serializationType = getCacheBase().getSerializationType(methodToCache);
-            final MultiCacheCoordinator coord = new MultiCacheCoordinator(methodToCache, data);
+            final AdviceMetadata<UpdateMultiCache> metadata = getCacheBase().getAdviceMetadata(jp, UpdateMultiCache.class);
+            recorder = metadata.getRecorder();
+            final UpdateMultiCache annotation = metadata.getAnnotation();
+            final AnnotationData data = metadata.getAnnotationData();
+            final List<Object> dataList = getCacheBase().<List<Object>> getUpdateData(data, metadata.getMethod(), jp.getArgs(), retVal);
+            final SerializationType serializationType = metadata.getSerializationType();
+            final MultiCacheCoordinator coord = new MultiCacheCoordinator(metadata.getMethod(), data, metadata.getCache());
             coord.setAddNullsToCache(annotation.option().addNullsToCache());
 
             final List<String> cacheKeys;
@@ -86,14 +89,15 @@ public class UpdateMultiCacheAdvice extends MultiCacheAdvice {
                 coord.setHolder(createObjectIdCacheKeyMapping(coord.getAnnotationData(), jp.getArgs(), coord.getMethod()));
                 @SuppressWarnings("unchecked")
                 List<Object> listKeyObjects = (List<Object>) Utils.getMethodArg(data.getListIndexInMethodArgs(), jp.getArgs(),
-                        methodToCache.toString());
+                        metadata.getMethodDesc());
                 coord.setListKeyObjects(listKeyObjects);
                 // keySet is sorted
                 cacheKeys = new ArrayList<String>(coord.getKey2Obj().keySet());
             }
 
+            final long start = startTimer(recorder);
             if (!annotation.option().addNullsToCache()) {
-                updateCache(cacheKeys, dataList, methodToCache, data, serializationType);
+                updateCache(cacheKeys, dataList, metadata.getMethodDesc(), data, metadata.getCache(), serializationType);
             } else {
                 Map<String, Object> key2Result = new HashMap<String, Object>();
                 for (String cacheKey : cacheKeys) {
@@ -102,7 +106,9 @@ public class UpdateMultiCacheAdvice extends MultiCacheAdvice {
                 coord.setInitialKey2Result(key2Result);
                 updateCacheWithMissed(dataList, coord, annotation.option(), serializationType);
             }
+            recordWrite(recorder, start);
         } catch (Exception ex) {
+            recordError(recorder);
             warn(ex, "Updating caching via %s aborted due to an error.", jp.toShortString());
         }
     }
@@ -127,13 +133,14 @@ public class UpdateMultiCacheAdvice extends MultiCacheAdvice {
         return holder;
     }
 
-    void updateCache(final List<String> cacheKeys, final List<Object> returnList, final Method methodToCache, final AnnotationData data,
-            final SerializationType serializationType) {
+    void updateCache(final List<String> cacheKeys, final List<Object> returnList, final String methodDesc, final AnnotationData data,
+            final Cache cache, final SerializationType serializationType) {
         if (returnList.size() != cacheKeys.size()) {
             throw new InvalidAnnotationException(String.format(
-                    "The key generation objects, and the resulting objects do not match in size for [%s].", methodToCache.toString()));
+                    "The key generation objects, and the resulting objects do not match in size for [%s].", methodDesc));
         }
 
+        final Map<String, Object> toCache = new LinkedHashMap<String, Object>();
         Iterator<Object> returnListIter = returnList.iterator();
         Iterator<String> cacheKeyIter = cacheKeys.iterator();
         String cacheKey;
@@ -142,7 +149,11 @@ public class UpdateMultiCacheAdvice extends MultiCacheAdvice {
             result = returnListIter.next();
             cacheKey = cacheKeyIter.next();
             cacheObject = getCacheBase().getSubmission(result);
-            getCacheBase().getCache(data).setSilently(cacheKey, data.getExpiration(), cacheObject, serializationType);
+            toCache.put(cacheKey, cacheObject);
+        }
+
+        if (!toCache.isEmpty()) {
+            populateBulk(cache, toCache, data.getExpiration(), serializationType);
         }
     }
 
@@ -151,15 +162,17 @@ public class UpdateMultiCacheAdvice extends MultiCacheAdvice {
         if (!dataUpdateContents.isEmpty()) {
             List<String> cacheKeys = getCacheBase().getCacheKeyBuilder().getCacheKeys(dataUpdateContents,
                     coord.getAnnotationData().getNamespace());
+            final Map<String, Object> toCache = new LinkedHashMap<String, Object>();
             String cacheKey;
 
             Iterator<String> iter = cacheKeys.iterator();
             for (Object resultObject : dataUpdateContents) {
                 cacheKey = iter.next();
-                getCacheBase().getCache(coord.getAnnotationData()).setSilently(cacheKey, coord.getAnnotationData().getExpiration(),
-                        resultObject, serializationType);
+                toCache.put(cacheKey, resultObject);
                 coord.getMissedObjects().remove(coord.getKey2Obj().get(cacheKey));
             }
+
+            populateBulk(coord.getCache(), toCache, coord.getAnnotationData().getExpiration(), serializationType);
         }
 
         if (option.overwriteNoNulls()) {
@@ -0,0 +1,492 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.code.ssm.Cache;
+import com.google.code.ssm.PrefixedCacheImpl;
+import com.google.code.ssm.api.format.SerializationType;
+
+/**
+ * Bounded queue of pending cache writes drained by a small pool of daemon worker threads. Keys are spread over the
+ * workers by hash and each worker has its own part of the queue, so writes to the same key are always stored by the same
+ * thread in order they were queued. Writes of the same type (set or add) to the same key that are still waiting in the
+ * queue are coalesced, only the latest value is stored. Pending set and add of the same key are kept separately and may
+ * be executed in any order. If the queue is full new writes are dropped, the cache will be populated again on next
+ * cache miss. Writes are identified by the name of the cache and the key under which the value is stored in memcached,
+ * so writes through different prefixed views of the same cache are coalesced too. Pending writes of the same cache,
+ * expiration and serialization type are stored using single bulk operation. Before a key is deleted from cache its
+ * pending writes must be cancelled, otherwise stale value may be stored after the delete.
+ *
+ * @author Jakub Białek
+ * @since 4.1.4
+ *
+ */
+public final class WriteBehindQueue {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WriteBehindQueue.class);
+
+    private static final int MAX_BATCH_SIZE = 64;
+
+    private final ConcurrentMap<WriteKey, PendingWrite> pending = new ConcurrentHashMap<WriteKey, PendingWrite>();
+
+    private final Shard[] shards;
+
+    private final Thread[] workers;
+
+    private final AtomicLong droppedWrites = new AtomicLong();
+
+    private final AtomicLong coalescedWrites = new AtomicLong();
+
+    private final AtomicLong completedWrites = new AtomicLong();
+
+    private volatile boolean running = true;
+
+    public WriteBehindQueue(final int capacity, final int threads) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity of write behind queue must be positive");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of write behind threads must be positive");
+        }
+
+        // capacity is split evenly between workers
+        final int shardCapacity = Math.max(1, (capacity + threads - 1) / threads);
+        shards = new Shard[threads];
+        workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            shards[i] = new Shard(shardCapacity);
+            workers[i] = new Thread(new Worker(shards[i]), "ssm-write-behind-" + (i + 1));
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    /**
+     * Schedules storing value in cache.
+     *
+     * @param cache
+     *            the cache
+     * @param key
+     *            the key
+     * @param expiration
+     *            expiration time in seconds as defined in memcached specification
+     * @param value
+     *            the value
+     * @param serializationType
+     *            the type of serialization to use
+     */
+    public void set(final Cache cache, final String key, final int expiration, final Object value,
+            final SerializationType serializationType) {
+        offer(new PendingWrite(cache, key, expiration, value, serializationType, false));
+    }
+
+    /**
+     * Schedules storing all values in cache.
+     *
+     * @param cache
+     *            the cache
+     * @param items
+     *            the keys and values to store
+     * @param expiration
+     *            expiration time in seconds as defined in memcached specification
+     * @param serializationType
+     *            the type of serialization to use
+     */
+    public void setBulk(final Cache cache, final Map<String, ?> items, final int expiration, final SerializationType serializationType) {
+        for (Map.Entry<String, ?> entry : items.entrySet()) {
+            offer(new PendingWrite(cache, entry.getKey(), expiration, entry.getValue(), serializationType, false));
+        }
+    }
+
+    /**
+     * Schedules adding values to cache if there aren't any values under given keys.
+     *
+     * @param cache
+     *            the cache
+     * @param items
+     *            the keys and values to add
+     * @param expiration
+     *            expiration time in seconds as defined in memcached specification
+     * @param serializationType
+     *            the type of serialization to use
+     */
+    public void addBulk(final Cache cache, final Map<String, ?> items, final int expiration, final SerializationType serializationType) {
+        for (Map.Entry<String, ?> entry : items.entrySet()) {
+            offer(new PendingWrite(cache, entry.getKey(), expiration, entry.getValue(), serializationType, true));
+        }
+    }
+
+    /**
+     * Cancels pending writes to the key and waits until the write of the key currently executed by worker thread, if
+     * any, is completed. Should be called before the key is deleted from cache.
+     *
+     * @param cache
+     *            the cache
+     * @param key
+     *            the key
+     */
+    public void cancel(final Cache cache, final String key) {
+        cancel(cache, Collections.singleton(key));
+    }
+
+    /**
+     * Cancels pending writes to the keys and waits until the writes of the keys currently executed by worker threads,
+     * if any, are completed. Should be called before the keys are deleted from cache.
+     *
+     * @param cache
+     *            the cache
+     * @param keys
+     *            the keys
+     */
+    public void cancel(final Cache cache, final Collection<String> keys) {
+        final String cacheName = getTargetCache(cache).getName();
+        final Set<Shard> inFlight = new LinkedHashSet<Shard>();
+        for (String key : keys) {
+            final WriteKey writeKey = new WriteKey(cacheName, getTargetKey(cache, key), false);
+            pending.remove(writeKey);
+            pending.remove(new WriteKey(cacheName, writeKey.key, true));
+            inFlight.add(shardFor(writeKey));
+        }
+
+        // worker removes pending writes while holding the lock so once the lock is acquired the batch is stored
+        for (Shard shard : inFlight) {
+            shard.writeLock.lock();
+            shard.writeLock.unlock();
+        }
+    }
+
+    /**
+     *
+     * @return the number of writes waiting in the queue
+     */
+    public int getQueueSize() {
+        int size = 0;
+        for (Shard shard : shards) {
+            size += shard.queue.size();
+        }
+
+        return size;
+    }
+
+    /**
+     *
+     * @return the number of writes rejected because the queue was full or shut down
+     */
+    public long getDroppedWrites() {
+        return droppedWrites.get();
+    }
+
+    /**
+     *
+     * @return the number of writes replaced by a newer write to the same key before they were stored
+     */
+    public long getCoalescedWrites() {
+        return coalescedWrites.get();
+    }
+
+    /**
+     *
+     * @return the number of writes passed to the cache
+     */
+    public long getCompletedWrites() {
+        return completedWrites.get();
+    }
+
+    /**
+     * Stops worker threads and stores remaining writes in the calling thread.
+     */
+    public void shutdown() {
+        running = false;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        final List<WriteKey> remaining = new ArrayList<WriteKey>();
+        for (Shard shard : shards) {
+            shard.queue.drainTo(remaining);
+        }
+        write(remaining);
+    }
+
+    private void offer(final PendingWrite write) {
+        if (!running) {
+            droppedWrites.incrementAndGet();
+            return;
+        }
+
+        final WriteKey key = new WriteKey(write.cache.getName(), write.key, write.add);
+        if (pending.put(key, write) != null) {
+            // the key is already queued, worker will store the latest value
+            coalescedWrites.incrementAndGet();
+            return;
+        }
+
+        final BlockingQueue<WriteKey> queue = shardFor(key).queue;
+        PendingWrite latest = write;
+        while (!queue.offer(key)) {
+            if (pending.remove(key, latest)) {
+                droppedWrites.incrementAndGet();
+                LOG.debug("Write behind queue is full, write to key {} dropped", write.key);
+                return;
+            }
+            // concurrent write to the same key has been coalesced into this one, it's not queued yet so try again
+            latest = pending.get(key);
+            if (latest == null) {
+                return;
+            }
+        }
+    }
+
+    // prefixed views are created per advised method, writes go directly to the cache they share
+    private static Cache getTargetCache(final Cache cache) {
+        return cache instanceof PrefixedCacheImpl ? ((PrefixedCacheImpl) cache).getCache() : cache;
+    }
+
+    private static String getTargetKey(final Cache cache, final String key) {
+        return cache instanceof PrefixedCacheImpl ? ((PrefixedCacheImpl) cache).getPrefixedKey(key) : key;
+    }
+
+    private Shard shardFor(final WriteKey key) {
+        final int hash = key.shardHash();
+        return shards[((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % shards.length];
+    }
+
+    private void write(final List<WriteKey> keys) {
+        // group writes that can be executed as one bulk operation
+        final Map<BatchKey, Map<String, Object>> batches = new LinkedHashMap<BatchKey, Map<String, Object>>();
+        for (WriteKey key : keys) {
+            final PendingWrite write = pending.remove(key);
+            if (write == null) {
+                continue;
+            }
+
+            final BatchKey batchKey = new BatchKey(write);
+            Map<String, Object> items = batches.get(batchKey);
+            if (items == null) {
+                items = new LinkedHashMap<String, Object>();
+                batches.put(batchKey, items);
+            }
+            items.put(write.key, write.value);
+        }
+
+        for (Map.Entry<BatchKey, Map<String, Object>> batch : batches.entrySet()) {
+            write(batch.getKey(), batch.getValue());
+        }
+    }
+
+    private void write(final BatchKey batch, final Map<String, Object> items) {
+        try {
+            if (items.size() == 1) {
+                final Map.Entry<String, Object> item = items.entrySet().iterator().next();
+                if (batch.add) {
+                    batch.cache.addSilently(item.getKey(), batch.expiration, item.getValue(), batch.serializationType);
+                } else {
+                    batch.cache.setSilently(item.getKey(), batch.expiration, item.getValue(), batch.serializationType);
+                }
+            } else if (batch.add) {
+                batch.cache.addBulkSilently(items, batch.expiration, batch.serializationType);
+            } else {
+                batch.cache.setBulkSilently(items, batch.expiration, batch.serializationType);
+            }
+            completedWrites.addAndGet(items.size());
+        } catch (RuntimeException e) {
+            LOG.warn("Cannot store " + items.size() + " value(s) in cache " + batch.cache.getName(), e);
+        }
+    }
+
+    private static final class Shard {
+
+        private final BlockingQueue<WriteKey> queue;
+
+        private final Lock writeLock = new ReentrantLock();
+
+        Shard(final int capacity) {
+            this.queue = new ArrayBlockingQueue<WriteKey>(capacity);
+        }
+
+    }
+
+    private class Worker implements Runnable {
+
+        private final Shard shard;
+
+        Worker(final Shard shard) {
+            this.shard = shard;
+        }
+
+        @Override
+        public void run() {
+            final List<WriteKey> keys = new ArrayList<WriteKey>(MAX_BATCH_SIZE);
+            while (running) {
+                try {
+                    keys.add(shard.queue.take());
+                } catch (InterruptedException e) {
+                    break;
+                }
+
+                shard.queue.drainTo(keys, MAX_BATCH_SIZE - 1);
+                shard.writeLock.lock();
+                try {
+                    write(keys);
+                } finally {
+                    shard.writeLock.unlock();
+                }
+                keys.clear();
+            }
+        }
+
+    }
+
+    private static final class PendingWrite {
+
+        private final Cache cache;
+
+        private final String key;
+
+        private final int expiration;
+
+        private final Object value;
+
+        private final SerializationType serializationType;
+
+        private final boolean add;
+
+        PendingWrite(final Cache cache, final String key, final int expiration, final Object value,
+                final SerializationType serializationType, final boolean add) {
+            this.cache = getTargetCache(cache);
+            this.key = getTargetKey(cache, key);
+            this.expiration = expiration;
+            this.value = value;
+            this.serializationType = serializationType;
+            this.add = add;
+        }
+
+    }
+
+    private static final class WriteKey {
+
+        private final String cacheName;
+
+        private final String key;
+
+        private final boolean add;
+
+        WriteKey(final String cacheName, final String key, final boolean add) {
+            this.cacheName = cacheName;
+            this.key = key;
+            this.add = add;
+        }
+
+        /**
+         * Set and add of the same key are handled by the same worker.
+         */
+        int shardHash() {
+            return 31 * Objects.hashCode(cacheName) + key.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * shardHash() + (add ? 1 : 0);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof WriteKey)) {
+                return false;
+            }
+
+            final WriteKey other = (WriteKey) obj;
+            return Objects.equals(cacheName, other.cacheName) && key.equals(other.key) && add == other.add;
+        }
+
+    }
+
+    private static final class BatchKey {
+
+        private final Cache cache;
+
+        private final int expiration;
+
+        private final SerializationType serializationType;
+
+        private final boolean add;
+
+        BatchKey(final PendingWrite write) {
+            this.cache = write.cache;
+            this.expiration = write.expiration;
+            this.serializationType = write.serializationType;
+            this.add = write.add;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = System.identityHashCode(cache);
+            result = 31 * result + expiration;
+            result = 31 * result + (serializationType == null ? 0 : serializationType.hashCode());
+            return 31 * result + (add ? 1 : 0);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof BatchKey)) {
+                return false;
+            }
+
+            final BatchKey other = (BatchKey) obj;
+            return cache == other.cache && expiration == other.expiration && serializationType == other.serializationType
+                    && add == other.add;
+        }
+
+    }
+
+}
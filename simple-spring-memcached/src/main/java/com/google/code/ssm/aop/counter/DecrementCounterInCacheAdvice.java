@@ -17,8 +17,6 @@
 
 package com.google.code.ssm.aop.counter;
 
-import java.lang.reflect.Method;
-
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.AfterReturning;
 import org.aspectj.lang.annotation.Aspect;
@@ -26,8 +24,7 @@ import org.aspectj.lang.annotation.Pointcut;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.code.ssm.aop.support.AnnotationData;
-import com.google.code.ssm.aop.support.AnnotationDataBuilder;
+import com.google.code.ssm.aop.AdviceMetadata;
 import com.google.code.ssm.api.counter.DecrementCounterInCache;
 
 /**
@@ -56,13 +53,11 @@ public class DecrementCounterInCacheAdvice extends CounterInCacheBase {
         // the crap outta it, but do not let it surface up past the AOP injection itself.
         // It will be invoked only if underlying method completes successfully.
         String cacheKey = null;
-        DecrementCounterInCache annotation;
         try {
-            Method methodToCache = getCacheBase().getMethodToCache(jp, DecrementCounterInCache.class);
-            annotation = methodToCache.getAnnotation(DecrementCounterInCache.class);
-            AnnotationData data = AnnotationDataBuilder.buildAnnotationData(annotation, DecrementCounterInCache.class, methodToCache);
-            cacheKey = getCacheBase().getCacheKeyBuilder().getCacheKey(data, jp.getArgs(), methodToCache.toString());
-            getCacheBase().getCache(data).decr(cacheKey, 1);
+            AdviceMetadata<DecrementCounterInCache> metadata = getCacheBase().getAdviceMetadata(jp, DecrementCounterInCache.class);
+            cacheKey = getCacheBase().getCacheKeyBuilder().getCacheKey(metadata.getAnnotationData(), jp.getArgs(),
+                    metadata.getMethodDesc());
+            metadata.getCache().decr(cacheKey, 1);
         } catch (Exception ex) {
             warn(ex, "Decrementing counter [%s] via %s aborted due to an error.", cacheKey, jp.toShortString());
         }
@@ -26,8 +26,7 @@ import org.aspectj.lang.annotation.Pointcut;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.code.ssm.aop.support.AnnotationData;
-import com.google.code.ssm.aop.support.AnnotationDataBuilder;
+import com.google.code.ssm.aop.AdviceMetadata;
 import com.google.code.ssm.api.counter.ReadCounterFromCache;
 
 /**
@@ -57,19 +56,17 @@ public class ReadCounterFromCacheAdvice extends CounterInCacheBase {
         // the crap outta it, but do not let it surface up past the AOP injection itself.
         // It will be invoked only if underlying method completes successfully.
         String cacheKey = null;
-        ReadCounterFromCache annotation;
-        AnnotationData data;
+        AdviceMetadata<ReadCounterFromCache> metadata;
         try {
-            Method methodToCache = getCacheBase().getMethodToCache(pjp, ReadCounterFromCache.class);
-            verifyMethodSignature(methodToCache);
-            annotation = methodToCache.getAnnotation(ReadCounterFromCache.class);
-            data = AnnotationDataBuilder.buildAnnotationData(annotation, ReadCounterFromCache.class, methodToCache);
-            cacheKey = getCacheBase().getCacheKeyBuilder().getCacheKey(data, pjp.getArgs(), methodToCache.toString());
-            Long result = getCacheBase().getCache(data).getCounter(cacheKey);
+            metadata = getCacheBase().getAdviceMetadata(pjp, ReadCounterFromCache.class);
+            verifyMethodSignature(metadata.getMethod());
+            cacheKey = getCacheBase().getCacheKeyBuilder().getCacheKey(metadata.getAnnotationData(), pjp.getArgs(),
+                    metadata.getMethodDesc());
+            Long result = metadata.getCache().getCounter(cacheKey);
 
             if (result != null) {
                 getLogger().debug("Cache hit.");
-                return convertResult(methodToCache, result);
+                return convertResult(metadata.getMethod(), result);
             }
         } catch (Exception ex) {
             warn(ex, "Caching on method %s and key [%s] aborted due to an error.", pjp.toShortString(), cacheKey);
@@ -84,7 +81,7 @@ public class ReadCounterFromCacheAdvice extends CounterInCacheBase {
             if (checkData(result, pjp)) {
                 long value = ((Number) result).longValue();
                 // tricky way to update counter
-                getCacheBase().getCache(data).incr(cacheKey, 0, value, annotation.expiration());
+                metadata.getCache().incr(cacheKey, 0, value, metadata.getAnnotation().expiration());
             }
         } catch (Exception ex) {
             warn(ex, "Caching on method %s and key [%s] aborted due to an error.", pjp.toShortString(), cacheKey);
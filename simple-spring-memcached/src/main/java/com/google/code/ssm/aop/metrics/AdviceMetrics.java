@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop.metrics;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * Source of recorders of cache advices. If a bean of this type is defined in application context it's used by
+ * {@link com.google.code.ssm.aop.CacheBase} to create one recorder for each intercepted method when its metadata is
+ * resolved. Without such bean advices don't record anything.
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+public interface AdviceMetrics {
+
+    /**
+     * Creates recorder of invocations of single intercepted method.
+     * 
+     * @param cacheName
+     *            the name of cache used by the method
+     * @param namespace
+     *            the namespace defined in annotation, may be null
+     * @param annotationType
+     *            the type of SSM annotation on the method
+     * @return the recorder
+     */
+    AdviceRecorder createRecorder(String cacheName, String namespace, Class<? extends Annotation> annotationType);
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop.metrics;
+
+/**
+ * Records what happens in cache advice intercepting single method. Implementations must be thread safe and fast, they
+ * are invoked in the calling thread.
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+public interface AdviceRecorder {
+
+    /**
+     * Value has been read from cache.
+     * 
+     * @param nanos
+     *            duration of cache read in nanoseconds
+     */
+    void recordHit(long nanos);
+
+    /**
+     * {@link com.google.code.ssm.aop.support.PertinentNegativeNull} has been read from cache.
+     * 
+     * @param nanos
+     *            duration of cache read in nanoseconds
+     */
+    void recordNegativeHit(long nanos);
+
+    /**
+     * There was no value in cache or the value expired early and has to be recomputed.
+     * 
+     * @param nanos
+     *            duration of cache read in nanoseconds
+     */
+    void recordMiss(long nanos);
+
+    /**
+     * Many values have been read from cache using single bulk operation.
+     * 
+     * @param keys
+     *            the number of requested keys
+     * @param hits
+     *            the number of values read from cache
+     * @param negativeHits
+     *            the number of {@link com.google.code.ssm.aop.support.PertinentNegativeNull} read from cache
+     * @param nanos
+     *            duration of cache read in nanoseconds
+     */
+    void recordBulkGet(int keys, int hits, int negativeHits, long nanos);
+
+    /**
+     * Value or values have been stored in or removed from cache.
+     * 
+     * @param nanos
+     *            duration of cache operation in nanoseconds
+     */
+    void recordWrite(long nanos);
+
+    /**
+     * Underlying method has been invoked.
+     * 
+     * @param nanos
+     *            duration of method invocation in nanoseconds
+     */
+    void recordMethod(long nanos);
+
+    /**
+     * Cache operation has been aborted due to an error.
+     */
+    void recordError();
+
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop.metrics;
+
+import java.lang.annotation.Annotation;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Publishes metrics of cache advices to Micrometer. All meters are tagged by {@code cache}, {@code namespace} and
+ * {@code annotation}:
+ * <ul>
+ * <li>{@code ssm.advice.gets} - counter of read keys tagged by {@code result} ({@code hit}, {@code negative_hit} or
+ * {@code miss})</li>
+ * <li>{@code ssm.advice.cache} - timer of cache operations tagged by {@code operation} ({@code read} or
+ * {@code write})</li>
+ * <li>{@code ssm.advice.method} - timer of underlying method invocations</li>
+ * <li>{@code ssm.advice.bulk.hit.ratio} - distribution of ratios of keys found in cache (including negative hits) per
+ * bulk read</li>
+ * <li>{@code ssm.advice.errors} - counter of cache operations aborted due to an error</li>
+ * </ul>
+ * Serialization time and sizes of payloads are recorded by the client, see
+ * {@link com.google.code.ssm.providers.metrics.MicrometerCacheClientMetrics}. Requires Micrometer on the classpath.
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+public class MicrometerAdviceMetrics implements AdviceMetrics {
+
+    static final String NO_NAMESPACE = "none";
+
+    private final MeterRegistry registry;
+
+    private final Iterable<Tag> tags;
+
+    public MicrometerAdviceMetrics(final MeterRegistry registry) {
+        this(registry, Tags.empty());
+    }
+
+    /**
+     * 
+     * @param registry
+     *            the registry to publish meters to
+     * @param tags
+     *            additional tags added to all meters
+     */
+    public MicrometerAdviceMetrics(final MeterRegistry registry, final Iterable<Tag> tags) {
+        this.registry = registry;
+        this.tags = tags;
+    }
+
+    @Override
+    public AdviceRecorder createRecorder(final String cacheName, final String namespace, final Class<? extends Annotation> annotationType) {
+        return new MicrometerRecorder(Tags.concat(tags, "cache", cacheName, "namespace", namespace == null ? NO_NAMESPACE : namespace,
+                "annotation", annotationType.getSimpleName()));
+    }
+
+    private final class MicrometerRecorder implements AdviceRecorder {
+
+        private final Counter hits;
+
+        private final Counter negativeHits;
+
+        private final Counter misses;
+
+        private final Timer reads;
+
+        private final Timer writes;
+
+        private final Timer methods;
+
+        private final DistributionSummary bulkHitRatio;
+
+        private final Counter errors;
+
+        MicrometerRecorder(final Tags recorderTags) {
+            hits = Counter.builder("ssm.advice.gets").tags(recorderTags).tag("result", "hit").register(registry);
+            negativeHits = Counter.builder("ssm.advice.gets").tags(recorderTags).tag("result", "negative_hit").register(registry);
+            misses = Counter.builder("ssm.advice.gets").tags(recorderTags).tag("result", "miss").register(registry);
+            reads = Timer.builder("ssm.advice.cache").tags(recorderTags).tag("operation", "read").register(registry);
+            writes = Timer.builder("ssm.advice.cache").tags(recorderTags).tag("operation", "write").register(registry);
+            methods = Timer.builder("ssm.advice.method").tags(recorderTags).register(registry);
+            bulkHitRatio = DistributionSummary.builder("ssm.advice.bulk.hit.ratio").tags(recorderTags).register(registry);
+            errors = Counter.builder("ssm.advice.errors").tags(recorderTags).register(registry);
+        }
+
+        @Override
+        public void recordHit(final long nanos) {
+            hits.increment();
+            reads.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void recordNegativeHit(final long nanos) {
+            negativeHits.increment();
+            reads.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void recordMiss(final long nanos) {
+            misses.increment();
+            reads.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void recordBulkGet(final int keys, final int hitCount, final int negativeHitCount, final long nanos) {
+            hits.increment(hitCount);
+            negativeHits.increment(negativeHitCount);
+            misses.increment(keys - hitCount - negativeHitCount);
+            reads.record(nanos, TimeUnit.NANOSECONDS);
+            if (keys > 0) {
+                bulkHitRatio.record((double) (hitCount + negativeHitCount) / keys);
+            }
+        }
+
+        @Override
+        public void recordWrite(final long nanos) {
+            writes.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void recordMethod(final long nanos) {
+            methods.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void recordError() {
+            errors.increment();
+        }
+
+    }
+
+}
@@ -35,8 +35,12 @@ public class CacheKeyBuilderImpl implements CacheKeyBuilder { // NO_UCD
 
     private static final String ID_SEPARATOR = "/";
 
+    private static final String VERSION_SEPARATOR = "@";
+
     private KeyProvider defaultKeyProvider = new DefaultKeyProvider();
 
+    private NamespaceVersionStore namespaceVersionStore;
+
     public void setDefaultKeyProvider(final KeyProvider defaultKeyProvider) {
         this.defaultKeyProvider = defaultKeyProvider;
     }
@@ -45,6 +49,20 @@ public class CacheKeyBuilderImpl implements CacheKeyBuilder { // NO_UCD
         return this.defaultKeyProvider;
     }
 
+    /**
+     * If set then current version of namespace is added to each cache key.
+     * 
+     * @param namespaceVersionStore
+     * @since 4.1.4
+     */
+    public void setNamespaceVersionStore(final NamespaceVersionStore namespaceVersionStore) {
+        this.namespaceVersionStore = namespaceVersionStore;
+    }
+
+    public NamespaceVersionStore getNamespaceVersionStore() {
+        return namespaceVersionStore;
+    }
+
     @Override
     public String getCacheKey(final AnnotationData data, final Object[] args, final String methodDesc) throws Exception {
         final Object[] keysObjects = Utils.getMethodArgs(data.getKeyIndexes(), args, methodDesc);
@@ -60,7 +78,7 @@ public class CacheKeyBuilderImpl implements CacheKeyBuilder { // NO_UCD
      */
     @Override
     public String getCacheKey(final Object keyObject, final String namespace) {
-        return namespace + SEPARATOR + defaultKeyProvider.generateKey(keyObject);
+        return getNamespacePrefix(namespace) + defaultKeyProvider.generateKey(keyObject);
     }
 
     @Override
@@ -101,7 +119,7 @@ public class CacheKeyBuilderImpl implements CacheKeyBuilder { // NO_UCD
         if (data == null || data.getAssignedKey() == null || data.getAssignedKey().length() < 1) {
             throw new InvalidParameterException("Ids for objects in the cache must be at least 1 character long.");
         }
-        return data.getNamespace() + SEPARATOR + data.getAssignedKey();
+        return getNamespacePrefix(data.getNamespace()) + data.getAssignedKey();
     }
 
     private String getCacheKey(final Object[] keyObjects, final String namespace) {
@@ -123,11 +141,10 @@ public class CacheKeyBuilderImpl implements CacheKeyBuilder { // NO_UCD
     private String buildCacheKey(final String[] objectIds, final String namespace) {
         if (objectIds.length == 1) {
             checkKeyPart(objectIds[0]);
-            return namespace + SEPARATOR + objectIds[0];
+            return getNamespacePrefix(namespace) + objectIds[0];
         }
 
-        StringBuilder cacheKey = new StringBuilder(namespace);
-        cacheKey.append(SEPARATOR);
+        StringBuilder cacheKey = new StringBuilder(getNamespacePrefix(namespace));
         for (String id : objectIds) {
             checkKeyPart(id);
             cacheKey.append(id);
@@ -138,6 +155,14 @@ public class CacheKeyBuilderImpl implements CacheKeyBuilder { // NO_UCD
         return cacheKey.toString();
     }
 
+    private String getNamespacePrefix(final String namespace) {
+        if (namespaceVersionStore == null) {
+            return namespace + SEPARATOR;
+        }
+
+        return namespace + VERSION_SEPARATOR + namespaceVersionStore.getVersion(namespace) + SEPARATOR;
+    }
+
     private void checkKeyPart(final String keyPart) {
         if (keyPart == null || keyPart.length() < 1) {
             throw new InvalidParameterException("Ids for objects in the cache must be at least 1 character long.");
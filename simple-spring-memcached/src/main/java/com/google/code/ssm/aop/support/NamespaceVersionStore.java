@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop.support;
+
+/**
+ * Stores versions of namespaces. The version is a part of each cache key built for given namespace so incrementing it
+ * invalidates all values stored in the namespace.
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+public interface NamespaceVersionStore {
+
+    /**
+     * Gets current version of namespace.
+     * 
+     * @param namespace
+     *            the namespace
+     * @return current version of namespace
+     */
+    long getVersion(final String namespace);
+
+    /**
+     * Increments version of namespace, all values stored in the namespace become unreachable on all application nodes.
+     * 
+     * @param namespace
+     *            the namespace
+     * @return new version of namespace
+     */
+    long incrementVersion(final String namespace);
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop.support;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.code.ssm.Cache;
+import com.google.code.ssm.providers.CacheException;
+
+/**
+ * Keeps versions of namespaces in memcached counters and caches them locally for a short time. Versions incremented
+ * by other application nodes are visible after the local copy is refreshed. If counter is missing (i.e. evicted) it's
+ * created with current time in milliseconds as initial version so previous versions are never reused.
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+public class NamespaceVersionStoreImpl implements NamespaceVersionStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NamespaceVersionStoreImpl.class);
+
+    public static final String VERSION_KEY_PREFIX = "ssm.namespace.version:";
+
+    private final ConcurrentMap<String, Version> versions = new ConcurrentHashMap<String, Version>();
+
+    private final Cache cache;
+
+    private final long refreshIntervalNanos;
+
+    /**
+     * 
+     * @param cache
+     *            the cache used to store counters
+     * @param refreshInterval
+     *            time in milliseconds after which locally cached version is read again from memcached
+     */
+    public NamespaceVersionStoreImpl(final Cache cache, final long refreshInterval) {
+        this.cache = cache;
+        this.refreshIntervalNanos = TimeUnit.MILLISECONDS.toNanos(refreshInterval);
+    }
+
+    @Override
+    public long getVersion(final String namespace) {
+        final long now = System.nanoTime();
+        final Version version = versions.get(namespace);
+        if (version != null && now - version.loadedAt < refreshIntervalNanos) {
+            return version.value;
+        }
+
+        try {
+            // incrementing by 0 reads the counter and creates it if it doesn't exist
+            return store(namespace, cache.incr(getVersionKey(namespace), 0, System.currentTimeMillis()), now);
+        } catch (TimeoutException | CacheException | RuntimeException e) {
+            if (version != null) {
+                LOG.warn("Cannot refresh version of namespace {}, previous one is used", namespace, e);
+                return version.value;
+            }
+
+            throw new IllegalStateException("Cannot get version of namespace " + namespace, e);
+        }
+    }
+
+    @Override
+    public long incrementVersion(final String namespace) {
+        try {
+            return store(namespace, cache.incr(getVersionKey(namespace), 1, System.currentTimeMillis()), System.nanoTime());
+        } catch (TimeoutException | CacheException e) {
+            throw new IllegalStateException("Cannot increment version of namespace " + namespace, e);
+        }
+    }
+
+    private long store(final String namespace, final long value, final long loadedAt) {
+        // a stale read that completes after concurrent increment must not replace the incremented version
+        final Version stored = versions.merge(namespace, new Version(value, loadedAt),
+                (previous, loaded) -> previous.value > loaded.value ? previous : loaded);
+        return stored.value;
+    }
+
+    private String getVersionKey(final String namespace) {
+        return VERSION_KEY_PREFIX + namespace;
+    }
+
+    private static final class Version {
+
+        private final long value;
+
+        private final long loadedAt;
+
+        Version(final long value, final long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop.support;
+
+import java.io.Serializable;
+import java.util.concurrent.ThreadLocalRandom;
+
+import lombok.Data;
+
+/**
+ * Envelope stored in cache instead of a value when soft or early expiration is enabled. Besides the value it holds the
+ * time after which the value is stale and should be refreshed and the time it took to compute the value. The value is
+ * still returned until it's refreshed or removed by memcached after expiration (hard TTL).
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+@Data
+public class SoftExpiringValue implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Wrapped value, {@link PertinentNegativeNull#NULL} is used for null.
+     */
+    private Object value;
+
+    /**
+     * Time in milliseconds since epoch after which the value is stale.
+     */
+    private long softExpiresAt;
+
+    /**
+     * Time in milliseconds it took to compute the value.
+     */
+    private long computeTime;
+
+    public SoftExpiringValue() {
+
+    }
+
+    public SoftExpiringValue(final Object value, final long softExpiresAt) {
+        this(value, softExpiresAt, 0);
+    }
+
+    public SoftExpiringValue(final Object value, final long softExpiresAt, final long computeTime) {
+        this.value = value;
+        this.softExpiresAt = softExpiresAt;
+        this.computeTime = computeTime;
+    }
+
+    public boolean isStale(final long now) {
+        return now >= softExpiresAt;
+    }
+
+    /**
+     * Probabilistic early expiration (XFetch). The value is treated as stale before {@link #getSoftExpiresAt()} with
+     * probability growing as the time approaches and with the time it took to compute the value, so values stored at
+     * the same time don't expire all at once.
+     * 
+     * @param now
+     *            current time in milliseconds
+     * @param beta
+     *            values greater than 1.0 favor earlier recomputation, values lower than 1.0 favor later
+     * @return true if the value should be recomputed now
+     */
+    public boolean isStale(final long now, final double beta) {
+        // 1 - nextDouble() is in (0, 1] so the logarithm is finite and not positive
+        final double gap = -computeTime * beta * Math.log(1.0 - ThreadLocalRandom.current().nextDouble());
+        return now + gap >= softExpiresAt;
+    }
+
+}
@@ -66,4 +66,12 @@ public @interface ReadThroughAssignCache {
      */
     int expiration() default 0;
 
+    /**
+     * Additional cache options.
+     * 
+     * @return additional options
+     * @since 4.1.4
+     */
+    ReadThroughSingleCacheOption option() default @ReadThroughSingleCacheOption();
+
 }
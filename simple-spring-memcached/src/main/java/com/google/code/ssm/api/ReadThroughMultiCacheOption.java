@@ -62,4 +62,21 @@ public @interface ReadThroughMultiCacheOption {
      */
     boolean skipNullsInResult() default false;
 
+    /**
+     * If true then values are stored in cache together with their expiration time and the time it took to invoke the
+     * annotated method. Cached values are treated as missed with probability increasing as the expiration approaches
+     * (XFetch) and recomputed together with missed values, so values stored at the same time (i.e. by bulk warmup) don't
+     * expire all at once. It has no effect if expiration is not set.
+     * 
+     * @since 4.1.4
+     */
+    boolean earlyExpiration() default false;
+
+    /**
+     * Scales the probability of early expiration, values greater than 1.0 favor earlier recomputation.
+     * 
+     * @since 4.1.4
+     */
+    double earlyExpirationBeta() default 1.0;
+
 }
@@ -58,4 +58,12 @@ public @interface ReadThroughSingleCache {
      */
     int expiration() default 0;
 
+    /**
+     * Additional cache options.
+     * 
+     * @return additional options
+     * @since 4.1.4
+     */
+    ReadThroughSingleCacheOption option() default @ReadThroughSingleCacheOption();
+
 }
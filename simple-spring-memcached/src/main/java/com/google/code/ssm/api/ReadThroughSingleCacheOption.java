@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.api;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Options of {@link ReadThroughSingleCache} and {@link ReadThroughAssignCache}.
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.ANNOTATION_TYPE)
+public @interface ReadThroughSingleCacheOption {
+
+    /**
+     * If true then on cache miss only one application node invokes the annotated method and stores the result in
+     * cache. The node which first adds a lease (an entry under the cache key with '.lock' suffix) to memcached invokes
+     * the method, others poll cache until the value is stored or {@link #leaseWait()} elapses and then invoke the method
+     * themselves.
+     * 
+     * @return true if lease should be acquired before invoking the method on cache miss
+     */
+    boolean lease() default false;
+
+    /**
+     * Expiration of the lease in seconds, the lease is released before if the method completes. It should be longer
+     * than the usual duration of the method.
+     * 
+     * @return expiration of the lease in seconds
+     */
+    int leaseExpiration() default 10;
+
+    /**
+     * The maximum time in milliseconds that nodes without lease wait for the value to be stored in cache.
+     * 
+     * @return the maximum time of waiting for the value
+     */
+    long leaseWait() default 1000;
+
+    /**
+     * Time in milliseconds between subsequent reads of the value by nodes without lease.
+     * 
+     * @return interval between reads of the value
+     */
+    long leasePollInterval() default 50;
+
+    /**
+     * Soft expiration (stale-while-revalidate) in seconds, 0 disables it. If set then value is stored in cache together
+     * with time of its soft expiration. A value read after that time is returned immediately and a single asynchronous
+     * refresh (invocation of the annotated method) is scheduled on this node. The expiration defined in annotation is
+     * still used as hard TTL so it should be greater than soft expiration. If {@link #lease()} is enabled the refresh is
+     * executed only by the node which acquires the lease. The annotated method is invoked on a refresher thread, so
+     * thread bound context of the caller (transactions, security context, MDC) isn't available during the refresh. If
+     * background refresh is disabled (no refresh threads) a stale value is recomputed synchronously by the caller.
+     * 
+     * @return soft expiration in seconds
+     */
+    int softExpiration() default 0;
+
+    /**
+     * If true then value is stored in cache together with its expiration time and the time it took to invoke the
+     * annotated method. Each cache hit recomputes the value before it expires with probability increasing as the
+     * expiration approaches (XFetch), so only a few callers recompute it and keys stored at the same time don't expire
+     * all at once. The expiration is the soft expiration if set, otherwise the expiration defined in annotation. It has
+     * no effect if neither of them is set. If soft expiration is set the value is recomputed asynchronously, otherwise
+     * by the caller.
+     * 
+     * @return true if value should be recomputed probabilistically before its expiration
+     */
+    boolean earlyExpiration() default false;
+
+    /**
+     * Scales the probability of early expiration, values greater than 1.0 favor earlier recomputation.
+     * 
+     * @return the scaling factor of early expiration
+     */
+    double earlyExpirationBeta() default 1.0;
+
+}
@@ -32,5 +32,11 @@ public enum SerializationType {
     /** Data are serialized to and deserialized using java default machanizm. */
     JAVA,
     /** Custom serialization/deserialization which requires to register custom transcoder. */
-    CUSTOM;
+    CUSTOM,
+    /**
+     * Data are serialized to and deserialized from compact binary format, classes can be registered under numeric ids.
+     * 
+     * @since 4.1.4
+     */
+    BINARY;
 }
@@ -20,6 +20,8 @@ package com.google.code.ssm.json;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.springframework.util.Assert;
 
@@ -28,11 +30,14 @@ import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.jsontype.impl.ClassNameIdResolver;
 import com.fasterxml.jackson.databind.type.TypeFactory;
 import com.google.code.ssm.aop.support.PertinentNegativeNull;
+import com.google.code.ssm.aop.support.SoftExpiringValue;
 
 /**
  * To minimalize size of serialized json object instead of full qualified class name each class can be registered under
  * alias (id). This alias (id) will be used in serialized string to mark type of object (required in deserialization).
- * Alias (id) must be unique! If alias is not defined for class then full qualified name is used.
+ * Alias (id) must be unique! If alias is not defined for class then full qualified name is used. Types resolved from
+ * aliases and class names are cached so classes aren't looked up on each deserialization. Aliases {@value #NULL_ID}
+ * and {@value #SOFT_EXPIRING_VALUE_ID} are reserved for internal classes.
  * 
  * @author Jakub Białek
  * @since 3.0.0
@@ -40,10 +45,24 @@ import com.google.code.ssm.aop.support.PertinentNegativeNull;
  */
 public class ClassAliasIdResolver extends ClassNameIdResolver {
 
+    /**
+     * Alias (id) of {@link PertinentNegativeNull}.
+     */
+    public static final String NULL_ID = "N";
+
+    /**
+     * Alias (id) of {@link SoftExpiringValue}, prefixed so it doesn't clash with short aliases of application classes.
+     * 
+     * @since 4.1.4
+     */
+    public static final String SOFT_EXPIRING_VALUE_ID = "ssm.S";
+
     private final Map<String, Class<?>> idToClass = new HashMap<String, Class<?>>();
 
     private final Map<Class<?>, String> classToId = new HashMap<Class<?>, String>();
 
+    private final ConcurrentMap<String, JavaType> idToType = new ConcurrentHashMap<String, JavaType>();
+
     public ClassAliasIdResolver(final JavaType baseType, final TypeFactory typeFactory, final Map<String, Class<?>> idToClass,
             final Map<Class<?>, String> classToId) {
         super(baseType, typeFactory);
@@ -75,12 +94,22 @@ public class ClassAliasIdResolver extends ClassNameIdResolver {
 
     @Override
     protected JavaType _typeFromId(final String id, final DatabindContext ctxt) throws IOException {
-        Class<?> clazz = idToClass.get(id);
+        JavaType type = idToType.get(id);
+        if (type != null) {
+            return type;
+        }
+
+        final Class<?> clazz = idToClass.get(id);
         if (clazz != null) {
-            return _typeFactory.constructSpecializedType(_baseType, clazz);
+            type = _typeFactory.constructSpecializedType(_baseType, clazz);
+        } else {
+            type = super._typeFromId(id, ctxt);
         }
 
-        return super._typeFromId(id, ctxt);
+        if (type != null) {
+            idToType.put(id, type);
+        }
+        return type;
     }
 
     /**
@@ -105,11 +134,12 @@ public class ClassAliasIdResolver extends ClassNameIdResolver {
 
         classToId.put(clazz, id);
         idToClass.put(id, clazz);
+        idToType.remove(id);
     }
 
     private void init() {
-        // PertinentNegativeNull uses N as a id
-        addClassToId(PertinentNegativeNull.class, "N");
+        addClassToId(PertinentNegativeNull.class, NULL_ID);
+        addClassToId(SoftExpiringValue.class, SOFT_EXPIRING_VALUE_ID);
     }
 
 }
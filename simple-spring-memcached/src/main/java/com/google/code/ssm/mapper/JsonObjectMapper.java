@@ -20,11 +20,15 @@ package com.google.code.ssm.mapper;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.util.ClassUtils;
+
 import com.fasterxml.jackson.annotation.JsonTypeInfo.As;
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.Version;
 import com.fasterxml.jackson.databind.JsonDeserializer;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.module.SimpleModule;
@@ -42,11 +46,24 @@ public class JsonObjectMapper extends ObjectMapper { // NO_UCD
 
     private static final long serialVersionUID = 1L;
 
+    private static final String AFTERBURNER_MODULE = "com.fasterxml.jackson.module.afterburner.AfterburnerModule";
+
     private final SimpleModule module = new SimpleModule("ssm", new Version(1, 0, 0, null, "com.google.code.ssm", "core"));
 
     private final ClassAliasTypeResolverBuilder typer;
 
     public JsonObjectMapper() {
+        this(null);
+    }
+
+    /**
+     * 
+     * @param jsonFactory
+     *            the factory of parsers and generators of data format, if null text JSON is used
+     * @since 4.1.4
+     */
+    protected JsonObjectMapper(final JsonFactory jsonFactory) {
+        super(jsonFactory);
         registerModule(module);
 
         configure(MapperFeature.REQUIRE_SETTERS_FOR_GETTERS, true);
@@ -86,6 +103,29 @@ public class JsonObjectMapper extends ObjectMapper { // NO_UCD
         registerModule(module);
     }
 
+    /**
+     * Enables bytecode generated accessors of properties (jackson Afterburner module) instead of reflection, requires
+     * jackson-module-afterburner on classpath.
+     * 
+     * @param afterburner
+     * @since 4.1.4
+     */
+    public void setAfterburner(final boolean afterburner) {
+        if (!afterburner) {
+            return;
+        }
+
+        if (!ClassUtils.isPresent(AFTERBURNER_MODULE, getClass().getClassLoader())) {
+            throw new IllegalStateException("Cannot enable Afterburner, " + AFTERBURNER_MODULE + " is not available on classpath");
+        }
+
+        try {
+            registerModule((Module) ClassUtils.forName(AFTERBURNER_MODULE, getClass().getClassLoader()).newInstance());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot enable Afterburner", e);
+        }
+    }
+
     /**
      * Registers mappings between classes and aliases (ids).
      * 
@@ -17,9 +17,14 @@
 
 package com.google.code.ssm.providers;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.TimeoutException;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 /**
  * 
  * @author Jakub Białek
@@ -28,18 +33,37 @@ import java.util.concurrent.TimeoutException;
  */
 public abstract class AbstractMemcacheClientWrapper implements CacheClient {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractMemcacheClientWrapper.class);
+
     @Override
     public void delete(final Collection<String> keys) throws TimeoutException, CacheException {
         if (keys == null || keys.isEmpty()) {
             return;
         }
 
+        // continue with remaining keys if one of them cannot be deleted, rethrow the last failure at the end
+        final List<String> failedKeys = new ArrayList<String>();
+        Exception failure = null;
         for (final String key : keys) {
-            if (key != null) {
+            if (key == null) {
+                continue;
+            }
+
+            try {
                 delete(key);
+            } catch (TimeoutException | CacheException e) {
+                failedKeys.add(key);
+                failure = e;
             }
         }
 
+        if (failure != null) {
+            LOGGER.warn("Bulk delete failed for {} of {} keys: {}", new Object[] { failedKeys.size(), keys.size(), failedKeys });
+            if (failure instanceof TimeoutException) {
+                throw (TimeoutException) failure;
+            }
+            throw (CacheException) failure;
+        }
     }
 
 }
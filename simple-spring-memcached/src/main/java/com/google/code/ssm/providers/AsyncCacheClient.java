@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.providers;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Non blocking counterpart of {@link CacheClient}. Methods return as soon as the operation is queued, returned futures
+ * are completed when memcached replies. If operation fails the future is completed exceptionally with
+ * {@link CacheException} or {@link TimeoutException}.
+ *
+ * @author Jakub Białek
+ * @since 4.1.4
+ *
+ */
+public interface AsyncCacheClient {
+
+    CompletableFuture<Boolean> add(final String key, final int exp, final Object value);
+
+    <T> CompletableFuture<Boolean> add(final String key, final int exp, final T value, final CacheTranscoder transcoder);
+
+    CompletableFuture<Long> decr(final String key, final int by);
+
+    /**
+     * Deletes value under given key.
+     *
+     * @param key
+     *            the key
+     * @return future completed with true if value has been deleted
+     */
+    CompletableFuture<Boolean> delete(final String key);
+
+    /**
+     * Deletes values under given keys. By default each key is deleted by separate asynchronous operation.
+     *
+     * @param keys
+     *            the keys
+     * @return future completed when all values are deleted
+     */
+    default CompletableFuture<Void> delete(final Collection<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return CompletableFuture.allOf(keys.stream().map(this::delete).toArray(CompletableFuture<?>[]::new));
+    }
+
+    /**
+     * Get value by key.
+     *
+     * @param key
+     *            the key
+     * @return future completed with value associated with given key or null
+     */
+    CompletableFuture<Object> get(final String key);
+
+    /**
+     * Get value by key.
+     *
+     * @param <T>
+     * @param key
+     *            the key
+     * @param transcoder
+     *            the transcoder used to decode value
+     * @return future completed with value associated with given key or null
+     */
+    <T> CompletableFuture<T> get(final String key, final CacheTranscoder transcoder);
+
+    CompletableFuture<Map<String, Object>> getBulk(final Collection<String> keys);
+
+    <T> CompletableFuture<Map<String, T>> getBulk(final Collection<String> keys, final CacheTranscoder transcoder);
+
+    CompletableFuture<Long> incr(final String key, final int by, final long def);
+
+    CompletableFuture<Long> incr(final String key, final int by, final long def, final int exp);
+
+    CompletableFuture<Boolean> set(final String key, final int exp, final Object value);
+
+    <T> CompletableFuture<Boolean> set(final String key, final int exp, final T value, final CacheTranscoder transcoder);
+
+    /**
+     * Stores all key-value items. By default each item is stored by separate asynchronous operation.
+     *
+     * @param items
+     *            the items to store
+     * @param exp
+     *            the expiration in seconds
+     * @return future completed when all items are stored
+     * @see CacheClient#setBulk(Map, int)
+     */
+    default CompletableFuture<Void> setBulk(final Map<String, ?> items, final int exp) {
+        if (items == null || items.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return CompletableFuture.allOf(items.entrySet().stream().map(item -> set(item.getKey(), exp, item.getValue()))
+                .toArray(CompletableFuture<?>[]::new));
+    }
+
+    /**
+     * @see #setBulk(Map, int)
+     * @see CacheClient#setBulk(Map, int, CacheTranscoder)
+     */
+    default CompletableFuture<Void> setBulk(final Map<String, ?> items, final int exp, final CacheTranscoder transcoder) {
+        if (items == null || items.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return CompletableFuture.allOf(items.entrySet().stream().map(item -> set(item.getKey(), exp, item.getValue(), transcoder))
+                .toArray(CompletableFuture<?>[]::new));
+    }
+
+    /**
+     * Adds all key-value items, items under keys that already exist are not modified. By default each item is added by
+     * separate asynchronous operation.
+     *
+     * @param items
+     *            the items to add
+     * @param exp
+     *            the expiration in seconds
+     * @return future completed when all items are added or rejected
+     * @see CacheClient#addBulk(Map, int)
+     */
+    default CompletableFuture<Void> addBulk(final Map<String, ?> items, final int exp) {
+        if (items == null || items.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return CompletableFuture.allOf(items.entrySet().stream().map(item -> add(item.getKey(), exp, item.getValue()))
+                .toArray(CompletableFuture<?>[]::new));
+    }
+
+    /**
+     * @see #addBulk(Map, int)
+     * @see CacheClient#addBulk(Map, int, CacheTranscoder)
+     */
+    default CompletableFuture<Void> addBulk(final Map<String, ?> items, final int exp, final CacheTranscoder transcoder) {
+        if (items == null || items.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return CompletableFuture.allOf(items.entrySet().stream().map(item -> add(item.getKey(), exp, item.getValue(), transcoder))
+                .toArray(CompletableFuture<?>[]::new));
+    }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.providers;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Default {@link AsyncCacheClient} of clients that don't support non blocking operations. Operations are executed
+ * synchronously in the calling thread and returned futures are already completed.
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+final class BlockingAsyncCacheClient implements AsyncCacheClient {
+
+    private final CacheClient client;
+
+    BlockingAsyncCacheClient(final CacheClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> add(final String key, final int exp, final Object value) {
+        return execute(() -> client.add(key, exp, value));
+    }
+
+    @Override
+    public <T> CompletableFuture<Boolean> add(final String key, final int exp, final T value, final CacheTranscoder transcoder) {
+        return execute(() -> client.add(key, exp, value, transcoder));
+    }
+
+    @Override
+    public CompletableFuture<Long> decr(final String key, final int by) {
+        return execute(() -> client.decr(key, by));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> delete(final String key) {
+        return execute(() -> client.delete(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(final Collection<String> keys) {
+        return execute(() -> {
+            client.delete(keys);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Object> get(final String key) {
+        return execute(() -> client.get(key));
+    }
+
+    @Override
+    public <T> CompletableFuture<T> get(final String key, final CacheTranscoder transcoder) {
+        return execute(() -> client.<T> get(key, transcoder));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> getBulk(final Collection<String> keys) {
+        return execute(() -> client.getBulk(keys));
+    }
+
+    @Override
+    public <T> CompletableFuture<Map<String, T>> getBulk(final Collection<String> keys, final CacheTranscoder transcoder) {
+        return execute(() -> client.<T> getBulk(keys, transcoder));
+    }
+
+    @Override
+    public CompletableFuture<Long> incr(final String key, final int by, final long def) {
+        return execute(() -> client.incr(key, by, def));
+    }
+
+    @Override
+    public CompletableFuture<Long> incr(final String key, final int by, final long def, final int exp) {
+        return execute(() -> client.incr(key, by, def, exp));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> set(final String key, final int exp, final Object value) {
+        return execute(() -> client.set(key, exp, value));
+    }
+
+    @Override
+    public <T> CompletableFuture<Boolean> set(final String key, final int exp, final T value, final CacheTranscoder transcoder) {
+        return execute(() -> client.set(key, exp, value, transcoder));
+    }
+
+    @Override
+    public CompletableFuture<Void> setBulk(final Map<String, ?> items, final int exp) {
+        return execute(() -> {
+            client.setBulk(items, exp);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> setBulk(final Map<String, ?> items, final int exp, final CacheTranscoder transcoder) {
+        return execute(() -> {
+            client.setBulk(items, exp, transcoder);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> addBulk(final Map<String, ?> items, final int exp) {
+        return execute(() -> {
+            client.addBulk(items, exp);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> addBulk(final Map<String, ?> items, final int exp, final CacheTranscoder transcoder) {
+        return execute(() -> {
+            client.addBulk(items, exp, transcoder);
+            return null;
+        });
+    }
+
+    private static <T> CompletableFuture<T> execute(final Call<T> call) {
+        final CompletableFuture<T> future = new CompletableFuture<T>();
+        try {
+            future.complete(call.call());
+        } catch (TimeoutException | CacheException | RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private interface Call<T> {
+
+        T call() throws TimeoutException, CacheException;
+
+    }
+
+}
@@ -39,6 +39,18 @@ public interface CacheClient {
 
     long decr(final String key, final int by, final long def) throws TimeoutException, CacheException;
 
+    /**
+     * Registers transcoder that will be used with this client so provider specific resources required to use it are
+     * created up front instead of on the first operation. By default does nothing.
+     * 
+     * @param transcoder
+     *            the transcoder
+     * @since 4.1.4
+     */
+    default void registerTranscoder(final CacheTranscoder transcoder) {
+        // nothing to prepare by default
+    }
+
     /**
      * Deletes value under given key.
      * 
@@ -114,6 +126,18 @@ public interface CacheClient {
      */
     Collection<SocketAddress> getAvailableServers();
 
+    /**
+     * Gets address of memcached server that stores given key according to the provider's node locator.
+     * 
+     * @param key
+     *            the key
+     * @return address of the server or null if it cannot be determined
+     * @since 4.1.4
+     */
+    default SocketAddress getServer(final String key) {
+        return null;
+    }
+
     Map<String, Object> getBulk(final Collection<String> keys) throws TimeoutException, CacheException;
 
     <T> Map<String, T> getBulk(final Collection<String> keys, final CacheTranscoder transcoder) throws TimeoutException, CacheException;
@@ -152,6 +176,112 @@ public interface CacheClient {
     <T> boolean set(final String key, final int exp, final T value, final CacheTranscoder transcoder) throws TimeoutException,
             CacheException;
 
+    /**
+     * Stores all key-value items in memcached. By default items are stored one by one, providers may send them
+     * without waiting for the reply to the previous one so storing many items takes approximately one round-trip
+     * instead of one round-trip per item.
+     * 
+     * @param items
+     *            the items to store, cache key to value
+     * @param exp
+     *            expire time
+     * @throws TimeoutException
+     * @throws CacheException
+     * @since 4.1.4
+     */
+    default void setBulk(final Map<String, ?> items, final int exp) throws TimeoutException, CacheException {
+        if (items == null || items.isEmpty()) {
+            return;
+        }
+
+        for (final Map.Entry<String, ?> entry : items.entrySet()) {
+            set(entry.getKey(), exp, entry.getValue());
+        }
+    }
+
+    /**
+     * Stores all key-value items in memcached using given transcoder.
+     * 
+     * @param items
+     *            the items to store, cache key to value
+     * @param exp
+     *            expire time
+     * @param transcoder
+     *            the transcoder to use
+     * @throws TimeoutException
+     * @throws CacheException
+     * @since 4.1.4
+     * @see #setBulk(Map, int)
+     */
+    default void setBulk(final Map<String, ?> items, final int exp, final CacheTranscoder transcoder) throws TimeoutException,
+            CacheException {
+        if (items == null || items.isEmpty()) {
+            return;
+        }
+
+        for (final Map.Entry<String, ?> entry : items.entrySet()) {
+            set(entry.getKey(), exp, entry.getValue(), transcoder);
+        }
+    }
+
+    /**
+     * Adds all key-value items to memcached, items under keys that already exist are not modified. By default items
+     * are added one by one, providers may send them without waiting for the reply to the previous one.
+     * 
+     * @param items
+     *            the items to add, cache key to value
+     * @param exp
+     *            expire time
+     * @throws TimeoutException
+     * @throws CacheException
+     * @since 4.1.4
+     */
+    default void addBulk(final Map<String, ?> items, final int exp) throws TimeoutException, CacheException {
+        if (items == null || items.isEmpty()) {
+            return;
+        }
+
+        for (final Map.Entry<String, ?> entry : items.entrySet()) {
+            add(entry.getKey(), exp, entry.getValue());
+        }
+    }
+
+    /**
+     * Adds all key-value items to memcached using given transcoder.
+     * 
+     * @param items
+     *            the items to add, cache key to value
+     * @param exp
+     *            expire time
+     * @param transcoder
+     *            the transcoder to use
+     * @throws TimeoutException
+     * @throws CacheException
+     * @since 4.1.4
+     * @see #addBulk(Map, int)
+     */
+    default void addBulk(final Map<String, ?> items, final int exp, final CacheTranscoder transcoder) throws TimeoutException,
+            CacheException {
+        if (items == null || items.isEmpty()) {
+            return;
+        }
+
+        for (final Map.Entry<String, ?> entry : items.entrySet()) {
+            add(entry.getKey(), exp, entry.getValue(), transcoder);
+        }
+    }
+
+    /**
+     * Gets non blocking view of this client. The returned client shares connections with this one. By default
+     * operations are executed synchronously in the calling thread and returned futures are already completed.
+     * 
+     * @return the asynchronous client
+     * @since 4.1.4
+     */
+    default AsyncCacheClient getAsyncClient() {
+        return new BlockingAsyncCacheClient(this);
+    }
+
     /**
      * Shutdowns memcached client.
      */
@@ -50,4 +50,32 @@ public class CacheConfiguration {
      */
     private String keyPrefixSeparator = "#";
 
+    /**
+     * If true bulk set, add and delete operations (used by multi cache annotations) are pipelined: all commands are
+     * sent to memcached without waiting for replies of the previous ones. If false items are stored and deleted one by
+     * one. Enable only if memcached server correctly handles pipelined commands. Xmemcached provider pipelines deletes
+     * using noreply commands.
+     * 
+     * @since 4.1.4
+     */
+    private boolean pipelinedBulkOperations;
+
+    /**
+     * The maximum number of values kept in local memory in front of memcached. If greater than 0 then recently read
+     * values are also stored in near cache and returned without reaching memcached until they expire locally. Only
+     * immutable objects should be cached in cache with near cache enabled.
+     * 
+     * @since 4.1.4
+     */
+    private int nearCacheMaxSize;
+
+    /**
+     * Time in seconds after which values stored in near cache expire. Modifications made by other application nodes are
+     * not visible locally until this time elapses. Values stored through the same cache expire locally not later than
+     * in memcached.
+     * 
+     * @since 4.1.4
+     */
+    private int nearCacheExpiration = 5;
+
 }
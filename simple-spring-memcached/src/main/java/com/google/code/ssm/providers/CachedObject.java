@@ -17,6 +17,8 @@
 
 package com.google.code.ssm.providers;
 
+import java.nio.ByteBuffer;
+
 /**
  * 
  * @author Jakub Białek
@@ -34,8 +36,52 @@ public interface CachedObject {
      */
     int MAX_SIZE = 20 * 1024 * 1024;
 
+    /**
+     * 
+     * @return the data, if the data are only part of larger array they are copied
+     */
     byte[] getData();
 
     int getFlags();
 
+    /**
+     * Gets the array containing the data. The array can be larger than the data, the data start at
+     * {@link #getOffset()} and have {@link #getLength()} bytes. Reading data this way doesn't copy them.
+     * 
+     * @return the array containing the data
+     * @since 4.1.4
+     */
+    default byte[] getArray() {
+        return getData();
+    }
+
+    /**
+     * 
+     * @return the position of the first byte of data in {@link #getArray()}
+     * @since 4.1.4
+     */
+    default int getOffset() {
+        return 0;
+    }
+
+    /**
+     * 
+     * @return the number of bytes of data
+     * @since 4.1.4
+     */
+    default int getLength() {
+        final byte[] array = getArray();
+        return array == null ? 0 : array.length;
+    }
+
+    /**
+     * 
+     * @return read only view of the data, the data aren't copied
+     * @since 4.1.4
+     */
+    default ByteBuffer getBuffer() {
+        final byte[] array = getArray();
+        return array == null ? null : ByteBuffer.wrap(array, getOffset(), getLength()).slice().asReadOnlyBuffer();
+    }
+
 }
@@ -28,22 +28,68 @@ import lombok.Getter;
  * @since 2.0.0
  * 
  */
-@Getter
 public class CachedObjectImpl implements CachedObject {
 
+    @Getter
     private final int flags;
 
-    @Getter(onMethod=@__({@SuppressFBWarnings}))
-    private final byte[] data;
+    private final byte[] array;
+
+    @Getter
+    private final int offset;
+
+    @Getter
+    private final int length;
 
     public CachedObjectImpl(final int flags, final byte[] data) {
+        this(flags, data.clone(), 0, data.length);
+    }
+
+    /**
+     * Creates cached object using part of given array without copying it. The array cannot be modified afterwards.
+     * 
+     * @param flags
+     *            the flags
+     * @param array
+     *            the array containing the data
+     * @param offset
+     *            the position of the first byte of data in the array
+     * @param length
+     *            the number of bytes of data
+     * @since 4.1.4
+     */
+    @SuppressFBWarnings
+    public CachedObjectImpl(final int flags, final byte[] array, final int offset, final int length) {
+        if (offset < 0 || length < 0 || offset + length > array.length) {
+            throw new IndexOutOfBoundsException("Invalid offset " + offset + " or length " + length + " of array of size "
+                    + array.length);
+        }
+
         this.flags = flags;
-        this.data = data.clone();
+        this.array = array;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    @SuppressFBWarnings
+    public byte[] getData() {
+        if (offset == 0 && length == array.length) {
+            return array;
+        }
+
+        return Arrays.copyOfRange(array, offset, offset + length);
+    }
+
+    @Override
+    @SuppressFBWarnings
+    public byte[] getArray() {
+        return array;
     }
 
     @Override
     public String toString() {
-        return "CachedObjectImpl [flags=" + flags + ", data=" + Arrays.toString(data) + "]";
+        return "CachedObjectImpl [flags=" + flags + ", data=" + Arrays.toString(getData()) + "]";
     }
 
 }
@@ -0,0 +1,530 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.providers;
+
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
+
+/**
+ * Spreads operations across a fixed pool of clients connected to the same memcached servers, each client has its own
+ * connections and IO thread. Operations are striped by key hash so all operations on the same key use the same client
+ * and are executed in order. Bulk operations are split by client and sent to all clients concurrently, results of bulk
+ * gets are merged.
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+public class PooledCacheClient implements CacheClient {
+
+    private final CacheClient[] clients;
+
+    private final long bulkTimeout;
+
+    private final AsyncCacheClient asyncClient = new PooledAsyncCacheClient();
+
+    /**
+     * 
+     * @param clients
+     *            the pooled clients, all of them have to use the same memcached servers and settings
+     * @param bulkTimeout
+     *            maximum time in milliseconds to wait for completion of bulk operation sent to several clients
+     */
+    public PooledCacheClient(final List<? extends CacheClient> clients, final long bulkTimeout) {
+        if (clients == null || clients.isEmpty()) {
+            throw new IllegalArgumentException("At least one client is required");
+        }
+        if (bulkTimeout <= 0) {
+            throw new IllegalArgumentException("Bulk timeout must be positive");
+        }
+
+        this.clients = clients.toArray(new CacheClient[clients.size()]);
+        this.bulkTimeout = bulkTimeout;
+    }
+
+    /**
+     * 
+     * @return the number of pooled clients
+     */
+    public int getPoolSize() {
+        return clients.length;
+    }
+
+    @Override
+    public boolean add(final String key, final int exp, final Object value) throws TimeoutException, CacheException {
+        return client(key).add(key, exp, value);
+    }
+
+    @Override
+    public <T> boolean add(final String key, final int exp, final T value, final CacheTranscoder transcoder) throws TimeoutException,
+            CacheException {
+        return client(key).add(key, exp, value, transcoder);
+    }
+
+    @Override
+    public long decr(final String key, final int by) throws TimeoutException, CacheException {
+        return client(key).decr(key, by);
+    }
+
+    @Override
+    public long decr(final String key, final int by, final long def) throws TimeoutException, CacheException {
+        return client(key).decr(key, by, def);
+    }
+
+    @Override
+    public void registerTranscoder(final CacheTranscoder transcoder) {
+        for (CacheClient client : clients) {
+            client.registerTranscoder(transcoder);
+        }
+    }
+
+    @Override
+    public boolean delete(final String key) throws TimeoutException, CacheException {
+        return client(key).delete(key);
+    }
+
+    @Override
+    public void delete(final Collection<String> keys) throws TimeoutException, CacheException {
+        if (keys == null || keys.isEmpty()) {
+            return;
+        }
+
+        final Map<CacheClient, List<String>> groups = split(keys);
+        if (groups.size() <= 1) {
+            single(groups).delete(keys);
+            return;
+        }
+
+        await(execute(groups, (client, clientKeys) -> client.getAsyncClient().delete(clientKeys)));
+    }
+
+    /**
+     * All pooled clients use the same servers so data is flushed using only one of them.
+     */
+    @Override
+    public void flush() throws TimeoutException, CacheException {
+        clients[0].flush();
+    }
+
+    @Override
+    public Object get(final String key) throws TimeoutException, CacheException {
+        return client(key).get(key);
+    }
+
+    @Override
+    public <T> T get(final String key, final CacheTranscoder transcoder) throws TimeoutException, CacheException {
+        return client(key).get(key, transcoder);
+    }
+
+    @Override
+    public <T> T get(final String key, final CacheTranscoder transcoder, final long timeout) throws TimeoutException, CacheException {
+        return client(key).get(key, transcoder, timeout);
+    }
+
+    @Override
+    public Collection<SocketAddress> getAvailableServers() {
+        return clients[0].getAvailableServers();
+    }
+
+    @Override
+    public SocketAddress getServer(final String key) {
+        return client(key).getServer(key);
+    }
+
+    @Override
+    public Map<String, Object> getBulk(final Collection<String> keys) throws TimeoutException, CacheException {
+        final Map<CacheClient, List<String>> groups = split(keys);
+        if (groups.size() <= 1) {
+            return single(groups).getBulk(keys);
+        }
+
+        final List<CompletableFuture<Map<String, Object>>> futures = execute(groups,
+                (client, clientKeys) -> client.getAsyncClient().getBulk(clientKeys));
+        await(futures);
+        return merge(futures);
+    }
+
+    @Override
+    public <T> Map<String, T> getBulk(final Collection<String> keys, final CacheTranscoder transcoder) throws TimeoutException,
+            CacheException {
+        final Map<CacheClient, List<String>> groups = split(keys);
+        if (groups.size() <= 1) {
+            return single(groups).getBulk(keys, transcoder);
+        }
+
+        final List<CompletableFuture<Map<String, T>>> futures = execute(groups,
+                (client, clientKeys) -> client.getAsyncClient().<T> getBulk(clientKeys, transcoder));
+        await(futures);
+        return merge(futures);
+    }
+
+    @Override
+    public CacheTranscoder getTranscoder() {
+        return clients[0].getTranscoder();
+    }
+
+    @Override
+    public long incr(final String key, final int by) throws TimeoutException, CacheException {
+        return client(key).incr(key, by);
+    }
+
+    @Override
+    public long incr(final String key, final int by, final long def) throws TimeoutException, CacheException {
+        return client(key).incr(key, by, def);
+    }
+
+    @Override
+    public long incr(final String key, final int by, final long def, final int exp) throws TimeoutException, CacheException {
+        return client(key).incr(key, by, def, exp);
+    }
+
+    @Override
+    public boolean set(final String key, final int exp, final Object value) throws TimeoutException, CacheException {
+        return client(key).set(key, exp, value);
+    }
+
+    @Override
+    public <T> boolean set(final String key, final int exp, final T value, final CacheTranscoder transcoder) throws TimeoutException,
+            CacheException {
+        return client(key).set(key, exp, value, transcoder);
+    }
+
+    @Override
+    public void setBulk(final Map<String, ?> items, final int exp) throws TimeoutException, CacheException {
+        if (items == null || items.isEmpty()) {
+            return;
+        }
+
+        final Map<CacheClient, Map<String, Object>> groups = split(items);
+        if (groups.size() == 1) {
+            single(groups).setBulk(items, exp);
+            return;
+        }
+
+        await(execute(groups, (client, clientItems) -> client.getAsyncClient().setBulk(clientItems, exp)));
+    }
+
+    @Override
+    public void setBulk(final Map<String, ?> items, final int exp, final CacheTranscoder transcoder) throws TimeoutException,
+            CacheException {
+        if (items == null || items.isEmpty()) {
+            return;
+        }
+
+        final Map<CacheClient, Map<String, Object>> groups = split(items);
+        if (groups.size() == 1) {
+            single(groups).setBulk(items, exp, transcoder);
+            return;
+        }
+
+        await(execute(groups, (client, clientItems) -> client.getAsyncClient().setBulk(clientItems, exp, transcoder)));
+    }
+
+    @Override
+    public void addBulk(final Map<String, ?> items, final int exp) throws TimeoutException, CacheException {
+        if (items == null || items.isEmpty()) {
+            return;
+        }
+
+        final Map<CacheClient, Map<String, Object>> groups = split(items);
+        if (groups.size() == 1) {
+            single(groups).addBulk(items, exp);
+            return;
+        }
+
+        await(execute(groups, (client, clientItems) -> client.getAsyncClient().addBulk(clientItems, exp)));
+    }
+
+    @Override
+    public void addBulk(final Map<String, ?> items, final int exp, final CacheTranscoder transcoder) throws TimeoutException,
+            CacheException {
+        if (items == null || items.isEmpty()) {
+            return;
+        }
+
+        final Map<CacheClient, Map<String, Object>> groups = split(items);
+        if (groups.size() == 1) {
+            single(groups).addBulk(items, exp, transcoder);
+            return;
+        }
+
+        await(execute(groups, (client, clientItems) -> client.getAsyncClient().addBulk(clientItems, exp, transcoder)));
+    }
+
+    @Override
+    public AsyncCacheClient getAsyncClient() {
+        return asyncClient;
+    }
+
+    @Override
+    public void shutdown() {
+        for (CacheClient client : clients) {
+            client.shutdown();
+        }
+    }
+
+    /**
+     * 
+     * @return the native client of the first pooled client
+     */
+    @Override
+    public Object getNativeClient() {
+        return clients[0].getNativeClient();
+    }
+
+    CacheClient client(final String key) {
+        if (clients.length == 1 || key == null) {
+            return clients[0];
+        }
+
+        final int h = key.hashCode();
+        return clients[((h ^ (h >>> 16)) & Integer.MAX_VALUE) % clients.length];
+    }
+
+    private CacheClient single(final Map<CacheClient, ?> groups) {
+        return groups.isEmpty() ? clients[0] : groups.keySet().iterator().next();
+    }
+
+    private Map<CacheClient, List<String>> split(final Collection<String> keys) {
+        final Map<CacheClient, List<String>> groups = new LinkedHashMap<CacheClient, List<String>>();
+        if (keys == null) {
+            return groups;
+        }
+
+        for (String key : keys) {
+            final CacheClient client = client(key);
+            List<String> group = groups.get(client);
+            if (group == null) {
+                group = new ArrayList<String>();
+                groups.put(client, group);
+            }
+            group.add(key);
+        }
+
+        return groups;
+    }
+
+    private Map<CacheClient, Map<String, Object>> split(final Map<String, ?> items) {
+        final Map<CacheClient, Map<String, Object>> groups = new LinkedHashMap<CacheClient, Map<String, Object>>();
+        for (Map.Entry<String, ?> item : items.entrySet()) {
+            final CacheClient client = client(item.getKey());
+            Map<String, Object> group = groups.get(client);
+            if (group == null) {
+                group = new LinkedHashMap<String, Object>();
+                groups.put(client, group);
+            }
+            group.put(item.getKey(), item.getValue());
+        }
+
+        return groups;
+    }
+
+    /**
+     * Sends part of bulk operation to each client without waiting for completion.
+     */
+    private <G, R> List<CompletableFuture<R>> execute(final Map<CacheClient, G> groups,
+            final BiFunction<CacheClient, G, CompletableFuture<R>> operation) {
+        final List<CompletableFuture<R>> futures = new ArrayList<CompletableFuture<R>>(groups.size());
+        for (Map.Entry<CacheClient, G> group : groups.entrySet()) {
+            futures.add(operation.apply(group.getKey(), group.getValue()));
+        }
+
+        return futures;
+    }
+
+    /**
+     * Waits for completion of all parts of bulk operation, all of them share single deadline.
+     */
+    private void await(final List<? extends CompletableFuture<?>> futures) throws TimeoutException, CacheException {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(bulkTimeout);
+        try {
+            for (CompletableFuture<?> future : futures) {
+                future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel(futures);
+            throw new CacheException(e);
+        } catch (TimeoutException e) {
+            cancel(futures);
+            throw e;
+        } catch (ExecutionException e) {
+            cancel(futures);
+            if (e.getCause() instanceof TimeoutException) {
+                throw (TimeoutException) e.getCause();
+            } else if (e.getCause() instanceof CacheException) {
+                throw (CacheException) e.getCause();
+            }
+            throw new CacheException(e);
+        }
+    }
+
+    private void cancel(final List<? extends CompletableFuture<?>> futures) {
+        for (CompletableFuture<?> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    private static <T> Map<String, T> merge(final List<CompletableFuture<Map<String, T>>> futures) {
+        final Map<String, T> result = new HashMap<String, T>();
+        for (CompletableFuture<Map<String, T>> future : futures) {
+            result.putAll(future.join());
+        }
+
+        return result;
+    }
+
+    private class PooledAsyncCacheClient implements AsyncCacheClient {
+
+        @Override
+        public CompletableFuture<Boolean> add(final String key, final int exp, final Object value) {
+            return client(key).getAsyncClient().add(key, exp, value);
+        }
+
+        @Override
+        public <T> CompletableFuture<Boolean> add(final String key, final int exp, final T value, final CacheTranscoder transcoder) {
+            return client(key).getAsyncClient().add(key, exp, value, transcoder);
+        }
+
+        @Override
+        public CompletableFuture<Long> decr(final String key, final int by) {
+            return client(key).getAsyncClient().decr(key, by);
+        }
+
+        @Override
+        public CompletableFuture<Boolean> delete(final String key) {
+            return client(key).getAsyncClient().delete(key);
+        }
+
+        @Override
+        public CompletableFuture<Void> delete(final Collection<String> keys) {
+            final Map<CacheClient, List<String>> groups = split(keys);
+            if (groups.size() <= 1) {
+                return single(groups).getAsyncClient().delete(keys);
+            }
+
+            return all(execute(groups, (client, clientKeys) -> client.getAsyncClient().delete(clientKeys)));
+        }
+
+        @Override
+        public CompletableFuture<Object> get(final String key) {
+            return client(key).getAsyncClient().get(key);
+        }
+
+        @Override
+        public <T> CompletableFuture<T> get(final String key, final CacheTranscoder transcoder) {
+            return client(key).getAsyncClient().get(key, transcoder);
+        }
+
+        @Override
+        public CompletableFuture<Map<String, Object>> getBulk(final Collection<String> keys) {
+            final Map<CacheClient, List<String>> groups = split(keys);
+            if (groups.size() <= 1) {
+                return single(groups).getAsyncClient().getBulk(keys);
+            }
+
+            return combine(execute(groups, (client, clientKeys) -> client.getAsyncClient().getBulk(clientKeys)));
+        }
+
+        @Override
+        public <T> CompletableFuture<Map<String, T>> getBulk(final Collection<String> keys, final CacheTranscoder transcoder) {
+            final Map<CacheClient, List<String>> groups = split(keys);
+            if (groups.size() <= 1) {
+                return single(groups).getAsyncClient().getBulk(keys, transcoder);
+            }
+
+            return combine(execute(groups, (client, clientKeys) -> client.getAsyncClient().<T> getBulk(clientKeys, transcoder)));
+        }
+
+        @Override
+        public CompletableFuture<Long> incr(final String key, final int by, final long def) {
+            return client(key).getAsyncClient().incr(key, by, def);
+        }
+
+        @Override
+        public CompletableFuture<Long> incr(final String key, final int by, final long def, final int exp) {
+            return client(key).getAsyncClient().incr(key, by, def, exp);
+        }
+
+        @Override
+        public CompletableFuture<Boolean> set(final String key, final int exp, final Object value) {
+            return client(key).getAsyncClient().set(key, exp, value);
+        }
+
+        @Override
+        public <T> CompletableFuture<Boolean> set(final String key, final int exp, final T value, final CacheTranscoder transcoder) {
+            return client(key).getAsyncClient().set(key, exp, value, transcoder);
+        }
+
+        @Override
+        public CompletableFuture<Void> setBulk(final Map<String, ?> items, final int exp) {
+            if (items == null || items.isEmpty()) {
+                return CompletableFuture.completedFuture(null);
+            }
+
+            return all(execute(split(items), (client, clientItems) -> client.getAsyncClient().setBulk(clientItems, exp)));
+        }
+
+        @Override
+        public CompletableFuture<Void> setBulk(final Map<String, ?> items, final int exp, final CacheTranscoder transcoder) {
+            if (items == null || items.isEmpty()) {
+                return CompletableFuture.completedFuture(null);
+            }
+
+            return all(execute(split(items), (client, clientItems) -> client.getAsyncClient().setBulk(clientItems, exp, transcoder)));
+        }
+
+        @Override
+        public CompletableFuture<Void> addBulk(final Map<String, ?> items, final int exp) {
+            if (items == null || items.isEmpty()) {
+                return CompletableFuture.completedFuture(null);
+            }
+
+            return all(execute(split(items), (client, clientItems) -> client.getAsyncClient().addBulk(clientItems, exp)));
+        }
+
+        @Override
+        public CompletableFuture<Void> addBulk(final Map<String, ?> items, final int exp, final CacheTranscoder transcoder) {
+            if (items == null || items.isEmpty()) {
+                return CompletableFuture.completedFuture(null);
+            }
+
+            return all(execute(split(items), (client, clientItems) -> client.getAsyncClient().addBulk(clientItems, exp, transcoder)));
+        }
+
+        private <T> CompletableFuture<Map<String, T>> combine(final List<CompletableFuture<Map<String, T>>> futures) {
+            return all(futures).thenApply(ignore -> merge(futures));
+        }
+
+        private CompletableFuture<Void> all(final List<? extends CompletableFuture<?>> futures) {
+            return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()]));
+        }
+
+    }
+
+}
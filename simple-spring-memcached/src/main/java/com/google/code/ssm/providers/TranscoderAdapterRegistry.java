@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.providers;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Thread safe registry of provider specific adapters of {@link CacheTranscoder}. Transcoders are matched by identity
+ * so looking up an adapter never calls {@link Object#hashCode()} or {@link Object#equals(Object)} of the transcoder.
+ * Registered adapters are kept in an immutable map that is replaced (copy on write) when a new transcoder is
+ * registered, so a lookup of already registered transcoder is a volatile read and a lock free map access.
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ * @param <A>
+ *            the type of adapter
+ */
+public final class TranscoderAdapterRegistry<A> {
+
+    private final Function<CacheTranscoder, A> adapterFactory;
+
+    private volatile Map<CacheTranscoder, A> adapters = Collections.emptyMap();
+
+    public TranscoderAdapterRegistry(final Function<CacheTranscoder, A> adapterFactory) {
+        if (adapterFactory == null) {
+            throw new IllegalArgumentException("Adapter factory cannot be null");
+        }
+
+        this.adapterFactory = adapterFactory;
+    }
+
+    /**
+     * Gets adapter of given transcoder, creates and registers it if the transcoder hasn't been registered yet.
+     * 
+     * @param transcoder
+     *            the transcoder
+     * @return the adapter of the transcoder
+     */
+    public A get(final CacheTranscoder transcoder) {
+        final A adapter = adapters.get(transcoder);
+        if (adapter != null) {
+            return adapter;
+        }
+
+        return register(transcoder);
+    }
+
+    /**
+     * Registers given transcoder in advance so the first operation using it doesn't have to create the adapter.
+     * 
+     * @param transcoder
+     *            the transcoder
+     * @return the adapter of the transcoder
+     */
+    public synchronized A register(final CacheTranscoder transcoder) {
+        A adapter = adapters.get(transcoder);
+        if (adapter == null) {
+            adapter = adapterFactory.apply(transcoder);
+            final Map<CacheTranscoder, A> copy = new IdentityHashMap<CacheTranscoder, A>(adapters);
+            copy.put(transcoder, adapter);
+            adapters = Collections.unmodifiableMap(copy);
+        }
+
+        return adapter;
+    }
+
+    /**
+     * 
+     * @return the number of registered transcoders
+     */
+    public int size() {
+        return adapters.size();
+    }
+
+}
@@ -0,0 +1,325 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.providers.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latencies of cache client operations per operation type and per memcached server together with distributions of
+ * key and value sizes. Values are recorded by {@link InstrumentedCacheClient}, can be read directly, through JMX
+ * ({@link #registerMBean(String)}) or published to Micrometer ({@link MicrometerCacheClientMetrics}). Percentiles and
+ * hot servers are computed from values recorded within the last window (one to two window lengths back), so they
+ * reflect current behaviour. Requires HdrHistogram on the classpath.
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+public class CacheClientMetrics implements CacheClientMetricsMXBean {
+
+    /**
+     * Types of recorded operations. {@link #ENCODE} and {@link #DECODE} are serialization and deserialization of values
+     * done in the calling thread, they aren't bound to any server.
+     */
+    public enum Operation {
+        ADD, ADD_BULK, DECODE, DECR, DELETE, DELETE_BULK, ENCODE, FLUSH, GET, GET_BULK, INCR, SET, SET_BULK;
+    }
+
+    private static final String DOMAIN = "com.google.code.ssm";
+
+    private static final double HOT_SERVER_PERCENTILE = 99;
+
+    private static final int DEFAULT_WINDOW_SECONDS = 60;
+
+    private final ConcurrentMap<SeriesKey, LatencySeries> series = new ConcurrentHashMap<SeriesKey, LatencySeries>();
+
+    private final List<Consumer<LatencySeries>> seriesListeners = new CopyOnWriteArrayList<Consumer<LatencySeries>>();
+
+    private final long windowNanos;
+
+    private final WindowedHistogram keySizes;
+
+    private final WindowedHistogram valueSizes;
+
+    /**
+     * Server is hot if its 99th percentile latency is higher than median of 99th percentiles of all servers multiplied
+     * by this factor.
+     */
+    @Getter
+    @Setter
+    private volatile double hotServerFactor = 3;
+
+    /**
+     * Minimal number of operations executed on a server required to take the server into account in hot servers
+     * detection.
+     */
+    @Getter
+    @Setter
+    private volatile long hotServerMinCount = 100;
+
+    private volatile ObjectName objectName;
+
+    public CacheClientMetrics() {
+        this(DEFAULT_WINDOW_SECONDS);
+    }
+
+    /**
+     * 
+     * @param windowSeconds
+     *            the length of window in seconds within which recorded values are used to compute percentiles
+     */
+    public CacheClientMetrics(final int windowSeconds) {
+        if (windowSeconds <= 0) {
+            throw new IllegalArgumentException("Window must be positive");
+        }
+
+        this.windowNanos = TimeUnit.SECONDS.toNanos(windowSeconds);
+        this.keySizes = new WindowedHistogram(2, windowNanos);
+        this.valueSizes = new WindowedHistogram(2, windowNanos);
+    }
+
+    /**
+     * Records latency of operation.
+     * 
+     * @param operation
+     *            the type of operation
+     * @param server
+     *            the server or null if operation was executed on many servers
+     * @param nanos
+     *            the latency in nanoseconds
+     * @param failed
+     *            true if operation ended with exception
+     */
+    public void recordLatency(final Operation operation, final SocketAddress server, final long nanos, final boolean failed) {
+        getSeries(operation, server).record(nanos, failed);
+    }
+
+    public void recordKeySize(final int bytes) {
+        keySizes.record(bytes);
+    }
+
+    public void recordValueSize(final int bytes) {
+        valueSizes.record(bytes);
+    }
+
+    @Override
+    public List<LatencyStatistics> getLatencies() {
+        final List<LatencyStatistics> latencies = new ArrayList<LatencyStatistics>(series.size());
+        for (LatencySeries s : series.values()) {
+            latencies.add(s.getStatistics());
+        }
+
+        return latencies;
+    }
+
+    @Override
+    public SizeStatistics getKeySizes() {
+        return getSizes(keySizes);
+    }
+
+    @Override
+    public SizeStatistics getValueSizes() {
+        return getSizes(valueSizes);
+    }
+
+    @Override
+    public List<String> getHotServers() {
+        // merge latencies of all single key operations per server
+        final Map<String, Histogram> servers = new LinkedHashMap<String, Histogram>();
+        for (LatencySeries s : series.values()) {
+            if (s.getServer() == null) {
+                continue;
+            }
+
+            final Histogram histogram = servers.get(s.getServerName());
+            if (histogram == null) {
+                servers.put(s.getServerName(), s.copy());
+            } else {
+                histogram.add(s.copy());
+            }
+        }
+
+        final Map<String, Long> latencies = new LinkedHashMap<String, Long>();
+        for (Map.Entry<String, Histogram> server : servers.entrySet()) {
+            if (server.getValue().getTotalCount() >= hotServerMinCount) {
+                latencies.put(server.getKey(), server.getValue().getValueAtPercentile(HOT_SERVER_PERCENTILE));
+            }
+        }
+
+        if (latencies.size() < 2) {
+            return Collections.emptyList();
+        }
+
+        final long[] sorted = new long[latencies.size()];
+        int i = 0;
+        for (Long latency : latencies.values()) {
+            sorted[i++] = latency;
+        }
+        Arrays.sort(sorted);
+        final double limit = median(sorted) * hotServerFactor;
+
+        final List<String> hotServers = new ArrayList<String>();
+        for (Map.Entry<String, Long> server : latencies.entrySet()) {
+            if (server.getValue() > limit) {
+                hotServers.add(server.getKey());
+            }
+        }
+
+        return hotServers;
+    }
+
+    @Override
+    public void reset() {
+        for (LatencySeries s : series.values()) {
+            s.reset();
+        }
+        keySizes.reset();
+        valueSizes.reset();
+    }
+
+    /**
+     * Registers these metrics in platform MBean server under name
+     * {@code com.google.code.ssm:type=CacheClientMetrics,name=<cacheName>}.
+     * 
+     * @param cacheName
+     *            the name of cache
+     * @throws JMException
+     *             if the MBean cannot be registered
+     */
+    public synchronized void registerMBean(final String cacheName) throws JMException {
+        final ObjectName name = new ObjectName(DOMAIN + ":type=CacheClientMetrics,name=" + ObjectName.quote(cacheName));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+        objectName = name;
+    }
+
+    /**
+     * Unregisters these metrics from platform MBean server if they have been registered.
+     * 
+     * @throws JMException
+     *             if the MBean cannot be unregistered
+     */
+    public synchronized void unregisterMBean() throws JMException {
+        if (objectName != null) {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            objectName = null;
+        }
+    }
+
+    /**
+     * Adds listener notified about every existing and each new series of latencies.
+     */
+    void addSeriesListener(final Consumer<LatencySeries> listener) {
+        seriesListeners.add(listener);
+        for (LatencySeries s : series.values()) {
+            listener.accept(s);
+        }
+    }
+
+    long getKeySizeAtPercentile(final double percentile) {
+        return keySizes.snapshot().getValueAtPercentile(percentile);
+    }
+
+    long getValueSizeAtPercentile(final double percentile) {
+        return valueSizes.snapshot().getValueAtPercentile(percentile);
+    }
+
+    private LatencySeries getSeries(final Operation operation, final SocketAddress server) {
+        final SeriesKey key = new SeriesKey(operation, server);
+        LatencySeries s = series.get(key);
+        if (s == null) {
+            final LatencySeries created = new LatencySeries(operation, server, windowNanos);
+            s = series.putIfAbsent(key, created);
+            if (s == null) {
+                s = created;
+                for (Consumer<LatencySeries> listener : seriesListeners) {
+                    listener.accept(created);
+                }
+            }
+        }
+
+        return s;
+    }
+
+    private SizeStatistics getSizes(final WindowedHistogram histogram) {
+        final Histogram copy = histogram.snapshot();
+        return new SizeStatistics(copy.getTotalCount(), copy.getMean(), copy.getValueAtPercentile(50), copy.getValueAtPercentile(99),
+                copy.getMaxValue());
+    }
+
+    private static double median(final long[] sorted) {
+        final int middle = sorted.length / 2;
+        return sorted.length % 2 == 0 ? (sorted[middle - 1] + sorted[middle]) / 2.0 : sorted[middle];
+    }
+
+    private static final class SeriesKey {
+
+        private final Operation operation;
+
+        private final SocketAddress server;
+
+        SeriesKey(final Operation operation, final SocketAddress server) {
+            this.operation = operation;
+            this.server = server;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * operation.hashCode() + Objects.hashCode(server);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof SeriesKey)) {
+                return false;
+            }
+
+            final SeriesKey other = (SeriesKey) obj;
+            return operation == other.operation && Objects.equals(server, other.server);
+        }
+
+    }
+
+}
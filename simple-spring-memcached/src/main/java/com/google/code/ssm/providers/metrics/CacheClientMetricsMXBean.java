@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.providers.metrics;
+
+import java.util.List;
+
+/**
+ * JMX view of {@link CacheClientMetrics}.
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+public interface CacheClientMetricsMXBean {
+
+    /**
+     * 
+     * @return recent latencies of each operation type on each server
+     */
+    List<LatencyStatistics> getLatencies();
+
+    /**
+     * 
+     * @return distribution of recent key sizes
+     */
+    SizeStatistics getKeySizes();
+
+    /**
+     * 
+     * @return distribution of sizes of recently encoded values
+     */
+    SizeStatistics getValueSizes();
+
+    /**
+     * 
+     * @return addresses of servers which recent 99th percentile latency is much higher than on the other servers
+     */
+    List<String> getHotServers();
+
+    /**
+     * Clears recorded latencies and sizes. Numbers of operations and errors aren't cleared.
+     */
+    void reset();
+
+}
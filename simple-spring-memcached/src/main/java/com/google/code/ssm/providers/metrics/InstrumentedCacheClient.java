@@ -0,0 +1,423 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.providers.metrics;
+
+import java.net.SocketAddress;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import lombok.Getter;
+
+import com.google.code.ssm.providers.AsyncCacheClient;
+import com.google.code.ssm.providers.CacheClient;
+import com.google.code.ssm.providers.CacheException;
+import com.google.code.ssm.providers.CacheTranscoder;
+import com.google.code.ssm.providers.CachedObject;
+import com.google.code.ssm.providers.TranscoderAdapterRegistry;
+import com.google.code.ssm.providers.metrics.CacheClientMetrics.Operation;
+
+/**
+ * Decorator of any {@link CacheClient} recording latency of each operation per memcached server in
+ * {@link CacheClientMetrics}. The server is resolved using {@link CacheClient#getServer(String)}, bulk operations are
+ * recorded without server. Sizes of all keys are recorded, sizes of values only if operation uses
+ * {@link CacheTranscoder} (values serialized by provider's default transcoder aren't visible).
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+public class InstrumentedCacheClient implements CacheClient {
+
+    private final CacheClient delegate;
+
+    @Getter
+    private final CacheClientMetrics metrics;
+
+    private final TranscoderAdapterRegistry<CacheTranscoder> transcoders = new TranscoderAdapterRegistry<CacheTranscoder>(
+            MeasuringTranscoder::new);
+
+    private final AsyncCacheClient asyncClient = new InstrumentedAsyncCacheClient();
+
+    public InstrumentedCacheClient(final CacheClient delegate, final CacheClientMetrics metrics) {
+        if (delegate == null || metrics == null) {
+            throw new IllegalArgumentException("Cache client and metrics cannot be null");
+        }
+
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public boolean add(final String key, final int exp, final Object value) throws TimeoutException, CacheException {
+        return execute(Operation.ADD, key, () -> delegate.add(key, exp, value));
+    }
+
+    @Override
+    public <T> boolean add(final String key, final int exp, final T value, final CacheTranscoder transcoder) throws TimeoutException,
+            CacheException {
+        return execute(Operation.ADD, key, () -> delegate.add(key, exp, value, measuring(transcoder)));
+    }
+
+    @Override
+    public long decr(final String key, final int by) throws TimeoutException, CacheException {
+        return execute(Operation.DECR, key, () -> delegate.decr(key, by));
+    }
+
+    @Override
+    public long decr(final String key, final int by, final long def) throws TimeoutException, CacheException {
+        return execute(Operation.DECR, key, () -> delegate.decr(key, by, def));
+    }
+
+    @Override
+    public void registerTranscoder(final CacheTranscoder transcoder) {
+        delegate.registerTranscoder(measuring(transcoder));
+    }
+
+    @Override
+    public boolean delete(final String key) throws TimeoutException, CacheException {
+        return execute(Operation.DELETE, key, () -> delegate.delete(key));
+    }
+
+    @Override
+    public void delete(final Collection<String> keys) throws TimeoutException, CacheException {
+        executeBulk(Operation.DELETE_BULK, keys, () -> {
+            delegate.delete(keys);
+            return null;
+        });
+    }
+
+    @Override
+    public void flush() throws TimeoutException, CacheException {
+        execute(Operation.FLUSH, null, () -> {
+            delegate.flush();
+            return null;
+        });
+    }
+
+    @Override
+    public Object get(final String key) throws TimeoutException, CacheException {
+        return execute(Operation.GET, key, () -> delegate.get(key));
+    }
+
+    @Override
+    public <T> T get(final String key, final CacheTranscoder transcoder) throws TimeoutException, CacheException {
+        return execute(Operation.GET, key, () -> delegate.<T> get(key, measuring(transcoder)));
+    }
+
+    @Override
+    public <T> T get(final String key, final CacheTranscoder transcoder, final long timeout) throws TimeoutException, CacheException {
+        return execute(Operation.GET, key, () -> delegate.<T> get(key, measuring(transcoder), timeout));
+    }
+
+    @Override
+    public Collection<SocketAddress> getAvailableServers() {
+        return delegate.getAvailableServers();
+    }
+
+    @Override
+    public SocketAddress getServer(final String key) {
+        return delegate.getServer(key);
+    }
+
+    @Override
+    public Map<String, Object> getBulk(final Collection<String> keys) throws TimeoutException, CacheException {
+        return executeBulk(Operation.GET_BULK, keys, () -> delegate.getBulk(keys));
+    }
+
+    @Override
+    public <T> Map<String, T> getBulk(final Collection<String> keys, final CacheTranscoder transcoder) throws TimeoutException,
+            CacheException {
+        return executeBulk(Operation.GET_BULK, keys, () -> delegate.<T> getBulk(keys, measuring(transcoder)));
+    }
+
+    @Override
+    public CacheTranscoder getTranscoder() {
+        return delegate.getTranscoder();
+    }
+
+    @Override
+    public long incr(final String key, final int by) throws TimeoutException, CacheException {
+        return execute(Operation.INCR, key, () -> delegate.incr(key, by));
+    }
+
+    @Override
+    public long incr(final String key, final int by, final long def) throws TimeoutException, CacheException {
+        return execute(Operation.INCR, key, () -> delegate.incr(key, by, def));
+    }
+
+    @Override
+    public long incr(final String key, final int by, final long def, final int exp) throws TimeoutException, CacheException {
+        return execute(Operation.INCR, key, () -> delegate.incr(key, by, def, exp));
+    }
+
+    @Override
+    public boolean set(final String key, final int exp, final Object value) throws TimeoutException, CacheException {
+        return execute(Operation.SET, key, () -> delegate.set(key, exp, value));
+    }
+
+    @Override
+    public <T> boolean set(final String key, final int exp, final T value, final CacheTranscoder transcoder) throws TimeoutException,
+            CacheException {
+        return execute(Operation.SET, key, () -> delegate.set(key, exp, value, measuring(transcoder)));
+    }
+
+    @Override
+    public void setBulk(final Map<String, ?> items, final int exp) throws TimeoutException, CacheException {
+        executeBulk(Operation.SET_BULK, items == null ? null : items.keySet(), () -> {
+            delegate.setBulk(items, exp);
+            return null;
+        });
+    }
+
+    @Override
+    public void setBulk(final Map<String, ?> items, final int exp, final CacheTranscoder transcoder) throws TimeoutException,
+            CacheException {
+        executeBulk(Operation.SET_BULK, items == null ? null : items.keySet(), () -> {
+            delegate.setBulk(items, exp, measuring(transcoder));
+            return null;
+        });
+    }
+
+    @Override
+    public void addBulk(final Map<String, ?> items, final int exp) throws TimeoutException, CacheException {
+        executeBulk(Operation.ADD_BULK, items == null ? null : items.keySet(), () -> {
+            delegate.addBulk(items, exp);
+            return null;
+        });
+    }
+
+    @Override
+    public void addBulk(final Map<String, ?> items, final int exp, final CacheTranscoder transcoder) throws TimeoutException,
+            CacheException {
+        executeBulk(Operation.ADD_BULK, items == null ? null : items.keySet(), () -> {
+            delegate.addBulk(items, exp, measuring(transcoder));
+            return null;
+        });
+    }
+
+    @Override
+    public AsyncCacheClient getAsyncClient() {
+        return asyncClient;
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public Object getNativeClient() {
+        return delegate.getNativeClient();
+    }
+
+    private CacheTranscoder measuring(final CacheTranscoder transcoder) {
+        return transcoder == null ? null : transcoders.get(transcoder);
+    }
+
+    private <T> T execute(final Operation operation, final String key, final Call<T> call) throws TimeoutException, CacheException {
+        recordKey(key);
+        final long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            final T result = call.call();
+            failed = false;
+            return result;
+        } finally {
+            record(operation, key, start, failed);
+        }
+    }
+
+    private <T> T executeBulk(final Operation operation, final Collection<String> keys, final Call<T> call) throws TimeoutException,
+            CacheException {
+        if (keys != null) {
+            for (String key : keys) {
+                recordKey(key);
+            }
+        }
+
+        final long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            final T result = call.call();
+            failed = false;
+            return result;
+        } finally {
+            metrics.recordLatency(operation, null, System.nanoTime() - start, failed);
+        }
+    }
+
+    private <T> CompletableFuture<T> executeAsync(final Operation operation, final String key, final Supplier<CompletableFuture<T>> call) {
+        recordKey(key);
+        final long start = System.nanoTime();
+        final CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            record(operation, key, start, true);
+            throw e;
+        }
+
+        future.whenComplete((result, e) -> record(operation, key, start, e != null));
+        return future;
+    }
+
+    private <T> CompletableFuture<T> executeBulkAsync(final Operation operation, final Collection<String> keys,
+            final Supplier<CompletableFuture<T>> call) {
+        if (keys != null) {
+            for (String key : keys) {
+                recordKey(key);
+            }
+        }
+
+        final long start = System.nanoTime();
+        final CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            metrics.recordLatency(operation, null, System.nanoTime() - start, true);
+            throw e;
+        }
+
+        future.whenComplete((result, e) -> metrics.recordLatency(operation, null, System.nanoTime() - start, e != null));
+        return future;
+    }
+
+    private void recordKey(final String key) {
+        if (key != null) {
+            // memcached keys contain only ASCII characters so number of chars equals number of bytes
+            metrics.recordKeySize(key.length());
+        }
+    }
+
+    private void record(final Operation operation, final String key, final long start, final boolean failed) {
+        final long nanos = System.nanoTime() - start;
+        metrics.recordLatency(operation, key == null ? null : delegate.getServer(key), nanos, failed);
+    }
+
+    private interface Call<T> {
+
+        T call() throws TimeoutException, CacheException;
+
+    }
+
+    private final class MeasuringTranscoder implements CacheTranscoder {
+
+        private final CacheTranscoder transcoder;
+
+        MeasuringTranscoder(final CacheTranscoder transcoder) {
+            this.transcoder = transcoder;
+        }
+
+        @Override
+        public Object decode(final CachedObject data) {
+            metrics.recordValueSize(data.getLength());
+            final long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                final Object value = transcoder.decode(data);
+                failed = false;
+                return value;
+            } finally {
+                metrics.recordLatency(Operation.DECODE, null, System.nanoTime() - start, failed);
+            }
+        }
+
+        @Override
+        public CachedObject encode(final Object o) {
+            final long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                final CachedObject data = transcoder.encode(o);
+                failed = false;
+                metrics.recordValueSize(data.getLength());
+                return data;
+            } finally {
+                metrics.recordLatency(Operation.ENCODE, null, System.nanoTime() - start, failed);
+            }
+        }
+
+    }
+
+    private class InstrumentedAsyncCacheClient implements AsyncCacheClient {
+
+        @Override
+        public CompletableFuture<Boolean> add(final String key, final int exp, final Object value) {
+            return executeAsync(Operation.ADD, key, () -> delegate.getAsyncClient().add(key, exp, value));
+        }
+
+        @Override
+        public <T> CompletableFuture<Boolean> add(final String key, final int exp, final T value, final CacheTranscoder transcoder) {
+            return executeAsync(Operation.ADD, key, () -> delegate.getAsyncClient().add(key, exp, value, measuring(transcoder)));
+        }
+
+        @Override
+        public CompletableFuture<Long> decr(final String key, final int by) {
+            return executeAsync(Operation.DECR, key, () -> delegate.getAsyncClient().decr(key, by));
+        }
+
+        @Override
+        public CompletableFuture<Boolean> delete(final String key) {
+            return executeAsync(Operation.DELETE, key, () -> delegate.getAsyncClient().delete(key));
+        }
+
+        @Override
+        public CompletableFuture<Object> get(final String key) {
+            return executeAsync(Operation.GET, key, () -> delegate.getAsyncClient().get(key));
+        }
+
+        @Override
+        public <T> CompletableFuture<T> get(final String key, final CacheTranscoder transcoder) {
+            return executeAsync(Operation.GET, key, () -> delegate.getAsyncClient().<T> get(key, measuring(transcoder)));
+        }
+
+        @Override
+        public CompletableFuture<Map<String, Object>> getBulk(final Collection<String> keys) {
+            return executeBulkAsync(Operation.GET_BULK, keys, () -> delegate.getAsyncClient().getBulk(keys));
+        }
+
+        @Override
+        public <T> CompletableFuture<Map<String, T>> getBulk(final Collection<String> keys, final CacheTranscoder transcoder) {
+            return executeBulkAsync(Operation.GET_BULK, keys, () -> delegate.getAsyncClient().<T> getBulk(keys, measuring(transcoder)));
+        }
+
+        @Override
+        public CompletableFuture<Long> incr(final String key, final int by, final long def) {
+            return executeAsync(Operation.INCR, key, () -> delegate.getAsyncClient().incr(key, by, def));
+        }
+
+        @Override
+        public CompletableFuture<Long> incr(final String key, final int by, final long def, final int exp) {
+            return executeAsync(Operation.INCR, key, () -> delegate.getAsyncClient().incr(key, by, def, exp));
+        }
+
+        @Override
+        public CompletableFuture<Boolean> set(final String key, final int exp, final Object value) {
+            return executeAsync(Operation.SET, key, () -> delegate.getAsyncClient().set(key, exp, value));
+        }
+
+        @Override
+        public <T> CompletableFuture<Boolean> set(final String key, final int exp, final T value, final CacheTranscoder transcoder) {
+            return executeAsync(Operation.SET, key, () -> delegate.getAsyncClient().set(key, exp, value, measuring(transcoder)));
+        }
+
+    }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.providers.metrics;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.List;
+
+import lombok.Getter;
+
+import com.google.code.ssm.providers.CacheClient;
+import com.google.code.ssm.providers.CacheClientFactory;
+import com.google.code.ssm.providers.CacheConfiguration;
+
+/**
+ * Decorates clients created by other factory with {@link InstrumentedCacheClient}. All clients created by this
+ * factory (also the ones created when memcached addresses change) record to the same {@link CacheClientMetrics}, so
+ * use separate factory for each cache to get metrics per cache.
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+public class InstrumentedCacheClientFactory implements CacheClientFactory {
+
+    private final CacheClientFactory delegate;
+
+    @Getter
+    private final CacheClientMetrics metrics;
+
+    public InstrumentedCacheClientFactory(final CacheClientFactory delegate) {
+        this(delegate, new CacheClientMetrics());
+    }
+
+    public InstrumentedCacheClientFactory(final CacheClientFactory delegate, final CacheClientMetrics metrics) {
+        if (delegate == null || metrics == null) {
+            throw new IllegalArgumentException("Cache client factory and metrics cannot be null");
+        }
+
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public CacheClient create(final List<InetSocketAddress> addrs, final CacheConfiguration configuration) throws IOException {
+        return new InstrumentedCacheClient(delegate.create(addrs, configuration), metrics);
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.providers.metrics;
+
+import java.net.SocketAddress;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.Getter;
+
+import org.HdrHistogram.Histogram;
+
+import com.google.code.ssm.providers.metrics.CacheClientMetrics.Operation;
+
+/**
+ * Latencies of one operation type on one server. Recording is wait free. Percentiles are computed from latencies
+ * recorded within the last window, counts are totals.
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+final class LatencySeries {
+
+    static final String ALL_SERVERS = "all";
+
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    @Getter
+    private final Operation operation;
+
+    @Getter
+    private final SocketAddress server;
+
+    private final WindowedHistogram histogram;
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder errors = new LongAdder();
+
+    LatencySeries(final Operation operation, final SocketAddress server, final long windowNanos) {
+        this.operation = operation;
+        this.server = server;
+        this.histogram = new WindowedHistogram(SIGNIFICANT_DIGITS, windowNanos);
+    }
+
+    void record(final long nanos, final boolean failed) {
+        histogram.record(Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos)));
+        count.increment();
+        if (failed) {
+            errors.increment();
+        }
+    }
+
+    String getServerName() {
+        return server == null ? ALL_SERVERS : server.toString();
+    }
+
+    long getCount() {
+        return count.sum();
+    }
+
+    long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * 
+     * @param percentile
+     *            the percentile in range 0.0 - 100.0
+     * @return latency in microseconds within the last window
+     */
+    long getLatency(final double percentile) {
+        return histogram.snapshot().getValueAtPercentile(percentile);
+    }
+
+    /**
+     * 
+     * @return latencies recorded within the last window
+     */
+    Histogram copy() {
+        return histogram.snapshot();
+    }
+
+    LatencyStatistics getStatistics() {
+        final Histogram copy = copy();
+        return new LatencyStatistics(operation.name(), getServerName(), getCount(), getErrors(), copy.getMean(),
+                copy.getValueAtPercentile(50), copy.getValueAtPercentile(99), copy.getValueAtPercentile(99.9), copy.getMaxValue());
+    }
+
+    /**
+     * Clears recorded latencies.
+     */
+    void reset() {
+        // totals are published as monotonic counters so they are never reset
+        histogram.reset();
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.providers.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Snapshot of latencies of one operation type executed on one memcached server. Latencies are in microseconds and
+ * computed from operations executed within the last window, numbers of operations and errors are totals.
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class LatencyStatistics {
+
+    private final String operation;
+
+    /**
+     * address of the server or {@code all} for bulk operations that may use many servers
+     */
+    private final String server;
+
+    private final long count;
+
+    private final long errors;
+
+    private final double mean;
+
+    private final long p50;
+
+    private final long p99;
+
+    private final long p999;
+
+    private final long max;
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.providers.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes {@link CacheClientMetrics} to Micrometer. For each operation type and server registers counters
+ * {@code ssm.client.operations} and {@code ssm.client.errors} and gauges {@code ssm.client.latency} with percentiles
+ * of recent latency in seconds (tagged by {@code quantile}). Percentiles of key and value sizes are published as
+ * {@code ssm.client.key.size} and {@code ssm.client.value.size} gauges. Series created after binding are registered
+ * when they appear. Requires Micrometer on the classpath.
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+public class MicrometerCacheClientMetrics implements MeterBinder {
+
+    private static final double[] QUANTILES = { 0.5, 0.99, 0.999 };
+
+    private static final double MICROS_PER_SECOND = 1000000;
+
+    private final CacheClientMetrics metrics;
+
+    private final Iterable<Tag> tags;
+
+    /**
+     * 
+     * @param metrics
+     *            the metrics to publish
+     * @param tags
+     *            additional tags added to all meters, e.g. name of cache
+     */
+    public MicrometerCacheClientMetrics(final CacheClientMetrics metrics, final Iterable<Tag> tags) {
+        this.metrics = metrics;
+        this.tags = tags;
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        for (double quantile : QUANTILES) {
+            final Tags quantileTags = Tags.concat(tags, "quantile", Double.toString(quantile));
+            Gauge.builder("ssm.client.key.size", metrics, m -> m.getKeySizeAtPercentile(quantile * 100)).tags(quantileTags)
+                    .baseUnit("bytes").register(registry);
+            Gauge.builder("ssm.client.value.size", metrics, m -> m.getValueSizeAtPercentile(quantile * 100)).tags(quantileTags)
+                    .baseUnit("bytes").register(registry);
+        }
+
+        metrics.addSeriesListener(series -> bind(registry, series));
+    }
+
+    private void bind(final MeterRegistry registry, final LatencySeries series) {
+        final Tags seriesTags = Tags.concat(tags, "operation", series.getOperation().name().toLowerCase(), "server",
+                series.getServerName());
+
+        FunctionCounter.builder("ssm.client.operations", series, LatencySeries::getCount).tags(seriesTags).register(registry);
+        FunctionCounter.builder("ssm.client.errors", series, LatencySeries::getErrors).tags(seriesTags).register(registry);
+        for (double quantile : QUANTILES) {
+            Gauge.builder("ssm.client.latency", series, s -> s.getLatency(quantile * 100) / MICROS_PER_SECOND)
+                    .tags(seriesTags).tag("quantile", Double.toString(quantile)).baseUnit("seconds").register(registry);
+        }
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.providers.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Histogram of recently recorded values. Recording is wait free. Values are moved from the recorder to the current
+ * interval when the histogram is read, the current interval becomes the previous one when the window elapses and the
+ * previous one is dropped, so reads reflect values recorded within the last one or two windows.
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+final class WindowedHistogram {
+
+    private final Recorder recorder;
+
+    private final long windowNanos;
+
+    private Histogram current;
+
+    private Histogram previous;
+
+    private Histogram interval;
+
+    private long rotatedAt = System.nanoTime();
+
+    WindowedHistogram(final int significantDigits, final long windowNanos) {
+        this.recorder = new Recorder(significantDigits);
+        this.windowNanos = windowNanos;
+        this.current = new Histogram(significantDigits);
+        this.previous = new Histogram(significantDigits);
+    }
+
+    void record(final long value) {
+        recorder.recordValue(value);
+    }
+
+    /**
+     * 
+     * @return the copy of values recorded within the last one or two windows
+     */
+    synchronized Histogram snapshot() {
+        interval = recorder.getIntervalHistogram(interval);
+        current.add(interval);
+
+        final long now = System.nanoTime();
+        if (now - rotatedAt >= windowNanos) {
+            final Histogram dropped = previous;
+            previous = current;
+            current = dropped;
+            current.reset();
+            rotatedAt = now;
+        }
+
+        final Histogram snapshot = previous.copy();
+        snapshot.add(current);
+        return snapshot;
+    }
+
+    synchronized void reset() {
+        recorder.reset();
+        current.reset();
+        previous.reset();
+        rotatedAt = System.nanoTime();
+    }
+
+}
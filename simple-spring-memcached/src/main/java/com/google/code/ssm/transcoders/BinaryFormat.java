@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.transcoders;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.util.Assert;
+
+import com.google.code.ssm.aop.support.PertinentNegativeNull;
+import com.google.code.ssm.aop.support.SoftExpiringValue;
+
+/**
+ * Tags and class registry of the compact binary format used by {@link BinaryTranscoder}. Registered classes are
+ * written as small numeric ids instead of class names, the same way as aliases are used in JSON. Fields of each class
+ * are resolved by reflection only once and cached.
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+final class BinaryFormat {
+
+    static final int VERSION = 1;
+
+    static final int NULL = 0;
+
+    static final int TRUE = 1;
+
+    static final int FALSE = 2;
+
+    static final int BYTE = 3;
+
+    static final int SHORT = 4;
+
+    static final int INT = 5;
+
+    static final int LONG = 6;
+
+    static final int FLOAT = 7;
+
+    static final int DOUBLE = 8;
+
+    static final int CHAR = 9;
+
+    static final int STRING = 10;
+
+    static final int BYTES = 11;
+
+    static final int ENUM = 12;
+
+    static final int OBJECT = 13;
+
+    static final int ARRAY = 14;
+
+    static final int COLLECTION = 15;
+
+    static final int MAP = 16;
+
+    static final int BIG_INTEGER = 17;
+
+    static final int BIG_DECIMAL = 18;
+
+    static final int DATE = 19;
+
+    // value serialized using java serialization
+    static final int SERIALIZED = 20;
+
+    /**
+     * Ids lower than this value are reserved for built-in classes.
+     */
+    static final int MIN_CUSTOM_ID = 32;
+
+    private final Map<Class<?>, Integer> classToId = new ConcurrentHashMap<Class<?>, Integer>();
+
+    private final Map<Integer, Class<?>> idToClass = new ConcurrentHashMap<Integer, Class<?>>();
+
+    private final ConcurrentMap<Class<?>, Schema> schemas = new ConcurrentHashMap<Class<?>, Schema>();
+
+    BinaryFormat() {
+        register(PertinentNegativeNull.class, 1);
+        register(SoftExpiringValue.class, 2);
+        register(Object.class, 3);
+        register(String.class, 4);
+        register(ArrayList.class, 5);
+        register(LinkedList.class, 6);
+        register(HashSet.class, 7);
+        register(LinkedHashSet.class, 8);
+        register(TreeSet.class, 9);
+        register(HashMap.class, 10);
+        register(LinkedHashMap.class, 11);
+        register(TreeMap.class, 12);
+        register(boolean.class, 13);
+        register(byte.class, 14);
+        register(short.class, 15);
+        register(int.class, 16);
+        register(long.class, 17);
+        register(float.class, 18);
+        register(double.class, 19);
+        register(char.class, 20);
+        register(Integer.class, 21);
+        register(Long.class, 22);
+    }
+
+    /**
+     * Adds single mapping: class <-> id.
+     * 
+     * @param clazz
+     *            the class
+     * @param id
+     *            the id, must not be lower than {@link #MIN_CUSTOM_ID}
+     */
+    void addClassToId(final Class<?> clazz, final int id) {
+        Assert.notNull(clazz, "Class cannot be null");
+        if (id < MIN_CUSTOM_ID) {
+            throw new IllegalArgumentException("Id " + id + " of class " + clazz + " is reserved, use id greater or equal to "
+                    + MIN_CUSTOM_ID);
+        }
+
+        register(clazz, id);
+    }
+
+    Integer getId(final Class<?> clazz) {
+        return classToId.get(clazz);
+    }
+
+    Class<?> getClass(final int id) {
+        return idToClass.get(id);
+    }
+
+    Schema getSchema(final Class<?> clazz) {
+        Schema schema = schemas.get(clazz);
+        if (schema == null) {
+            schema = new Schema(clazz);
+            final Schema previous = schemas.putIfAbsent(clazz, schema);
+            if (previous != null) {
+                schema = previous;
+            }
+        }
+
+        return schema;
+    }
+
+    static boolean isPlatformClass(final Class<?> type) {
+        final String name = type.getName();
+        return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("sun.") || name.startsWith("com.sun.");
+    }
+
+    private void register(final Class<?> clazz, final int id) {
+        if (classToId.containsKey(clazz)) {
+            throw new IllegalArgumentException("Class " + clazz + " has already defined id " + classToId.get(clazz)
+                    + " cannot set another id " + id);
+        }
+
+        if (idToClass.containsKey(id)) {
+            throw new IllegalArgumentException("Id " + id + " is used by another class " + idToClass.get(id) + " and cannot be used by "
+                    + clazz);
+        }
+
+        classToId.put(clazz, id);
+        idToClass.put(id, clazz);
+    }
+
+    /**
+     * Non static, non transient fields of a class and its superclasses and no-arg constructor used to create instances.
+     */
+    static final class Schema {
+
+        private final Class<?> type;
+
+        private final Constructor<?> constructor;
+
+        private final Field[] fields;
+
+        private final String[] names;
+
+        private final Map<String, Integer> indexes = new HashMap<String, Integer>();
+
+        private Schema(final Class<?> type) {
+            this.type = type;
+            // fields of platform classes aren't accessed, such objects are written using java serialization
+            this.constructor = isPlatformClass(type) ? null : findConstructor(type);
+
+            final List<Field> found = new ArrayList<Field>();
+            final Set<String> foundNames = new HashSet<String>();
+            final List<String> fieldNames = new ArrayList<String>();
+            for (Class<?> current = constructor == null ? null : type; current != null && current != Object.class; current = current
+                    .getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    final int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                        continue;
+                    }
+
+                    field.setAccessible(true);
+                    // field hidden by a field of subclass is identified by its class
+                    final String name = foundNames.add(field.getName()) ? field.getName() : current.getName() + "." + field.getName();
+                    indexes.put(name, found.size());
+                    found.add(field);
+                    fieldNames.add(name);
+                }
+            }
+
+            this.fields = found.toArray(new Field[found.size()]);
+            this.names = fieldNames.toArray(new String[fieldNames.size()]);
+        }
+
+        /**
+         * 
+         * @return true if objects of this class can be created and their fields written
+         */
+        boolean isSupported() {
+            return constructor != null;
+        }
+
+        Object newInstance() throws ReflectiveOperationException {
+            return constructor.newInstance();
+        }
+
+        Class<?> getType() {
+            return type;
+        }
+
+        int getFieldCount() {
+            return fields.length;
+        }
+
+        Field getField(final int index) {
+            return fields[index];
+        }
+
+        String getName(final int index) {
+            return names[index];
+        }
+
+        /**
+         * 
+         * @return index of field with given name or -1 if there is no such field
+         */
+        int indexOf(final String name) {
+            final Integer index = indexes.get(name);
+            return index == null ? -1 : index;
+        }
+
+        private static Constructor<?> findConstructor(final Class<?> type) {
+            if (type.isInterface() || Modifier.isAbstract(type.getModifiers()) || type.isArray() || type.isPrimitive()
+                    || (type.getEnclosingClass() != null && !Modifier.isStatic(type.getModifiers()))) {
+                return null;
+            }
+
+            try {
+                final Constructor<?> constructor = type.getDeclaredConstructor();
+                constructor.setAccessible(true);
+                return constructor;
+            } catch (NoSuchMethodException e) {
+                return null;
+            } catch (SecurityException e) {
+                return null;
+            }
+        }
+
+    }
+
+}
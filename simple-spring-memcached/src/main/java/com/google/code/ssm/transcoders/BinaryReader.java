@@ -0,0 +1,492 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.transcoders;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads single value written by {@link BinaryWriter}. Fields are matched by name so fields added to a class since the
+ * value was written keep default values, values of removed fields and values which cannot be assigned to a field
+ * because its type has changed are skipped. Classes stored by name are resolved by {@link ClassResolver}, values of
+ * classes which aren't allowed cannot be decoded.
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+final class BinaryReader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BinaryReader.class);
+
+    private final BinaryFormat format;
+
+    private final ClassResolver classResolver;
+
+    private final byte[] data;
+
+    private final int limit;
+
+    private final ClassLoader classLoader;
+
+    private final List<ClassEntry> classes = new ArrayList<ClassEntry>();
+
+    private int position;
+
+    private int depth;
+
+    BinaryReader(final BinaryFormat format, final ClassResolver classResolver, final byte[] data, final int offset, final int length) {
+        this.format = format;
+        this.classResolver = classResolver;
+        this.data = data;
+        this.position = offset;
+        this.limit = offset + length;
+        final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        this.classLoader = contextClassLoader != null ? contextClassLoader : BinaryReader.class.getClassLoader();
+    }
+
+    /**
+     * Reads the format version and the value.
+     */
+    Object readRoot() throws IOException {
+        final int version = readByte();
+        if (version != BinaryFormat.VERSION) {
+            throw new IOException("Unsupported version " + version + " of binary format");
+        }
+
+        return readValue();
+    }
+
+    Object readValue() throws IOException {
+        depth++;
+        try {
+            return read(readByte());
+        } finally {
+            depth--;
+        }
+    }
+
+    private Object read(final int tag) throws IOException {
+        switch (tag) {
+        case BinaryFormat.NULL:
+            return null;
+        case BinaryFormat.TRUE:
+            return Boolean.TRUE;
+        case BinaryFormat.FALSE:
+            return Boolean.FALSE;
+        case BinaryFormat.BYTE:
+            return (byte) readByte();
+        case BinaryFormat.SHORT:
+            return (short) unZigZag(readVarInt());
+        case BinaryFormat.INT:
+            return unZigZag(readVarInt());
+        case BinaryFormat.LONG:
+            return unZigZag(readVarLong());
+        case BinaryFormat.FLOAT:
+            return Float.intBitsToFloat(readFixedInt());
+        case BinaryFormat.DOUBLE:
+            return Double.longBitsToDouble(readFixedLong());
+        case BinaryFormat.CHAR:
+            return (char) readVarInt();
+        case BinaryFormat.STRING:
+            return readString();
+        case BinaryFormat.BYTES:
+            return readBytes();
+        case BinaryFormat.ENUM:
+            return readEnum();
+        case BinaryFormat.OBJECT:
+            return readObject();
+        case BinaryFormat.ARRAY:
+            return readArray();
+        case BinaryFormat.COLLECTION:
+            return readCollection();
+        case BinaryFormat.MAP:
+            return readMap();
+        case BinaryFormat.BIG_INTEGER:
+            return new BigInteger(readBytes());
+        case BinaryFormat.BIG_DECIMAL:
+            return new BigDecimal(new BigInteger(readBytes()), unZigZag(readVarInt()));
+        case BinaryFormat.DATE:
+            return new Date(unZigZag(readVarLong()));
+        case BinaryFormat.SERIALIZED:
+            return readSerialized();
+        default:
+            throw new IOException("Unknown tag " + tag + " at position " + (position - 1));
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Object readEnum() throws IOException {
+        final ClassEntry entry = readClass();
+        final String name = readString();
+        if (!isResolved(entry)) {
+            return null;
+        }
+
+        try {
+            return Enum.valueOf((Class) entry.type, name);
+        } catch (IllegalArgumentException e) {
+            LOGGER.debug("Enum constant {} of {} doesn't exist, null is used", name, entry.type);
+            return null;
+        }
+    }
+
+    private Object readObject() throws IOException {
+        final ClassEntry entry = readClass();
+        if (entry.fieldIndexes == null) {
+            readSchema(entry);
+        }
+
+        Object instance = null;
+        if (isResolved(entry)) {
+            try {
+                instance = entry.schema.newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IOException("Cannot create instance of " + entry.type, e);
+            }
+        }
+
+        for (int fieldIndex : entry.fieldIndexes) {
+            final Object value = readValue();
+            if (instance != null && fieldIndex >= 0) {
+                try {
+                    entry.schema.getField(fieldIndex).set(instance, value);
+                } catch (IllegalArgumentException e) {
+                    LOGGER.debug("Value of field {} of {} is incompatible and skipped", entry.schema.getName(fieldIndex), entry.type);
+                } catch (IllegalAccessException e) {
+                    throw new IOException("Cannot set field " + entry.schema.getName(fieldIndex) + " of " + entry.type, e);
+                }
+            }
+        }
+
+        return instance;
+    }
+
+    private void readSchema(final ClassEntry entry) throws IOException {
+        if (entry.type != null) {
+            if (BinaryFormat.isPlatformClass(entry.type)) {
+                throw new IOException("Class " + entry.type + " cannot be read as object");
+            }
+            entry.schema = format.getSchema(entry.type);
+            if (!entry.schema.isSupported()) {
+                throw new IOException("Class " + entry.type + " has no no-arg constructor");
+            }
+        }
+
+        final int count = readVarInt();
+        entry.fieldIndexes = new int[count];
+        for (int i = 0; i < count; i++) {
+            final String name = readString();
+            entry.fieldIndexes[i] = entry.schema == null ? -1 : entry.schema.indexOf(name);
+        }
+    }
+
+    private Object readArray() throws IOException {
+        final ClassEntry entry = readClass();
+        final int length = readVarInt();
+        // each element takes at least one byte
+        checkAvailable(length);
+        final Class<?> componentType = entry.type;
+
+        if (componentType == int.class) {
+            final int[] array = new int[length];
+            for (int i = 0; i < length; i++) {
+                array[i] = unZigZag(readVarInt());
+            }
+            return array;
+        } else if (componentType == long.class) {
+            final long[] array = new long[length];
+            for (int i = 0; i < length; i++) {
+                array[i] = unZigZag(readVarLong());
+            }
+            return array;
+        } else if (componentType == double.class) {
+            final double[] array = new double[length];
+            for (int i = 0; i < length; i++) {
+                array[i] = Double.longBitsToDouble(readFixedLong());
+            }
+            return array;
+        } else if (componentType == float.class) {
+            final float[] array = new float[length];
+            for (int i = 0; i < length; i++) {
+                array[i] = Float.intBitsToFloat(readFixedInt());
+            }
+            return array;
+        } else if (componentType == short.class) {
+            final short[] array = new short[length];
+            for (int i = 0; i < length; i++) {
+                array[i] = (short) unZigZag(readVarInt());
+            }
+            return array;
+        } else if (componentType == char.class) {
+            final char[] array = new char[length];
+            for (int i = 0; i < length; i++) {
+                array[i] = (char) readVarInt();
+            }
+            return array;
+        } else if (componentType == boolean.class) {
+            final boolean[] array = new boolean[length];
+            for (int i = 0; i < length; i++) {
+                array[i] = readByte() != 0;
+            }
+            return array;
+        } else if (componentType == byte.class) {
+            throw new IOException("Byte arrays are written using dedicated tag");
+        }
+
+        final Object[] array = isResolved(entry) ? (Object[]) Array.newInstance(componentType, length) : null;
+        for (int i = 0; i < length; i++) {
+            final Object value = readValue();
+            if (array != null) {
+                try {
+                    array[i] = value;
+                } catch (ArrayStoreException e) {
+                    LOGGER.debug("Element of array of {} is incompatible and skipped", componentType);
+                }
+            }
+        }
+        return array;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object readCollection() throws IOException {
+        final ClassEntry entry = readClass();
+        final int size = readVarInt();
+        checkAvailable(size);
+        final Collection<Object> collection = (Collection<Object>) newContainer(entry, Collection.class, size);
+        for (int i = 0; i < size; i++) {
+            collection.add(readValue());
+        }
+        return collection;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object readMap() throws IOException {
+        final ClassEntry entry = readClass();
+        final int size = readVarInt();
+        checkAvailable(size);
+        final Map<Object, Object> map = (Map<Object, Object>) newContainer(entry, Map.class, size);
+        for (int i = 0; i < size; i++) {
+            map.put(readValue(), readValue());
+        }
+        return map;
+    }
+
+    private Object newContainer(final ClassEntry entry, final Class<?> containerType, final int size) throws IOException {
+        final Class<?> type = entry.type;
+        if (type == ArrayList.class) {
+            return new ArrayList<Object>(size);
+        } else if (type == HashMap.class) {
+            return new HashMap<Object, Object>(capacity(size));
+        } else if (type == LinkedHashMap.class) {
+            return new LinkedHashMap<Object, Object>(capacity(size));
+        } else if (type == HashSet.class) {
+            return new HashSet<Object>(capacity(size));
+        } else if (type == LinkedHashSet.class) {
+            return new LinkedHashSet<Object>(capacity(size));
+        }
+
+        if (type == null || !containerType.isAssignableFrom(type)) {
+            throw new IOException("Class " + (type == null ? entry.name : type) + " is not a " + containerType.getSimpleName());
+        }
+
+        try {
+            if (entry.constructor == null) {
+                entry.constructor = type.getConstructor();
+            }
+            return entry.constructor.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IOException("Cannot create instance of " + type, e);
+        }
+    }
+
+    private Object readSerialized() throws IOException {
+        final int length = readVarInt();
+        checkAvailable(length);
+        final ResolvingObjectInputStream is = new ResolvingObjectInputStream(new ByteArrayInputStream(data, position, length),
+                classLoader, classResolver);
+        position += length;
+        try {
+            return is.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        } finally {
+            is.close();
+        }
+    }
+
+    private ClassEntry readClass() throws IOException {
+        final int index = readVarInt();
+        if (index > 0) {
+            if (index > classes.size()) {
+                throw new IOException("Unknown class index " + index);
+            }
+            return classes.get(index - 1);
+        }
+
+        final ClassEntry entry = new ClassEntry();
+        final int id = readVarInt();
+        if (id > 0) {
+            entry.type = format.getClass(id);
+            if (entry.type == null) {
+                throw new IOException("Class with id " + id + " isn't registered");
+            }
+            entry.name = entry.type.getName();
+        } else {
+            entry.name = readString();
+            try {
+                entry.type = classResolver.resolve(entry.name, classLoader);
+            } catch (ClassNotFoundException e) {
+                LOGGER.debug("Class {} not found, its values are skipped", entry.name);
+            } catch (LinkageError e) {
+                LOGGER.debug("Class {} cannot be loaded, its values are skipped", entry.name);
+            }
+        }
+
+        classes.add(entry);
+        return entry;
+    }
+
+    /**
+     * Values of classes that don't exist anymore can be skipped in fields but not at the top level.
+     */
+    private boolean isResolved(final ClassEntry entry) throws IOException {
+        if (entry.type == null && depth <= 1) {
+            throw new IOException("Class " + entry.name + " not found");
+        }
+
+        return entry.type != null;
+    }
+
+    private String readString() throws IOException {
+        final int length = readVarInt();
+        checkAvailable(length);
+        final String value = new String(data, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    private byte[] readBytes() throws IOException {
+        final int length = readVarInt();
+        checkAvailable(length);
+        final byte[] value = new byte[length];
+        System.arraycopy(data, position, value, 0, length);
+        position += length;
+        return value;
+    }
+
+    private int readByte() throws IOException {
+        if (position >= limit) {
+            throw new EOFException("Unexpected end of binary data");
+        }
+        return data[position++] & 0xFF;
+    }
+
+    private int readVarInt() throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            final int b = readByte();
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed variable length int");
+    }
+
+    private long readVarLong() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final int b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed variable length long");
+    }
+
+    private int readFixedInt() throws IOException {
+        checkAvailable(4);
+        int result = 0;
+        for (int i = 0; i < 4; i++) {
+            result = (result << 8) | (data[position++] & 0xFF);
+        }
+        return result;
+    }
+
+    private long readFixedLong() throws IOException {
+        checkAvailable(8);
+        long result = 0;
+        for (int i = 0; i < 8; i++) {
+            result = (result << 8) | (data[position++] & 0xFF);
+        }
+        return result;
+    }
+
+    private void checkAvailable(final int length) throws EOFException {
+        if (length < 0 || length > limit - position) {
+            throw new EOFException("Unexpected end of binary data");
+        }
+    }
+
+    private static int capacity(final int size) {
+        return Math.max((int) (size / 0.75f) + 1, 16);
+    }
+
+    private static int unZigZag(final int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long unZigZag(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static final class ClassEntry {
+
+        private Class<?> type;
+
+        private String name;
+
+        private BinaryFormat.Schema schema;
+
+        private int[] fieldIndexes;
+
+        private Constructor<?> constructor;
+
+    }
+
+}
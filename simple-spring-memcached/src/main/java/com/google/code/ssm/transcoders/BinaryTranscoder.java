@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.transcoders;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.code.ssm.providers.CacheTranscoder;
+import com.google.code.ssm.providers.CachedObject;
+import com.google.code.ssm.providers.CachedObjectImpl;
+
+/**
+ * 
+ * Transcoder responsible to decode and encode objects from/to compact binary format. Fields of objects are accessed
+ * directly, objects are created using no-arg constructor (may be private) and custom java serialization methods aren't
+ * used. Objects without no-arg constructor are stored using java serialization. Each class can be registered under
+ * numeric id, otherwise its name is stored once per value. Fields are matched by name so fields can be added to and
+ * removed from a class without invalidating cached values. If {@link CompressionCodec} is set, data bigger than
+ * {@link BinaryTranscoder#setCompressionThreshold(int)} are compressed. Classes stored by name, also in objects stored
+ * using java serialization, are resolved by {@link ClassResolver} so deserialization can be limited to allowed classes.
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+@ToString(exclude = { "format", "buffers", "compression", "classResolver" })
+@EqualsAndHashCode(exclude = { "format", "buffers", "compression", "classResolver" })
+public class BinaryTranscoder implements CacheTranscoder {
+
+    /**
+     * Ids lower than this value are reserved for built-in classes.
+     */
+    public static final int MIN_CLASS_ID = BinaryFormat.MIN_CUSTOM_ID;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BinaryTranscoder.class);
+
+    private static final int BINARY_SERIALIZED = 16; // binary format
+
+    /**
+     * The codec used to compress data, by default data are not compressed. Compressed data can be decoded regardless
+     * of this setting.
+     */
+    @Getter
+    private CompressionCodec compressionCodec;
+
+    @Getter
+    @Setter
+    private int compressionThreshold = JavaTranscoder.DEFAULT_COMPRESSION_THRESHOLD;
+
+    /**
+     * If the average ratio of compressed to original size of objects of a class is higher, the objects aren't
+     * compressed.
+     */
+    @Getter
+    @Setter
+    private double maxCompressionRatio = JavaTranscoder.DEFAULT_MAX_COMPRESSION_RATIO;
+
+    private final BinaryFormat format = new BinaryFormat();
+
+    private final EncodingBuffers buffers = new EncodingBuffers();
+
+    private final Compression compression = new Compression();
+
+    /**
+     * Resolves classes of decoded objects which aren't registered under ids.
+     */
+    @Getter
+    private final ClassResolver classResolver = new ClassResolver();
+
+    public void setCompressionCodec(final CompressionCodec compressionCodec) {
+        Compression.validate(compressionCodec);
+        this.compressionCodec = compressionCodec;
+    }
+
+    /**
+     * Registers mappings between classes and ids. Ids must be unique and not lower than {@link #MIN_CLASS_ID}. Id of a
+     * class must not be changed while values of the class are cached.
+     * 
+     * @param classToId
+     */
+    public void setClassToId(final Map<Class<?>, Integer> classToId) {
+        for (Map.Entry<Class<?>, Integer> entry : classToId.entrySet()) {
+            format.addClassToId(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * 
+     * @param allowedClasses
+     *            the classes and packages which can be deserialized, if null all classes are allowed; classes registered
+     *            under ids are always allowed
+     * @see ClassResolver
+     */
+    public void setAllowedClasses(final Collection<String> allowedClasses) {
+        classResolver.setAllowedClasses(allowedClasses);
+    }
+
+    public boolean asyncDecode(final CachedObject data) {
+        return false;
+    }
+
+    @Override
+    public Object decode(final CachedObject data) {
+        if ((data.getFlags() & BINARY_SERIALIZED) == 0) {
+            LOGGER.warn("Cannot decode cached data {} using binary transcoder", data);
+            throw new RuntimeException("Cannot decode cached data using binary transcoder");
+        }
+
+        final boolean compressed = Compression.isCompressed(data.getFlags());
+        final byte[] bytes = compressed ? compression.decompress(compressionCodec, data.getFlags(), data.getData()) : data.getArray();
+        final int offset = compressed ? 0 : data.getOffset();
+        final int length = compressed ? bytes.length : data.getLength();
+
+        try {
+            return new BinaryReader(format, classResolver, bytes, offset, length).readRoot();
+        } catch (IOException e) {
+            LOGGER.warn(String.format("Error deserializing cached data %s", data.toString()), e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public CachedObject encode(final Object o) {
+        final Class<?> type = o == null ? null : o.getClass();
+        final EncodingBuffers.Buffer baos = buffers.acquire(type);
+
+        try {
+            new BinaryWriter(format, baos).writeRoot(o);
+            final byte[] data = baos.toByteArray();
+            if (compressionCodec != null && type != null && data.length > compressionThreshold) {
+                final byte[] compressed = compression.compress(compressionCodec, type, data, maxCompressionRatio);
+                if (compressed != null) {
+                    return new CachedObjectImpl(BINARY_SERIALIZED | Compression.getFlags(compressionCodec), compressed, 0,
+                            compressed.length);
+                }
+            }
+            return new CachedObjectImpl(BINARY_SERIALIZED, data, 0, data.length);
+        } catch (IOException e) {
+            LOGGER.warn(String.format("Error serializing object %s", o), e);
+            throw new RuntimeException(e);
+        } finally {
+            buffers.release(baos, type);
+        }
+    }
+
+    public int getMaxSize() {
+        return CachedObject.MAX_SIZE;
+    }
+
+}
@@ -0,0 +1,444 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.transcoders;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Writes single value in the compact binary format. Each value starts with one byte tag, integers are written as
+ * variable length numbers. A class is described by its registered id or name and names of its fields only once per
+ * payload, next occurrences use the index of the class in the payload. Shared references are written as separate
+ * copies, cyclic object graphs aren't supported.
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+final class BinaryWriter {
+
+    static final int MAX_DEPTH = 512;
+
+    private final BinaryFormat format;
+
+    private final OutputStream out;
+
+    private static final int BLOCK_SIZE = 1024;
+
+    // data are written to the stream in blocks, like in ObjectOutputStream
+    private final byte[] block = new byte[BLOCK_SIZE];
+
+    private int position;
+
+    private final Map<Class<?>, Integer> classIndexes = new IdentityHashMap<Class<?>, Integer>();
+
+    private final Set<Class<?>> writtenSchemas = Collections.newSetFromMap(new IdentityHashMap<Class<?>, Boolean>());
+
+    private int depth;
+
+    BinaryWriter(final BinaryFormat format, final OutputStream out) {
+        this.format = format;
+        this.out = out;
+    }
+
+    /**
+     * Writes the format version followed by the value.
+     */
+    void writeRoot(final Object value) throws IOException {
+        write(BinaryFormat.VERSION);
+        writeValue(value);
+        flush();
+    }
+
+    void writeValue(final Object value) throws IOException {
+        if (value == null) {
+            write(BinaryFormat.NULL);
+            return;
+        }
+
+        if (++depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Object graph is deeper than " + MAX_DEPTH + " or contains cycles");
+        }
+
+        try {
+            writeNonNull(value);
+        } finally {
+            depth--;
+        }
+    }
+
+    private void writeNonNull(final Object value) throws IOException {
+        final Class<?> type = value.getClass();
+        if (type == String.class) {
+            write(BinaryFormat.STRING);
+            writeString((String) value);
+        } else if (type == Integer.class) {
+            write(BinaryFormat.INT);
+            writeVarInt(zigZag((Integer) value));
+        } else if (type == Long.class) {
+            write(BinaryFormat.LONG);
+            writeVarLong(zigZag((Long) value));
+        } else if (type == Boolean.class) {
+            write((Boolean) value ? BinaryFormat.TRUE : BinaryFormat.FALSE);
+        } else if (type == Double.class) {
+            write(BinaryFormat.DOUBLE);
+            writeFixedLong(Double.doubleToLongBits((Double) value));
+        } else if (type == Float.class) {
+            write(BinaryFormat.FLOAT);
+            writeFixedInt(Float.floatToIntBits((Float) value));
+        } else if (type == Short.class) {
+            write(BinaryFormat.SHORT);
+            writeVarInt(zigZag((Short) value));
+        } else if (type == Byte.class) {
+            write(BinaryFormat.BYTE);
+            write((Byte) value);
+        } else if (type == Character.class) {
+            write(BinaryFormat.CHAR);
+            writeVarInt((Character) value);
+        } else if (type == byte[].class) {
+            write(BinaryFormat.BYTES);
+            writeBytes((byte[]) value);
+        } else if (value instanceof Enum) {
+            write(BinaryFormat.ENUM);
+            writeClass(((Enum<?>) value).getDeclaringClass());
+            writeString(((Enum<?>) value).name());
+        } else if (type.isArray()) {
+            writeArray(value, type.getComponentType());
+        } else if (value instanceof Collection && writeCollection((Collection<?>) value)) {
+            return;
+        } else if (value instanceof Map && writeMap((Map<?, ?>) value)) {
+            return;
+        } else if (type == BigInteger.class) {
+            write(BinaryFormat.BIG_INTEGER);
+            writeBytes(((BigInteger) value).toByteArray());
+        } else if (type == BigDecimal.class) {
+            write(BinaryFormat.BIG_DECIMAL);
+            writeBytes(((BigDecimal) value).unscaledValue().toByteArray());
+            writeVarInt(zigZag(((BigDecimal) value).scale()));
+        } else if (type == Date.class) {
+            write(BinaryFormat.DATE);
+            writeVarLong(zigZag(((Date) value).getTime()));
+        } else if (format.getSchema(type).isSupported()) {
+            writeObject(value, format.getSchema(type));
+        } else if (value instanceof Serializable) {
+            write(BinaryFormat.SERIALIZED);
+            writeSerialized(value);
+        } else {
+            throw new IllegalArgumentException("Cannot serialize object of " + type
+                    + ", it has no no-arg constructor and doesn't implement Serializable");
+        }
+    }
+
+    private void writeObject(final Object value, final BinaryFormat.Schema schema) throws IOException {
+        write(BinaryFormat.OBJECT);
+        writeClass(schema.getType());
+        if (writtenSchemas.add(schema.getType())) {
+            writeVarInt(schema.getFieldCount());
+            for (int i = 0; i < schema.getFieldCount(); i++) {
+                writeString(schema.getName(i));
+            }
+        }
+
+        try {
+            for (int i = 0; i < schema.getFieldCount(); i++) {
+                writeField(value, schema.getField(i));
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Cannot read fields of " + schema.getType(), e);
+        }
+    }
+
+    /**
+     * Writes value of field the same way as {@link #writeValue(Object)} but without boxing primitive values.
+     */
+    private void writeField(final Object object, final Field field) throws IOException, IllegalAccessException {
+        final Class<?> type = field.getType();
+        if (type == int.class) {
+            write(BinaryFormat.INT);
+            writeVarInt(zigZag(field.getInt(object)));
+        } else if (type == long.class) {
+            write(BinaryFormat.LONG);
+            writeVarLong(zigZag(field.getLong(object)));
+        } else if (type == boolean.class) {
+            write(field.getBoolean(object) ? BinaryFormat.TRUE : BinaryFormat.FALSE);
+        } else if (type == double.class) {
+            write(BinaryFormat.DOUBLE);
+            writeFixedLong(Double.doubleToLongBits(field.getDouble(object)));
+        } else {
+            writeValue(field.get(object));
+        }
+    }
+
+    private void writeArray(final Object array, final Class<?> componentType) throws IOException {
+        write(BinaryFormat.ARRAY);
+        writeClass(componentType);
+        final int length = Array.getLength(array);
+        writeVarInt(length);
+
+        if (componentType == int.class) {
+            for (int value : (int[]) array) {
+                writeVarInt(zigZag(value));
+            }
+        } else if (componentType == long.class) {
+            for (long value : (long[]) array) {
+                writeVarLong(zigZag(value));
+            }
+        } else if (componentType == double.class) {
+            for (double value : (double[]) array) {
+                writeFixedLong(Double.doubleToLongBits(value));
+            }
+        } else if (componentType == float.class) {
+            for (float value : (float[]) array) {
+                writeFixedInt(Float.floatToIntBits(value));
+            }
+        } else if (componentType == short.class) {
+            for (short value : (short[]) array) {
+                writeVarInt(zigZag(value));
+            }
+        } else if (componentType == char.class) {
+            for (char value : (char[]) array) {
+                writeVarInt(value);
+            }
+        } else if (componentType == boolean.class) {
+            for (boolean value : (boolean[]) array) {
+                write(value ? 1 : 0);
+            }
+        } else {
+            for (Object value : (Object[]) array) {
+                writeValue(value);
+            }
+        }
+    }
+
+    private boolean writeCollection(final Collection<?> collection) throws IOException {
+        final Class<?> type = getCollectionClass(collection);
+        if (type == null) {
+            return false;
+        }
+
+        write(BinaryFormat.COLLECTION);
+        writeClass(type);
+        writeVarInt(collection.size());
+        for (Object element : collection) {
+            writeValue(element);
+        }
+        return true;
+    }
+
+    private boolean writeMap(final Map<?, ?> map) throws IOException {
+        final Class<?> type = getMapClass(map);
+        if (type == null) {
+            return false;
+        }
+
+        write(BinaryFormat.MAP);
+        writeClass(type);
+        writeVarInt(map.size());
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            writeValue(entry.getKey());
+            writeValue(entry.getValue());
+        }
+        return true;
+    }
+
+    /**
+     * Collections that cannot be created using no-arg constructor (unmodifiable, singleton, views) are read as
+     * collections of the most similar class. Sorted collections with comparator aren't supported.
+     */
+    private Class<?> getCollectionClass(final Collection<?> collection) {
+        if (collection instanceof SortedSet) {
+            return ((SortedSet<?>) collection).comparator() == null ? TreeSet.class : null;
+        }
+
+        if (hasPublicConstructor(collection.getClass())) {
+            return collection.getClass();
+        }
+
+        return collection instanceof Set ? LinkedHashSet.class : (collection instanceof List ? ArrayList.class : null);
+    }
+
+    private Class<?> getMapClass(final Map<?, ?> map) {
+        if (map instanceof SortedMap) {
+            return ((SortedMap<?, ?>) map).comparator() == null ? TreeMap.class : null;
+        }
+
+        return hasPublicConstructor(map.getClass()) ? map.getClass() : LinkedHashMap.class;
+    }
+
+    private boolean hasPublicConstructor(final Class<?> type) {
+        if (BinaryFormat.isPlatformClass(type) && !Modifier.isPublic(type.getModifiers())) {
+            return false;
+        }
+
+        try {
+            type.getConstructor();
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private void writeSerialized(final Object value) throws IOException {
+        final EncodingBuffers.Buffer buffer = new EncodingBuffers.Buffer(EncodingBuffers.MIN_CAPACITY);
+        final ObjectOutputStream os = new ObjectOutputStream(buffer);
+        os.writeObject(value);
+        os.close();
+        writeVarInt(buffer.size());
+        flush();
+        buffer.writeTo(out);
+    }
+
+    /**
+     * Writes index of already written class or 0 followed by id of registered class or 0 and name of the class.
+     */
+    private void writeClass(final Class<?> type) throws IOException {
+        final Integer index = classIndexes.get(type);
+        if (index != null) {
+            writeVarInt(index);
+            return;
+        }
+
+        classIndexes.put(type, classIndexes.size() + 1);
+        write(0);
+        final Integer id = format.getId(type);
+        if (id != null) {
+            writeVarInt(id);
+        } else {
+            write(0);
+            writeString(type.getName());
+        }
+    }
+
+    private void writeString(final String value) throws IOException {
+        final int length = value.length();
+        if (length < BLOCK_SIZE && isAscii(value, length)) {
+            writeVarInt(length);
+            ensureAvailable(length);
+            for (int i = 0; i < length; i++) {
+                block[position++] = (byte) value.charAt(i);
+            }
+        } else {
+            writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private void writeBytes(final byte[] value) throws IOException {
+        writeVarInt(value.length);
+        write(value, 0, value.length);
+    }
+
+    private void writeVarInt(final int value) throws IOException {
+        ensureAvailable(5);
+        int v = value;
+        while ((v & ~0x7F) != 0) {
+            block[position++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        block[position++] = (byte) v;
+    }
+
+    private void writeVarLong(final long value) throws IOException {
+        ensureAvailable(10);
+        long v = value;
+        while ((v & ~0x7FL) != 0) {
+            block[position++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        block[position++] = (byte) v;
+    }
+
+    private void writeFixedInt(final int value) throws IOException {
+        ensureAvailable(4);
+        for (int i = 0; i < 4; i++) {
+            block[position++] = (byte) (value >>> (24 - 8 * i));
+        }
+    }
+
+    private void writeFixedLong(final long value) throws IOException {
+        ensureAvailable(8);
+        for (int i = 0; i < 8; i++) {
+            block[position++] = (byte) (value >>> (56 - 8 * i));
+        }
+    }
+
+    private void write(final int value) throws IOException {
+        ensureAvailable(1);
+        block[position++] = (byte) value;
+    }
+
+    private void write(final byte[] value, final int offset, final int length) throws IOException {
+        if (length > BLOCK_SIZE - position) {
+            flush();
+            out.write(value, offset, length);
+        } else {
+            System.arraycopy(value, offset, block, position, length);
+            position += length;
+        }
+    }
+
+    private void ensureAvailable(final int length) throws IOException {
+        if (length > BLOCK_SIZE - position) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        out.write(block, 0, position);
+        position = 0;
+    }
+
+    private static boolean isAscii(final String value, final int length) {
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int zigZag(final int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static long zigZag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.transcoders;
+
+import java.io.InvalidClassException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+import com.google.code.ssm.aop.support.PertinentNegativeNull;
+import com.google.code.ssm.aop.support.SoftExpiringValue;
+
+/**
+ * Resolves classes of deserialized objects. Resolved classes are cached per class loader (using soft references so
+ * class loaders can be unloaded) and only classes matching the allow-list can be resolved. The allow-list contains
+ * class names, package names followed by <code>.*</code> (classes of the package) or by <code>.**</code> (classes of the
+ * package and its subpackages), like patterns of java.io.ObjectInputFilter. If the allow-list isn't set all classes are
+ * allowed. Primitive types, wrappers of primitive types, {@link Number}, {@link Enum}, {@link String} and internal
+ * classes of this library are always allowed.
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+public class ClassResolver {
+
+    private static final Set<String> ALWAYS_ALLOWED = new HashSet<String>(Arrays.asList(Boolean.class.getName(),
+            Byte.class.getName(), Character.class.getName(), Short.class.getName(), Integer.class.getName(), Long.class.getName(),
+            Float.class.getName(), Double.class.getName(), Number.class.getName(), Enum.class.getName(), String.class.getName(),
+            PertinentNegativeNull.class.getName(), SoftExpiringValue.class.getName()));
+
+    private final ConcurrentMap<ClassLoader, ConcurrentMap<String, Class<?>>> classes =
+            new ConcurrentReferenceHashMap<ClassLoader, ConcurrentMap<String, Class<?>>>();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private volatile Set<String> allowedClasses;
+
+    private volatile Set<String> allowedPackages;
+
+    /**
+     * 
+     * @param allowedClasses
+     *            the allow-list of classes and packages or null if all classes are allowed
+     */
+    public void setAllowedClasses(final Collection<String> allowedClasses) {
+        if (allowedClasses == null) {
+            this.allowedClasses = null;
+            this.allowedPackages = null;
+            return;
+        }
+
+        final Set<String> names = new HashSet<String>();
+        final Set<String> packages = new HashSet<String>();
+        for (String allowed : allowedClasses) {
+            final String pattern = allowed.trim();
+            if (pattern.endsWith(".*") || pattern.endsWith(".**")) {
+                packages.add(pattern);
+            } else if (!pattern.isEmpty()) {
+                names.add(pattern);
+            }
+        }
+
+        this.allowedPackages = Collections.unmodifiableSet(packages);
+        this.allowedClasses = Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * 
+     * @return the allow-list of classes and packages or null if all classes are allowed
+     */
+    public Collection<String> getAllowedClasses() {
+        final Set<String> names = allowedClasses;
+        final Set<String> packages = allowedPackages;
+        if (names == null) {
+            return null;
+        }
+
+        final Set<String> allowed = new HashSet<String>(names);
+        allowed.addAll(packages);
+        return allowed;
+    }
+
+    /**
+     * 
+     * @param className
+     *            the name of class as returned by {@link Class#getName()}
+     * @return true if the class can be deserialized
+     */
+    public boolean isAllowed(final String className) {
+        final Set<String> names = allowedClasses;
+        final Set<String> packages = allowedPackages;
+        if (names == null) {
+            return true;
+        }
+
+        String name = className;
+        if (name.startsWith("[")) {
+            // arrays are allowed if their elements are allowed
+            name = name.substring(name.lastIndexOf('[') + 1);
+            if (!name.startsWith("L") || !name.endsWith(";")) {
+                return true;
+            }
+            name = name.substring(1, name.length() - 1);
+        }
+
+        if (names.contains(name) || ALWAYS_ALLOWED.contains(name)) {
+            return true;
+        }
+
+        int dot = name.lastIndexOf('.');
+        if (dot < 0) {
+            return false;
+        }
+        if (packages.contains(name.substring(0, dot) + ".*")) {
+            return true;
+        }
+        while (dot > 0) {
+            if (packages.contains(name.substring(0, dot) + ".**")) {
+                return true;
+            }
+            dot = name.lastIndexOf('.', dot - 1);
+        }
+
+        return false;
+    }
+
+    /**
+     * Resolves class by name.
+     * 
+     * @param className
+     *            the name of class as returned by {@link Class#getName()}
+     * @param classLoader
+     *            the class loader to use
+     * @return the class
+     * @throws ClassNotFoundException
+     *             if class cannot be found
+     * @throws InvalidClassException
+     *             if class isn't allowed
+     */
+    public Class<?> resolve(final String className, final ClassLoader classLoader) throws ClassNotFoundException,
+            InvalidClassException {
+        if (!isAllowed(className)) {
+            throw new InvalidClassException(className, "deserialization of class isn't allowed");
+        }
+
+        ConcurrentMap<String, Class<?>> loaderClasses = classes.get(classLoader);
+        if (loaderClasses == null) {
+            loaderClasses = new ConcurrentReferenceHashMap<String, Class<?>>();
+            final ConcurrentMap<String, Class<?>> previous = classes.putIfAbsent(classLoader, loaderClasses);
+            if (previous != null) {
+                loaderClasses = previous;
+            }
+        }
+
+        Class<?> clazz = loaderClasses.get(className);
+        if (clazz != null) {
+            hits.increment();
+            return clazz;
+        }
+
+        misses.increment();
+        clazz = ClassUtils.forName(className, classLoader);
+        loaderClasses.put(className, clazz);
+        return clazz;
+    }
+
+    /**
+     * 
+     * @return the number of classes found in cache
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * 
+     * @return the number of classes looked up in class loader
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * 
+     * @return the ratio of classes found in cache to all resolved classes
+     */
+    public double getHitRate() {
+        final long hitCount = hits.sum();
+        final long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+}
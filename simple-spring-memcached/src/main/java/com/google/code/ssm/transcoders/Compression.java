@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.transcoders;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compression used by transcoders. Compressed values have {@link #COMPRESSED} flag and the id of codec stored in flags
+ * so values stored by previous versions (GZIP, codec id 0) and by other codecs can still be decoded. If compression of
+ * objects of a given class doesn't save enough space it's disabled for that class, every {@link #PROBE_INTERVAL}-th
+ * object is still compressed to notice when the ratio improves.
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+final class Compression {
+
+    static final int COMPRESSED = 2;
+
+    static final int PROBE_INTERVAL = 64;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Compression.class);
+
+    private static final int CODEC_SHIFT = 12;
+
+    private static final int CODEC_MASK = CompressionCodec.MAX_ID << CODEC_SHIFT;
+
+    // weight of the latest ratio in moving average is 1/2^AVERAGE_SHIFT
+    private static final int AVERAGE_SHIFT = 3;
+
+    private static final Map<Integer, CompressionCodec> BUILT_IN_CODECS = new HashMap<Integer, CompressionCodec>();
+
+    static {
+        register(new GzipCompressionCodec());
+        register(new DeflateCompressionCodec());
+        try {
+            Class.forName("org.iq80.snappy.Snappy");
+            register(new SnappyCompressionCodec());
+        } catch (ClassNotFoundException | LinkageError e) {
+            LOGGER.debug("Snappy is not available on classpath, snappy compression is disabled");
+        }
+    }
+
+    // moving average of compressed to original size ratio in per mille, attached to classes so class loaders can be
+    // unloaded
+    private final ClassValue<Ratio> ratios = new ClassValue<Ratio>() {
+        @Override
+        protected Ratio computeValue(final Class<?> type) {
+            return new Ratio();
+        }
+    };
+
+    static int getFlags(final CompressionCodec codec) {
+        return COMPRESSED | codec.getId() << CODEC_SHIFT;
+    }
+
+    static void validate(final CompressionCodec codec) {
+        if (codec != null && (codec.getId() < 0 || codec.getId() > CompressionCodec.MAX_ID)) {
+            throw new IllegalArgumentException("Id of compression codec must be between 0 and " + CompressionCodec.MAX_ID);
+        }
+    }
+
+    static boolean isCompressed(final int flags) {
+        return (flags & COMPRESSED) != 0;
+    }
+
+    /**
+     * Compresses data unless compression of objects of given class has been disabled because of poor ratio.
+     * 
+     * @param codec
+     *            the codec
+     * @param type
+     *            the class of compressed object
+     * @param data
+     *            the data to compress
+     * @param maxRatio
+     *            the maximum ratio of compressed to original size, if the average ratio is higher compression is
+     *            disabled
+     * @return compressed data or null if data shouldn't be stored compressed
+     */
+    byte[] compress(final CompressionCodec codec, final Class<?> type, final byte[] data, final double maxRatio) {
+        if (!shouldCompress(type, maxRatio)) {
+            return null;
+        }
+
+        final byte[] compressed;
+        try {
+            compressed = codec.compress(data);
+        } catch (IOException e) {
+            throw new RuntimeException("IO exception compressing data", e);
+        }
+        record(type, data.length, compressed.length);
+
+        return compressed.length < data.length ? compressed : null;
+    }
+
+    /**
+     * 
+     * @param type
+     *            the class of compressed object
+     * @param maxRatio
+     *            the maximum ratio of compressed to original size
+     * @return false if compression of objects of given class has been disabled because of poor ratio
+     */
+    boolean shouldCompress(final Class<?> type, final double maxRatio) {
+        final Ratio ratio = getRatio(type);
+        return !ratio.isPoor(maxRatio) || ratio.skipped.incrementAndGet() % PROBE_INTERVAL == 0;
+    }
+
+    /**
+     * Records the result of compression of an object.
+     * 
+     * @param type
+     *            the class of compressed object
+     * @param size
+     *            the original size
+     * @param compressedSize
+     *            the compressed size
+     */
+    void record(final Class<?> type, final int size, final int compressedSize) {
+        getRatio(type).record((int) (compressedSize * 1000L / Math.max(size, 1)));
+
+        if (compressedSize < size) {
+            LOGGER.debug("Compressed {} from {} to {}", new Object[] { type.getName(), size, compressedSize });
+        } else {
+            LOGGER.info("Compression increased the size of {} from {} to {}", new Object[] { type.getName(), size, compressedSize });
+        }
+    }
+
+    /**
+     * Decompresses data using the codec which id is stored in flags.
+     * 
+     * @param codec
+     *            the codec configured in transcoder, used if its id matches the id in flags
+     * @param flags
+     *            the flags of stored value
+     * @param data
+     *            the data to decompress
+     * @return decompressed data
+     */
+    byte[] decompress(final CompressionCodec codec, final int flags, final byte[] data) {
+        try {
+            return getCodec(codec, flags).decompress(data);
+        } catch (IOException e) {
+            throw new RuntimeException("IO exception decompressing data", e);
+        }
+    }
+
+    /**
+     * 
+     * @param codec
+     *            the codec configured in transcoder
+     * @param flags
+     *            the flags of stored value
+     * @return the codec which id is stored in flags
+     */
+    CompressionCodec getCodec(final CompressionCodec codec, final int flags) {
+        final int id = (flags & CODEC_MASK) >>> CODEC_SHIFT;
+        final CompressionCodec decompressor = codec != null && codec.getId() == id ? codec : BUILT_IN_CODECS.get(id);
+        if (decompressor == null) {
+            throw new RuntimeException("Cannot decompress data compressed by unknown codec " + id);
+        }
+        return decompressor;
+    }
+
+    private Ratio getRatio(final Class<?> type) {
+        return ratios.get(type);
+    }
+
+    private static void register(final CompressionCodec codec) {
+        BUILT_IN_CODECS.put(codec.getId(), codec);
+    }
+
+    private static final class Ratio {
+
+        private final AtomicInteger average = new AtomicInteger(0);
+
+        private final AtomicInteger skipped = new AtomicInteger();
+
+        boolean isPoor(final double maxRatio) {
+            return average.get() > maxRatio * 1000;
+        }
+
+        void record(final int ratio) {
+            // lost updates under contention only make the average less precise
+            final int current = average.get();
+            average.lazySet(current == 0 ? ratio : current + ((ratio - current) >> AVERAGE_SHIFT));
+        }
+
+    }
+
+}
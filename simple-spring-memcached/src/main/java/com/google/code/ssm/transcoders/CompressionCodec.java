@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.transcoders;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Compresses data stored in memcached by transcoders. The id of the codec is stored in flags of each compressed value
+ * so values compressed by different codecs can be decoded. Ids from 0 to 7 are reserved for codecs provided by SSM, custom
+ * codecs should use ids from 8 to 15.
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+public interface CompressionCodec {
+
+    int MAX_ID = 15;
+
+    /**
+     * 
+     * @return the id of codec from 0 to {@link #MAX_ID}
+     */
+    int getId();
+
+    byte[] compress(byte[] in) throws IOException;
+
+    byte[] decompress(byte[] in) throws IOException;
+
+    /**
+     * 
+     * @return true if codec supports {@link #compress(OutputStream)} and {@link #decompress(InputStream)}
+     * @since 4.1.4
+     */
+    default boolean isStreaming() {
+        return false;
+    }
+
+    /**
+     * Creates stream compressing data written to it. Closing the returned stream finishes compression.
+     * 
+     * @param out
+     *            the stream to write compressed data to
+     * @return compressing stream
+     * @since 4.1.4
+     */
+    default OutputStream compress(final OutputStream out) throws IOException {
+        throw new UnsupportedOperationException("Streaming compression is not supported by " + getClass().getName());
+    }
+
+    /**
+     * Creates stream decompressing data read from given stream.
+     * 
+     * @param in
+     *            the stream of compressed data
+     * @return decompressing stream
+     * @since 4.1.4
+     */
+    default InputStream decompress(final InputStream in) throws IOException {
+        throw new UnsupportedOperationException("Streaming decompression is not supported by " + getClass().getName());
+    }
+
+}
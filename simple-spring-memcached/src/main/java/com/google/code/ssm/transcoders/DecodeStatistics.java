@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.transcoders;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Number and total time of decoded objects of single class.
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+public final class DecodeStatistics {
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder totalNanos = new LongAdder();
+
+    void record(final long nanos) {
+        count.increment();
+        totalNanos.add(nanos);
+    }
+
+    /**
+     * 
+     * @return the number of decoded objects
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * 
+     * @return the total time of decoding in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * 
+     * @return the average time of decoding single object in nanoseconds
+     */
+    public long getAverageNanos() {
+        final long decoded = count.sum();
+        return decoded == 0 ? 0 : totalNanos.sum() / decoded;
+    }
+
+    @Override
+    public String toString() {
+        return "DecodeStatistics [count=" + getCount() + ", averageNanos=" + getAverageNanos() + "]";
+    }
+
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.transcoders;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Deflate (zlib) compression with optional preset dictionary. A dictionary built from content typical for cached values
+ * (i.e. common JSON property names and values) significantly improves compression of small payloads. All application
+ * nodes have to use the same dictionary, values compressed with a different dictionary cannot be decompressed. Streaming
+ * is supported only without dictionary.
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+@ToString(exclude = { "buffers", "dictionary" })
+@EqualsAndHashCode(exclude = "buffers")
+public class DeflateCompressionCodec implements CompressionCodec {
+
+    public static final int ID = 1;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    @Getter
+    private final int level;
+
+    private final byte[] dictionary;
+
+    private final EncodingBuffers buffers = new EncodingBuffers();
+
+    public DeflateCompressionCodec() {
+        this(Deflater.BEST_SPEED, null);
+    }
+
+    /**
+     * 
+     * @param level
+     *            the compression level (0-9)
+     * @param dictionary
+     *            the preset dictionary or null
+     */
+    public DeflateCompressionCodec(final int level, final byte[] dictionary) {
+        this.level = level;
+        this.dictionary = dictionary == null ? null : dictionary.clone();
+    }
+
+    @Override
+    public int getId() {
+        return ID;
+    }
+
+    @Override
+    public byte[] compress(final byte[] in) throws IOException {
+        final Deflater deflater = new Deflater(level);
+        final EncodingBuffers.Buffer bos = buffers.acquire(null);
+        try {
+            if (dictionary != null) {
+                deflater.setDictionary(dictionary);
+            }
+            deflater.setInput(in);
+            deflater.finish();
+
+            final byte[] buf = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                bos.write(buf, 0, deflater.deflate(buf));
+            }
+            return bos.toByteArray();
+        } finally {
+            deflater.end();
+            buffers.release(bos, null);
+        }
+    }
+
+    @Override
+    public byte[] decompress(final byte[] in) throws IOException {
+        final Inflater inflater = new Inflater();
+        final EncodingBuffers.Buffer bos = buffers.acquire(null);
+        try {
+            inflater.setInput(in);
+
+            final byte[] buf = new byte[BUFFER_SIZE];
+            while (!inflater.finished()) {
+                final int r = inflater.inflate(buf);
+                if (r == 0 && !inflater.finished()) {
+                    if (inflater.needsDictionary() && dictionary != null) {
+                        inflater.setDictionary(dictionary);
+                    } else if (inflater.needsInput() || inflater.needsDictionary()) {
+                        throw new IOException("Truncated data or missing dictionary");
+                    }
+                }
+                bos.write(buf, 0, r);
+            }
+            return bos.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IOException(e);
+        } finally {
+            inflater.end();
+            buffers.release(bos, null);
+        }
+    }
+
+    @Override
+    public boolean isStreaming() {
+        // InflaterInputStream cannot provide preset dictionary
+        return dictionary == null;
+    }
+
+    @Override
+    public OutputStream compress(final OutputStream out) throws IOException {
+        if (!isStreaming()) {
+            return CompressionCodec.super.compress(out);
+        }
+
+        final Deflater deflater = new Deflater(level);
+        return new DeflaterOutputStream(out, deflater, BUFFER_SIZE) {
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    deflater.end();
+                }
+            }
+        };
+    }
+
+    @Override
+    public InputStream decompress(final InputStream in) throws IOException {
+        if (!isStreaming()) {
+            return CompressionCodec.super.decompress(in);
+        }
+
+        final Inflater inflater = new Inflater();
+        return new InflaterInputStream(in, inflater, BUFFER_SIZE) {
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    inflater.end();
+                }
+            }
+        };
+    }
+
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.transcoders;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread local, reusable output buffers for transcoders. Each thread keeps one buffer so encoding doesn't allocate and
+ * repeatedly grow a new buffer for each object. Initial capacity of the buffer is a moving average of sizes of previously
+ * encoded objects of the same class. Buffers grown above {@link #MAX_RETAINED_CAPACITY} aren't kept after use so a
+ * single huge object doesn't pin memory in each thread.
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+final class EncodingBuffers {
+
+    static final int MIN_CAPACITY = 256;
+
+    static final int MAX_RETAINED_CAPACITY = 1024 * 1024;
+
+    // weight of the latest size in moving average is 1/2^AVERAGE_SHIFT
+    private static final int AVERAGE_SHIFT = 3;
+
+    private final ThreadLocal<Buffer> buffers = new ThreadLocal<Buffer>();
+
+    // averages are attached to classes, not held in a map, so class loaders can be unloaded; 0 until the first record
+    private final ClassValue<AtomicInteger> averageSizes = new ClassValue<AtomicInteger>() {
+        @Override
+        protected AtomicInteger computeValue(final Class<?> type) {
+            return new AtomicInteger();
+        }
+    };
+
+    /**
+     * Gets empty buffer of the current thread with capacity of at least the average size of encoded objects of given
+     * class. If the buffer of the current thread is already in use a new one is returned.
+     * 
+     * @param type
+     *            the class of encoded object
+     * @return the empty buffer
+     */
+    Buffer acquire(final Class<?> type) {
+        final int sizeHint = getSizeHint(type);
+        Buffer buffer = buffers.get();
+        if (buffer == null || buffer.inUse) {
+            buffer = new Buffer(sizeHint);
+            if (buffers.get() == null) {
+                buffers.set(buffer);
+            }
+        } else {
+            buffer.ensureCapacity(sizeHint);
+        }
+
+        buffer.inUse = true;
+        return buffer;
+    }
+
+    /**
+     * Returns the buffer to the current thread and records size of encoded object.
+     * 
+     * @param buffer
+     *            the buffer acquired by {@link #acquire(Class)}
+     * @param type
+     *            the class of encoded object
+     */
+    void release(final Buffer buffer, final Class<?> type) {
+        recordSize(type, buffer.size());
+        buffer.inUse = false;
+        if (buffer.capacity() > MAX_RETAINED_CAPACITY) {
+            if (buffers.get() == buffer) {
+                buffers.remove();
+            }
+        } else {
+            buffer.reset();
+        }
+    }
+
+    int getSizeHint(final Class<?> type) {
+        return type == null ? MIN_CAPACITY : Math.max(MIN_CAPACITY, averageSizes.get(type).get());
+    }
+
+    private void recordSize(final Class<?> type, final int size) {
+        if (type == null) {
+            return;
+        }
+
+        final AtomicInteger average = averageSizes.get(type);
+        if (average.get() == 0 && average.compareAndSet(0, size)) {
+            return;
+        }
+
+        // lost updates under contention only make the average less precise
+        final int current = average.get();
+        average.lazySet(current + ((size - current) >> AVERAGE_SHIFT));
+    }
+
+    /**
+     * Output stream which can be reused by the thread that acquired it.
+     */
+    static final class Buffer extends ByteArrayOutputStream {
+
+        private boolean inUse;
+
+        Buffer(final int capacity) {
+            super(capacity);
+        }
+
+        int capacity() {
+            return buf.length;
+        }
+
+        private void ensureCapacity(final int capacity) {
+            if (buf.length < capacity) {
+                buf = new byte[capacity];
+            }
+        }
+
+    }
+
+}
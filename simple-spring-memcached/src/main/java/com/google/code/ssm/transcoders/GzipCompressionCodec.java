@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.transcoders;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * GZIP compression, the codec used by SSM before other codecs were introduced. Values stored by previous versions are
+ * decoded using this codec.
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+@ToString(exclude = "buffers")
+@EqualsAndHashCode(exclude = "buffers")
+public class GzipCompressionCodec implements CompressionCodec {
+
+    public static final int ID = 0;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final EncodingBuffers buffers = new EncodingBuffers();
+
+    @Override
+    public int getId() {
+        return ID;
+    }
+
+    @Override
+    public byte[] compress(final byte[] in) throws IOException {
+        final EncodingBuffers.Buffer bos = buffers.acquire(null);
+        try (GZIPOutputStream gz = new GZIPOutputStream(bos)) {
+            gz.write(in);
+            gz.finish();
+            return bos.toByteArray();
+        } finally {
+            buffers.release(bos, null);
+        }
+    }
+
+    @Override
+    public byte[] decompress(final byte[] in) throws IOException {
+        final EncodingBuffers.Buffer bos = buffers.acquire(null);
+        try (GZIPInputStream gis = new GZIPInputStream(new ByteArrayInputStream(in))) {
+            final byte[] buf = new byte[BUFFER_SIZE];
+            int r = -1;
+            while ((r = gis.read(buf)) > 0) {
+                bos.write(buf, 0, r);
+            }
+            return bos.toByteArray();
+        } finally {
+            buffers.release(bos, null);
+        }
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return true;
+    }
+
+    @Override
+    public OutputStream compress(final OutputStream out) throws IOException {
+        return new GZIPOutputStream(out, BUFFER_SIZE);
+    }
+
+    @Override
+    public InputStream decompress(final InputStream in) throws IOException {
+        return new GZIPInputStream(in, BUFFER_SIZE);
+    }
+
+}
@@ -18,12 +18,15 @@
 package com.google.code.ssm.transcoders;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectOutputStream;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -42,14 +45,16 @@ import com.google.code.ssm.providers.CachedObjectImpl;
  * 
  * Transcoder responsible to decode and encode objects using default java serialization/deserialization. Before storing
  * data if size of data is bigger than defined {@link JavaTranscoder#setCompressionThreshold(int)} those data are
- * compressed using GZIP. This transcoder is similar to SerializingTranscoder in xmemcached or spymemcached.
+ * compressed using configured {@link CompressionCodec} (GZIP by default). This transcoder is similar to
+ * SerializingTranscoder in xmemcached or spymemcached, if {@link JavaTranscoder#setPrimitiveEncoding(boolean)} is
+ * enabled strings and primitive wrappers aren't serialized.
  * 
  * @author Jakub Białek
  * @since 3.0.0
  * 
  */
-@ToString
-@EqualsAndHashCode
+@ToString(exclude = { "buffers", "compression", "classResolver", "decodeStatistics", "decodedClasses" })
+@EqualsAndHashCode(exclude = { "buffers", "compression", "classResolver", "decodeStatistics", "decodedClasses" })
 public class JavaTranscoder implements CacheTranscoder { // NO_UCD
 
     /**
@@ -59,49 +64,205 @@ public class JavaTranscoder implements CacheTranscoder { // NO_UCD
 
     public static final String DEFAULT_CHARSET = "UTF-8";
 
+    /**
+     * Default maximum ratio of compressed to original size.
+     */
+    public static final double DEFAULT_MAX_COMPRESSION_RATIO = 0.9;
+
     private static final Logger LOGGER = LoggerFactory.getLogger(JavaTranscoder.class);
 
     // General flags
     private static final int SERIALIZED = 1;
-    private static final int COMPRESSED = 2;
 
     @Getter
     @Setter
     private int compressionThreshold = DEFAULT_COMPRESSION_THRESHOLD;
 
+    /**
+     * The codec used to compress data, if null data are not compressed. Data compressed by other built-in codecs can
+     * still be decoded.
+     * 
+     * @since 4.1.4
+     */
+    @Getter
+    private CompressionCodec compressionCodec = new GzipCompressionCodec();
+
+    /**
+     * If the average ratio of compressed to original size of objects of a class is higher, the objects aren't
+     * compressed.
+     * 
+     * @since 4.1.4
+     */
+    @Getter
+    @Setter
+    private double maxCompressionRatio = DEFAULT_MAX_COMPRESSION_RATIO;
+
+    /**
+     * If true strings, primitive wrappers, byte arrays and
+     * {@link com.google.code.ssm.aop.support.PertinentNegativeNull} are stored in compact form without serialization.
+     * Such data can be decoded regardless of this setting by java and json transcoders since 4.1.4, enable it when all
+     * nodes are upgraded.
+     * 
+     * @since 4.1.4
+     */
+    @Getter
+    @Setter
+    private boolean primitiveEncoding;
+
+    private final EncodingBuffers buffers = new EncodingBuffers();
+
+    private final Compression compression = new Compression();
+
+    /**
+     * Resolves and caches classes of deserialized objects, allows to restrict which classes can be deserialized.
+     * 
+     * @since 4.1.4
+     */
+    @Getter
+    private final ClassResolver classResolver = new ClassResolver();
+
+    // statistics are referenced by decoded classes and weakly by the transcoder so class loaders can be unloaded
+    private final Map<Class<?>, DecodeStatistics> decodedClasses = Collections
+            .synchronizedMap(new WeakHashMap<Class<?>, DecodeStatistics>());
+
+    private final ClassValue<DecodeStatistics> decodeStatistics = new ClassValue<DecodeStatistics>() {
+        @Override
+        protected DecodeStatistics computeValue(final Class<?> type) {
+            return decodedClasses.computeIfAbsent(type, key -> new DecodeStatistics());
+        }
+    };
+
+    /**
+     * 
+     * @param allowedClasses
+     *            the classes and packages which can be deserialized, if null all classes are allowed
+     * @see ClassResolver
+     * @since 4.1.4
+     */
+    public void setAllowedClasses(final Collection<String> allowedClasses) {
+        classResolver.setAllowedClasses(allowedClasses);
+    }
+
+    /**
+     * 
+     * @return the snapshot of number and time of decoded objects per class
+     * @since 4.1.4
+     */
+    public Map<Class<?>, DecodeStatistics> getDecodeStatistics() {
+        synchronized (decodedClasses) {
+            return Collections.unmodifiableMap(new HashMap<Class<?>, DecodeStatistics>(decodedClasses));
+        }
+    }
+
+    public void setCompressionCodec(final CompressionCodec compressionCodec) {
+        Compression.validate(compressionCodec);
+        this.compressionCodec = compressionCodec;
+    }
+
     @Override
     public Object decode(final CachedObject d) {
-        byte[] data = d.getData();
-
-        if ((d.getFlags() & COMPRESSED) != 0) {
-            data = decompress(d.getData());
+        if (PrimitiveFormat.isPrimitive(d.getFlags())) {
+            return decodePrimitive(d);
         }
 
-        if ((d.getFlags() & SERIALIZED) != 0 && data != null) {
-            return deserialize(data);
-        } else {
-            LOGGER.warn("Cannot decode cached data {} using java transcoder", data);
+        final byte[] data = d.getArray();
+        if ((d.getFlags() & SERIALIZED) == 0 || data == null) {
+            LOGGER.warn("Cannot decode cached data {} using java transcoder", d);
             throw new RuntimeException("Cannot decode cached data using java transcoder");
         }
+
+        if (Compression.isCompressed(d.getFlags())) {
+            final CompressionCodec codec = compression.getCodec(compressionCodec, d.getFlags());
+            if (codec.isStreaming()) {
+                // inflate straight into object stream without decompressed copy of data
+                try {
+                    return deserialize(codec.decompress(new ByteArrayInputStream(data, d.getOffset(), d.getLength())), d.getLength());
+                } catch (IOException e) {
+                    throw new RuntimeException("IO exception decompressing data", e);
+                }
+            }
+            return deserialize(decompress(d.getFlags(), d.getData()));
+        }
+
+        return deserialize(data, d.getOffset(), d.getLength());
     }
 
     @Override
     public CachedObject encode(final Object o) {
+        final int primitive = primitiveEncoding ? PrimitiveFormat.getFlags(o) : 0;
+        if (primitive != 0) {
+            return encodePrimitive(o, primitive);
+        }
+
+        if (compressionCodec != null && compressionCodec.isStreaming()) {
+            return encodeStreaming(o, compressionCodec);
+        }
+
         byte[] data = serialize(o);
         int flags = SERIALIZED;
 
-        if (data.length > getCompressionThreshold()) {
-            byte[] compressed = compress(data);
-            if (compressed.length < data.length) {
-                LOGGER.debug("Compressed {} from {} to {}", new Object[] { o.getClass().getName(), data.length, compressed.length });
+        if (compressionCodec != null && data.length > getCompressionThreshold()) {
+            final byte[] compressed = compression.compress(compressionCodec, o.getClass(), data, maxCompressionRatio);
+            if (compressed != null) {
                 data = compressed;
-                flags |= COMPRESSED;
-            } else {
-                LOGGER.info("Compression increased the size of {} from {} to {}", new Object[] { o.getClass().getName(), data.length,
-                        compressed.length });
+                flags |= Compression.getFlags(compressionCodec);
             }
         }
-        return new CachedObjectImpl(flags, data);
+        return new CachedObjectImpl(flags, data, 0, data.length);
+    }
+
+    private CachedObject encodePrimitive(final Object o, final int flags) {
+        final byte[] data = PrimitiveFormat.encode(o, flags);
+        if (compressionCodec != null && data.length > getCompressionThreshold()) {
+            final byte[] compressed = compression.compress(compressionCodec, o.getClass(), data, maxCompressionRatio);
+            if (compressed != null) {
+                return new CachedObjectImpl(flags | Compression.getFlags(compressionCodec), compressed, 0, compressed.length);
+            }
+        }
+        return new CachedObjectImpl(flags, data, 0, data.length);
+    }
+
+    private Object decodePrimitive(final CachedObject data) {
+        if (Compression.isCompressed(data.getFlags())) {
+            final byte[] bytes = compression.decompress(compressionCodec, data.getFlags(), data.getData());
+            return PrimitiveFormat.decode(data.getFlags(), bytes, 0, bytes.length);
+        }
+        return PrimitiveFormat.decode(data.getFlags(), data.getArray(), data.getOffset(), data.getLength());
+    }
+
+    /**
+     * Serializes object directly to compressing stream if serialized data exceed compression threshold, so serialized
+     * data are never held in memory both uncompressed and compressed.
+     */
+    private CachedObject encodeStreaming(final Object o, final CompressionCodec codec) {
+        if (o == null) {
+            throw new NullPointerException("Can't serialize null");
+        }
+
+        final Class<?> type = o.getClass();
+        final boolean compress = compression.shouldCompress(type, maxCompressionRatio);
+        final EncodingBuffers.Buffer bos = buffers.acquire(type);
+        final SpeculativeCompressionStream cos = new SpeculativeCompressionStream(bos, compress ? codec : null, getCompressionThreshold());
+        ObjectOutputStream os = null;
+
+        try {
+            os = new ObjectOutputStream(cos);
+            os.writeObject(o);
+            os.close();
+
+            int flags = SERIALIZED;
+            if (cos.isCompressed()) {
+                compression.record(type, (int) cos.getSize(), bos.size());
+                flags |= Compression.getFlags(codec);
+            }
+            final byte[] data = bos.toByteArray();
+            return new CachedObjectImpl(flags, data, 0, data.length);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Non-serializable object", e);
+        } finally {
+            close(os);
+            buffers.release(bos, type);
+        }
     }
 
     /**
@@ -116,21 +277,19 @@ public class JavaTranscoder implements CacheTranscoder { // NO_UCD
             throw new NullPointerException("Can't serialize null");
         }
         byte[] data = null;
-        ByteArrayOutputStream bos = null;
+        final EncodingBuffers.Buffer bos = buffers.acquire(o.getClass());
         ObjectOutputStream os = null;
 
         try {
-            bos = new ByteArrayOutputStream();
             os = new ObjectOutputStream(bos);
             os.writeObject(o);
             os.close();
-            bos.close();
             data = bos.toByteArray();
         } catch (IOException e) {
             throw new IllegalArgumentException("Non-serializable object", e);
         } finally {
             close(os);
-            close(bos);
+            buffers.release(bos, o.getClass());
         }
 
         return data;
@@ -144,32 +303,62 @@ public class JavaTranscoder implements CacheTranscoder { // NO_UCD
      * @return deserialized object
      */
     protected Object deserialize(final byte[] in) {
+        return in == null ? null : deserialize(in, 0, in.length);
+    }
+
+    /**
+     * Deserialize part of given array using java deserialization. Data are read directly from the array without
+     * copying.
+     * 
+     * @param in
+     *            data to deserialize
+     * @param offset
+     *            the offset of the first byte to read
+     * @param length
+     *            the number of bytes to read
+     * @return deserialized object
+     * @since 4.1.4
+     */
+    protected Object deserialize(final byte[] in, final int offset, final int length) {
+        return in == null ? null : deserialize(new ByteArrayInputStream(in, offset, length), length);
+    }
+
+    /**
+     * Deserialize object read from given stream using java deserialization. The stream is closed.
+     * 
+     * @param in
+     *            the stream of data to deserialize
+     * @param length
+     *            the number of bytes of stored data, used only in log messages
+     * @return deserialized object
+     * @since 4.1.4
+     */
+    protected Object deserialize(final InputStream in, final int length) {
         Object o = null;
-        ByteArrayInputStream bis = null;
         ConfigurableObjectInputStream is = null;
 
         try {
-            if (in != null) {
-                bis = new ByteArrayInputStream(in);
-                is = new ConfigurableObjectInputStream(bis, Thread.currentThread().getContextClassLoader());
-                o = is.readObject();
-                is.close();
-                bis.close();
+            final long start = System.nanoTime();
+            is = new ResolvingObjectInputStream(in, Thread.currentThread().getContextClassLoader(), classResolver);
+            o = is.readObject();
+            is.close();
+            if (o != null) {
+                decodeStatistics.get(o.getClass()).record(System.nanoTime() - start);
             }
         } catch (IOException e) {
-            LOGGER.warn(String.format("Caught IOException decoding %d bytes of data", in.length), e);
+            LOGGER.warn(String.format("Caught IOException decoding %d bytes of data", length), e);
         } catch (ClassNotFoundException e) {
-            LOGGER.warn(String.format("Caught CNFE decoding %d bytes of data", in.length), e);
+            LOGGER.warn(String.format("Caught CNFE decoding %d bytes of data", length), e);
         } finally {
             close(is);
-            close(bis);
+            close(in);
         }
 
         return o;
     }
 
     /**
-     * Compress the given array of bytes.
+     * Compress the given array of bytes using configured codec.
      * 
      * @param in
      *            data to compress
@@ -179,55 +368,40 @@ public class JavaTranscoder implements CacheTranscoder { // NO_UCD
             throw new NullPointerException("Can't compress null");
         }
 
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        GZIPOutputStream gz = null;
-
         try {
-            gz = new GZIPOutputStream(bos);
-            gz.write(in);
+            return compressionCodec.compress(in);
         } catch (IOException e) {
             throw new RuntimeException("IO exception compressing data", e);
-        } finally {
-            close(gz);
-            close(bos);
         }
-
-        return bos.toByteArray();
     }
 
     /**
-     * Decompress the given array of bytes.
+     * Decompress the given array of bytes using configured codec.
      * 
      * @param in
      *            data to decompress
      * @return null if the bytes cannot be decompressed
      */
     protected byte[] decompress(final byte[] in) {
+        return decompress(compressionCodec == null ? Compression.COMPRESSED : Compression.getFlags(compressionCodec), in);
+    }
+
+    /**
+     * Decompress the given array of bytes using codec which id is stored in flags.
+     * 
+     * @param flags
+     *            flags of cached data
+     * @param in
+     *            data to decompress
+     * @return null if the bytes cannot be decompressed
+     * @since 4.1.4
+     */
+    protected byte[] decompress(final int flags, final byte[] in) {
         if (in == null) {
             return null;
         }
 
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        ByteArrayInputStream bis = new ByteArrayInputStream(in);
-        GZIPInputStream gis = null;
-
-        try {
-            gis = new GZIPInputStream(bis);
-
-            byte[] buf = new byte[8192];
-            int r = -1;
-            while ((r = gis.read(buf)) > 0) {
-                bos.write(buf, 0, r);
-            }
-
-            return bos.toByteArray();
-        } catch (IOException e) {
-            throw new RuntimeException("IO exception decompressing data", e);
-        } finally {
-            close(gis);
-            close(bis);
-            close(bos);
-        }
+        return compression.decompress(compressionCodec, flags, in);
     }
 
     protected void close(final Closeable closeable) {
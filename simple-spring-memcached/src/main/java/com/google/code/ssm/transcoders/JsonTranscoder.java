@@ -17,19 +17,26 @@
 
 package com.google.code.ssm.transcoders;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.Setter;
 import lombok.ToString;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.google.code.ssm.json.Holder;
 import com.google.code.ssm.providers.CacheTranscoder;
 import com.google.code.ssm.providers.CachedObject;
@@ -37,27 +44,150 @@ import com.google.code.ssm.providers.CachedObjectImpl;
 
 /**
  * 
- * Transcoder responsible to decode and encode objects from/to JSON format.
+ * Transcoder responsible to decode and encode objects from/to JSON format. If {@link CompressionCodec} is set, data
+ * bigger than {@link JsonTranscoder#setCompressionThreshold(int)} are compressed. If Smile mapper is set, data stored in
+ * binary Smile format are decoded and if {@link JsonTranscoder#setWriteSmile(boolean)} is enabled data are encoded in
+ * Smile format. Text and Smile data are marked with different flags so both can be decoded during migration. Readers and
+ * writers of each type are created once and reused. If the type of value is known (e.g. the return type of cached
+ * method) and {@link JsonTranscoder#setTypedEncoding(boolean)} is enabled, values of final classes are stored without
+ * type information and decoded by a reader of that type.
  * 
  * @author Jakub Białek
  * @since 2.0.0
  * 
  */
-@ToString
-@EqualsAndHashCode
+@ToString(exclude = { "buffers", "compression", "jsonAccessors", "smileAccessors", "typedTranscoders" })
+@EqualsAndHashCode(exclude = { "buffers", "compression", "jsonAccessors", "smileAccessors", "typedTranscoders" })
 public class JsonTranscoder implements CacheTranscoder { // NO_UCD
 
     private static final Logger LOGGER = LoggerFactory.getLogger(JsonTranscoder.class);
 
     private static final int JSON_SERIALIZED = 8; // json format
 
+    private static final int SMILE_SERIALIZED = 32; // smile (binary json) format
+
+    private static final int TYPED = 64; // value without type information, type is required to decode it
+
     @Getter
     private final ObjectMapper mapper;
 
+    /**
+     * The mapper used to decode and encode data in Smile format, i.e. {@link com.google.code.ssm.mapper.SmileObjectMapper}
+     * configured the same way as text mapper.
+     * 
+     * @since 4.1.4
+     */
+    @Getter
+    private ObjectMapper smileMapper;
+
+    /**
+     * If true and Smile mapper is set, data are encoded in Smile format.
+     * 
+     * @since 4.1.4
+     */
+    @Getter
+    @Setter
+    private boolean writeSmile;
+
+    /**
+     * If true values of final classes are stored without type information when their type is known. Such values can be
+     * decoded only if the type is known.
+     * 
+     * @since 4.1.4
+     */
+    @Getter
+    @Setter
+    private boolean typedEncoding;
+
+    /**
+     * If true strings, primitive wrappers, byte arrays and {@link com.google.code.ssm.aop.support.PertinentNegativeNull}
+     * are stored in compact form without serialization. Such data can be decoded regardless of this setting by java and
+     * json transcoders since 4.1.4, enable it when all nodes are upgraded.
+     * 
+     * @since 4.1.4
+     */
+    @Getter
+    @Setter
+    private boolean primitiveEncoding;
+
+    /**
+     * The codec used to compress data, by default data are not compressed. Compressed data can be decoded regardless
+     * of this setting.
+     * 
+     * @since 4.1.4
+     */
+    @Getter
+    private CompressionCodec compressionCodec;
+
+    /**
+     * @since 4.1.4
+     */
+    @Getter
+    @Setter
+    private int compressionThreshold = JavaTranscoder.DEFAULT_COMPRESSION_THRESHOLD;
+
+    /**
+     * If the average ratio of compressed to original size of objects of a class is higher, the objects aren't
+     * compressed.
+     * 
+     * @since 4.1.4
+     */
+    @Getter
+    @Setter
+    private double maxCompressionRatio = JavaTranscoder.DEFAULT_MAX_COMPRESSION_RATIO;
+
+    private final EncodingBuffers buffers = new EncodingBuffers();
+
+    private final Compression compression = new Compression();
+
+    private final Accessors jsonAccessors;
+
+    private volatile Accessors smileAccessors;
+
+    private final ConcurrentMap<Type, CacheTranscoder> typedTranscoders = new ConcurrentHashMap<Type, CacheTranscoder>();
+
     public JsonTranscoder(final ObjectMapper mapper) {
         Assert.notNull(mapper, "'mapper' is required and cannot be null");
 
         this.mapper = mapper;
+        this.jsonAccessors = new Accessors(mapper);
+    }
+
+    /**
+     * 
+     * @param smileMapper
+     *            the mapper used to decode and encode data in Smile format
+     * @since 4.1.4
+     */
+    public void setSmileMapper(final ObjectMapper smileMapper) {
+        this.smileMapper = smileMapper;
+        this.smileAccessors = smileMapper == null ? null : new Accessors(smileMapper);
+    }
+
+    /**
+     * Gets transcoder decoding and encoding values of given type.
+     * 
+     * @param type
+     *            the type of values
+     * @return the transcoder
+     * @since 4.1.4
+     */
+    public CacheTranscoder forType(final Type type) {
+        CacheTranscoder transcoder = typedTranscoders.get(type);
+        if (transcoder == null) {
+            transcoder = new TypedTranscoder(mapper.getTypeFactory().constructType(type));
+            final CacheTranscoder previous = typedTranscoders.putIfAbsent(type, transcoder);
+            if (previous != null) {
+                transcoder = previous;
+            }
+        }
+
+        return transcoder;
+    }
+
+    public void setCompressionCodec(final CompressionCodec compressionCodec) {
+        Compression.validate(compressionCodec);
+        this.compressionCodec = compressionCodec;
     }
 
     public boolean asyncDecode(final CachedObject data) {
@@ -66,43 +196,94 @@ public class JsonTranscoder implements CacheTranscoder { // NO_UCD
 
     @Override
     public Object decode(final CachedObject data) {
-        if ((data.getFlags() & JSON_SERIALIZED) == 0) {
+        return decode(data, null);
+    }
+
+    /**
+     * Decodes value of given type. Values stored without type information are decoded using reader of given type.
+     * 
+     * @param data
+     *            the cached data
+     * @param type
+     *            the type of value or null if unknown
+     * @return decoded value
+     * @since 4.1.4
+     */
+    public Object decode(final CachedObject data, final JavaType type) {
+        if (PrimitiveFormat.isPrimitive(data.getFlags())) {
+            return decodePrimitive(data);
+        }
+
+        final Accessors accessors = getAccessors(data.getFlags());
+        final boolean typed = (data.getFlags() & TYPED) != 0;
+        if (accessors == null || (typed && type == null)) {
             LOGGER.warn("Cannot decode cached data {} using json transcoder", data);
             throw new RuntimeException("Cannot decode cached data using json transcoder");
         }
 
-        ByteArrayInputStream bais = new ByteArrayInputStream(data.getData());
+        final boolean compressed = Compression.isCompressed(data.getFlags());
+        final byte[] bytes = compressed ? compression.decompress(compressionCodec, data.getFlags(), data.getData()) : data.getArray();
+        final int offset = compressed ? 0 : data.getOffset();
+        final int length = compressed ? bytes.length : data.getLength();
 
         try {
-            return mapper.readValue(bais, Holder.class).getValue();
+            if (typed) {
+                return accessors.getReader(type).readValue(bytes, offset, length);
+            }
+            return accessors.getHolderReader().<Holder> readValue(bytes, offset, length).getValue();
         } catch (IOException e) {
             LOGGER.warn(String.format("Error deserializing cached data %s", data.toString()), e);
             throw new RuntimeException(e);
-        } finally {
-            try {
-                bais.close();
-            } catch (IOException e) {
-                LOGGER.warn("Error while closing stream", e);
-            }
         }
     }
 
     @Override
     public CachedObject encode(final Object o) {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        return encode(o, null);
+    }
+
+    /**
+     * Encodes value of given type. If typed encoding is enabled and the value is an instance of final class equal to
+     * the type, the value is stored without type information.
+     * 
+     * @param o
+     *            the value
+     * @param type
+     *            the type of value or null if unknown
+     * @return encoded value
+     * @since 4.1.4
+     */
+    public CachedObject encode(final Object o, final JavaType type) {
+        final int primitive = primitiveEncoding ? PrimitiveFormat.getFlags(o) : 0;
+        if (primitive != 0) {
+            return encodePrimitive(o, primitive);
+        }
+
+        final Class<?> clazz = o == null ? null : o.getClass();
+        final EncodingBuffers.Buffer baos = buffers.acquire(clazz);
+        final Accessors accessors = writeSmile ? smileAccessors : null;
+        final boolean typed = typedEncoding && isMonomorphic(o, type);
+        final int flags = (accessors != null ? SMILE_SERIALIZED : JSON_SERIALIZED) | (typed ? TYPED : 0);
 
         try {
-            mapper.writeValue(baos, new Holder(o));
-            return new CachedObjectImpl(JSON_SERIALIZED, baos.toByteArray());
+            if (typed) {
+                (accessors != null ? accessors : jsonAccessors).getWriter(type).writeValue(baos, o);
+            } else {
+                (accessors != null ? accessors : jsonAccessors).getHolderWriter().writeValue(baos, new Holder(o));
+            }
+            final byte[] data = baos.toByteArray();
+            if (compressionCodec != null && clazz != null && data.length > compressionThreshold) {
+                final byte[] compressed = compression.compress(compressionCodec, clazz, data, maxCompressionRatio);
+                if (compressed != null) {
+                    return new CachedObjectImpl(flags | Compression.getFlags(compressionCodec), compressed, 0, compressed.length);
+                }
+            }
+            return new CachedObjectImpl(flags, data, 0, data.length);
         } catch (IOException e) {
             LOGGER.warn(String.format("Error serializing object %s", o), e);
             throw new RuntimeException(e);
         } finally {
-            try {
-                baos.close();
-            } catch (IOException e) {
-                LOGGER.warn("Error while closing stream", e);
-            }
+            buffers.release(baos, clazz);
         }
     }
 
@@ -110,4 +291,123 @@ public class JsonTranscoder implements CacheTranscoder { // NO_UCD
         return CachedObject.MAX_SIZE;
     }
 
+    private CachedObject encodePrimitive(final Object o, final int flags) {
+        final byte[] data = PrimitiveFormat.encode(o, flags);
+        if (compressionCodec != null && data.length > compressionThreshold) {
+            final byte[] compressed = compression.compress(compressionCodec, o.getClass(), data, maxCompressionRatio);
+            if (compressed != null) {
+                return new CachedObjectImpl(flags | Compression.getFlags(compressionCodec), compressed, 0, compressed.length);
+            }
+        }
+        return new CachedObjectImpl(flags, data, 0, data.length);
+    }
+
+    private Object decodePrimitive(final CachedObject data) {
+        if (Compression.isCompressed(data.getFlags())) {
+            final byte[] bytes = compression.decompress(compressionCodec, data.getFlags(), data.getData());
+            return PrimitiveFormat.decode(data.getFlags(), bytes, 0, bytes.length);
+        }
+        return PrimitiveFormat.decode(data.getFlags(), data.getArray(), data.getOffset(), data.getLength());
+    }
+
+    private Accessors getAccessors(final int flags) {
+        if ((flags & SMILE_SERIALIZED) != 0) {
+            return smileAccessors;
+        }
+
+        return (flags & JSON_SERIALIZED) != 0 ? jsonAccessors : null;
+    }
+
+    /**
+     * Value is monomorphic if its class is final and the same as the type so the type information isn't required.
+     */
+    private boolean isMonomorphic(final Object o, final JavaType type) {
+        if (o == null || type == null) {
+            return false;
+        }
+
+        final Class<?> clazz = ClassUtils.resolvePrimitiveIfNecessary(type.getRawClass());
+        return o.getClass() == clazz && Modifier.isFinal(clazz.getModifiers()) && !type.isContainerType();
+    }
+
+    /**
+     * Readers and writers of a mapper created on first use.
+     */
+    private static final class Accessors {
+
+        private final ObjectMapper mapper;
+
+        private final ConcurrentMap<JavaType, ObjectReader> readers = new ConcurrentHashMap<JavaType, ObjectReader>();
+
+        private final ConcurrentMap<JavaType, ObjectWriter> writers = new ConcurrentHashMap<JavaType, ObjectWriter>();
+
+        private volatile ObjectReader holderReader;
+
+        private volatile ObjectWriter holderWriter;
+
+        private Accessors(final ObjectMapper mapper) {
+            this.mapper = mapper;
+        }
+
+        private ObjectReader getHolderReader() {
+            ObjectReader reader = holderReader;
+            if (reader == null) {
+                reader = mapper.readerFor(Holder.class);
+                holderReader = reader;
+            }
+            return reader;
+        }
+
+        private ObjectWriter getHolderWriter() {
+            ObjectWriter writer = holderWriter;
+            if (writer == null) {
+                writer = mapper.writerFor(Holder.class);
+                holderWriter = writer;
+            }
+            return writer;
+        }
+
+        private ObjectReader getReader(final JavaType type) {
+            ObjectReader reader = readers.get(type);
+            if (reader == null) {
+                reader = mapper.readerFor(type);
+                readers.put(type, reader);
+            }
+            return reader;
+        }
+
+        private ObjectWriter getWriter(final JavaType type) {
+            ObjectWriter writer = writers.get(type);
+            if (writer == null) {
+                writer = mapper.writerFor(type);
+                writers.put(type, writer);
+            }
+            return writer;
+        }
+
+    }
+
+    /**
+     * Transcoder of values of known type.
+     */
+    private final class TypedTranscoder implements CacheTranscoder {
+
+        private final JavaType type;
+
+        private TypedTranscoder(final JavaType type) {
+            this.type = type;
+        }
+
+        @Override
+        public Object decode(final CachedObject data) {
+            return JsonTranscoder.this.decode(data, type);
+        }
+
+        @Override
+        public CachedObject encode(final Object o) {
+            return JsonTranscoder.this.encode(o, type);
+        }
+
+    }
+
 }
@@ -42,13 +42,13 @@ public class LongToStringTranscoder implements CacheTranscoder {
 
     @Override
     public Object decode(final CachedObject data) {
-        byte[] value = data.getData();
-        if (value == null || value.length == 0) {
+        byte[] value = data.getArray();
+        if (value == null || data.getLength() == 0) {
             return null;
         }
 
         try {
-            return Long.parseLong(new String(value, "UTF-8").trim());
+            return Long.parseLong(new String(value, data.getOffset(), data.getLength(), "UTF-8").trim());
         } catch (NumberFormatException e) {
             throw new RuntimeException(e);
         } catch (UnsupportedEncodingException e) {
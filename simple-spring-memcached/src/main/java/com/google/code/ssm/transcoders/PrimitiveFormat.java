@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.transcoders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.code.ssm.aop.support.PertinentNegativeNull;
+
+/**
+ * Compact form of strings, primitive wrappers, byte arrays and {@link PertinentNegativeNull} shared by
+ * {@link JavaTranscoder} and {@link JsonTranscoder}. Such values are stored without serialization, so data written by
+ * one of those transcoders can be read by the other. Compact values are marked by {@link #PRIMITIVE} flag and the type
+ * of value is kept in bits 8-11 of flags. Spymemcached's and xmemcached's SerializingTranscoder use the same bits with
+ * different type codes and never set the marker, so their values aren't mistaken for compact ones.
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+final class PrimitiveFormat {
+
+    /**
+     * Marks values stored in compact form, the bit isn't used by other transcoders.
+     */
+    static final int PRIMITIVE = 128;
+
+    private static final int SHIFT = 8;
+
+    private static final int MASK = 0xF << SHIFT;
+
+    private static final int STRING = 1;
+
+    private static final int BYTE_ARRAY = 2;
+
+    private static final int INTEGER = 3;
+
+    private static final int LONG = 4;
+
+    private static final int BOOLEAN = 5;
+
+    private static final int NEGATIVE_NULL = 6;
+
+    private static final int SHORT = 7;
+
+    private static final int BYTE = 8;
+
+    private static final int CHARACTER = 9;
+
+    private static final int FLOAT = 10;
+
+    private static final int DOUBLE = 11;
+
+    private static final Map<Class<?>, Integer> TYPES = new HashMap<Class<?>, Integer>();
+
+    static {
+        TYPES.put(String.class, STRING);
+        TYPES.put(byte[].class, BYTE_ARRAY);
+        TYPES.put(Integer.class, INTEGER);
+        TYPES.put(Long.class, LONG);
+        TYPES.put(Boolean.class, BOOLEAN);
+        TYPES.put(PertinentNegativeNull.class, NEGATIVE_NULL);
+        TYPES.put(Short.class, SHORT);
+        TYPES.put(Byte.class, BYTE);
+        TYPES.put(Character.class, CHARACTER);
+        TYPES.put(Float.class, FLOAT);
+        TYPES.put(Double.class, DOUBLE);
+    }
+
+    private PrimitiveFormat() {
+
+    }
+
+    /**
+     * 
+     * @param flags
+     *            the flags of stored value
+     * @return true if value has been stored in compact form by this format
+     */
+    static boolean isPrimitive(final int flags) {
+        return (flags & PRIMITIVE) != 0;
+    }
+
+    /**
+     * 
+     * @param o
+     *            the value
+     * @return the flags marking compact form of value or 0 if value cannot be stored in compact form
+     */
+    static int getFlags(final Object o) {
+        final Integer type = o == null ? null : TYPES.get(o.getClass());
+        return type == null ? 0 : PRIMITIVE | type << SHIFT;
+    }
+
+    /**
+     * 
+     * @param o
+     *            the value
+     * @param flags
+     *            the flags returned by {@link #getFlags(Object)}
+     * @return the value in compact form
+     */
+    static byte[] encode(final Object o, final int flags) {
+        switch ((flags & MASK) >>> SHIFT) {
+        case STRING:
+            return ((String) o).getBytes(StandardCharsets.UTF_8);
+        case BYTE_ARRAY:
+            return ((byte[]) o).clone();
+        case INTEGER:
+            return toBytes(((Integer) o).longValue(), 4);
+        case LONG:
+            return toBytes((Long) o, 8);
+        case BOOLEAN:
+            return new byte[] { (byte) ((Boolean) o ? 1 : 0) };
+        case NEGATIVE_NULL:
+            return new byte[0];
+        case SHORT:
+            return toBytes((Short) o, 2);
+        case BYTE:
+            return new byte[] { (Byte) o };
+        case CHARACTER:
+            return toBytes((Character) o, 2);
+        case FLOAT:
+            return toBytes(Float.floatToRawIntBits((Float) o), 4);
+        case DOUBLE:
+            return toBytes(Double.doubleToRawLongBits((Double) o), 8);
+        default:
+            throw new IllegalArgumentException("Unknown primitive type in flags " + flags);
+        }
+    }
+
+    /**
+     * 
+     * @param flags
+     *            the flags of stored value
+     * @param data
+     *            the array containing the value in compact form
+     * @param offset
+     *            the position of the first byte of value
+     * @param length
+     *            the number of bytes of value
+     * @return the value
+     */
+    static Object decode(final int flags, final byte[] data, final int offset, final int length) {
+        switch ((flags & MASK) >>> SHIFT) {
+        case STRING:
+            return new String(data, offset, length, StandardCharsets.UTF_8);
+        case BYTE_ARRAY:
+            return Arrays.copyOfRange(data, offset, offset + length);
+        case INTEGER:
+            return (int) toLong(data, offset, length, 4);
+        case LONG:
+            return toLong(data, offset, length, 8);
+        case BOOLEAN:
+            return toLong(data, offset, length, 1) != 0;
+        case NEGATIVE_NULL:
+            return PertinentNegativeNull.NULL;
+        case SHORT:
+            return (short) toLong(data, offset, length, 2);
+        case BYTE:
+            return (byte) toLong(data, offset, length, 1);
+        case CHARACTER:
+            return (char) toLong(data, offset, length, 2);
+        case FLOAT:
+            return Float.intBitsToFloat((int) toLong(data, offset, length, 4));
+        case DOUBLE:
+            return Double.longBitsToDouble(toLong(data, offset, length, 8));
+        default:
+            throw new IllegalArgumentException("Unknown primitive type in flags " + flags);
+        }
+    }
+
+    private static byte[] toBytes(final long value, final int size) {
+        final byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) (value >>> (8 * (size - i - 1)));
+        }
+        return bytes;
+    }
+
+    private static long toLong(final byte[] data, final int offset, final int length, final int size) {
+        if (length != size) {
+            throw new IllegalArgumentException("Invalid length " + length + " of value, expected " + size + " bytes");
+        }
+
+        long value = 0;
+        for (int i = 0; i < size; i++) {
+            value = (value << 8) | (data[offset + i] & 0xFF);
+        }
+        return value;
+    }
+
+}
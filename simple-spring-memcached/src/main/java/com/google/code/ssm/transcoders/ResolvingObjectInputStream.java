@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.transcoders;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectStreamClass;
+
+import org.springframework.core.ConfigurableObjectInputStream;
+
+/**
+ * Resolves classes using {@link ClassResolver} so only allowed classes are deserialized.
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+final class ResolvingObjectInputStream extends ConfigurableObjectInputStream {
+
+    private final ClassLoader classLoader;
+
+    private final ClassResolver classResolver;
+
+    ResolvingObjectInputStream(final InputStream in, final ClassLoader classLoader, final ClassResolver classResolver) throws IOException {
+        super(in, classLoader);
+        this.classLoader = classLoader;
+        this.classResolver = classResolver;
+    }
+
+    @Override
+    protected Class<?> resolveClass(final ObjectStreamClass classDesc) throws IOException, ClassNotFoundException {
+        return classResolver.resolve(classDesc.getName(), classLoader);
+    }
+
+    @Override
+    protected Class<?> resolveProxyClass(final String[] interfaces) throws IOException, ClassNotFoundException {
+        for (String name : interfaces) {
+            if (!classResolver.isAllowed(name)) {
+                throw new InvalidClassException(name, "deserialization of class isn't allowed");
+            }
+        }
+        return super.resolveProxyClass(interfaces);
+    }
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.transcoders;
+
+import java.io.IOException;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import org.iq80.snappy.CorruptionException;
+import org.iq80.snappy.Snappy;
+
+/**
+ * Snappy compression, much faster than GZIP at the cost of lower compression ratio. Requires optional dependency
+ * org.iq80.snappy:snappy.
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+@ToString
+@EqualsAndHashCode
+public class SnappyCompressionCodec implements CompressionCodec {
+
+    public static final int ID = 2;
+
+    @Override
+    public int getId() {
+        return ID;
+    }
+
+    @Override
+    public byte[] compress(final byte[] in) throws IOException {
+        return Snappy.compress(in);
+    }
+
+    @Override
+    public byte[] decompress(final byte[] in) throws IOException {
+        try {
+            return Snappy.uncompress(in, 0, in.length);
+        } catch (CorruptionException e) {
+            throw new IOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.transcoders;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes data to the target buffer uncompressed until their size exceeds the threshold, then compresses already written
+ * and all subsequent data on the fly. Data are never held both uncompressed and compressed in memory, only the first
+ * threshold bytes are copied when compression starts.
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+final class SpeculativeCompressionStream extends OutputStream {
+
+    private final EncodingBuffers.Buffer target;
+
+    private final CompressionCodec codec;
+
+    private final int threshold;
+
+    private OutputStream compressor;
+
+    private long size;
+
+    /**
+     * 
+     * @param target
+     *            the buffer for uncompressed or compressed data
+     * @param codec
+     *            the codec supporting streaming or null if data shouldn't be compressed
+     * @param threshold
+     *            data bigger than threshold are compressed
+     */
+    SpeculativeCompressionStream(final EncodingBuffers.Buffer target, final CompressionCodec codec, final int threshold) {
+        this.target = target;
+        this.codec = codec;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        switchIfNeeded(1);
+        size++;
+        if (compressor != null) {
+            compressor.write(b);
+        } else {
+            target.write(b);
+        }
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        switchIfNeeded(len);
+        size += len;
+        if (compressor != null) {
+            compressor.write(b, off, len);
+        } else {
+            target.write(b, off, len);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (compressor != null) {
+            compressor.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (compressor != null) {
+            compressor.close();
+        }
+    }
+
+    /**
+     * 
+     * @return true if data written to the target buffer are compressed
+     */
+    boolean isCompressed() {
+        return compressor != null;
+    }
+
+    /**
+     * 
+     * @return the number of uncompressed bytes written to this stream
+     */
+    long getSize() {
+        return size;
+    }
+
+    private void switchIfNeeded(final int len) throws IOException {
+        if (compressor != null || codec == null || size + len <= threshold) {
+            return;
+        }
+
+        final byte[] written = target.toByteArray();
+        target.reset();
+        compressor = codec.compress(target);
+        compressor.write(written);
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Executes at most one loader per key at a time. Callers requesting the same key while the value is being loaded wait
+ * for the result of the running loader instead of executing their own. If waiting takes longer than the configured
+ * maximum time or the running loader fails, the waiting caller executes its loader itself.
+ * 
+ * @author Jakub Białek
+ * @since 4.1.4
+ * 
+ */
+public final class SingleFlight {
+
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<Object, CompletableFuture<Object>>();
+
+    private final long maxWait;
+
+    /**
+     * 
+     * @param maxWait
+     *            the maximum time in milliseconds to wait for result of the loader executed by other thread
+     */
+    public SingleFlight(final long maxWait) {
+        this.maxWait = maxWait;
+    }
+
+    /**
+     * Executes given loader unless other thread is already loading value for the same key.
+     * 
+     * @param key
+     *            the key
+     * @param loader
+     *            the loader
+     * @return loaded value
+     * @throws Throwable
+     *             exception thrown by the loader
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(final Object key, final Loader<T> loader) throws Throwable {
+        final CompletableFuture<Object> future = new CompletableFuture<Object>();
+        final CompletableFuture<Object> running = inFlight.putIfAbsent(key, future);
+        if (running != null) {
+            try {
+                return (T) running.get(maxWait, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return loader.load();
+            } catch (ExecutionException | TimeoutException e) {
+                return loader.load();
+            }
+        }
+
+        try {
+            final T value = loader.load();
+            future.complete(value);
+            return value;
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * 
+     * @return the number of keys being loaded
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Loads value.
+     * 
+     * @param <T>
+     *            the type of loaded value
+     */
+    public interface Loader<T> {
+
+        T load() throws Throwable;
+
+    }
+
+}
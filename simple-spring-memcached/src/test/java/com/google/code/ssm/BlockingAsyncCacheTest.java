@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Test;
+import org.mockito.Answers;
+
+import com.google.code.ssm.api.format.SerializationType;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class BlockingAsyncCacheTest {
+
+    private final Cache cache = mock(Cache.class, withSettings().defaultAnswer(Answers.CALLS_REAL_METHODS));
+
+    @Test
+    public void shouldExecuteOperationsInCallingThread() throws Exception {
+        when(cache.get("key", SerializationType.JSON)).thenReturn("value");
+
+        assertEquals("value", cache.getAsyncCache().get("key", SerializationType.JSON).getNow(null));
+        assertTrue(cache.getAsyncCache().set("key", 10, "value", SerializationType.JSON).getNow(false));
+        verify(cache).set("key", 10, "value", SerializationType.JSON);
+    }
+
+    @Test
+    public void shouldCompleteFutureExceptionallyOnFailure() throws Exception {
+        when(cache.incr("key", 1, 0)).thenThrow(new TimeoutException());
+
+        assertTrue(cache.getAsyncCache().incr("key", 1, 0).isCompletedExceptionally());
+    }
+
+}
@@ -19,6 +19,7 @@ package com.google.code.ssm;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
@@ -155,4 +156,19 @@ public class CacheFactoryTest {
         verify(cacheClientFactory).create(addrsProvider.getAddresses(), conf);
     }
 
+    @Test
+    public void shouldCreateNearCacheIfMaxSizeIsSet() throws Exception {
+        CacheConfiguration conf = new CacheConfiguration();
+        conf.setNearCacheMaxSize(100);
+        AddressProvider addrsProvider = new DefaultAddressProvider("127.0.0.1:11211");
+        factory.setConfiguration(conf);
+        factory.setAddressProvider(addrsProvider);
+        factory.afterPropertiesSet();
+
+        Cache cache = factory.createCache();
+
+        assertTrue(cache instanceof NearCacheImpl);
+        assertTrue(((NearCacheImpl) cache).getCache() instanceof CacheImpl);
+    }
+
 }
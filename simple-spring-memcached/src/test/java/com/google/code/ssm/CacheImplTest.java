@@ -18,12 +18,19 @@ package com.google.code.ssm;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static com.google.code.ssm.test.Matcher.any;
 
 import java.net.SocketAddress;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
 
 import org.junit.Before;
@@ -32,9 +39,11 @@ import org.mockito.ArgumentMatcher;
 import org.mockito.Mockito;
 
 import com.google.code.ssm.api.format.SerializationType;
+import com.google.code.ssm.providers.AsyncCacheClient;
 import com.google.code.ssm.providers.CacheClient;
 import com.google.code.ssm.providers.CacheException;
 import com.google.code.ssm.test.Point;
+import com.google.code.ssm.transcoders.BinaryTranscoder;
 import com.google.code.ssm.transcoders.JavaTranscoder;
 import com.google.code.ssm.transcoders.JsonTranscoder;
 import com.google.code.ssm.transcoders.LongToStringTranscoder;
@@ -57,6 +66,8 @@ public class CacheImplTest {
 
     protected JavaTranscoder javaTranscoder;
 
+    protected BinaryTranscoder binaryTranscoder;
+
     protected CacheClient cacheClient;
 
     protected Cache cache;
@@ -66,8 +77,9 @@ public class CacheImplTest {
         cacheClient = Mockito.mock(CacheClient.class);
         jsonTranscoder = Mockito.mock(JsonTranscoder.class);
         javaTranscoder = Mockito.mock(JavaTranscoder.class);
-        cache = new CacheImpl(name, aliases, cacheClient, defaultSerializationType, jsonTranscoder, javaTranscoder, null,
-                new CacheProperties());
+        binaryTranscoder = Mockito.mock(BinaryTranscoder.class);
+        cache = new CacheImpl(name, aliases, cacheClient, defaultSerializationType, jsonTranscoder, javaTranscoder,
+                binaryTranscoder, null, new CacheProperties());
     }
 
     @Test
@@ -80,6 +92,13 @@ public class CacheImplTest {
         assertEquals(aliases, cache.getAliases());
     }
 
+    @Test
+    public void shouldRegisterTranscodersInClient() {
+        Mockito.verify(cacheClient).registerTranscoder(jsonTranscoder);
+        Mockito.verify(cacheClient).registerTranscoder(javaTranscoder);
+        Mockito.verify(cacheClient).registerTranscoder(binaryTranscoder);
+    }
+
     @Test
     public void getAvailableServers() {
         @SuppressWarnings("unchecked")
@@ -157,6 +176,9 @@ public class CacheImplTest {
 
         cache.get(cacheKey, SerializationType.JSON);
         Mockito.verify(cacheClient).get(getKey(cacheKey), jsonTranscoder);
+
+        cache.get(cacheKey, SerializationType.BINARY);
+        Mockito.verify(cacheClient).get(getKey(cacheKey), binaryTranscoder);
     }
 
     @Test
@@ -202,6 +224,9 @@ public class CacheImplTest {
 
         cache.set(cacheKey, exp, value, SerializationType.JSON);
         Mockito.verify(cacheClient).set(getKey(cacheKey), exp, value, jsonTranscoder);
+
+        cache.set(cacheKey, exp, value, SerializationType.BINARY);
+        Mockito.verify(cacheClient).set(getKey(cacheKey), exp, value, binaryTranscoder);
     }
 
     @Test
@@ -217,6 +242,56 @@ public class CacheImplTest {
         Mockito.verify(cacheClient).set(getKey(cacheKey), exp, value, jsonTranscoder);
     }
 
+    @Test
+    public void setBulk() throws TimeoutException, CacheException {
+        Map<String, Object> items = createItems();
+        int exp = 60000;
+
+        cache.setBulk(items, exp, SerializationType.PROVIDER);
+        Mockito.verify(cacheClient).setBulk(getItems(items), exp);
+
+        cache.setBulk(items, exp, SerializationType.JSON);
+        Mockito.verify(cacheClient).setBulk(getItems(items), exp, jsonTranscoder);
+    }
+
+    @Test
+    public void setBulkSilently() throws TimeoutException, CacheException {
+        Map<String, Object> items = createItems();
+        int exp = 60000;
+        Mockito.doThrow(new TimeoutException()).when(cacheClient).setBulk(getItems(items), exp);
+
+        cache.setBulkSilently(items, exp, SerializationType.PROVIDER);
+        Mockito.verify(cacheClient).setBulk(getItems(items), exp);
+
+        cache.setBulkSilently(items, exp, SerializationType.JSON);
+        Mockito.verify(cacheClient).setBulk(getItems(items), exp, jsonTranscoder);
+    }
+
+    @Test
+    public void addBulk() throws TimeoutException, CacheException {
+        Map<String, Object> items = createItems();
+        int exp = 900;
+
+        cache.addBulk(items, exp, SerializationType.PROVIDER);
+        Mockito.verify(cacheClient).addBulk(getItems(items), exp);
+
+        cache.addBulk(items, exp, SerializationType.JSON);
+        Mockito.verify(cacheClient).addBulk(getItems(items), exp, jsonTranscoder);
+    }
+
+    @Test
+    public void addBulkSilently() throws TimeoutException, CacheException {
+        Map<String, Object> items = createItems();
+        int exp = 900;
+        Mockito.doThrow(new TimeoutException()).when(cacheClient).addBulk(getItems(items), exp);
+
+        cache.addBulkSilently(items, exp, SerializationType.PROVIDER);
+        Mockito.verify(cacheClient).addBulk(getItems(items), exp);
+
+        cache.addBulkSilently(items, exp, SerializationType.JSON);
+        Mockito.verify(cacheClient).addBulk(getItems(items), exp, jsonTranscoder);
+    }
+
     @Test
     public void getCounter() throws TimeoutException, CacheException {
         String cacheKey = "key1";
@@ -248,6 +323,76 @@ public class CacheImplTest {
         Mockito.verify(cacheClient).getNativeClient();
     }
 
+    @Test
+    public void asyncGet() throws Exception {
+        String cacheKey = "key1";
+        AsyncCacheClient asyncClient = mockAsyncClient();
+        Mockito.when(asyncClient.get(getKey(cacheKey))).thenReturn(CompletableFuture.<Object> completedFuture("value1"));
+        Mockito.when(asyncClient.get(getKey(cacheKey), jsonTranscoder)).thenReturn(CompletableFuture.<Object> completedFuture("value2"));
+
+        assertEquals("value1", cache.getAsyncCache().get(cacheKey, SerializationType.PROVIDER).get());
+        assertEquals("value2", cache.getAsyncCache().get(cacheKey, SerializationType.JSON).get());
+    }
+
+    @Test
+    public void asyncGetBulk() throws Exception {
+        Map<String, Object> items = createItems();
+        AsyncCacheClient asyncClient = mockAsyncClient();
+        Mockito.when(asyncClient.getBulk(sameItems(getKeys(items.keySet())))).thenReturn(
+                CompletableFuture.completedFuture(getItems(items)));
+
+        assertEquals(items, cache.getAsyncCache().getBulk(items.keySet(), SerializationType.PROVIDER).get());
+    }
+
+    @Test
+    public void asyncSet() throws Exception {
+        String cacheKey = "key1";
+        int exp = 60000;
+        Object value = new Point(66, 99);
+        AsyncCacheClient asyncClient = mockAsyncClient();
+        Mockito.when(asyncClient.set(getKey(cacheKey), exp, value, jsonTranscoder)).thenReturn(CompletableFuture.completedFuture(true));
+
+        assertEquals(Boolean.TRUE, cache.getAsyncCache().set(cacheKey, exp, value, SerializationType.JSON).get());
+    }
+
+    @Test
+    public void asyncAdd() throws Exception {
+        String cacheKey = "key1";
+        int exp = 60000;
+        Object value = new Point(66, 99);
+        AsyncCacheClient asyncClient = mockAsyncClient();
+        Mockito.when(asyncClient.add(getKey(cacheKey), exp, value)).thenReturn(CompletableFuture.completedFuture(false));
+
+        assertEquals(Boolean.FALSE, cache.getAsyncCache().add(cacheKey, exp, value, SerializationType.PROVIDER).get());
+    }
+
+    @Test
+    public void asyncDeleteIncrDecr() throws Exception {
+        String cacheKey = "key1";
+        AsyncCacheClient asyncClient = mockAsyncClient();
+        Mockito.when(asyncClient.delete(getKey(cacheKey))).thenReturn(CompletableFuture.completedFuture(true));
+        Mockito.when(asyncClient.incr(getKey(cacheKey), 5, 1, 60)).thenReturn(CompletableFuture.completedFuture(6L));
+        Mockito.when(asyncClient.decr(getKey(cacheKey), 2)).thenReturn(CompletableFuture.completedFuture(4L));
+
+        assertEquals(Boolean.TRUE, cache.getAsyncCache().delete(cacheKey).get());
+        assertEquals(Long.valueOf(6), cache.getAsyncCache().incr(cacheKey, 5, 1, 60).get());
+        assertEquals(Long.valueOf(4), cache.getAsyncCache().decr(cacheKey, 2).get());
+    }
+
+    @Test
+    public void asyncGetWithoutTranscoder() throws Exception {
+        CompletableFuture<Object> result = cache.getAsyncCache().get("key1", SerializationType.CUSTOM);
+
+        assertTrue(result.isCompletedExceptionally());
+        try {
+            result.get();
+            fail("Expected ExecutionException");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+        Mockito.verify(cacheClient, Mockito.never()).getAsyncClient();
+    }
+
     protected String getKey(String key) {
         return key;
     }
@@ -261,6 +406,28 @@ public class CacheImplTest {
         return cacheKeys;
     }
 
+    private AsyncCacheClient mockAsyncClient() {
+        AsyncCacheClient asyncClient = Mockito.mock(AsyncCacheClient.class);
+        Mockito.when(cacheClient.getAsyncClient()).thenReturn(asyncClient);
+        return asyncClient;
+    }
+
+    private Map<String, Object> createItems() {
+        Map<String, Object> items = new LinkedHashMap<String, Object>();
+        items.put("key1", new Point(11, 22));
+        items.put("key2", new Point(33, 44));
+        return items;
+    }
+
+    protected Map<String, Object> getItems(Map<String, Object> items) {
+        final Map<String, Object> cacheItems = new HashMap<String, Object>();
+        for (Map.Entry<String, Object> entry : items.entrySet()) {
+            cacheItems.put(getKey(entry.getKey()), entry.getValue());
+        }
+
+        return cacheItems;
+    }
+
     private static Collection<String> sameItems(Collection<String> items) {
         class CollectionOfItemssMatcher implements ArgumentMatcher<Collection<String>> {
 
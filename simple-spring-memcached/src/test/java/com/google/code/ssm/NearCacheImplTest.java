@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.google.code.ssm.api.format.SerializationType;
+
+/**
+ *
+ * @author Jakub Białek
+ *
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class NearCacheImplTest {
+
+    @Mock
+    private Cache cache;
+
+    @Mock
+    private AsyncCache asyncCache;
+
+    private NearCacheImpl nearCache;
+
+    @Before
+    public void setUp() {
+        nearCache = new NearCacheImpl(cache, 32, 60);
+    }
+
+    @Test
+    public void shouldReadValueFromMemcachedOnlyOnce() throws Exception {
+        when(cache.get("key", SerializationType.JAVA)).thenReturn("value");
+
+        assertEquals("value", nearCache.get("key", SerializationType.JAVA));
+        assertEquals("value", nearCache.get("key", SerializationType.JAVA));
+
+        verify(cache, times(1)).get("key", SerializationType.JAVA);
+        assertEquals(1, nearCache.getLocalSize());
+    }
+
+    @Test
+    public void shouldNotStoreMissesLocally() throws Exception {
+        assertNull(nearCache.get("key", SerializationType.JAVA));
+        assertNull(nearCache.get("key", SerializationType.JAVA));
+
+        verify(cache, times(2)).get("key", SerializationType.JAVA);
+        assertEquals(0, nearCache.getLocalSize());
+    }
+
+    @Test
+    public void shouldInvalidateLocalValueOnModification() throws Exception {
+        when(cache.get("key", null)).thenReturn("value");
+
+        nearCache.get("key", null);
+        nearCache.set("key", 10, "value2", null);
+        nearCache.get("key", null);
+        nearCache.delete("key");
+        nearCache.get("key", null);
+        nearCache.setBulkSilently(Collections.singletonMap("key", "value3"), 10, null);
+        nearCache.get("key", null);
+        nearCache.delete(Arrays.asList("key"));
+        nearCache.get("key", null);
+
+        verify(cache).set("key", 10, "value2", null);
+        verify(cache).delete("key");
+        verify(cache, times(5)).get("key", null);
+    }
+
+    @Test
+    public void shouldNotKeepLocalValueLongerThanStoredValue() throws Exception {
+        when(cache.get("key", null)).thenReturn("value");
+
+        nearCache.set("key", 1, "value", null);
+        nearCache.get("key", null);
+        nearCache.get("key", null);
+        verify(cache, times(1)).get("key", null);
+
+        Thread.sleep(1100);
+        nearCache.get("key", null);
+        verify(cache, times(2)).get("key", null);
+    }
+
+    @Test
+    public void shouldReadOnlyMissedKeysInBulk() throws Exception {
+        when(cache.get("key1", null)).thenReturn("value1");
+        when(cache.getBulk(Arrays.asList("key2"), null)).thenReturn(Collections.<String, Object> singletonMap("key2", "value2"));
+
+        nearCache.get("key1", null);
+        final Map<String, Object> expected = new HashMap<String, Object>();
+        expected.put("key1", "value1");
+        expected.put("key2", "value2");
+
+        assertEquals(expected, nearCache.getBulk(Arrays.asList("key1", "key2"), null));
+        assertEquals(expected, nearCache.getBulk(Arrays.asList("key1", "key2"), null));
+
+        verify(cache, times(1)).getBulk(Arrays.asList("key2"), null);
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedValues() throws Exception {
+        nearCache = new NearCacheImpl(cache, 16, 60);
+        for (int i = 0; i < 200; i++) {
+            when(cache.get("key" + i, null)).thenReturn("value" + i);
+            nearCache.get("key" + i, null);
+        }
+
+        // each of 16 segments keeps only one value
+        assertTrue(nearCache.getLocalSize() <= 16);
+    }
+
+    @Test
+    public void shouldNotStoreValueReadDuringInvalidation() throws Exception {
+        // concurrent delete is executed after the old value is read from memcached but before it's stored locally
+        when(cache.get("key", null)).thenAnswer(invocation -> {
+            nearCache.delete("key");
+            return "old";
+        }).thenReturn("new");
+
+        assertEquals("old", nearCache.get("key", null));
+        assertEquals("new", nearCache.get("key", null));
+        assertEquals("new", nearCache.get("key", null));
+
+        verify(cache, times(2)).get("key", null);
+    }
+
+    @Test
+    public void shouldNotStoreValueReadInBulkDuringInvalidation() throws Exception {
+        when(cache.getBulk(Arrays.asList("key1", "key2"), null)).thenAnswer(invocation -> {
+            nearCache.set("key1", 10, "new", null);
+            final Map<String, Object> results = new HashMap<String, Object>();
+            results.put("key1", "old");
+            results.put("key2", "value2");
+            return results;
+        });
+
+        nearCache.getBulk(Arrays.asList("key1", "key2"), null);
+
+        assertEquals("value2", nearCache.get("key2", null));
+        assertNull(nearCache.get("key1", null));
+        verify(cache).get("key1", null);
+    }
+
+    @Test
+    public void shouldNotStoreValueReadAsyncDuringInvalidation() throws Exception {
+        final CompletableFuture<Object> future = new CompletableFuture<Object>();
+        when(cache.getAsyncCache()).thenReturn(asyncCache);
+        when(asyncCache.get("key", null)).thenReturn(future);
+
+        final CompletableFuture<Object> result = nearCache.getAsyncCache().get("key", null);
+        nearCache.delete("key");
+        future.complete("old");
+
+        assertEquals("old", result.get());
+        assertEquals(0, nearCache.getLocalSize());
+    }
+
+    @Test
+    public void shouldClearLocalValuesOnFlush() throws Exception {
+        when(cache.get("key", null)).thenReturn("value");
+        nearCache.get("key", null);
+
+        nearCache.flush();
+
+        verify(cache).flush();
+        assertEquals(0, nearCache.getLocalSize());
+    }
+
+    @Test
+    public void shouldUseLocalValueInAsyncGet() throws Exception {
+        when(cache.getAsyncCache()).thenReturn(asyncCache);
+        when(asyncCache.get("key", null)).thenReturn(CompletableFuture.<Object> completedFuture("value"));
+
+        assertEquals("value", nearCache.getAsyncCache().get("key", null).get());
+        assertEquals("value", nearCache.getAsyncCache().get("key", null).get());
+        verify(asyncCache, times(1)).get("key", null);
+
+        when(asyncCache.set("key", 10, "value2", null)).thenReturn(CompletableFuture.completedFuture(true));
+        nearCache.getAsyncCache().set("key", 10, "value2", null).get();
+        nearCache.getAsyncCache().get("key", null).get();
+        verify(asyncCache, times(2)).get("key", null);
+    }
+
+}
@@ -20,6 +20,7 @@ import org.junit.Before;
 import org.mockito.Mockito;
 
 import com.google.code.ssm.providers.CacheClient;
+import com.google.code.ssm.transcoders.BinaryTranscoder;
 import com.google.code.ssm.transcoders.JavaTranscoder;
 import com.google.code.ssm.transcoders.JsonTranscoder;
 
@@ -42,8 +43,9 @@ public class PrefixedCacheImplTest extends CacheImplTest {
         cacheClient = Mockito.mock(CacheClient.class);
         jsonTranscoder = Mockito.mock(JsonTranscoder.class);
         javaTranscoder = Mockito.mock(JavaTranscoder.class);
-        wrappedCache = new CacheImpl(super.name, aliases, cacheClient, defaultSerializationType, jsonTranscoder, javaTranscoder, null,
-                new CacheProperties());
+        binaryTranscoder = Mockito.mock(BinaryTranscoder.class);
+        wrappedCache = new CacheImpl(super.name, aliases, cacheClient, defaultSerializationType, jsonTranscoder, javaTranscoder,
+                binaryTranscoder, null, new CacheProperties());
         cache = new PrefixedCacheImpl(wrappedCache, namePrefix, prefix);
     }
     
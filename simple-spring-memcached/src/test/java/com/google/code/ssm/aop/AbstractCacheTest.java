@@ -22,6 +22,7 @@ import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
+import org.mockito.Answers;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
@@ -37,7 +38,7 @@ import com.google.code.ssm.api.AnnotationConstants;
 @RunWith(Parameterized.class)
 public abstract class AbstractCacheTest<T extends CacheAdvice> {
 
-    @Mock
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
     protected Cache cache;
 
     @Mock
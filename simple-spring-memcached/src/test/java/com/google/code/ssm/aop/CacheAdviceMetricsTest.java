@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static com.google.code.ssm.test.Matcher.any;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.google.code.ssm.Cache;
+import com.google.code.ssm.CacheProperties;
+import com.google.code.ssm.aop.metrics.AdviceMetrics;
+import com.google.code.ssm.aop.metrics.AdviceRecorder;
+import com.google.code.ssm.aop.support.PertinentNegativeNull;
+import com.google.code.ssm.api.AnnotationConstants;
+import com.google.code.ssm.api.ParameterValueKeyProvider;
+import com.google.code.ssm.api.ReadThroughMultiCache;
+import com.google.code.ssm.api.ReadThroughSingleCache;
+import com.google.code.ssm.api.format.SerializationType;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class CacheAdviceMetricsTest {
+
+    private static final String NS = "T1";
+    private static final int EXPIRATION = 321;
+
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
+    private Cache cache;
+
+    @Mock
+    private ProceedingJoinPoint pjp;
+
+    @Mock
+    private MethodSignature signature;
+
+    @Mock
+    private AdviceMetrics adviceMetrics;
+
+    @Mock
+    private AdviceRecorder recorder;
+
+    private final CacheBase cacheBase = new CacheBase();
+
+    private final ReadThroughSingleCacheAdvice singleAdvice = new ReadThroughSingleCacheAdvice();
+
+    private final ReadThroughMultiCacheAdvice multiAdvice = new ReadThroughMultiCacheAdvice();
+
+    @Before
+    public void setUp() {
+        when(cache.getName()).thenReturn(AnnotationConstants.DEFAULT_CACHE_NAME);
+        when(cache.getProperties()).thenReturn(new CacheProperties());
+        cacheBase.addCache(cache);
+        cacheBase.setAdviceMetrics(adviceMetrics);
+        singleAdvice.setCacheBase(cacheBase);
+        multiAdvice.setCacheBase(cacheBase);
+
+        when(pjp.getSignature()).thenReturn(signature);
+        when(pjp.getTarget()).thenReturn(new TestService());
+    }
+
+    @Test
+    public void shouldRecordHitAndCreateRecorderOnce() throws Throwable {
+        initSingle();
+        when(cache.get(NS + ":1", null)).thenReturn("value");
+
+        assertEquals("value", singleAdvice.cacheGetSingle(pjp));
+        assertEquals("value", singleAdvice.cacheGetSingle(pjp));
+
+        verify(adviceMetrics).createRecorder(AnnotationConstants.DEFAULT_CACHE_NAME, NS, ReadThroughSingleCache.class);
+        verify(recorder, times(2)).recordHit(anyLong());
+        verify(recorder, never()).recordMethod(anyLong());
+    }
+
+    @Test
+    public void shouldRecordNegativeHit() throws Throwable {
+        initSingle();
+        when(cache.get(NS + ":1", null)).thenReturn(PertinentNegativeNull.NULL);
+
+        assertNull(singleAdvice.cacheGetSingle(pjp));
+
+        verify(recorder).recordNegativeHit(anyLong());
+        verify(recorder, never()).recordHit(anyLong());
+    }
+
+    @Test
+    public void shouldRecordMissMethodAndWrite() throws Throwable {
+        initSingle();
+        when(pjp.proceed()).thenReturn("value");
+
+        assertEquals("value", singleAdvice.cacheGetSingle(pjp));
+
+        verify(recorder).recordMiss(anyLong());
+        verify(recorder).recordMethod(anyLong());
+        verify(recorder).recordWrite(anyLong());
+        verify(cache).set(NS + ":1", EXPIRATION, "value", null);
+    }
+
+    @Test
+    public void shouldRecordError() throws Throwable {
+        initSingle();
+        when(cache.get(NS + ":1", null)).thenThrow(new TimeoutException());
+        when(pjp.proceed()).thenReturn("value");
+
+        assertEquals("value", singleAdvice.cacheGetSingle(pjp));
+
+        verify(recorder).recordError();
+        verify(recorder, never()).recordMiss(anyLong());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldRecordPartialHitsOfBulkRead() throws Throwable {
+        when(adviceMetrics.createRecorder(AnnotationConstants.DEFAULT_CACHE_NAME, NS, ReadThroughMultiCache.class)).thenReturn(recorder);
+        when(signature.getName()).thenReturn("getAll");
+        when(signature.getParameterTypes()).thenReturn(new Class<?>[] { List.class });
+        when(pjp.getArgs()).thenReturn(new Object[] { Arrays.asList(1, 2, 3) });
+        final Map<String, Object> hits = new HashMap<String, Object>();
+        hits.put(NS + ":1", 10);
+        hits.put(NS + ":2", PertinentNegativeNull.NULL);
+        when(cache.getBulk(any(Collection.class), any(SerializationType.class))).thenReturn(hits);
+        when(pjp.proceed(new Object[] { Arrays.asList(3) })).thenReturn(Arrays.asList(30));
+
+        assertEquals(Arrays.asList(10, null, 30), multiAdvice.cacheMulti(pjp));
+
+        verify(recorder).recordBulkGet(eq(3), eq(1), eq(1), anyLong());
+        verify(recorder).recordMethod(anyLong());
+        verify(recorder).recordWrite(anyLong());
+    }
+
+    private void initSingle() {
+        when(adviceMetrics.createRecorder(AnnotationConstants.DEFAULT_CACHE_NAME, NS, ReadThroughSingleCache.class)).thenReturn(recorder);
+        when(signature.getName()).thenReturn("get");
+        when(signature.getParameterTypes()).thenReturn(new Class<?>[] { Integer.class });
+        when(pjp.getArgs()).thenReturn(new Object[] { 1 });
+    }
+
+    private static class TestService {
+
+        @ReadThroughSingleCache(namespace = NS, expiration = EXPIRATION)
+        public String get(@ParameterValueKeyProvider final Integer id) {
+            return null;
+        }
+
+        @ReadThroughMultiCache(namespace = NS, expiration = EXPIRATION)
+        public List<Integer> getAll(@ParameterValueKeyProvider final List<Integer> ids) {
+            return null;
+        }
+
+    }
+
+}
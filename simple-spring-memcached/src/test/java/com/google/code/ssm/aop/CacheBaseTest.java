@@ -36,6 +36,8 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeoutException;
 
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentMatcher;
@@ -45,8 +47,11 @@ import com.google.code.ssm.Cache;
 import com.google.code.ssm.CacheProperties;
 import com.google.code.ssm.aop.support.AnnotationData;
 import com.google.code.ssm.aop.support.InvalidAnnotationException;
+import com.google.code.ssm.api.AnnotationConstants;
 import com.google.code.ssm.api.CacheKeyMethod;
+import com.google.code.ssm.api.ParameterValueKeyProvider;
 import com.google.code.ssm.api.ReadThroughMultiCache;
+import com.google.code.ssm.api.ReadThroughSingleCache;
 import com.google.code.ssm.api.format.Serialization;
 import com.google.code.ssm.api.format.SerializationType;
 import com.google.code.ssm.providers.CacheException;
@@ -280,6 +285,36 @@ public class CacheBaseTest {
 
     }
 
+    @Test
+    public void getAdviceMetadata() throws Exception {
+        Cache cache = Mockito.mock(Cache.class);
+        Mockito.when(cache.getName()).thenReturn(AnnotationConstants.DEFAULT_CACHE_NAME);
+        Mockito.when(cache.getProperties()).thenReturn(new CacheProperties());
+        cut.addCache(cache);
+
+        JoinPoint jp = Mockito.mock(JoinPoint.class);
+        MethodSignature sig = Mockito.mock(MethodSignature.class);
+        Mockito.when(jp.getSignature()).thenReturn(sig);
+        Mockito.when(jp.getTarget()).thenReturn(new AdviceMetadataTestObject());
+        Mockito.when(sig.getName()).thenReturn("methodA");
+        Mockito.when(sig.getParameterTypes()).thenReturn(new Class<?>[] { int.class });
+
+        AdviceMetadata<ReadThroughSingleCache> metadata = cut.getAdviceMetadata(jp, ReadThroughSingleCache.class);
+        assertEquals(AdviceMetadataTestObject.class.getMethod("methodA", int.class), metadata.getMethod());
+        assertEquals("bubba", metadata.getAnnotationData().getNamespace());
+        assertEquals(10, metadata.getAnnotationData().getExpiration());
+        assertEquals(SerializationType.JSON, metadata.getSerializationType());
+        assertEquals(metadata.getMethod().toString(), metadata.getMethodDesc());
+        assertSame(cache, metadata.getCache());
+
+        // new array of the same parameter types
+        Mockito.when(sig.getParameterTypes()).thenReturn(new Class<?>[] { int.class });
+        assertSame(metadata, cut.getAdviceMetadata(jp, ReadThroughSingleCache.class));
+
+        Mockito.when(sig.getName()).thenReturn("methodB");
+        assertNotSame(metadata, cut.getAdviceMetadata(jp, ReadThroughSingleCache.class));
+    }
+
     @SuppressWarnings("unused")
     @Serialization(SerializationType.JAVA)
     private static class SerializationTypeTestObject {
@@ -295,6 +330,22 @@ public class CacheBaseTest {
 
     }
 
+    @SuppressWarnings("unused")
+    private static class AdviceMetadataTestObject {
+
+        @Serialization(SerializationType.JSON)
+        @ReadThroughSingleCache(namespace = "bubba", expiration = 10)
+        public int methodA(@ParameterValueKeyProvider final int id) {
+            return 1;
+        }
+
+        @ReadThroughSingleCache(namespace = "bubba", expiration = 10)
+        public int methodB(@ParameterValueKeyProvider final int id) {
+            return 1;
+        }
+
+    }
+
     @SuppressWarnings("unused")
     private static class UpdateData {
 
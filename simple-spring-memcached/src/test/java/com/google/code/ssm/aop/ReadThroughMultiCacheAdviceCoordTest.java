@@ -19,6 +19,7 @@ package com.google.code.ssm.aop;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
@@ -47,6 +48,7 @@ import org.mockito.stubbing.Answer;
 
 import com.google.code.ssm.Cache;
 import com.google.code.ssm.aop.support.AnnotationData;
+import com.google.code.ssm.aop.support.AnnotationDataBuilder;
 import com.google.code.ssm.aop.support.PertinentNegativeNull;
 import com.google.code.ssm.api.ParameterValueKeyProvider;
 import com.google.code.ssm.api.ReadThroughMultiCache;
@@ -97,9 +99,11 @@ public class ReadThroughMultiCacheAdviceCoordTest {
         assertEquals(expected, result);
         verify(pjp).proceed(args);
         verify(cache).getBulk(eq(new HashSet<String>(cacheKeys)), any(SerializationType.class));
+        final Map<String, Object> expectedItems = new HashMap<String, Object>();
         for (int i = 0; i < expected.size(); i++) {
-            verify(cache).setSilently(cacheKeys.get(i), EXPIRATION, expected.get(i), null);
+            expectedItems.put(cacheKeys.get(i), expected.get(i));
         }
+        verify(cache).setBulkSilently(expectedItems, EXPIRATION, null);
     }
 
     @Test
@@ -117,7 +121,7 @@ public class ReadThroughMultiCacheAdviceCoordTest {
         assertEquals(expected, result);
         verify(pjp).proceed(modifiedArgs);
         verify(cache).getBulk(eq(new HashSet<String>(cacheKeys)), any(SerializationType.class));
-        verify(cache).setSilently(NS + ":" + 2, EXPIRATION, "b", null);
+        verify(cache).setBulkSilently(Collections.singletonMap(NS + ":" + 2, "b"), EXPIRATION, null);
     }
 
     @Test
@@ -135,7 +139,7 @@ public class ReadThroughMultiCacheAdviceCoordTest {
         assertEquals(expected, result);
         verify(cache).getBulk(eq(new HashSet<String>(cacheKeys)), any(SerializationType.class));
         verify(pjp, never()).proceed(any(Object[].class));
-        verify(cache, never()).setSilently(anyString(), anyInt(), any(), any(SerializationType.class));
+        verify(cache, never()).setBulkSilently(anyMap(), anyInt(), any(SerializationType.class));
     }
 
     @Test
@@ -152,8 +156,8 @@ public class ReadThroughMultiCacheAdviceCoordTest {
         assertEquals(expected, result);
         verify(pjp).proceed(args);
         verify(cache).getBulk(eq(new HashSet<String>(cacheKeys)), any(SerializationType.class));
-        verify(cache, never()).setSilently(anyString(), anyInt(), any(), any(SerializationType.class));
-        verify(cache, never()).addSilently(anyString(), anyInt(), any(), any(SerializationType.class));
+        verify(cache, never()).setBulkSilently(anyMap(), anyInt(), any(SerializationType.class));
+        verify(cache, never()).addBulkSilently(anyMap(), anyInt(), any(SerializationType.class));
     }
 
     @Test
@@ -170,17 +174,21 @@ public class ReadThroughMultiCacheAdviceCoordTest {
         assertEquals(expected, result);
         verify(pjp).proceed(args);
         verify(cache).getBulk(eq(new HashSet<String>(cacheKeys)), any(SerializationType.class));
-        verify(cache, never()).setSilently(anyString(), anyInt(), any(), any(SerializationType.class));
-        verify(cache).addSilently(eq(cacheKeys.get(0)), eq(EXPIRATION), eq(PertinentNegativeNull.NULL), any(SerializationType.class));
-        verify(cache).addSilently(eq(cacheKeys.get(1)), eq(EXPIRATION), eq(PertinentNegativeNull.NULL), any(SerializationType.class));
+        final Map<String, Object> expectedItems = new HashMap<String, Object>();
+        expectedItems.put(cacheKeys.get(0), PertinentNegativeNull.NULL);
+        expectedItems.put(cacheKeys.get(1), PertinentNegativeNull.NULL);
+        verify(cache, never()).setBulkSilently(anyMap(), anyInt(), any(SerializationType.class));
+        verify(cache).addBulkSilently(eq(expectedItems), eq(EXPIRATION), any(SerializationType.class));
     }
 
     private void initMocks(final Method methodToCache, final Map<String, Object> cacheResponse) throws NoSuchMethodException,
             TimeoutException, CacheException {
         when(pjp.getArgs()).thenReturn(args);
 
-        when(cacheBase.getMethodToCache(pjp, ReadThroughMultiCache.class)).thenReturn(methodToCache);
-        when(cacheBase.getCache(any(AnnotationData.class))).thenReturn(cache);
+        final ReadThroughMultiCache annotation = methodToCache.getAnnotation(ReadThroughMultiCache.class);
+        final AnnotationData data = AnnotationDataBuilder.buildAnnotationData(annotation, ReadThroughMultiCache.class, methodToCache);
+        when(cacheBase.getAdviceMetadata(pjp, ReadThroughMultiCache.class)).thenReturn(
+                new AdviceMetadata<ReadThroughMultiCache>(methodToCache, annotation, data, null, cache));
         when(cacheBase.getSubmission(any())).thenAnswer(new Answer<Object>() {
 
             @Override
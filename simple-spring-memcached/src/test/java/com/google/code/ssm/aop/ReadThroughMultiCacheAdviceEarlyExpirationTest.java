@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static com.google.code.ssm.test.Matcher.any;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.google.code.ssm.Cache;
+import com.google.code.ssm.CacheProperties;
+import com.google.code.ssm.aop.support.SoftExpiringValue;
+import com.google.code.ssm.api.AnnotationConstants;
+import com.google.code.ssm.api.ParameterValueKeyProvider;
+import com.google.code.ssm.api.ReadThroughMultiCache;
+import com.google.code.ssm.api.ReadThroughMultiCacheOption;
+import com.google.code.ssm.api.format.SerializationType;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class ReadThroughMultiCacheAdviceEarlyExpirationTest {
+
+    private static final String NS = "T1";
+    private static final int EXPIRATION = 321;
+
+    private final Object[] args = new Object[] { Arrays.asList(1, 2, 3) };
+
+    @Mock
+    private Cache cache;
+
+    @Mock
+    private ProceedingJoinPoint pjp;
+
+    @Mock
+    private MethodSignature signature;
+
+    private final ReadThroughMultiCacheAdvice advice = new ReadThroughMultiCacheAdvice();
+
+    @Before
+    public void setUp() {
+        when(cache.getName()).thenReturn(AnnotationConstants.DEFAULT_CACHE_NAME);
+        when(cache.getProperties()).thenReturn(new CacheProperties());
+        final CacheBase cacheBase = new CacheBase();
+        cacheBase.addCache(cache);
+        advice.setCacheBase(cacheBase);
+
+        when(signature.getName()).thenReturn("getAll");
+        when(signature.getParameterTypes()).thenReturn(new Class<?>[] { List.class });
+        when(pjp.getSignature()).thenReturn(signature);
+        when(pjp.getArgs()).thenReturn(args);
+        when(pjp.getTarget()).thenReturn(new TestService());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldRecomputeValuesExpiringEarlyTogetherWithMissedValues() throws Throwable {
+        final long now = System.currentTimeMillis();
+        final Map<String, Object> hits = new HashMap<String, Object>();
+        hits.put(NS + ":1", new SoftExpiringValue(10, now + 60000, 1));
+        // computing the value takes much longer than remaining time so it's recomputed early
+        hits.put(NS + ":2", new SoftExpiringValue(20, now + 1, Integer.MAX_VALUE));
+        when(cache.getBulk(any(Collection.class), any(SerializationType.class))).thenReturn(hits);
+        when(pjp.proceed(new Object[] { Arrays.asList(2, 3) })).thenReturn(Arrays.asList(21, 31));
+
+        assertEquals(Arrays.asList(10, 21, 31), advice.cacheMulti(pjp));
+
+        final ArgumentCaptor<Map<String, Object>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(cache).setBulkSilently(captor.capture(), eq(EXPIRATION), any(SerializationType.class));
+        assertEquals(2, captor.getValue().size());
+        final SoftExpiringValue stored = (SoftExpiringValue) captor.getValue().get(NS + ":3");
+        assertEquals(31, stored.getValue());
+        assertTrue(stored.getSoftExpiresAt() >= now + EXPIRATION * 1000L);
+        assertEquals(21, ((SoftExpiringValue) captor.getValue().get(NS + ":2")).getValue());
+    }
+
+    private static class TestService {
+
+        @ReadThroughMultiCache(namespace = NS, expiration = EXPIRATION, option = @ReadThroughMultiCacheOption(earlyExpiration = true))
+        public List<Integer> getAll(@ParameterValueKeyProvider final List<Integer> ids) {
+            return null;
+        }
+
+    }
+
+}
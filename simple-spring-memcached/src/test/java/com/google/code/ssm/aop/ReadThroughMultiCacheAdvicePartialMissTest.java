@@ -163,10 +163,11 @@ public class ReadThroughMultiCacheAdvicePartialMissTest extends AbstractCacheTes
 
         verify(cache).getBulk(eq(new HashSet<String>(Arrays.asList(cacheKeys))), any(SerializationType.class));
         if (expectedValue.size() == cacheKeys.length) {
+            final Map<String, Object> missedItems = new HashMap<String, Object>();
             for (int element : missedIndex) {
-                verify(cache).setSilently(eq(cacheKeys[element]), eq(EXPIRATION), eq(expectedValue.get(element)),
-                        any(SerializationType.class));
+                missedItems.put(cacheKeys[element], expectedValue.get(element));
             }
+            verify(cache).setBulkSilently(eq(missedItems), eq(EXPIRATION), any(SerializationType.class));
         }
         verify(pjp).proceed(missParams);
     }
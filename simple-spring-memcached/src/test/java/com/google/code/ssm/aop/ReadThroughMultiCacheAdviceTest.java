@@ -18,6 +18,7 @@ package com.google.code.ssm.aop;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyMap;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.never;
@@ -108,9 +109,11 @@ public class ReadThroughMultiCacheAdviceTest extends AbstractCacheTest<ReadThrou
         assertEquals(expectedValue, advice.cacheMulti(pjp));
 
         verify(cache).getBulk(eq(new HashSet<String>(Arrays.asList(cacheKeys))), any(SerializationType.class));
+        final Map<String, Object> items = new HashMap<String, Object>();
         for (int i = 0; i < cacheKeys.length; i++) {
-            verify(cache).setSilently(eq(cacheKeys[i]), eq(EXPIRATION), eq(expectedValue.get(i)), any(SerializationType.class));
+            items.put(cacheKeys[i], expectedValue.get(i));
         }
+        verify(cache).setBulkSilently(eq(items), eq(EXPIRATION), any(SerializationType.class));
         verify(pjp).proceed(params);
     }
 
@@ -127,7 +130,7 @@ public class ReadThroughMultiCacheAdviceTest extends AbstractCacheTest<ReadThrou
         assertEquals(expectedValue, advice.cacheMulti(pjp));
 
         verify(cache).getBulk(eq(new HashSet<String>(Arrays.asList(cacheKeys))), any(SerializationType.class));
-        verify(cache, never()).setSilently(anyString(), anyInt(), any(), any(SerializationType.class));
+        verify(cache, never()).setBulkSilently(anyMap(), anyInt(), any(SerializationType.class));
         verify(pjp, never()).proceed(params);
     }
 
@@ -55,7 +55,7 @@ public class ReadThroughMultiCacheTest {
 
     @Before
     public void beforeMethod() {
-        coord = new ReadThroughMultiCacheAdvice.MultiCacheCoordinator(null, null);
+        coord = new ReadThroughMultiCacheAdvice.MultiCacheCoordinator(null, null, null);
     }
 
     @Test
@@ -152,7 +152,7 @@ public class ReadThroughMultiCacheTest {
         obj2key.put(keyObject, key);
         AnnotationData data = new AnnotationData();
         data.setListIndexInKeys(0);
-        coord = new ReadThroughMultiCacheAdvice.MultiCacheCoordinator(null, data);
+        coord = new ReadThroughMultiCacheAdvice.MultiCacheCoordinator(null, data, null);
         coord.setListKeyObjects(keyObjects);
         coord.getObj2Key().putAll(obj2key);
 
@@ -190,7 +190,7 @@ public class ReadThroughMultiCacheTest {
 
         AnnotationData data = new AnnotationData();
         data.setListIndexInKeys(0);
-        coord = new ReadThroughMultiCacheAdvice.MultiCacheCoordinator(null, data);
+        coord = new ReadThroughMultiCacheAdvice.MultiCacheCoordinator(null, data, null);
         coord.setListKeyObjects(keyObjects);
         coord.getObj2Key().putAll(obj2key);
         coord.getKey2Result().putAll(key2result);
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static com.google.code.ssm.test.Matcher.any;
+
+import java.lang.reflect.Method;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Answers;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.google.code.ssm.Cache;
+import com.google.code.ssm.aop.support.AnnotationData;
+import com.google.code.ssm.aop.support.AnnotationDataBuilder;
+import com.google.code.ssm.api.ParameterValueKeyProvider;
+import com.google.code.ssm.api.ReadThroughSingleCache;
+import com.google.code.ssm.api.ReadThroughSingleCacheOption;
+import com.google.code.ssm.api.format.SerializationType;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class ReadThroughSingleCacheAdviceLeaseTest {
+
+    private static final String NS = "T1";
+    private static final int EXPIRATION = 321;
+    private static final String CACHE_KEY = NS + ":1";
+    private static final String LEASE_KEY = CACHE_KEY + SingleReadCacheAdvice.LEASE_SUFFIX;
+
+    private final Object[] args = new Object[] { 1 };
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private CacheBase cacheBase;
+
+    @Mock
+    private ProceedingJoinPoint pjp;
+
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
+    private Cache cache;
+
+    @InjectMocks
+    private ReadThroughSingleCacheAdvice advice = new ReadThroughSingleCacheAdvice();
+
+    @Test
+    public void shouldInvokeMethodAndReleaseLeaseIfLeaseAcquired() throws Throwable {
+        initMocks("getWithLease");
+        when(cache.add(LEASE_KEY, 10, "1", SerializationType.PROVIDER)).thenReturn(true);
+        when(pjp.proceed()).thenReturn("value");
+
+        assertEquals("value", advice.cacheGetSingle(pjp));
+
+        verify(cache).set(CACHE_KEY, EXPIRATION, "value", null);
+        verify(cache).delete(LEASE_KEY);
+    }
+
+    @Test
+    public void shouldStoreValueBeforeReleasingLeaseInWriteBehindMode() throws Throwable {
+        final WriteBehindQueue queue = new WriteBehindQueue(10, 1);
+        try {
+            initMocks("getWithLease");
+            when(cacheBase.getWriteBehindQueue()).thenReturn(queue);
+            when(cache.add(LEASE_KEY, 10, "1", SerializationType.PROVIDER)).thenReturn(true);
+            when(pjp.proceed()).thenReturn("value");
+
+            assertEquals("value", advice.cacheGetSingle(pjp));
+
+            final InOrder inOrder = inOrder(cache);
+            inOrder.verify(cache).set(CACHE_KEY, EXPIRATION, "value", null);
+            inOrder.verify(cache).delete(LEASE_KEY);
+            verify(cache, never()).setSilently(any(String.class), anyInt(), any(), any(SerializationType.class));
+        } finally {
+            queue.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldWaitForValueIfLeaseHeldByOtherNode() throws Throwable {
+        initMocks("getWithLease");
+        when(cache.get(CACHE_KEY, null)).thenReturn(null, null, "value");
+
+        assertEquals("value", advice.cacheGetSingle(pjp));
+
+        verify(pjp, never()).proceed();
+        verify(cache, never()).set(any(String.class), anyInt(), any(), any(SerializationType.class));
+        verify(cache, never()).delete(LEASE_KEY);
+    }
+
+    @Test
+    public void shouldInvokeMethodIfValueNotStoredInTime() throws Throwable {
+        initMocks("getWithLease");
+        when(pjp.proceed()).thenReturn("value");
+
+        assertEquals("value", advice.cacheGetSingle(pjp));
+
+        verify(cache).set(CACHE_KEY, EXPIRATION, "value", null);
+        verify(cache, never()).delete(LEASE_KEY);
+    }
+
+    @Test
+    public void shouldNotAcquireLeaseIfDisabled() throws Throwable {
+        initMocks("get");
+        when(pjp.proceed()).thenReturn("value");
+
+        assertEquals("value", advice.cacheGetSingle(pjp));
+
+        verify(cache).set(CACHE_KEY, EXPIRATION, "value", null);
+        verify(cache, never()).add(any(String.class), anyInt(), any(), any(SerializationType.class));
+    }
+
+    private void initMocks(final String methodName) throws Exception {
+        final Method method = TestService.class.getMethod(methodName, Integer.class);
+        final ReadThroughSingleCache annotation = method.getAnnotation(ReadThroughSingleCache.class);
+        final AnnotationData data = AnnotationDataBuilder.buildAnnotationData(annotation, ReadThroughSingleCache.class, method);
+
+        when(pjp.getArgs()).thenReturn(args);
+        when(cacheBase.getAdviceMetadata(pjp, ReadThroughSingleCache.class)).thenReturn(
+                new AdviceMetadata<ReadThroughSingleCache>(method, annotation, data, null, cache));
+        when(cacheBase.getCacheKeyBuilder().getCacheKey(any(AnnotationData.class), any(Object[].class), any(String.class))).thenReturn(
+                CACHE_KEY);
+        when(cacheBase.getSubmission(any())).thenAnswer(invocation -> invocation.getArguments()[0]);
+        when(cacheBase.getResult(any())).thenAnswer(invocation -> invocation.getArguments()[0]);
+    }
+
+    private static class TestService {
+
+        @ReadThroughSingleCache(namespace = NS, expiration = EXPIRATION)
+        public String get(@ParameterValueKeyProvider final Integer id) {
+            return null;
+        }
+
+        @ReadThroughSingleCache(namespace = NS, expiration = EXPIRATION, option = @ReadThroughSingleCacheOption(lease = true,
+                leaseWait = 100, leasePollInterval = 10))
+        public String getWithLease(@ParameterValueKeyProvider final Integer id) {
+            return null;
+        }
+
+    }
+
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static com.google.code.ssm.test.Matcher.any;
+
+import java.lang.reflect.Method;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.google.code.ssm.Cache;
+import com.google.code.ssm.aop.support.AnnotationData;
+import com.google.code.ssm.aop.support.AnnotationDataBuilder;
+import com.google.code.ssm.aop.support.SoftExpiringValue;
+import com.google.code.ssm.api.ParameterValueKeyProvider;
+import com.google.code.ssm.api.ReadThroughSingleCache;
+import com.google.code.ssm.api.ReadThroughSingleCacheOption;
+import com.google.code.ssm.api.format.SerializationType;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class ReadThroughSingleCacheAdviceSoftExpirationTest {
+
+    private static final String NS = "T1";
+    private static final int EXPIRATION = 321;
+    private static final String CACHE_KEY = NS + ":1";
+    private static final String LEASE_KEY = CACHE_KEY + SingleReadCacheAdvice.LEASE_SUFFIX;
+
+    private final Object[] args = new Object[] { 1 };
+
+    private final AsyncRefresher refresher = new AsyncRefresher(10, 1);
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private CacheBase cacheBase;
+
+    @Mock
+    private ProceedingJoinPoint pjp;
+
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
+    private Cache cache;
+
+    @InjectMocks
+    private ReadThroughSingleCacheAdvice advice = new ReadThroughSingleCacheAdvice();
+
+    @After
+    public void tearDown() {
+        refresher.shutdown();
+    }
+
+    @Test
+    public void shouldStoreValueWithSoftExpiration() throws Throwable {
+        initMocks("getWithSoftExpiration");
+        when(pjp.proceed()).thenReturn("value");
+
+        final long now = System.currentTimeMillis();
+        assertEquals("value", advice.cacheGetSingle(pjp));
+
+        final SoftExpiringValue stored = verifyStored(false);
+        assertEquals("value", stored.getValue());
+        assertTrue(stored.getSoftExpiresAt() >= now + 60000);
+    }
+
+    @Test
+    public void shouldReturnFreshValueWithoutRefresh() throws Throwable {
+        initMocks("getWithSoftExpiration");
+        when(cache.get(CACHE_KEY, null)).thenReturn(new SoftExpiringValue("value", System.currentTimeMillis() + 60000));
+
+        assertEquals("value", advice.cacheGetSingle(pjp));
+
+        verify(pjp, never()).proceed();
+        assertEquals(0, refresher.getInProgressCount());
+    }
+
+    @Test
+    public void shouldReturnStaleValueAndRefreshInBackground() throws Throwable {
+        initMocks("getWithSoftExpiration");
+        when(cache.get(CACHE_KEY, null)).thenReturn(new SoftExpiringValue("stale", System.currentTimeMillis() - 1));
+        when(pjp.proceed()).thenReturn("value");
+
+        assertEquals("stale", advice.cacheGetSingle(pjp));
+
+        assertEquals("value", verifyStored(true).getValue());
+        verify(cache, never()).add(any(String.class), anyInt(), any(), any(SerializationType.class));
+    }
+
+    @Test
+    public void shouldRecomputeStaleValueIfBackgroundRefreshDisabled() throws Throwable {
+        initMocks("getWithSoftExpiration");
+        when(cacheBase.getAsyncRefresher()).thenReturn(null);
+        when(cache.get(CACHE_KEY, null)).thenReturn(new SoftExpiringValue("stale", System.currentTimeMillis() - 1));
+        when(pjp.proceed()).thenReturn("value");
+
+        assertEquals("value", advice.cacheGetSingle(pjp));
+
+        assertEquals("value", verifyStored(false).getValue());
+    }
+
+    @Test
+    public void shouldNotRefreshIfLeaseHeldByOtherNode() throws Throwable {
+        initMocks("getWithSoftExpirationAndLease");
+        when(cache.get(CACHE_KEY, null)).thenReturn(new SoftExpiringValue("stale", System.currentTimeMillis() - 1));
+
+        assertEquals("stale", advice.cacheGetSingle(pjp));
+
+        verify(cache, timeout(1000)).add(LEASE_KEY, 10, "1", SerializationType.PROVIDER);
+        verify(pjp, never()).proceed();
+        verify(cache, never()).delete(LEASE_KEY);
+    }
+
+    @Test
+    public void shouldRecomputeValueExpiringEarly() throws Throwable {
+        initMocks("getWithEarlyExpiration");
+        final long now = System.currentTimeMillis();
+        // computing the value takes much longer than remaining time so it's recomputed early
+        when(cache.get(CACHE_KEY, null)).thenReturn(new SoftExpiringValue("stale", now + 1, Integer.MAX_VALUE));
+        when(pjp.proceed()).thenReturn("value");
+
+        assertEquals("value", advice.cacheGetSingle(pjp));
+
+        final SoftExpiringValue stored = verifyStored(false);
+        assertEquals("value", stored.getValue());
+        assertTrue(stored.getSoftExpiresAt() >= now + EXPIRATION * 1000L);
+        assertEquals(0, refresher.getInProgressCount());
+    }
+
+    @Test
+    public void shouldNotRecomputeValueExpiringEarlyIfLeaseHeldByOtherNode() throws Throwable {
+        initMocks("getWithEarlyExpirationAndLease");
+        // other node recomputes the value, meanwhile the value in cache is still usable
+        when(cache.get(CACHE_KEY, null)).thenReturn(new SoftExpiringValue("stale", System.currentTimeMillis() + 1000, Integer.MAX_VALUE));
+
+        assertEquals("stale", advice.cacheGetSingle(pjp));
+
+        verify(cache).add(LEASE_KEY, 10, "1", SerializationType.PROVIDER);
+        verify(pjp, never()).proceed();
+    }
+
+    @Test
+    public void shouldNotRecomputeValueFarFromExpiration() throws Throwable {
+        initMocks("getWithEarlyExpiration");
+        when(cache.get(CACHE_KEY, null)).thenReturn(new SoftExpiringValue("value", System.currentTimeMillis() + 60000, 1));
+
+        assertEquals("value", advice.cacheGetSingle(pjp));
+
+        verify(pjp, never()).proceed();
+    }
+
+    private SoftExpiringValue verifyStored(final boolean async) throws Exception {
+        final ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(cache, async ? timeout(1000) : times(1)).set(eq(CACHE_KEY), eq(EXPIRATION), captor.capture(), isNull());
+        assertTrue(captor.getValue() instanceof SoftExpiringValue);
+        return (SoftExpiringValue) captor.getValue();
+    }
+
+    private void initMocks(final String methodName) throws Exception {
+        final Method method = TestService.class.getMethod(methodName, Integer.class);
+        final ReadThroughSingleCache annotation = method.getAnnotation(ReadThroughSingleCache.class);
+        final AnnotationData data = AnnotationDataBuilder.buildAnnotationData(annotation, ReadThroughSingleCache.class, method);
+
+        when(pjp.getArgs()).thenReturn(args);
+        when(cacheBase.getAdviceMetadata(pjp, ReadThroughSingleCache.class)).thenReturn(
+                new AdviceMetadata<ReadThroughSingleCache>(method, annotation, data, null, cache));
+        when(cacheBase.getCacheKeyBuilder().getCacheKey(any(AnnotationData.class), any(Object[].class), any(String.class))).thenReturn(
+                CACHE_KEY);
+        when(cacheBase.getAsyncRefresher()).thenReturn(refresher);
+        when(cacheBase.getSubmission(any())).thenAnswer(invocation -> invocation.getArguments()[0]);
+        when(cacheBase.getResult(any())).thenAnswer(invocation -> {
+            final Object result = invocation.getArguments()[0];
+            return result instanceof SoftExpiringValue ? ((SoftExpiringValue) result).getValue() : result;
+        });
+    }
+
+    private static class TestService {
+
+        @ReadThroughSingleCache(namespace = NS, expiration = EXPIRATION, option = @ReadThroughSingleCacheOption(earlyExpiration = true))
+        public String getWithEarlyExpiration(@ParameterValueKeyProvider final Integer id) {
+            return null;
+        }
+
+        @ReadThroughSingleCache(namespace = NS, expiration = EXPIRATION, option = @ReadThroughSingleCacheOption(earlyExpiration = true,
+                lease = true, leaseWait = 100, leasePollInterval = 10))
+        public String getWithEarlyExpirationAndLease(@ParameterValueKeyProvider final Integer id) {
+            return null;
+        }
+
+        @ReadThroughSingleCache(namespace = NS, expiration = EXPIRATION, option = @ReadThroughSingleCacheOption(softExpiration = 60))
+        public String getWithSoftExpiration(@ParameterValueKeyProvider final Integer id) {
+            return null;
+        }
+
+        @ReadThroughSingleCache(namespace = NS, expiration = EXPIRATION, option = @ReadThroughSingleCacheOption(softExpiration = 60,
+                lease = true))
+        public String getWithSoftExpirationAndLease(@ParameterValueKeyProvider final Integer id) {
+            return null;
+        }
+
+    }
+
+}
@@ -16,9 +16,13 @@
 
 package com.google.code.ssm.aop;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyMap;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static com.google.code.ssm.test.Matcher.any;
@@ -26,13 +30,16 @@ import static com.google.code.ssm.test.Matcher.any;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.hamcrest.CoreMatchers;
 import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runners.Parameterized.Parameters;
+import org.mockito.ArgumentCaptor;
 
 import com.google.code.ssm.aop.support.PertinentNegativeNull;
 import com.google.code.ssm.api.ParameterDataUpdateContent;
@@ -167,14 +174,16 @@ public class UpdateMultiCacheAdvice2Test extends AbstractCacheTest<UpdateMultiCa
 
         advice.cacheUpdateMulti(pjp, returnValue);
 
+        final Map<String, Object> setItems = getBulkItems(false);
+        final Map<String, Object> addItems = getBulkItems(true);
         for (int i = 0; i < cacheKeys.length; i++) {
             if (advice.getCacheBase().getMethodToCache(pjp, UpdateMultiCache.class).getAnnotation(UpdateMultiCache.class).option().overwriteNoNulls()) {
-                verify(cache).setSilently(eq(cacheKeys[i]), eq(EXPIRATION), eq(expectedValue.get(i)), any(SerializationType.class));
+                assertBulkItem(setItems, cacheKeys[i], expectedValue.get(i));
             } else if (advice.getCacheBase().getMethodToCache(pjp, UpdateMultiCache.class).getAnnotation(UpdateMultiCache.class).option().addNullsToCache()
                     && expectedValue.get(i) instanceof PertinentNegativeNull) {
-                verify(cache).addSilently(eq(cacheKeys[i]), eq(EXPIRATION), eq(expectedValue.get(i)), any(SerializationType.class));
+                assertBulkItem(addItems, cacheKeys[i], expectedValue.get(i));
             } else {
-                verify(cache).setSilently(eq(cacheKeys[i]), eq(EXPIRATION), eq(expectedValue.get(i)), any(SerializationType.class));
+                assertBulkItem(setItems, cacheKeys[i], expectedValue.get(i));
             }
 
         }
@@ -188,6 +197,28 @@ public class UpdateMultiCacheAdvice2Test extends AbstractCacheTest<UpdateMultiCa
 
         verify(cache, never()).setSilently(anyString(), anyInt(), any(), any(SerializationType.class));
         verify(cache, never()).set(anyString(), anyInt(), any(), any(SerializationType.class));
+        verify(cache, never()).setBulkSilently(anyMap(), anyInt(), any(SerializationType.class));
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Map<String, Object> getBulkItems(final boolean add) {
+        final ArgumentCaptor<Map<String, Object>> captor = ArgumentCaptor.forClass((Class) Map.class);
+        if (add) {
+            verify(cache, atLeast(0)).addBulkSilently(captor.capture(), eq(EXPIRATION), any(SerializationType.class));
+        } else {
+            verify(cache, atLeast(0)).setBulkSilently(captor.capture(), eq(EXPIRATION), any(SerializationType.class));
+        }
+
+        final Map<String, Object> items = new HashMap<String, Object>();
+        for (Map<String, Object> bulkItems : captor.getAllValues()) {
+            items.putAll(bulkItems);
+        }
+        return items;
+    }
+
+    private void assertBulkItem(final Map<String, Object> items, final String cacheKey, final Object expected) {
+        assertTrue("Missing item " + cacheKey, items.containsKey(cacheKey));
+        assertEquals(expected, items.get(cacheKey));
     }
 
     @Override
@@ -24,7 +24,9 @@ import static org.junit.Assert.fail;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.lang.RandomStringUtils;
 import org.easymock.EasyMock;
@@ -91,7 +93,7 @@ public class UpdateMultiCacheAdviceTest {
         keys.add("Key2-" + System.currentTimeMillis());
 
         try {
-            cut.updateCache(keys, objs, method, data, null);
+            cut.updateCache(keys, objs, method.toString(), data, null, null);
             fail("Expected Exception.");
         } catch (InvalidAnnotationException ex) {
             assertTrue(ex.getMessage().contains("do not match in size"));
@@ -101,21 +103,22 @@ public class UpdateMultiCacheAdviceTest {
         EasyMock.expect(cache.getName()).andReturn(AnnotationConstants.DEFAULT_CACHE_NAME);
         EasyMock.expect(cache.getAliases()).andReturn(Collections.<String> emptyList()).anyTimes();
         EasyMock.expect(cache.getProperties()).andReturn(new CacheProperties()).anyTimes();
+        final Map<String, Object> items = new HashMap<String, Object>();
         for (final String key : keys) {
             final String value = "ValueFor-" + key;
             objs.add(value);
-            cache.setSilently(key, data.getExpiration(), value, null);
-            EasyMock.expectLastCall();
+            items.put(key, value);
         }
         keys.add("BigFatNull");
         objs.add(null);
-        cache.setSilently(keys.get(2), data.getExpiration(), new PertinentNegativeNull(), null);
+        items.put(keys.get(2), new PertinentNegativeNull());
+        cache.setBulkSilently(items, data.getExpiration(), null);
         EasyMock.expectLastCall();
 
         EasyMock.replay(cache);
 
         cut.getCacheBase().addCache(cache);
-        cut.updateCache(keys, objs, method, data, null);
+        cut.updateCache(keys, objs, method.toString(), data, cut.getCacheBase().getCache(data), null);
 
         EasyMock.verify(cache);
     }
@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static com.google.code.ssm.test.Matcher.any;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.code.ssm.Cache;
+import com.google.code.ssm.PrefixedCacheImpl;
+import com.google.code.ssm.api.format.SerializationType;
+
+/**
+ *
+ * @author Jakub Białek
+ *
+ */
+public class WriteBehindQueueTest {
+
+    private final Cache cache = mock(Cache.class);
+
+    private WriteBehindQueue queue;
+
+    @After
+    public void tearDown() {
+        if (queue != null) {
+            queue.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldStoreValuesInBackground() {
+        queue = new WriteBehindQueue(10, 1);
+
+        queue.set(cache, "key1", 10, "value1", SerializationType.JSON);
+
+        verify(cache, timeout(1000)).setSilently("key1", 10, "value1", SerializationType.JSON);
+        assertEquals(0, queue.getDroppedWrites());
+    }
+
+    @Test
+    public void shouldStoreQueuedValuesInBulk() throws InterruptedException {
+        queue = new WriteBehindQueue(10, 1);
+        final CountDownLatch release = blockWorker();
+
+        final Map<String, Object> items = new LinkedHashMap<String, Object>();
+        items.put("key1", "value1");
+        items.put("key2", "value2");
+        queue.setBulk(cache, items, 10, null);
+        queue.setBulk(cache, new LinkedHashMap<String, Object>(items), 10, null);
+        queue.addBulk(cache, new LinkedHashMap<String, Object>(items), 10, null);
+        release.countDown();
+
+        verify(cache, timeout(1000)).setBulkSilently(items, 10, null);
+        verify(cache, timeout(1000)).addBulkSilently(items, 10, null);
+        assertEquals(2, queue.getCoalescedWrites());
+    }
+
+    @Test
+    public void shouldCoalesceAndDropWrites() throws InterruptedException {
+        queue = new WriteBehindQueue(1, 1);
+        final CountDownLatch release = blockWorker();
+
+        queue.set(cache, "key1", 10, "value1", null);
+        queue.set(cache, "key1", 10, "value2", null);
+        queue.set(cache, "key2", 10, "value3", null);
+        assertEquals(1, queue.getQueueSize());
+        assertEquals(1, queue.getCoalescedWrites());
+        assertEquals(1, queue.getDroppedWrites());
+        release.countDown();
+
+        verify(cache, timeout(1000)).setSilently("key1", 10, "value2", null);
+        verify(cache, never()).setSilently("key1", 10, "value1", null);
+        verify(cache, never()).setSilently(eq("key2"), anyInt(), any(), any(SerializationType.class));
+    }
+
+    @Test
+    public void shouldNotCoalesceAddWithSet() throws InterruptedException {
+        queue = new WriteBehindQueue(10, 1);
+        final CountDownLatch release = blockWorker();
+
+        queue.set(cache, "key1", 10, "value1", null);
+        queue.addBulk(cache, Collections.singletonMap("key1", "value2"), 10, null);
+        assertEquals(2, queue.getQueueSize());
+        assertEquals(0, queue.getCoalescedWrites());
+        release.countDown();
+
+        verify(cache, timeout(1000)).setSilently("key1", 10, "value1", null);
+        verify(cache, timeout(1000)).addSilently("key1", 10, "value2", null);
+    }
+
+    @Test
+    public void shouldCoalesceWritesThroughDifferentPrefixedViews() throws InterruptedException {
+        queue = new WriteBehindQueue(10, 1);
+        final CountDownLatch release = blockWorker();
+
+        queue.set(new PrefixedCacheImpl(cache, "users", ":"), "key1", 10, "value1", null);
+        queue.set(new PrefixedCacheImpl(cache, "users", ":"), "key1", 10, "value2", null);
+        assertEquals(1, queue.getQueueSize());
+        assertEquals(1, queue.getCoalescedWrites());
+        release.countDown();
+
+        verify(cache, timeout(1000)).setSilently("users:key1", 10, "value2", null);
+        verify(cache, never()).setSilently("users:key1", 10, "value1", null);
+    }
+
+    @Test
+    public void shouldKeepOrderOfWritesToSameKeyWithManyWorkers() throws InterruptedException {
+        queue = new WriteBehindQueue(10, 4);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            started.countDown();
+            release.await(1, TimeUnit.SECONDS);
+            return null;
+        }).when(cache).setSilently("key1", 10, "value1", null);
+
+        queue.set(cache, "key1", 10, "value1", null);
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        queue.set(cache, "key1", 10, "value2", null);
+
+        // other workers are idle but the newer value must wait until the older one is stored
+        verify(cache, after(200).never()).setSilently("key1", 10, "value2", null);
+        release.countDown();
+        verify(cache, timeout(1000)).setSilently("key1", 10, "value2", null);
+    }
+
+    @Test
+    public void shouldCancelPendingWrites() throws InterruptedException {
+        queue = new WriteBehindQueue(10, 1);
+        final CountDownLatch release = blockWorker();
+
+        queue.set(new PrefixedCacheImpl(cache, "users", ":"), "key1", 10, "value1", null);
+        queue.addBulk(cache, Collections.singletonMap("users:key1", "value2"), 10, null);
+        queue.set(cache, "key2", 10, "value3", null);
+        final Thread cancelling = new Thread(() -> queue.cancel(new PrefixedCacheImpl(cache, "users", ":"), "key1"));
+        cancelling.start();
+
+        // the worker is still storing another batch
+        cancelling.join(100);
+        assertTrue(cancelling.isAlive());
+        release.countDown();
+        cancelling.join(1000);
+
+        verify(cache, timeout(1000)).setSilently("key2", 10, "value3", null);
+        verify(cache, never()).setSilently(eq("users:key1"), anyInt(), any(), any(SerializationType.class));
+        verify(cache, never()).addSilently(eq("users:key1"), anyInt(), any(), any(SerializationType.class));
+    }
+
+    @Test
+    public void shouldWaitForWriteInProgressWhenCancelling() throws InterruptedException {
+        queue = new WriteBehindQueue(10, 1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch stored = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            started.countDown();
+            Thread.sleep(200);
+            stored.countDown();
+            return null;
+        }).when(cache).setSilently("key1", 10, "value1", null);
+
+        queue.set(cache, "key1", 10, "value1", null);
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        queue.cancel(cache, Collections.singletonList("key1"));
+
+        assertEquals(0, stored.getCount());
+    }
+
+    @Test
+    public void shouldDropWritesAfterShutdown() {
+        queue = new WriteBehindQueue(10, 1);
+        queue.shutdown();
+
+        queue.set(cache, "key1", 10, "value1", null);
+
+        assertEquals(1, queue.getDroppedWrites());
+        verify(cache, never()).setSilently(eq("key1"), anyInt(), any(), any(SerializationType.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNonPositiveCapacity() {
+        new WriteBehindQueue(0, 1);
+    }
+
+    // occupies the only worker until returned latch is released
+    private CountDownLatch blockWorker() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            started.countDown();
+            release.await(1, TimeUnit.SECONDS);
+            return null;
+        }).when(cache).setSilently("blocking", 10, "blocking", null);
+
+        queue.set(cache, "blocking", 10, "blocking", null);
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        return release;
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop.metrics;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.Test;
+
+import com.google.code.ssm.api.ReadThroughMultiCache;
+import com.google.code.ssm.api.ReadThroughSingleCache;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class MicrometerAdviceMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final MicrometerAdviceMetrics metrics = new MicrometerAdviceMetrics(registry, Tags.of("app", "test"));
+
+    @Test
+    public void shouldCountHitsAndMissesTaggedByCacheNamespaceAndAnnotation() {
+        final AdviceRecorder recorder = metrics.createRecorder("users", "user", ReadThroughSingleCache.class);
+
+        recorder.recordHit(TimeUnit.MILLISECONDS.toNanos(1));
+        recorder.recordHit(TimeUnit.MILLISECONDS.toNanos(1));
+        recorder.recordNegativeHit(TimeUnit.MILLISECONDS.toNanos(1));
+        recorder.recordMiss(TimeUnit.MILLISECONDS.toNanos(1));
+        recorder.recordMethod(TimeUnit.MILLISECONDS.toNanos(20));
+        recorder.recordWrite(TimeUnit.MILLISECONDS.toNanos(2));
+        recorder.recordError();
+
+        assertEquals(2, count("hit"), 0);
+        assertEquals(1, count("negative_hit"), 0);
+        assertEquals(1, count("miss"), 0);
+        assertEquals(4, registry.get("ssm.advice.cache").tag("operation", "read").timer().count());
+        assertEquals(20, registry.get("ssm.advice.method").tag("app", "test").timer().totalTime(TimeUnit.MILLISECONDS), 0);
+        assertEquals(1, registry.get("ssm.advice.cache").tag("operation", "write").timer().count());
+        assertEquals(1, registry.get("ssm.advice.errors").tag("annotation", "ReadThroughSingleCache").counter().count(), 0);
+    }
+
+    @Test
+    public void shouldRecordBulkHitRatio() {
+        final AdviceRecorder recorder = metrics.createRecorder("users", null, ReadThroughMultiCache.class);
+
+        recorder.recordBulkGet(4, 2, 1, TimeUnit.MILLISECONDS.toNanos(1));
+        recorder.recordBulkGet(2, 0, 0, TimeUnit.MILLISECONDS.toNanos(1));
+
+        assertEquals(2, registry.get("ssm.advice.gets").tag("result", "hit").counter().count(), 0);
+        assertEquals(1, registry.get("ssm.advice.gets").tag("result", "negative_hit").counter().count(), 0);
+        assertEquals(3, registry.get("ssm.advice.gets").tag("result", "miss").counter().count(), 0);
+        assertEquals(0.75, registry.get("ssm.advice.bulk.hit.ratio").tag("namespace", MicrometerAdviceMetrics.NO_NAMESPACE).summary()
+                .max(), 0.0001);
+        assertEquals(2, registry.get("ssm.advice.bulk.hit.ratio").summary().count());
+    }
+
+    private double count(final String result) {
+        return registry.get("ssm.advice.gets").tags("cache", "users", "namespace", "user", "annotation", "ReadThroughSingleCache")
+                .tag("result", result).counter().count();
+    }
+
+}
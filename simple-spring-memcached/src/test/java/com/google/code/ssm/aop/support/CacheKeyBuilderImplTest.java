@@ -1,9 +1,11 @@
 package com.google.code.ssm.aop.support;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.security.InvalidParameterException;
+import java.util.Arrays;
 
 import org.apache.commons.lang.RandomStringUtils;
 import org.junit.BeforeClass;
@@ -55,5 +57,31 @@ public class CacheKeyBuilderImplTest {
         assertTrue(result.indexOf(objectId) != -1);
         assertTrue(result.indexOf(namespace) != -1);
     }
-    
+
+    @Test
+    public void shouldAddNamespaceVersionToKeys() throws Exception {
+        final CacheKeyBuilderImpl versionedKeyBuilder = new CacheKeyBuilderImpl();
+        versionedKeyBuilder.setNamespaceVersionStore(new NamespaceVersionStore() {
+
+            @Override
+            public long getVersion(final String namespace) {
+                return 7;
+            }
+
+            @Override
+            public long incrementVersion(final String namespace) {
+                return 8;
+            }
+
+        });
+
+        AnnotationData data = new AnnotationData();
+        data.setAssignedKey("id");
+        data.setNamespace("ns");
+
+        assertEquals("ns@7:id", versionedKeyBuilder.getAssignCacheKey(data));
+        assertEquals("ns@7:1", versionedKeyBuilder.getCacheKey(1, "ns"));
+        assertEquals(Arrays.asList("ns@7:1", "ns@7:2"), versionedKeyBuilder.getCacheKeys(Arrays.<Object> asList(1, 2), "ns"));
+    }
+
 }
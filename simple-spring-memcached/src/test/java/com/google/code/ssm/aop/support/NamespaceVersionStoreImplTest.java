@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+
+import org.junit.Test;
+
+import com.google.code.ssm.Cache;
+import com.google.code.ssm.providers.CacheException;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class NamespaceVersionStoreImplTest {
+
+    private static final String VERSION_KEY = NamespaceVersionStoreImpl.VERSION_KEY_PREFIX + "ns";
+
+    private final Cache cache = mock(Cache.class);
+
+    @Test
+    public void shouldCacheVersionLocally() throws Exception {
+        when(cache.incr(eq(VERSION_KEY), eq(0), anyLong())).thenReturn(5L);
+        final NamespaceVersionStoreImpl store = new NamespaceVersionStoreImpl(cache, 60000);
+
+        assertEquals(5, store.getVersion("ns"));
+        assertEquals(5, store.getVersion("ns"));
+
+        verify(cache, times(1)).incr(eq(VERSION_KEY), eq(0), anyLong());
+    }
+
+    @Test
+    public void shouldRefreshVersion() throws Exception {
+        when(cache.incr(eq(VERSION_KEY), eq(0), anyLong())).thenReturn(5L, 6L);
+        final NamespaceVersionStoreImpl store = new NamespaceVersionStoreImpl(cache, 0);
+
+        assertEquals(5, store.getVersion("ns"));
+        assertEquals(6, store.getVersion("ns"));
+    }
+
+    @Test
+    public void shouldUseIncrementedVersion() throws Exception {
+        when(cache.incr(eq(VERSION_KEY), eq(1), anyLong())).thenReturn(6L);
+        final NamespaceVersionStoreImpl store = new NamespaceVersionStoreImpl(cache, 60000);
+
+        assertEquals(6, store.incrementVersion("ns"));
+        assertEquals(6, store.getVersion("ns"));
+
+        verify(cache, times(0)).incr(eq(VERSION_KEY), eq(0), anyLong());
+    }
+
+    @Test
+    public void shouldNotReplaceIncrementedVersionWithStaleRead() throws Exception {
+        final NamespaceVersionStoreImpl store = new NamespaceVersionStoreImpl(cache, 60000);
+        when(cache.incr(eq(VERSION_KEY), eq(1), anyLong())).thenReturn(6L);
+        // version is incremented concurrently after the counter has been read
+        when(cache.incr(eq(VERSION_KEY), eq(0), anyLong())).thenAnswer(invocation -> {
+            store.incrementVersion("ns");
+            return 5L;
+        });
+
+        assertEquals(6, store.getVersion("ns"));
+        assertEquals(6, store.getVersion("ns"));
+
+        verify(cache, times(1)).incr(eq(VERSION_KEY), eq(0), anyLong());
+    }
+
+    @Test
+    public void shouldUsePreviousVersionIfRefreshFails() throws Exception {
+        when(cache.incr(eq(VERSION_KEY), eq(0), anyLong())).thenReturn(5L).thenThrow(new CacheException(new Exception("test")));
+        final NamespaceVersionStoreImpl store = new NamespaceVersionStoreImpl(cache, 0);
+
+        assertEquals(5, store.getVersion("ns"));
+        assertEquals(5, store.getVersion("ns"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldThrowExceptionIfVersionIsUnknown() throws Exception {
+        when(cache.incr(eq(VERSION_KEY), eq(0), anyLong())).thenThrow(new CacheException(new Exception("test")));
+        final NamespaceVersionStoreImpl store = new NamespaceVersionStoreImpl(cache, 60000);
+
+        store.getVersion("ns");
+    }
+
+}
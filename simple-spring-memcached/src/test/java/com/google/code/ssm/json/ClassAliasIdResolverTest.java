@@ -27,6 +27,7 @@ import org.mockito.Mockito;
 
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.google.code.ssm.aop.support.SoftExpiringValue;
 
 /**
  * 
@@ -60,6 +61,19 @@ public class ClassAliasIdResolverTest {
         assertEquals(Object.class.getName(), id);
     }
 
+    @Test
+    public void shouldAcceptUserAliasS() {
+        final HashMap<String, Class<?>> idToClass = new HashMap<String, Class<?>>();
+        idToClass.put("S", ClassAliasIdResolverTest.class);
+        final HashMap<Class<?>, String> classToId = new HashMap<Class<?>, String>();
+        classToId.put(ClassAliasIdResolverTest.class, "S");
+
+        resolver = new ClassAliasIdResolver(baseType, typeFactory, idToClass, classToId);
+
+        assertEquals("S", resolver.idFromValue(new ClassAliasIdResolverTest()));
+        assertEquals(ClassAliasIdResolver.SOFT_EXPIRING_VALUE_ID, resolver.idFromValue(new SoftExpiringValue("value", 0)));
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void invalidAddClassToIdNullClass() {
         resolver.addClassToId(null, "id");
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.providers;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Test;
+import org.mockito.Answers;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class AsyncCacheClientTest {
+
+    private final AsyncCacheClient client = mock(AsyncCacheClient.class, withSettings().defaultAnswer(Answers.CALLS_REAL_METHODS));
+
+    @Test
+    public void shouldStoreItemsConcurrentlyByDefault() throws Exception {
+        final Map<String, Object> items = new LinkedHashMap<String, Object>();
+        items.put("key1", "value1");
+        items.put("key2", "value2");
+        final CompletableFuture<Boolean> pending = new CompletableFuture<Boolean>();
+        when(client.set("key1", 10, "value1")).thenReturn(pending);
+        when(client.set("key2", 10, "value2")).thenReturn(CompletableFuture.completedFuture(true));
+
+        final CompletableFuture<Void> result = client.setBulk(items, 10);
+
+        verify(client).set("key1", 10, "value1");
+        verify(client).set("key2", 10, "value2");
+        assertFalse(result.isDone());
+        pending.complete(true);
+        assertTrue(result.isDone());
+    }
+
+    @Test
+    public void shouldDeleteKeysConcurrentlyByDefault() throws Exception {
+        when(client.delete("key1")).thenReturn(CompletableFuture.completedFuture(true));
+        when(client.delete("key2")).thenReturn(CompletableFuture.completedFuture(false));
+
+        client.delete(Arrays.asList("key1", "key2")).get();
+
+        verify(client).delete("key1");
+        verify(client).delete("key2");
+    }
+
+}
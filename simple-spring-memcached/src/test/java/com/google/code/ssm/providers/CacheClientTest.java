@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.providers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Test;
+import org.mockito.Answers;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class CacheClientTest {
+
+    private final CacheClient client = mock(CacheClient.class, withSettings().defaultAnswer(Answers.CALLS_REAL_METHODS));
+
+    private final CacheTranscoder transcoder = mock(CacheTranscoder.class);
+
+    @Test
+    public void shouldStoreItemsOneByOneByDefault() throws Exception {
+        final Map<String, Object> items = new LinkedHashMap<String, Object>();
+        items.put("key1", "value1");
+        items.put("key2", "value2");
+
+        client.setBulk(items, 10);
+        client.setBulk(items, 20, transcoder);
+
+        verify(client).set("key1", 10, "value1");
+        verify(client).set("key2", 10, "value2");
+        verify(client).set("key1", 20, "value1", transcoder);
+        verify(client).set("key2", 20, "value2", transcoder);
+    }
+
+    @Test
+    public void shouldAddItemsOneByOneByDefault() throws Exception {
+        final Map<String, Object> items = new LinkedHashMap<String, Object>();
+        items.put("key1", "value1");
+        items.put("key2", "value2");
+
+        client.addBulk(items, 10);
+        client.addBulk(items, 20, transcoder);
+
+        verify(client).add("key1", 10, "value1");
+        verify(client).add("key2", 10, "value2");
+        verify(client).add("key1", 20, "value1", transcoder);
+        verify(client).add("key2", 20, "value2", transcoder);
+    }
+
+    @Test
+    public void shouldExecuteAsyncOperationsSynchronouslyByDefault() throws Exception {
+        when(client.get("key")).thenReturn("value");
+        when(client.delete("key")).thenThrow(new TimeoutException());
+
+        final CompletableFuture<Object> get = client.getAsyncClient().get("key");
+        final CompletableFuture<Boolean> delete = client.getAsyncClient().delete("key");
+
+        assertEquals("value", get.getNow(null));
+        assertTrue(delete.isCompletedExceptionally());
+        try {
+            delete.join();
+            fail("Exception expected");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+    }
+
+}
@@ -18,6 +18,8 @@ package com.google.code.ssm.providers;
 
 import static org.junit.Assert.*;
 
+import java.nio.ByteBuffer;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -50,4 +52,21 @@ public class CachedObjectImplTest {
         assertEquals(flags, cachedObjectImpl.getFlags());
     }
 
+    @Test
+    public void shouldExposePartOfArrayWithoutCopying() {
+        final CachedObjectImpl view = new CachedObjectImpl(flags, data, 2, 3);
+
+        assertSame(data, view.getArray());
+        assertEquals(2, view.getOffset());
+        assertEquals(3, view.getLength());
+        assertArrayEquals(new byte[] { 1, 1, 0 }, view.getData());
+        assertEquals(ByteBuffer.wrap(new byte[] { 1, 1, 0 }), view.getBuffer());
+        assertSame(data, new CachedObjectImpl(flags, data, 0, data.length).getData());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldRejectViewOutsideOfArray() {
+        new CachedObjectImpl(flags, data, 4, 3);
+    }
+
 }
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.providers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class PooledCacheClientTest {
+
+    @Mock
+    private CacheClient client1;
+
+    @Mock
+    private CacheClient client2;
+
+    @Mock
+    private AsyncCacheClient asyncClient1;
+
+    @Mock
+    private AsyncCacheClient asyncClient2;
+
+    private PooledCacheClient pool;
+
+    private String key1;
+
+    private String key2;
+
+    @Before
+    public void setUp() {
+        pool = new PooledCacheClient(Arrays.asList(client1, client2), 100);
+
+        // find two keys handled by different clients
+        key1 = "key0";
+        int i = 1;
+        do {
+            key2 = "key" + i++;
+        } while (pool.client(key1) == pool.client(key2));
+    }
+
+    @Test
+    public void shouldAlwaysUseTheSameClientForKey() throws Exception {
+        final CacheClient client = pool.client(key1);
+        when(client.get(key1)).thenReturn("value");
+
+        for (int i = 0; i < 10; i++) {
+            assertSame(client, pool.client(key1));
+            assertEquals("value", pool.get(key1));
+        }
+        assertNotSame(client, pool.client(key2));
+    }
+
+    @Test
+    public void shouldSplitBulkGetAndMergeResults() throws Exception {
+        when(pool.client(key1).getAsyncClient()).thenReturn(asyncClient1);
+        when(pool.client(key2).getAsyncClient()).thenReturn(asyncClient2);
+        when(asyncClient1.getBulk(Collections.singletonList(key1))).thenReturn(
+                CompletableFuture.completedFuture(Collections.<String, Object> singletonMap(key1, "value1")));
+        when(asyncClient2.getBulk(Collections.singletonList(key2))).thenReturn(
+                CompletableFuture.completedFuture(Collections.<String, Object> singletonMap(key2, "value2")));
+
+        final Map<String, Object> expected = new HashMap<String, Object>();
+        expected.put(key1, "value1");
+        expected.put(key2, "value2");
+        assertEquals(expected, pool.getBulk(Arrays.asList(key1, key2)));
+        assertEquals(expected, pool.getAsyncClient().getBulk(Arrays.asList(key1, key2)).get());
+    }
+
+    @Test
+    public void shouldUseSingleClientIfAllKeysBelongToIt() throws Exception {
+        final List<String> keys = Collections.singletonList(key1);
+        when(pool.client(key1).getBulk(keys)).thenReturn(Collections.<String, Object> singletonMap(key1, "value1"));
+
+        assertEquals(Collections.singletonMap(key1, "value1"), pool.getBulk(keys));
+    }
+
+    @Test(expected = TimeoutException.class)
+    public void shouldTimeoutBulkGet() throws Exception {
+        when(pool.client(key1).getAsyncClient()).thenReturn(asyncClient1);
+        when(pool.client(key2).getAsyncClient()).thenReturn(asyncClient2);
+        when(asyncClient1.getBulk(Collections.singletonList(key1))).thenReturn(new CompletableFuture<Map<String, Object>>());
+        when(asyncClient2.getBulk(Collections.singletonList(key2))).thenReturn(
+                CompletableFuture.completedFuture(Collections.<String, Object> emptyMap()));
+
+        pool.getBulk(Arrays.asList(key1, key2));
+    }
+
+    @Test
+    public void shouldSendBulkWritesToAllClientsConcurrently() throws Exception {
+        when(pool.client(key1).getAsyncClient()).thenReturn(asyncClient1);
+        when(pool.client(key2).getAsyncClient()).thenReturn(asyncClient2);
+        final Map<String, Object> items = new LinkedHashMap<String, Object>();
+        items.put(key1, "value1");
+        items.put(key2, "value2");
+        when(asyncClient1.setBulk(Collections.singletonMap(key1, "value1"), 10)).thenReturn(CompletableFuture.<Void> completedFuture(null));
+        when(asyncClient2.setBulk(Collections.singletonMap(key2, "value2"), 10)).thenReturn(CompletableFuture.<Void> completedFuture(null));
+        when(asyncClient1.delete(Collections.singletonList(key1))).thenReturn(CompletableFuture.<Void> completedFuture(null));
+        when(asyncClient2.delete(Collections.singletonList(key2))).thenReturn(CompletableFuture.<Void> completedFuture(null));
+
+        pool.setBulk(items, 10);
+        pool.delete(new ArrayList<String>(items.keySet()));
+
+        verify(asyncClient1).setBulk(Collections.singletonMap(key1, "value1"), 10);
+        verify(asyncClient2).setBulk(Collections.singletonMap(key2, "value2"), 10);
+        verify(asyncClient1).delete(Collections.singletonList(key1));
+        verify(asyncClient2).delete(Collections.singletonList(key2));
+    }
+
+    @Test
+    public void shouldUseSingleClientForBulkWriteIfAllKeysBelongToIt() throws Exception {
+        final Map<String, Object> items = Collections.<String, Object> singletonMap(key1, "value1");
+
+        pool.addBulk(items, 10);
+
+        verify(pool.client(key1)).addBulk(items, 10);
+    }
+
+    @Test(expected = TimeoutException.class)
+    public void shouldTimeoutBulkWrite() throws Exception {
+        when(pool.client(key1).getAsyncClient()).thenReturn(asyncClient1);
+        when(pool.client(key2).getAsyncClient()).thenReturn(asyncClient2);
+        final CompletableFuture<Void> pending = new CompletableFuture<Void>();
+        when(asyncClient1.addBulk(Collections.singletonMap(key1, "value1"), 10)).thenReturn(pending);
+        when(asyncClient2.addBulk(Collections.singletonMap(key2, "value2"), 10)).thenReturn(CompletableFuture.<Void> completedFuture(null));
+        final Map<String, Object> items = new LinkedHashMap<String, Object>();
+        items.put(key1, "value1");
+        items.put(key2, "value2");
+
+        try {
+            pool.addBulk(items, 10);
+        } finally {
+            assertTrue(pending.isCancelled());
+        }
+    }
+
+    @Test
+    public void shouldShutdownAllClients() {
+        pool.shutdown();
+
+        verify(client1).shutdown();
+        verify(client2).shutdown();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectEmptyPool() {
+        new PooledCacheClient(Collections.<CacheClient> emptyList(), 100);
+    }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.providers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.google.code.ssm.transcoders.JavaTranscoder;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class TranscoderAdapterRegistryTest {
+
+    private final AtomicInteger created = new AtomicInteger();
+
+    private final TranscoderAdapterRegistry<Object> registry = new TranscoderAdapterRegistry<Object>(transcoder -> {
+        created.incrementAndGet();
+        return new Object();
+    });
+
+    @Test
+    public void shouldCreateAdapterOnlyOnce() {
+        final CacheTranscoder transcoder = new JavaTranscoder();
+
+        final Object adapter = registry.register(transcoder);
+
+        assertSame(adapter, registry.get(transcoder));
+        assertSame(adapter, registry.register(transcoder));
+        assertEquals(1, created.get());
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    public void shouldMatchTranscodersByIdentity() {
+        // both transcoders are equal but they can be configured differently later
+        final CacheTranscoder transcoder1 = new JavaTranscoder();
+        final CacheTranscoder transcoder2 = new JavaTranscoder();
+        assertEquals(transcoder1, transcoder2);
+
+        assertNotSame(registry.get(transcoder1), registry.get(transcoder2));
+        assertEquals(2, created.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNullFactory() {
+        new TranscoderAdapterRegistry<Object>(null);
+    }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.providers.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.ObjectName;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.Test;
+
+import com.google.code.ssm.providers.metrics.CacheClientMetrics.Operation;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class CacheClientMetricsTest {
+
+    private final CacheClientMetrics metrics = new CacheClientMetrics();
+
+    @Test
+    public void shouldDetectHotServer() {
+        final InetSocketAddress server1 = new InetSocketAddress("localhost", 11211);
+        final InetSocketAddress server2 = new InetSocketAddress("localhost", 11212);
+        final InetSocketAddress server3 = new InetSocketAddress("localhost", 11213);
+        for (int i = 0; i < 200; i++) {
+            metrics.recordLatency(Operation.GET, server1, TimeUnit.MICROSECONDS.toNanos(100), false);
+            metrics.recordLatency(Operation.SET, server2, TimeUnit.MICROSECONDS.toNanos(120), false);
+            metrics.recordLatency(Operation.GET, server3, TimeUnit.MILLISECONDS.toNanos(5), false);
+            metrics.recordLatency(Operation.GET_BULK, null, TimeUnit.MILLISECONDS.toNanos(50), false);
+        }
+
+        assertEquals(Collections.singletonList(server3.toString()), metrics.getHotServers());
+
+        metrics.reset();
+        assertTrue(metrics.getHotServers().isEmpty());
+    }
+
+    @Test
+    public void shouldForgetLatenciesOutsideOfWindow() throws InterruptedException {
+        final CacheClientMetrics windowed = new CacheClientMetrics(1);
+        final InetSocketAddress server1 = new InetSocketAddress("localhost", 11211);
+        final InetSocketAddress server2 = new InetSocketAddress("localhost", 11212);
+        final InetSocketAddress server3 = new InetSocketAddress("localhost", 11213);
+        record(windowed, server1, server2, server3, 5000);
+        assertEquals(Collections.singletonList(server3.toString()), windowed.getHotServers());
+
+        // latencies move to the previous window and then are dropped
+        Thread.sleep(1100);
+        assertEquals(Collections.singletonList(server3.toString()), windowed.getHotServers());
+        Thread.sleep(1100);
+        record(windowed, server1, server2, server3, 100);
+
+        assertTrue(windowed.getHotServers().isEmpty());
+        assertEquals(1200, windowed.getLatencies().stream().mapToLong(LatencyStatistics::getCount).sum());
+    }
+
+    @Test
+    public void shouldRegisterMBean() throws Exception {
+        final ObjectName name = new ObjectName("com.google.code.ssm:type=CacheClientMetrics,name=\"test\"");
+
+        metrics.registerMBean("test");
+        try {
+            metrics.recordLatency(Operation.GET, null, 1000, false);
+            assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+            ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Latencies");
+        } finally {
+            metrics.unregisterMBean();
+        }
+
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+
+    @Test
+    public void shouldPublishToMicrometer() {
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        metrics.recordLatency(Operation.GET, null, 1000, false);
+
+        new MicrometerCacheClientMetrics(metrics, Collections.emptyList()).bindTo(registry);
+        metrics.recordLatency(Operation.SET, null, 1000, true);
+
+        assertEquals(1, registry.get("ssm.client.operations").tag("operation", "get").functionCounter().count(), 0);
+        assertEquals(1, registry.get("ssm.client.errors").tag("operation", "set").functionCounter().count(), 0);
+        assertEquals(3, registry.get("ssm.client.latency").tag("operation", "set").gauges().size());
+    }
+
+    @Test
+    public void shouldNotResetPublishedCounters() {
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new MicrometerCacheClientMetrics(metrics, Collections.emptyList()).bindTo(registry);
+        metrics.recordLatency(Operation.SET, null, 1000, true);
+
+        metrics.reset();
+
+        assertEquals(1, registry.get("ssm.client.operations").tag("operation", "set").functionCounter().count(), 0);
+        assertEquals(1, registry.get("ssm.client.errors").tag("operation", "set").functionCounter().count(), 0);
+        assertEquals(0, registry.get("ssm.client.latency").tag("operation", "set").tag("quantile", "0.99").gauge().value(), 0);
+    }
+
+    private static void record(final CacheClientMetrics metrics, final InetSocketAddress server1, final InetSocketAddress server2,
+            final InetSocketAddress server3, final long server3Micros) {
+        for (int i = 0; i < 200; i++) {
+            metrics.recordLatency(Operation.GET, server1, TimeUnit.MICROSECONDS.toNanos(100), false);
+            metrics.recordLatency(Operation.GET, server2, TimeUnit.MICROSECONDS.toNanos(100), false);
+            metrics.recordLatency(Operation.GET, server3, TimeUnit.MICROSECONDS.toNanos(server3Micros), false);
+        }
+    }
+
+}
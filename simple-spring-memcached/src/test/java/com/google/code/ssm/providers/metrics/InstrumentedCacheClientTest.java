@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.providers.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static com.google.code.ssm.test.Matcher.any;
+
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.google.code.ssm.providers.AsyncCacheClient;
+import com.google.code.ssm.providers.CacheClient;
+import com.google.code.ssm.providers.CacheTranscoder;
+import com.google.code.ssm.providers.CachedObject;
+import com.google.code.ssm.providers.CachedObjectImpl;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class InstrumentedCacheClientTest {
+
+    private final InetSocketAddress server = new InetSocketAddress("localhost", 11211);
+
+    @Mock
+    private CacheClient delegate;
+
+    @Mock
+    private AsyncCacheClient asyncDelegate;
+
+    @Mock
+    private CacheTranscoder transcoder;
+
+    private CacheClientMetrics metrics;
+
+    private InstrumentedCacheClient client;
+
+    @Before
+    public void setUp() {
+        metrics = new CacheClientMetrics();
+        client = new InstrumentedCacheClient(delegate, metrics);
+    }
+
+    @Test
+    public void shouldRecordLatencyPerServer() throws Exception {
+        when(delegate.getServer("key")).thenReturn(server);
+        when(delegate.get("key")).thenReturn("value");
+
+        assertEquals("value", client.get("key"));
+        client.getBulk(Arrays.asList("key1", "key2"));
+
+        final List<LatencyStatistics> latencies = metrics.getLatencies();
+        assertEquals(2, latencies.size());
+        final LatencyStatistics get = find(latencies, "GET");
+        assertEquals(server.toString(), get.getServer());
+        assertEquals(1, get.getCount());
+        assertEquals(0, get.getErrors());
+        assertEquals(LatencySeries.ALL_SERVERS, find(latencies, "GET_BULK").getServer());
+        assertEquals(3, metrics.getKeySizes().getCount());
+    }
+
+    @Test
+    public void shouldRecordFailedOperations() throws Exception {
+        when(delegate.set("key", 10, "value")).thenThrow(new TimeoutException());
+
+        try {
+            client.set("key", 10, "value");
+            fail("Expected TimeoutException");
+        } catch (TimeoutException e) {
+            // expected
+        }
+
+        assertEquals(1, find(metrics.getLatencies(), "SET").getErrors());
+    }
+
+    @Test
+    public void shouldRecordSizeOfEncodedValues() throws Exception {
+        when(transcoder.encode("value")).thenReturn(new CachedObjectImpl(0, new byte[10]));
+        final ArgumentCaptor<CacheTranscoder> captor = ArgumentCaptor.forClass(CacheTranscoder.class);
+
+        client.set("key", 10, "value", transcoder);
+        client.set("key", 10, "value", transcoder);
+
+        verify(delegate, times(2)).set(eq("key"), eq(10), eq("value"), captor.capture());
+        final CacheTranscoder measuring = captor.getValue();
+        assertNotSame(transcoder, measuring);
+        // the same wrapper is used for the same transcoder
+        assertSame(captor.getAllValues().get(0), measuring);
+
+        measuring.encode("value");
+        assertEquals(1, metrics.getValueSizes().getCount());
+        assertEquals(10, metrics.getValueSizes().getMax());
+    }
+
+    @Test
+    public void shouldRecordSerializationTime() throws Exception {
+        when(transcoder.encode("value")).thenReturn(new CachedObjectImpl(0, new byte[10]));
+        final ArgumentCaptor<CacheTranscoder> captor = ArgumentCaptor.forClass(CacheTranscoder.class);
+        client.set("key", 10, "value", transcoder);
+        verify(delegate).set(eq("key"), eq(10), eq("value"), captor.capture());
+
+        final CachedObject data = captor.getValue().encode("value");
+        captor.getValue().decode(data);
+
+        assertEquals(1, find(metrics.getLatencies(), "ENCODE").getCount());
+        assertEquals(1, find(metrics.getLatencies(), "DECODE").getCount());
+        assertEquals(LatencySeries.ALL_SERVERS, find(metrics.getLatencies(), "ENCODE").getServer());
+    }
+
+    @Test
+    public void shouldRecordAsyncOperationOnCompletion() throws Exception {
+        final CompletableFuture<Object> future = new CompletableFuture<Object>();
+        when(delegate.getAsyncClient()).thenReturn(asyncDelegate);
+        when(asyncDelegate.get("key")).thenReturn(future);
+
+        assertSame(future, client.getAsyncClient().get("key"));
+        assertEquals(0, metrics.getLatencies().size());
+
+        future.complete("value");
+        assertEquals(1, find(metrics.getLatencies(), "GET").getCount());
+    }
+
+    @Test
+    public void shouldRegisterMeasuringTranscoder() {
+        client.registerTranscoder(transcoder);
+
+        verify(delegate).registerTranscoder(any(CacheTranscoder.class));
+    }
+
+    private LatencyStatistics find(final List<LatencyStatistics> latencies, final String operation) {
+        for (LatencyStatistics latency : latencies) {
+            if (latency.getOperation().equals(operation)) {
+                return latency;
+            }
+        }
+
+        throw new AssertionError("No latencies of " + operation);
+    }
+
+}
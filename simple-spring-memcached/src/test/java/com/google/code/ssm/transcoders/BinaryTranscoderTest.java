@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.transcoders;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import lombok.Data;
+
+import org.junit.Test;
+
+import com.google.code.ssm.aop.support.PertinentNegativeNull;
+import com.google.code.ssm.aop.support.SoftExpiringValue;
+import com.google.code.ssm.mapper.JsonObjectMapper;
+import com.google.code.ssm.providers.CachedObject;
+import com.google.code.ssm.test.Point;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class BinaryTranscoderTest {
+
+    private final BinaryTranscoder transcoder = new BinaryTranscoder();
+
+    @Test
+    public void shouldEncodeAndDecodeSimpleValues() {
+        for (Object value : Arrays.asList(null, "text", "zażółć", 1, -1L, Long.MAX_VALUE, 2.5d, 1.5f, (short) -3, (byte) 7, 'c',
+                true, false, new byte[] { 1, 2 }, TimeUnit.SECONDS, new BigInteger("123456789012345678901234567890"),
+                new BigDecimal("-12.345"), new Date(123456789L), PertinentNegativeNull.NULL)) {
+            final Object decoded = transcoder.decode(transcoder.encode(value));
+            if (value instanceof byte[]) {
+                assertArrayEquals((byte[]) value, (byte[]) decoded);
+            } else {
+                assertEquals(value, decoded);
+            }
+        }
+    }
+
+    @Test
+    public void shouldEncodeAndDecodeObjectGraph() {
+        final Order order = new Order();
+        order.setId(123L);
+        order.setCustomer("customer");
+        order.setPoints(new ArrayList<Point>(Arrays.asList(new Point(1, 2), new Point(3, 4))));
+        order.setAttributes(new HashMap<String, Object>(Collections.singletonMap("key", new SoftExpiringValue(5, 10L, 20L))));
+        order.setValues(new int[] { 1, -2, 3 });
+        order.setTags(new String[] { "a", null, "b" });
+        order.setStatus(Status.SENT);
+
+        final Order decoded = (Order) transcoder.decode(transcoder.encode(order));
+
+        assertEquals(order, decoded);
+    }
+
+    @Test
+    public void shouldReplaceUnmodifiableCollections() {
+        final Map<String, Object> map = new LinkedHashMap<String, Object>();
+        map.put("list", Collections.unmodifiableList(Arrays.asList(1, 2)));
+        map.put("set", Collections.singleton("a"));
+        map.put("sorted", new TreeSet<String>(Arrays.asList("b", "a")));
+        map.put("empty", Collections.emptyMap());
+
+        assertEquals(map, transcoder.decode(transcoder.encode(map)));
+    }
+
+    @Test
+    public void shouldUseJavaSerializationForObjectsWithoutNoArgConstructor() {
+        final Immutable value = new Immutable("value");
+
+        assertEquals(value, transcoder.decode(transcoder.encode(value)));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void shouldNotDecodeNotAllowedClasses() {
+        final CachedObject co = transcoder.encode(new ArrayList<Point>(Arrays.asList(new Point(1, 2))));
+        transcoder.setAllowedClasses(Arrays.asList("java.util.*"));
+
+        transcoder.decode(co);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void shouldNotDeserializeNotAllowedClasses() {
+        final CachedObject co = transcoder.encode(new Immutable("value"));
+        transcoder.setAllowedClasses(Arrays.asList("java.util.*"));
+
+        transcoder.decode(co);
+    }
+
+    @Test
+    public void shouldDecodeAllowedClasses() {
+        final List<Object> value = new ArrayList<Object>(Arrays.asList(new Point(1, 2), new Immutable("value")));
+        final CachedObject co = transcoder.encode(value);
+        transcoder.setAllowedClasses(Arrays.asList("java.util.*", "com.google.code.ssm.test.*", Immutable.class.getName()));
+
+        assertEquals(value, transcoder.decode(co));
+        assertTrue(transcoder.getClassResolver().getMisses() > 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNonSerializableObjectWithoutNoArgConstructor() {
+        transcoder.encode(Collections.singletonList(new Object() {
+        }));
+    }
+
+    @Test
+    public void shouldMatchFieldsByName() {
+        final BinaryTranscoder oldTranscoder = new BinaryTranscoder();
+        oldTranscoder.setClassToId(Collections.<Class<?>, Integer> singletonMap(OrderV1.class, 40));
+        transcoder.setClassToId(Collections.<Class<?>, Integer> singletonMap(OrderV2.class, 40));
+        final OrderV1 order = new OrderV1();
+        order.setId(5);
+        order.setCustomer("customer");
+        order.setRemoved("removed");
+
+        final OrderV2 decoded = (OrderV2) transcoder.decode(oldTranscoder.encode(order));
+
+        // int value is widened to long, removed field is skipped and new field has default value
+        assertEquals(5L, decoded.getId());
+        assertEquals("customer", decoded.getCustomer());
+        assertNull(decoded.getAdded());
+    }
+
+    @Test
+    public void shouldWriteRegisteredClassAsId() {
+        final List<Point> points = new ArrayList<Point>();
+        for (int i = 0; i < 100; i++) {
+            points.add(new Point(i, i));
+        }
+        final int size = transcoder.encode(points).getData().length;
+
+        transcoder.setClassToId(Collections.<Class<?>, Integer> singletonMap(Point.class, BinaryTranscoder.MIN_CLASS_ID));
+        final CachedObject registered = transcoder.encode(points);
+
+        assertEquals(size - Point.class.getName().length() - 1, registered.getData().length);
+        assertEquals(points, transcoder.decode(registered));
+        // much smaller than java serialization
+        assertTrue(registered.getData().length < new JavaTranscoder().serialize(points).length * 0.6);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectReservedId() {
+        transcoder.setClassToId(Collections.<Class<?>, Integer> singletonMap(Point.class, BinaryTranscoder.MIN_CLASS_ID - 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectCyclicGraph() {
+        final List<Object> list = new ArrayList<Object>();
+        list.add(list);
+        transcoder.encode(list);
+    }
+
+    @Test
+    public void shouldEncodeAndDecodeWithCompression() {
+        transcoder.setCompressionCodec(new GzipCompressionCodec());
+        transcoder.setCompressionThreshold(1);
+        final List<String> list = Collections.nCopies(100, "value");
+
+        final CachedObject co = transcoder.encode(list);
+
+        assertTrue((co.getFlags() & Compression.COMPRESSED) != 0);
+        assertEquals(list, transcoder.decode(co));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void shouldNotDecodeJsonData() {
+        transcoder.decode(new JsonTranscoder(new JsonObjectMapper()).encode("value"));
+    }
+
+    public enum Status {
+        NEW, SENT {
+            @Override
+            public String toString() {
+                return "sent";
+            }
+        };
+    }
+
+    @Data
+    public static class Order implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private long id;
+
+        private String customer;
+
+        private List<Point> points;
+
+        private Map<String, Object> attributes;
+
+        private int[] values;
+
+        private String[] tags;
+
+        private Status status;
+
+        private transient String ignored;
+
+    }
+
+    @Data
+    public static class OrderV1 {
+
+        private int id;
+
+        private String customer;
+
+        private String removed;
+
+    }
+
+    @Data
+    public static class OrderV2 {
+
+        private long id;
+
+        private String customer;
+
+        private String added;
+
+    }
+
+    @Data
+    public static class Immutable implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String value;
+
+    }
+
+}
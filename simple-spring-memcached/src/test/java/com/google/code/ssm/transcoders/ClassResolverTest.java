@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.transcoders;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InvalidClassException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.google.code.ssm.test.Point;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class ClassResolverTest {
+
+    private final ClassResolver resolver = new ClassResolver();
+
+    @Test
+    public void shouldAllowAllClassesIfAllowListIsNotSet() {
+        assertTrue(resolver.isAllowed("com.example.Anything"));
+    }
+
+    @Test
+    public void shouldMatchClassesAndPackages() {
+        resolver.setAllowedClasses(Arrays.asList("java.util.ArrayList", "com.google.code.ssm.*", "org.example.**"));
+
+        assertTrue(resolver.isAllowed("java.util.ArrayList"));
+        assertTrue(resolver.isAllowed("[Ljava.util.ArrayList;"));
+        assertTrue(resolver.isAllowed("[[I"));
+        assertTrue(resolver.isAllowed("java.lang.Integer"));
+        assertTrue(resolver.isAllowed("com.google.code.ssm.Cache"));
+        assertTrue(resolver.isAllowed("com.google.code.ssm.aop.support.PertinentNegativeNull"));
+        assertTrue(resolver.isAllowed("org.example.sub.Value"));
+        assertFalse(resolver.isAllowed("java.util.HashMap"));
+        assertFalse(resolver.isAllowed("com.google.code.ssm.test.Point"));
+        assertFalse(resolver.isAllowed("org.examples.Value"));
+        assertFalse(resolver.isAllowed("Value"));
+    }
+
+    @Test
+    public void shouldCacheResolvedClasses() throws Exception {
+        final ClassLoader classLoader = getClass().getClassLoader();
+
+        assertSame(Point.class, resolver.resolve(Point.class.getName(), classLoader));
+        assertSame(Point.class, resolver.resolve(Point.class.getName(), classLoader));
+
+        assertEquals(1, resolver.getHits());
+        assertEquals(1, resolver.getMisses());
+        assertEquals(0.5, resolver.getHitRate(), 0.001);
+    }
+
+    @Test(expected = InvalidClassException.class)
+    public void shouldNotResolveNotAllowedClass() throws Exception {
+        resolver.setAllowedClasses(Arrays.asList("java.util.*"));
+
+        resolver.resolve(Point.class.getName(), getClass().getClassLoader());
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.transcoders;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.zip.Deflater;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+@RunWith(Parameterized.class)
+public class CompressionCodecTest {
+
+    private static final byte[] DICTIONARY = "{\"v\":{\"Point\":{\"x\":,\"y\":}}}".getBytes(StandardCharsets.UTF_8);
+
+    @Parameters
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][] { //
+                { new GzipCompressionCodec() }, //
+                { new DeflateCompressionCodec() }, //
+                { new DeflateCompressionCodec(Deflater.BEST_COMPRESSION, DICTIONARY) }, //
+                { new SnappyCompressionCodec() }, //
+        });
+    }
+
+    private final CompressionCodec codec;
+
+    public CompressionCodecTest(final CompressionCodec codec) {
+        this.codec = codec;
+    }
+
+    @Test
+    public void shouldDecompressCompressedData() throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sb.append("{\"v\":{\"Point\":{\"x\":").append(i).append(",\"y\":").append(i * 2).append("}}}");
+        }
+        final byte[] data = sb.toString().getBytes(StandardCharsets.UTF_8);
+
+        final byte[] compressed = codec.compress(data);
+
+        assertTrue(compressed.length < data.length);
+        assertArrayEquals(data, codec.decompress(compressed));
+    }
+
+    @Test
+    public void shouldDecompressEmptyData() throws IOException {
+        assertArrayEquals(new byte[0], codec.decompress(codec.compress(new byte[0])));
+    }
+
+}
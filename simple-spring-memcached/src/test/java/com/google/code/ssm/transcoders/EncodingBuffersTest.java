@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.transcoders;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class EncodingBuffersTest {
+
+    private final EncodingBuffers buffers = new EncodingBuffers();
+
+    @Test
+    public void shouldReuseReleasedBuffer() {
+        final EncodingBuffers.Buffer buffer = buffers.acquire(String.class);
+        buffer.write(1);
+        buffers.release(buffer, String.class);
+
+        final EncodingBuffers.Buffer reused = buffers.acquire(String.class);
+        assertSame(buffer, reused);
+        assertEquals(0, reused.size());
+    }
+
+    @Test
+    public void shouldNotShareBufferInUse() {
+        final EncodingBuffers.Buffer buffer = buffers.acquire(String.class);
+
+        final EncodingBuffers.Buffer other = buffers.acquire(String.class);
+        assertNotSame(buffer, other);
+
+        buffers.release(other, String.class);
+        buffers.release(buffer, String.class);
+        assertSame(buffer, buffers.acquire(String.class));
+    }
+
+    @Test
+    public void shouldSizeBufferUsingAverageSizeOfClass() {
+        final EncodingBuffers.Buffer buffer = buffers.acquire(String.class);
+        buffer.write(new byte[10000], 0, 10000);
+        buffers.release(buffer, String.class);
+        assertEquals(10000, buffers.getSizeHint(String.class));
+        assertEquals(EncodingBuffers.MIN_CAPACITY, buffers.getSizeHint(Integer.class));
+
+        final EncodingBuffers.Buffer other = buffers.acquire(String.class);
+        final EncodingBuffers.Buffer hinted = buffers.acquire(String.class);
+        assertTrue(hinted.capacity() >= 10000);
+        buffers.release(hinted, String.class);
+        buffers.release(other, String.class);
+    }
+
+    @Test
+    public void shouldNotRetainHugeBuffer() {
+        final EncodingBuffers.Buffer buffer = buffers.acquire(null);
+        buffer.write(new byte[EncodingBuffers.MAX_RETAINED_CAPACITY + 1], 0, EncodingBuffers.MAX_RETAINED_CAPACITY + 1);
+        buffers.release(buffer, null);
+
+        assertNotSame(buffer, buffers.acquire(null));
+    }
+
+}
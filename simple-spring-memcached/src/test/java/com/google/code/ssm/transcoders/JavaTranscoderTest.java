@@ -16,15 +16,23 @@
 
 package com.google.code.ssm.transcoders;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 
+import com.google.code.ssm.aop.support.PertinentNegativeNull;
+import com.google.code.ssm.mapper.JsonObjectMapper;
 import com.google.code.ssm.providers.CachedObject;
+import com.google.code.ssm.providers.CachedObjectImpl;
 import com.google.code.ssm.test.Point;
 
 /**
@@ -51,6 +59,61 @@ public class JavaTranscoderTest {
         assertEquals(p, p2);
     }
 
+    @Test
+    public void shouldStorePrimitivesWithoutSerialization() {
+        transcoder = new JavaTranscoder();
+        transcoder.setPrimitiveEncoding(true);
+        final JsonTranscoder jsonTranscoder = new JsonTranscoder(new JsonObjectMapper());
+
+        for (Object value : Arrays.<Object> asList("value", 1, -2L, true, (short) -3, (byte) 4, 'c', 1.5f, -2.5d,
+                PertinentNegativeNull.NULL)) {
+            final CachedObject co = transcoder.encode(value);
+
+            assertEquals(0, co.getFlags() & 1);
+            assertEquals(PrimitiveFormat.PRIMITIVE, co.getFlags() & PrimitiveFormat.PRIMITIVE);
+            assertEquals(value, transcoder.decode(co));
+            // values in compact form are readable by json transcoder too
+            assertEquals(value, jsonTranscoder.decode(co));
+        }
+        assertEquals(4, transcoder.encode(1).getLength());
+        assertTrue(new JavaTranscoder().encode(1).getLength() > 4 * 10);
+        assertArrayEquals(new byte[] { 1, 2 }, (byte[]) transcoder.decode(transcoder.encode(new byte[] { 1, 2 })));
+    }
+
+    @Test
+    public void shouldDecodeSerializedPrimitives() {
+        final CachedObject co = new JavaTranscoder().encode(1L);
+
+        assertEquals(1, co.getFlags());
+        transcoder = new JavaTranscoder();
+        transcoder.setPrimitiveEncoding(true);
+        assertEquals(1L, transcoder.decode(co));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void shouldNotDecodeValuesOfOtherTranscodersAsPrimitives() {
+        transcoder = new JavaTranscoder();
+        transcoder.setPrimitiveEncoding(true);
+        // integer 1 as stored by spymemcached's SerializingTranscoder, type codes in bits 8-11 differ from ours
+        final CachedObject co = new CachedObjectImpl(2 << 8, new byte[] { 0, 0, 0, 1 });
+
+        transcoder.decode(co);
+    }
+
+    @Test
+    public void shouldNotDeserializeNotAllowedClasses() {
+        transcoder = new JavaTranscoder();
+        final CachedObject co = transcoder.encode(new ArrayList<Point>(Arrays.asList(new Point(40, 50))));
+        transcoder.setAllowedClasses(Arrays.asList("java.util.ArrayList"));
+
+        assertNull(transcoder.decode(co));
+        assertNull(transcoder.getDecodeStatistics().get(ArrayList.class));
+
+        transcoder.setAllowedClasses(Arrays.asList("java.util.ArrayList", "com.google.code.ssm.test.*"));
+        assertEquals(Arrays.asList(new Point(40, 50)), transcoder.decode(co));
+        assertEquals(1, transcoder.getDecodeStatistics().get(ArrayList.class).getCount());
+    }
+
     @Test
     @SuppressWarnings("unchecked")
     public void testtestEncodeAndDecodeWithCompression() {
@@ -71,4 +134,96 @@ public class JavaTranscoderTest {
         assertEquals(list, list2);
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldDecodeDataCompressedByOtherCodec() {
+        final JavaTranscoder gzipTranscoder = new JavaTranscoder();
+        gzipTranscoder.setCompressionThreshold(1);
+        transcoder = new JavaTranscoder();
+        transcoder.setCompressionCodec(new SnappyCompressionCodec());
+        transcoder.setCompressionThreshold(1);
+
+        final List<Point> list = new ArrayList<Point>();
+        for (int i = 0; i < 100; i++) {
+            list.add(new Point(40, 50));
+        }
+
+        assertEquals(list, (List<Point>) transcoder.decode(gzipTranscoder.encode(list)));
+        assertEquals(list, (List<Point>) gzipTranscoder.decode(transcoder.encode(list)));
+    }
+
+    @Test
+    public void shouldStopCompressingIfRatioIsPoor() {
+        final AtomicInteger compressions = new AtomicInteger();
+        transcoder = new JavaTranscoder();
+        transcoder.setCompressionThreshold(1);
+        transcoder.setCompressionCodec(new CompressionCodec() {
+
+            @Override
+            public int getId() {
+                return 8;
+            }
+
+            @Override
+            public byte[] compress(final byte[] in) {
+                compressions.incrementAndGet();
+                return Arrays.copyOf(in, in.length - 1);
+            }
+
+            @Override
+            public byte[] decompress(final byte[] in) {
+                throw new UnsupportedOperationException();
+            }
+        });
+
+        final Point p = new Point(40, 50);
+        assertTrue((transcoder.encode(p).getFlags() & Compression.COMPRESSED) != 0);
+        for (int i = 1; i < Compression.PROBE_INTERVAL; i++) {
+            assertEquals(0, transcoder.encode(p).getFlags() & Compression.COMPRESSED);
+        }
+        assertEquals(1, compressions.get());
+
+        // compression is probed periodically
+        assertTrue((transcoder.encode(p).getFlags() & Compression.COMPRESSED) != 0);
+        assertEquals(2, compressions.get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldStreamDataToCompressorOnlyAboveThreshold() {
+        transcoder = new JavaTranscoder();
+        transcoder.setCompressionThreshold(2048);
+
+        final List<Point> small = Arrays.asList(new Point(40, 50));
+        final CachedObject smallCo = transcoder.encode(small);
+        assertEquals(0, smallCo.getFlags() & Compression.COMPRESSED);
+        assertEquals(small, (List<Point>) transcoder.decode(smallCo));
+
+        final List<Point> large = new ArrayList<Point>();
+        for (int i = 0; i < 1000; i++) {
+            large.add(new Point(i, i));
+        }
+        final CachedObject largeCo = transcoder.encode(large);
+        assertTrue((largeCo.getFlags() & Compression.COMPRESSED) != 0);
+        assertTrue(largeCo.getData().length < new JavaTranscoder().serialize(large).length);
+        assertEquals(large, (List<Point>) transcoder.decode(largeCo));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldUseBufferedCompressionIfCodecDoesNotStream() {
+        transcoder = new JavaTranscoder();
+        transcoder.setCompressionThreshold(1);
+        transcoder.setCompressionCodec(new DeflateCompressionCodec(6, "Point".getBytes()));
+
+        final List<Point> list = new ArrayList<Point>();
+        for (int i = 0; i < 100; i++) {
+            list.add(new Point(40, 50));
+        }
+
+        final CachedObject co = transcoder.encode(list);
+        assertTrue((co.getFlags() & Compression.COMPRESSED) != 0);
+        assertEquals(list, (List<Point>) transcoder.decode(co));
+    }
+
 }
@@ -18,8 +18,11 @@ package com.google.code.ssm.transcoders;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -40,6 +43,8 @@ import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.google.code.ssm.mapper.JsonObjectMapper;
+import com.google.code.ssm.mapper.SmileObjectMapper;
+import com.google.code.ssm.providers.CacheTranscoder;
 import com.google.code.ssm.providers.CachedObject;
 import com.google.code.ssm.test.Point;
 
@@ -67,6 +72,125 @@ public class JsonTranscoderTest {
         assertEquals(p, p2);
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testEncodeAndDecodeWithCompression() {
+        transcoder = new JsonTranscoder(new JsonObjectMapper());
+        transcoder.setCompressionCodec(new DeflateCompressionCodec());
+        transcoder.setCompressionThreshold(1);
+
+        final List<Point> list = new ArrayList<Point>();
+        for (int i = 0; i < 100; i++) {
+            list.add(new Point(i, 50));
+        }
+
+        final CachedObject co = transcoder.encode(list);
+        assertEquals(JsonTranscoder.class.getName(), 8 | Compression.getFlags(new DeflateCompressionCodec()), co.getFlags());
+        assertEquals(list, (List<Point>) transcoder.decode(co));
+        // compressed data are decoded even if compression is disabled
+        assertEquals(list, (List<Point>) new JsonTranscoder(new JsonObjectMapper()).decode(co));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldDecodeTextAndSmileDataDuringMigration() {
+        final List<Point> list = new ArrayList<Point>();
+        for (int i = 0; i < 20; i++) {
+            list.add(new Point(i, 50));
+        }
+        final CachedObject text = new JsonTranscoder(new JsonObjectMapper()).encode(list);
+
+        transcoder = new JsonTranscoder(new JsonObjectMapper());
+        transcoder.setSmileMapper(new SmileObjectMapper());
+        // only reading Smile is enabled
+        assertEquals(8, transcoder.encode(list).getFlags());
+
+        transcoder.setWriteSmile(true);
+        final CachedObject smile = transcoder.encode(list);
+
+        assertEquals(32, smile.getFlags());
+        assertTrue(smile.getData().length < text.getData().length);
+        assertEquals(list, (List<Point>) transcoder.decode(smile));
+        assertEquals(list, (List<Point>) transcoder.decode(text));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void shouldNotDecodeSmileDataWithoutSmileMapper() {
+        final JsonTranscoder smileTranscoder = new JsonTranscoder(new JsonObjectMapper());
+        smileTranscoder.setSmileMapper(new SmileObjectMapper());
+        smileTranscoder.setWriteSmile(true);
+
+        new JsonTranscoder(new JsonObjectMapper()).decode(smileTranscoder.encode(new Point(40, 50)));
+    }
+
+    @Test
+    public void shouldStoreValueOfFinalClassWithoutTypeInfo() {
+        transcoder = new JsonTranscoder(new JsonObjectMapper());
+        transcoder.setTypedEncoding(true);
+        final CacheTranscoder typed = transcoder.forType(String.class);
+        assertSame(typed, transcoder.forType(String.class));
+
+        final CachedObject co = typed.encode("value");
+
+        assertEquals(8 | 64, co.getFlags());
+        assertEquals("\"value\"", new String(co.getData(), StandardCharsets.UTF_8));
+        assertEquals("value", typed.decode(co));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void shouldNotDecodeValueWithoutTypeInfoIfTypeIsUnknown() {
+        transcoder = new JsonTranscoder(new JsonObjectMapper());
+        transcoder.setTypedEncoding(true);
+
+        transcoder.decode(transcoder.forType(String.class).encode("value"));
+    }
+
+    @Test
+    public void shouldStorePolymorphicValueWithTypeInfo() {
+        transcoder = new JsonTranscoder(new JsonObjectMapper());
+        transcoder.setTypedEncoding(true);
+        final CacheTranscoder typed = transcoder.forType(Point.class);
+        final Point p = new Point(40, 50);
+
+        final CachedObject co = typed.encode(p);
+
+        // Point isn't final so type info is required
+        assertEquals(8, co.getFlags());
+        assertEquals(p, typed.decode(co));
+        assertEquals(p, transcoder.decode(co));
+        // values stored before typed encoding was enabled can be still read
+        assertEquals("value", transcoder.forType(String.class).decode(new JsonTranscoder(new JsonObjectMapper()).encode("value")));
+    }
+
+    @Test
+    public void shouldStoreStringWithoutEnvelope() {
+        transcoder = new JsonTranscoder(new JsonObjectMapper());
+        transcoder.setPrimitiveEncoding(true);
+        transcoder.setCompressionCodec(new GzipCompressionCodec());
+        transcoder.setCompressionThreshold(16);
+        final String value = String.join("", Collections.nCopies(100, "value"));
+
+        final CachedObject co = transcoder.encode(value);
+
+        assertEquals(0, co.getFlags() & 8);
+        assertTrue(co.getLength() < value.length());
+        assertEquals(value, transcoder.decode(co));
+        assertEquals(value, new JavaTranscoder().decode(co));
+        assertEquals("value", transcoder.decode(transcoder.encode("value")));
+        assertEquals("value", transcoder.decode(new JsonTranscoder(new JsonObjectMapper()).encode("value")));
+    }
+
+    @Test
+    public void testEncodeAndDecodeWithAfterburner() {
+        final JsonObjectMapper mapper = new JsonObjectMapper();
+        mapper.setAfterburner(true);
+        transcoder = new JsonTranscoder(mapper);
+
+        final Point p = new Point(40, 50);
+
+        assertEquals(p, transcoder.decode(transcoder.encode(p)));
+    }
+
     @Test
     public void testEncodeAndDecodeWithCustomSerializer() {
         JsonObjectMapper mapper = new JsonObjectMapper();
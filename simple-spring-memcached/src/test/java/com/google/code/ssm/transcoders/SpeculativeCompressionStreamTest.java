@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.transcoders;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class SpeculativeCompressionStreamTest {
+
+    private final CompressionCodec codec = new GzipCompressionCodec();
+
+    private final EncodingBuffers.Buffer target = new EncodingBuffers().acquire(null);
+
+    @Test
+    public void shouldNotCompressDataBelowThreshold() throws IOException {
+        final SpeculativeCompressionStream out = new SpeculativeCompressionStream(target, codec, 10);
+
+        out.write(new byte[] { 1, 2, 3 }, 0, 3);
+        out.write(4);
+        out.close();
+
+        assertFalse(out.isCompressed());
+        assertEquals(4, out.getSize());
+        assertArrayEquals(new byte[] { 1, 2, 3, 4 }, target.toByteArray());
+    }
+
+    @Test
+    public void shouldCompressAlreadyWrittenDataWhenThresholdIsExceeded() throws IOException {
+        final SpeculativeCompressionStream out = new SpeculativeCompressionStream(target, codec, 10);
+        final byte[] data = new byte[1000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i % 7);
+        }
+
+        out.write(data, 0, 8);
+        out.write(data[8]);
+        out.write(data, 9, data.length - 9);
+        out.close();
+
+        assertTrue(out.isCompressed());
+        assertEquals(data.length, out.getSize());
+        assertArrayEquals(data, codec.decompress(target.toByteArray()));
+    }
+
+    @Test
+    public void shouldNotCompressWithoutCodec() throws IOException {
+        final SpeculativeCompressionStream out = new SpeculativeCompressionStream(target, null, 10);
+
+        out.write(new byte[100], 0, 100);
+        out.close();
+
+        assertFalse(out.isCompressed());
+        assertEquals(100, target.size());
+    }
+
+}
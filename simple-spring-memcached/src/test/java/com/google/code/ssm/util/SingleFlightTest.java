@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class SingleFlightTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    private final CountDownLatch started = new CountDownLatch(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldReturnResultOfRunningLoader() throws Throwable {
+        final SingleFlight singleFlight = new SingleFlight(5000);
+        final AtomicInteger followerLoads = new AtomicInteger();
+        final Future<String> leader = startBlockingLoader(singleFlight, "key");
+
+        final Future<String> follower = executor.submit(() -> {
+            try {
+                return singleFlight.execute("key", () -> {
+                    followerLoads.incrementAndGet();
+                    return "follower";
+                });
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        // wait until follower starts waiting
+        Thread.sleep(100);
+        release.countDown();
+
+        assertEquals("leader", leader.get(1, TimeUnit.SECONDS));
+        assertEquals("leader", follower.get(1, TimeUnit.SECONDS));
+        assertEquals(0, followerLoads.get());
+        assertEquals(0, singleFlight.getInFlightCount());
+    }
+
+    @Test
+    public void shouldLoadIndependentlyDifferentKeys() throws Throwable {
+        final SingleFlight singleFlight = new SingleFlight(5000);
+        startBlockingLoader(singleFlight, "key1");
+
+        assertEquals("value", singleFlight.execute("key2", () -> "value"));
+    }
+
+    @Test
+    public void shouldLoadItselfIfWaitingTooLong() throws Throwable {
+        final SingleFlight singleFlight = new SingleFlight(10);
+        startBlockingLoader(singleFlight, "key");
+
+        assertEquals("follower", singleFlight.execute("key", () -> "follower"));
+        assertEquals(1, singleFlight.getInFlightCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldPropagateLoaderException() throws Throwable {
+        final SingleFlight singleFlight = new SingleFlight(10);
+
+        try {
+            singleFlight.execute("key", () -> {
+                throw new IllegalArgumentException();
+            });
+        } finally {
+            assertEquals(0, singleFlight.getInFlightCount());
+        }
+    }
+
+    private Future<String> startBlockingLoader(final SingleFlight singleFlight, final String key) throws InterruptedException {
+        final Future<String> result = executor.submit(() -> {
+            try {
+                return singleFlight.execute(key, () -> {
+                    started.countDown();
+                    release.await();
+                    return "leader";
+                });
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        return result;
+    }
+
+}
@@ -20,14 +20,17 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.TimeoutException;
 
 import lombok.Getter;
+import lombok.Setter;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.Cache;
 import org.springframework.cache.support.SimpleValueWrapper;
 
+import com.google.code.ssm.aop.support.NamespaceVersionStore;
 import com.google.code.ssm.aop.support.PertinentNegativeNull;
 import com.google.code.ssm.providers.CacheException;
+import com.google.code.ssm.util.SingleFlight;
 
 /**
  * Wrapper around {@link com.google.code.ssm.Cache} that allow to set default expiration time used in all
@@ -43,6 +46,12 @@ public class SSMCache implements Cache {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SSMCache.class);
 
+    /**
+     * The maximum time in milliseconds that caller waits for value loaded by other thread, after that time the caller
+     * loads value itself.
+     */
+    private static final long LOADER_MAX_WAIT = 30000;
+
     @Getter
     private final com.google.code.ssm.Cache cache;
 
@@ -76,6 +85,19 @@ public class SSMCache implements Cache {
     @Getter
     private final boolean registerAliases;
 
+    /**
+     * If set then current version of the namespace named after this cache is a part of each key and {@link #clear()}
+     * only increments the version instead of flushing whole memcached. Clearing is then always allowed because it
+     * doesn't affect other caches.
+     * 
+     * @since 4.1.4
+     */
+    @Getter
+    @Setter
+    private NamespaceVersionStore namespaceVersionStore;
+
+    private SingleFlight singleFlight = new SingleFlight(LOADER_MAX_WAIT);
+
     public SSMCache(final com.google.code.ssm.Cache cache, final int expiration, final boolean allowClear, final boolean registerAliases,
             final boolean muteExceptions) {
         this.cache = cache;
@@ -95,6 +117,8 @@ public class SSMCache implements Cache {
 
     public SSMCache(final SSMCache ssmCache, final int expiration) {
         this(ssmCache.cache, expiration, ssmCache.allowClear);
+        this.namespaceVersionStore = ssmCache.namespaceVersionStore;
+        this.singleFlight = ssmCache.singleFlight;
     }
 
     @Override
@@ -175,10 +199,17 @@ public class SSMCache implements Cache {
         if (valueWrapper != null) {
             return (T) valueWrapper.get();
         }
-        synchronized (key.toString().intern()) {
-            final T value = loadValue(key, valueLoader);
-            put(key, value);
-            return value;
+        // only one loader per key is executed at a time, other callers get its result
+        try {
+            return singleFlight.execute(getKey(key), () -> {
+                final T value = loadValue(key, valueLoader);
+                put(key, value);
+                return value;
+            });
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
         }
     }
 
@@ -261,6 +292,16 @@ public class SSMCache implements Cache {
             return;
         }
 
+        if (namespaceVersionStore != null) {
+            try {
+                LOGGER.info("Clear {} by incrementing namespace version", cache.getName());
+                namespaceVersionStore.incrementVersion(getName());
+            } catch (RuntimeException e) {
+                logOrThrow(e, "An error has ocurred for cache {}", getName(), e);
+            }
+            return;
+        }
+
         if (!allowClear) {
             LOGGER.error("Clearing cache '{}' is not allowed. To enable it set allowClear to true. "
                     + "Make sure that caches don't overlap (one memcached instance isn't used by more than one cache) "
@@ -289,7 +330,11 @@ public class SSMCache implements Cache {
     }
 
     private String getKey(final Object key) {
-        return key.toString();
+        if (namespaceVersionStore == null) {
+            return key.toString();
+        }
+
+        return getName() + "@" + namespaceVersionStore.getVersion(getName()) + ":" + key;
     }
 
     private <T> T loadValue(final Object key, final Callable<T> valueLoader) {
@@ -51,6 +51,9 @@ public class SSMCacheManager implements CacheManager, InitializingBean {
     private final ConcurrentMap<String, Cache> cacheMap = new ConcurrentHashMap<String, Cache>();
 
     private final Set<String> cacheNames = new LinkedHashSet<String>();
+
+    // caches with keys prefixed by requested name, reused so concurrent loads of the same key can be coalesced
+    private final ConcurrentMap<String, SSMCache> prefixedCacheMap = new ConcurrentHashMap<String, SSMCache>();
     
     @Getter
     private Collection<SSMCache> caches;
@@ -73,8 +76,7 @@ public class SSMCacheManager implements CacheManager, InitializingBean {
         }
 
         if (cache.getCache().getProperties().isUseNameAsKeyPrefix()) {
-            return new SSMCache(new PrefixedCacheImpl(cache.getCache(), name, cache.getCache().getProperties().getKeyPrefixSeparator()),
-                    cache.getExpiration(), cache.isAllowClear(), cache.isRegisterAliases(), cache.isMuteExceptions());
+            return prefixedCacheMap.computeIfAbsent(name, n -> createPrefixedCache(cache, n));
         }
 
         return cache;
@@ -120,10 +122,18 @@ public class SSMCacheManager implements CacheManager, InitializingBean {
         
         this.cacheMap.clear();
         this.cacheNames.clear();
+        this.prefixedCacheMap.clear();
         // preserve the initial order of the cache names
         caches.forEach(this::registerCache);
     }
     
+    private SSMCache createPrefixedCache(final SSMCache cache, final String name) {
+        final SSMCache prefixedCache = new SSMCache(new PrefixedCacheImpl(cache.getCache(), name, cache.getCache().getProperties()
+                .getKeyPrefixSeparator()), cache.getExpiration(), cache.isAllowClear(), cache.isRegisterAliases(), cache.isMuteExceptions());
+        prefixedCache.setNamespaceVersionStore(cache.getNamespaceVersionStore());
+        return prefixedCache;
+    }
+
     private void registerCache(final SSMCache cache) {
         registerCache(cache.getName(), cache);
 
@@ -138,10 +148,12 @@ public class SSMCacheManager implements CacheManager, InitializingBean {
     private void registerCache(final String name, final Cache cache) {
         this.cacheMap.put(name, cache);
         this.cacheNames.add(name); 
+        this.prefixedCacheMap.remove(name);
     }
     
     private void unregisterCache(final String name) {
        this.cacheMap.remove(name);
+       this.prefixedCacheMap.remove(name);
        this.cacheNames.removeIf(n -> n.equals(name));
     }
 
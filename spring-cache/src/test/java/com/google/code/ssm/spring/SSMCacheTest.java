@@ -28,6 +28,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import com.google.code.ssm.Cache;
+import com.google.code.ssm.aop.support.NamespaceVersionStore;
 import com.google.code.ssm.api.format.SerializationType;
 import com.google.code.ssm.providers.CacheException;
 
@@ -68,6 +69,22 @@ public class SSMCacheTest {
         verify(cache).flush();
     }
 
+    @Test
+    public void clearShouldIncrementNamespaceVersionIfSet() throws TimeoutException, CacheException {
+        final NamespaceVersionStore namespaceVersionStore = mock(NamespaceVersionStore.class);
+        when(cache.isEnabled()).thenReturn(true);
+        when(cache.getName()).thenReturn("users");
+        when(namespaceVersionStore.getVersion("users")).thenReturn(3L);
+        ssmCache.setNamespaceVersionStore(namespaceVersionStore);
+
+        ssmCache.clear();
+        ssmCache.evict("key");
+
+        verify(namespaceVersionStore).incrementVersion("users");
+        verify(cache, never()).flush();
+        verify(cache).delete("users@3:key");
+    }
+
     @Test
     public void evictShouldExecuteWhenCacheEnabled() throws TimeoutException, CacheException {
         String key = "someKey";
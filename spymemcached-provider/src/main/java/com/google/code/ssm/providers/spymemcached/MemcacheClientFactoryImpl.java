@@ -19,6 +19,7 @@ package com.google.code.ssm.providers.spymemcached;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
 import java.util.List;
 
 import net.spy.memcached.ConnectionFactory;
@@ -31,6 +32,7 @@ import net.spy.memcached.MemcachedClient;
 import com.google.code.ssm.providers.CacheClient;
 import com.google.code.ssm.providers.CacheClientFactory;
 import com.google.code.ssm.providers.CacheConfiguration;
+import com.google.code.ssm.providers.PooledCacheClient;
 
 /**
  * 
@@ -66,7 +68,33 @@ public class MemcacheClientFactoryImpl implements CacheClientFactory {
             connectionFactory = builder.build();
         }
 
-        return new MemcacheClientWrapper(new MemcachedClient(connectionFactory, addrs));
+        final int poolSize = getPoolSize(conf);
+        if (poolSize <= 1) {
+            return new MemcacheClientWrapper(new MemcachedClient(connectionFactory, addrs), conf.isPipelinedBulkOperations());
+        }
+
+        // all clients share the same connection factory, each of them opens own connections
+        final List<CacheClient> clients = new ArrayList<CacheClient>(poolSize);
+        try {
+            for (int i = 0; i < poolSize; i++) {
+                clients.add(new MemcacheClientWrapper(new MemcachedClient(connectionFactory, addrs), conf.isPipelinedBulkOperations()));
+            }
+        } catch (IOException e) {
+            for (CacheClient client : clients) {
+                client.shutdown();
+            }
+            throw e;
+        }
+
+        return new PooledCacheClient(clients, connectionFactory.getOperationTimeout());
+    }
+
+    private int getPoolSize(final CacheConfiguration conf) {
+        if (conf instanceof SpymemcachedConfiguration && ((SpymemcachedConfiguration) conf).getPoolSize() != null) {
+            return ((SpymemcachedConfiguration) conf).getPoolSize();
+        }
+
+        return 1;
     }
 
     private void setProviderSpecificSettings(final ConnectionFactoryBuilder builder, final SpymemcachedConfiguration conf) {
@@ -142,4 +142,14 @@ public class SpymemcachedConfiguration extends CacheConfiguration {
      */
     private ExecutorService executorService;
 
+    /**
+     * Number of memcached clients, each with its own connections and IO thread, created for a cache. Operations are
+     * striped across clients by key hash, bulk gets are split between clients and executed concurrently. If not set or
+     * lower than 2 single client is used.
+     * 
+     * @see com.google.code.ssm.providers.PooledCacheClient
+     * @since 4.1.4
+     */
+    private Integer poolSize;
+
 }
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.providers.xmemcached;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import com.google.code.ssm.providers.AsyncCacheClient;
+import com.google.code.ssm.providers.CacheException;
+import com.google.code.ssm.providers.CacheTranscoder;
+
+/**
+ * Xmemcached doesn't expose future or callback based API so blocking operations are executed by given executor and
+ * the caller's thread is not blocked.
+ *
+ * @author Jakub Białek
+ * @since 4.1.4
+ *
+ */
+class AsyncMemcacheClientWrapper implements AsyncCacheClient {
+
+    private final MemcacheClientWrapper clientWrapper;
+
+    private final Executor executor;
+
+    AsyncMemcacheClientWrapper(final MemcacheClientWrapper clientWrapper, final Executor executor) {
+        this.clientWrapper = clientWrapper;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> add(final String key, final int exp, final Object value) {
+        return execute(() -> clientWrapper.add(key, exp, value));
+    }
+
+    @Override
+    public <T> CompletableFuture<Boolean> add(final String key, final int exp, final T value, final CacheTranscoder transcoder) {
+        return execute(() -> clientWrapper.add(key, exp, value, transcoder));
+    }
+
+    @Override
+    public CompletableFuture<Long> decr(final String key, final int by) {
+        return execute(() -> clientWrapper.decr(key, by));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> delete(final String key) {
+        return execute(() -> clientWrapper.delete(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(final Collection<String> keys) {
+        return execute(() -> {
+            clientWrapper.delete(keys);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Object> get(final String key) {
+        return execute(() -> clientWrapper.get(key));
+    }
+
+    @Override
+    public <T> CompletableFuture<T> get(final String key, final CacheTranscoder transcoder) {
+        return execute(() -> clientWrapper.<T> get(key, transcoder));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> getBulk(final Collection<String> keys) {
+        return execute(() -> clientWrapper.getBulk(keys));
+    }
+
+    @Override
+    public <T> CompletableFuture<Map<String, T>> getBulk(final Collection<String> keys, final CacheTranscoder transcoder) {
+        return execute(() -> clientWrapper.<T> getBulk(keys, transcoder));
+    }
+
+    @Override
+    public CompletableFuture<Long> incr(final String key, final int by, final long def) {
+        return execute(() -> clientWrapper.incr(key, by, def));
+    }
+
+    @Override
+    public CompletableFuture<Long> incr(final String key, final int by, final long def, final int exp) {
+        return execute(() -> clientWrapper.incr(key, by, def, exp));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> set(final String key, final int exp, final Object value) {
+        return execute(() -> clientWrapper.set(key, exp, value));
+    }
+
+    @Override
+    public <T> CompletableFuture<Boolean> set(final String key, final int exp, final T value, final CacheTranscoder transcoder) {
+        return execute(() -> clientWrapper.set(key, exp, value, transcoder));
+    }
+
+    @Override
+    public CompletableFuture<Void> setBulk(final Map<String, ?> items, final int exp) {
+        return execute(() -> {
+            clientWrapper.setBulk(items, exp);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> setBulk(final Map<String, ?> items, final int exp, final CacheTranscoder transcoder) {
+        return execute(() -> {
+            clientWrapper.setBulk(items, exp, transcoder);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> addBulk(final Map<String, ?> items, final int exp) {
+        return execute(() -> {
+            clientWrapper.addBulk(items, exp);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> addBulk(final Map<String, ?> items, final int exp, final CacheTranscoder transcoder) {
+        return execute(() -> {
+            clientWrapper.addBulk(items, exp, transcoder);
+            return null;
+        });
+    }
+
+    private <T> CompletableFuture<T> execute(final CacheOperation<T> operation) {
+        final CompletableFuture<T> result = new CompletableFuture<T>();
+        try {
+            executor.execute(() -> {
+                try {
+                    result.complete(operation.execute());
+                } catch (TimeoutException | CacheException | RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(new CacheException(e));
+        }
+
+        return result;
+    }
+
+    private interface CacheOperation<T> {
+
+        T execute() throws TimeoutException, CacheException;
+
+    }
+
+}
@@ -78,10 +78,13 @@ public class MemcacheClientFactoryImpl implements CacheClientFactory {
         }
 
         if (conf instanceof XMemcachedConfiguration) {
-            setProviderClientSpecificSettings(client, (XMemcachedConfiguration) conf);
+            final XMemcachedConfiguration xconf = (XMemcachedConfiguration) conf;
+            setProviderClientSpecificSettings(client, xconf);
+            return new MemcacheClientWrapper(client, conf.isPipelinedBulkOperations(), xconf.getAsyncExecutor(), xconf.getAsyncThreads(),
+                    xconf.getAsyncQueueCapacity());
         }
 
-        return new MemcacheClientWrapper(client);
+        return new MemcacheClientWrapper(client, conf.isPipelinedBulkOperations(), null);
     }
 
     private void setProviderBuilderSpecificSettings(final XMemcachedClientBuilder builder, final XMemcachedConfiguration conf) {
@@ -23,12 +23,19 @@ import java.net.SocketAddress;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import com.google.code.yanf4j.core.Session;
 import net.rubyeye.xmemcached.MemcachedClient;
+import net.rubyeye.xmemcached.XMemcachedClient;
 import net.rubyeye.xmemcached.exception.MemcachedException;
 import net.rubyeye.xmemcached.transcoders.CachedData;
 import net.rubyeye.xmemcached.transcoders.Transcoder;
@@ -37,10 +44,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.code.ssm.providers.AbstractMemcacheClientWrapper;
+import com.google.code.ssm.providers.AsyncCacheClient;
+import com.google.code.ssm.providers.CacheConfiguration;
 import com.google.code.ssm.providers.CacheException;
 import com.google.code.ssm.providers.CacheTranscoder;
 import com.google.code.ssm.providers.CachedObject;
 import com.google.code.ssm.providers.CachedObjectImpl;
+import com.google.code.ssm.providers.TranscoderAdapterRegistry;
 
 /**
  * 
@@ -52,12 +62,42 @@ class MemcacheClientWrapper extends AbstractMemcacheClientWrapper {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MemcacheClientWrapper.class);
 
-    private final Map<CacheTranscoder, Object> adapters = new HashMap<CacheTranscoder, Object>();
+    static final int DEFAULT_ASYNC_THREADS = Runtime.getRuntime().availableProcessors() * 2;
+
+    static final int DEFAULT_ASYNC_QUEUE_CAPACITY = 10000;
+
+    private final TranscoderAdapterRegistry<Transcoder<Object>> adapters = new TranscoderAdapterRegistry<Transcoder<Object>>(
+            TranscoderAdapter::new);
 
     private final MemcachedClient memcachedClient;
 
+    private final boolean pipelinedBulkOperations;
+
+    private final Executor asyncExecutor;
+
+    private final int asyncThreads;
+
+    private final int asyncQueueCapacity;
+
+    private volatile AsyncCacheClient asyncClient;
+
+    private ExecutorService defaultAsyncExecutor;
+
     MemcacheClientWrapper(final MemcachedClient memcachedClient) {
+        this(memcachedClient, false, null);
+    }
+
+    MemcacheClientWrapper(final MemcachedClient memcachedClient, final boolean pipelinedBulkOperations, final Executor asyncExecutor) {
+        this(memcachedClient, pipelinedBulkOperations, asyncExecutor, null, null);
+    }
+
+    MemcacheClientWrapper(final MemcachedClient memcachedClient, final boolean pipelinedBulkOperations, final Executor asyncExecutor,
+            final Integer asyncThreads, final Integer asyncQueueCapacity) {
         this.memcachedClient = memcachedClient;
+        this.pipelinedBulkOperations = pipelinedBulkOperations;
+        this.asyncExecutor = asyncExecutor;
+        this.asyncThreads = (asyncThreads != null) ? asyncThreads : DEFAULT_ASYNC_THREADS;
+        this.asyncQueueCapacity = (asyncQueueCapacity != null) ? asyncQueueCapacity : DEFAULT_ASYNC_QUEUE_CAPACITY;
     }
 
     @Override
@@ -106,6 +146,45 @@ class MemcacheClientWrapper extends AbstractMemcacheClientWrapper {
         }
     }
 
+    /**
+     * If enabled by {@link CacheConfiguration#isPipelinedBulkOperations()} deletes keys using noreply (quiet)
+     * commands, the client doesn't wait for the server's replies so all commands are pipelined. Keys that couldn't be
+     * sent are logged together. Otherwise keys are deleted one by one.
+     */
+    @Override
+    public void delete(final Collection<String> keys) throws TimeoutException, CacheException {
+        if (!pipelinedBulkOperations) {
+            super.delete(keys);
+            return;
+        }
+
+        if (keys == null || keys.isEmpty()) {
+            return;
+        }
+
+        final List<String> failedKeys = new ArrayList<String>();
+        MemcachedException failure = null;
+        for (final String key : keys) {
+            if (key == null) {
+                continue;
+            }
+
+            try {
+                memcachedClient.deleteWithNoReply(key);
+            } catch (MemcachedException e) {
+                failedKeys.add(key);
+                failure = e;
+            } catch (InterruptedException e) {
+                throw new CacheException(e);
+            }
+        }
+
+        if (failure != null) {
+            LOGGER.warn("Bulk delete failed for {} of {} keys: {}", new Object[] { failedKeys.size(), keys.size(), failedKeys });
+            throw new CacheException(failure);
+        }
+    }
+
     @Override
     public void flush() throws TimeoutException, CacheException {
         try {
@@ -154,6 +233,16 @@ class MemcacheClientWrapper extends AbstractMemcacheClientWrapper {
         return servers;
     }
 
+    @Override
+    public SocketAddress getServer(final String key) {
+        if (!(memcachedClient instanceof XMemcachedClient)) {
+            return null;
+        }
+
+        final Session session = ((XMemcachedClient) memcachedClient).getSessionLocator().getSessionByKey(key);
+        return session == null ? null : session.getRemoteSocketAddress();
+    }
+
     @Override
     public Map<String, Object> getBulk(final Collection<String> keys) throws TimeoutException, CacheException {
         Map<String, Object> result = null;
@@ -223,6 +312,121 @@ class MemcacheClientWrapper extends AbstractMemcacheClientWrapper {
         }
     }
 
+    /**
+     * If enabled by {@link CacheConfiguration#isPipelinedBulkOperations()} stores items using noreply (quiet)
+     * commands, the client doesn't wait for the server's replies so all commands are pipelined. Failures reported by
+     * memcached are not visible to the caller. Otherwise items are stored one by one.
+     */
+    @Override
+    public void setBulk(final Map<String, ?> items, final int exp) throws TimeoutException, CacheException {
+        if (!pipelinedBulkOperations) {
+            super.setBulk(items, exp);
+            return;
+        }
+
+        if (items == null || items.isEmpty()) {
+            return;
+        }
+
+        try {
+            for (final Map.Entry<String, ?> entry : items.entrySet()) {
+                memcachedClient.setWithNoReply(entry.getKey(), exp, entry.getValue());
+            }
+        } catch (MemcachedException | InterruptedException e) {
+            throw new CacheException(e);
+        }
+    }
+
+    @Override
+    public void setBulk(final Map<String, ?> items, final int exp, final CacheTranscoder transcoder) throws TimeoutException,
+            CacheException {
+        if (!pipelinedBulkOperations) {
+            super.setBulk(items, exp, transcoder);
+            return;
+        }
+
+        if (items == null || items.isEmpty()) {
+            return;
+        }
+
+        final Transcoder<Object> transcoderAdapter = getTranscoder(transcoder);
+        try {
+            for (final Map.Entry<String, ?> entry : items.entrySet()) {
+                memcachedClient.setWithNoReply(entry.getKey(), exp, entry.getValue(), transcoderAdapter);
+            }
+        } catch (MemcachedException | InterruptedException e) {
+            throw new CacheException(e);
+        }
+    }
+
+    /**
+     * If enabled by {@link CacheConfiguration#isPipelinedBulkOperations()} adds items using noreply (quiet)
+     * commands, the client doesn't wait for the server's replies so all commands are pipelined. Otherwise items are
+     * added one by one.
+     */
+    @Override
+    public void addBulk(final Map<String, ?> items, final int exp) throws TimeoutException, CacheException {
+        if (!pipelinedBulkOperations) {
+            super.addBulk(items, exp);
+            return;
+        }
+
+        if (items == null || items.isEmpty()) {
+            return;
+        }
+
+        try {
+            for (final Map.Entry<String, ?> entry : items.entrySet()) {
+                memcachedClient.addWithNoReply(entry.getKey(), exp, entry.getValue());
+            }
+        } catch (MemcachedException | InterruptedException e) {
+            throw new CacheException(e);
+        }
+    }
+
+    @Override
+    public void addBulk(final Map<String, ?> items, final int exp, final CacheTranscoder transcoder) throws TimeoutException,
+            CacheException {
+        if (!pipelinedBulkOperations) {
+            super.addBulk(items, exp, transcoder);
+            return;
+        }
+
+        if (items == null || items.isEmpty()) {
+            return;
+        }
+
+        final Transcoder<Object> transcoderAdapter = getTranscoder(transcoder);
+        try {
+            for (final Map.Entry<String, ?> entry : items.entrySet()) {
+                memcachedClient.addWithNoReply(entry.getKey(), exp, entry.getValue(), transcoderAdapter);
+            }
+        } catch (MemcachedException | InterruptedException e) {
+            throw new CacheException(e);
+        }
+    }
+
+    /**
+     * If executor isn't set in {@link XMemcachedConfiguration#getAsyncExecutor()} then on first invocation creates
+     * default one, it's shut down together with this client. Operations rejected by the default executor because its
+     * queue is full complete exceptionally with {@link CacheException}.
+     */
+    @Override
+    public AsyncCacheClient getAsyncClient() {
+        AsyncCacheClient client = asyncClient;
+        if (client == null) {
+            synchronized (this) {
+                if (asyncClient == null) {
+                    final Executor executor = (asyncExecutor != null) ? asyncExecutor : createDefaultAsyncExecutor();
+                    asyncClient = new AsyncMemcacheClientWrapper(this, executor);
+                }
+                client = asyncClient;
+            }
+        }
+
+        return client;
+    }
+
     @Override
     public void shutdown() {
         try {
@@ -230,6 +434,12 @@ class MemcacheClientWrapper extends AbstractMemcacheClientWrapper {
         } catch (IOException e) {
             LOGGER.error("An error occurred when closing memcache", e);
         }
+
+        synchronized (this) {
+            if (defaultAsyncExecutor != null) {
+                defaultAsyncExecutor.shutdown();
+            }
+        }
     }
 
     @Override
@@ -243,15 +453,27 @@ class MemcacheClientWrapper extends AbstractMemcacheClientWrapper {
         return memcachedClient;
     }
 
+    @Override
+    public void registerTranscoder(final CacheTranscoder transcoder) {
+        adapters.register(transcoder);
+    }
+
     @SuppressWarnings("unchecked")
     private <T> Transcoder<T> getTranscoder(final CacheTranscoder transcoder) {
-        Transcoder<T> transcoderAdapter = (Transcoder<T>) adapters.get(transcoder);
-        if (transcoderAdapter == null) {
-            transcoderAdapter = (Transcoder<T>) new TranscoderAdapter(transcoder);
-            adapters.put(transcoder, transcoderAdapter);
-        }
+        return (Transcoder<T>) adapters.get(transcoder);
+    }
 
-        return transcoderAdapter;
+    private ExecutorService createDefaultAsyncExecutor() {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(asyncThreads, asyncThreads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(asyncQueueCapacity), runnable -> {
+                    final Thread thread = new Thread(runnable, "ssm-xmemcached-async-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        defaultAsyncExecutor = executor;
+        return executor;
     }
 
     private static class TranscoderWrapper implements CacheTranscoder {
@@ -270,7 +492,8 @@ class MemcacheClientWrapper extends AbstractMemcacheClientWrapper {
         @Override
         public CachedObject encode(final Object o) {
             CachedData cachedData = transcoder.encode(o);
-            return new CachedObjectImpl(cachedData.getFlag(), cachedData.getData());
+            final byte[] data = cachedData.getData();
+            return new CachedObjectImpl(cachedData.getFlag(), data, 0, data.length);
         }
     }
 
@@ -20,6 +20,7 @@ package com.google.code.ssm.providers.xmemcached;
 import java.net.InetSocketAddress;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -171,4 +172,30 @@ public class XMemcachedConfiguration extends CacheConfiguration {
     @Setter(onMethod=@__({@SuppressFBWarnings}))
     private int[] weights;
 
+    /**
+     * Executor used to run operations of asynchronous client, xmemcached doesn't have non blocking API. If not set
+     * default fixed size executor is created on first use of asynchronous client.
+     * 
+     * @see com.google.code.ssm.providers.CacheClient#getAsyncClient()
+     * @since 4.1.4
+     */
+    private Executor asyncExecutor;
+
+    /**
+     * The number of threads of default executor of asynchronous client, used only if {@link #getAsyncExecutor()} isn't
+     * set. If not set twice the number of available processors is used.
+     * 
+     * @since 4.1.4
+     */
+    private Integer asyncThreads;
+
+    /**
+     * The maximum number of operations of asynchronous client waiting for a free thread of default executor, used only
+     * if {@link #getAsyncExecutor()} isn't set. Operations submitted to full queue fail immediately. If not set 10000 is
+     * used.
+     * 
+     * @since 4.1.4
+     */
+    private Integer asyncQueueCapacity;
+
 }
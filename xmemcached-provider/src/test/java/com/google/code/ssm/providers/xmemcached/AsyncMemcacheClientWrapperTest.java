@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2019 Jakub Białek
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.providers.xmemcached;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import net.rubyeye.xmemcached.MemcachedClient;
+import net.rubyeye.xmemcached.exception.MemcachedException;
+
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.code.ssm.providers.AsyncCacheClient;
+import com.google.code.ssm.providers.CacheException;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class AsyncMemcacheClientWrapperTest {
+
+    private final List<Runnable> tasks = new ArrayList<Runnable>();
+
+    private MemcachedClient client;
+
+    private MemcacheClientWrapper clientWrapper;
+
+    private AsyncCacheClient asyncClient;
+
+    @Before
+    public void setUp() {
+        client = EasyMock.createMock(MemcachedClient.class);
+        clientWrapper = new MemcacheClientWrapper(client, false, new Executor() {
+
+            @Override
+            public void execute(final Runnable command) {
+                tasks.add(command);
+            }
+
+        });
+        asyncClient = clientWrapper.getAsyncClient();
+    }
+
+    @Test
+    public void getAsyncClientReturnsSameInstance() {
+        assertSame(asyncClient, clientWrapper.getAsyncClient());
+    }
+
+    @Test
+    public void getIsExecutedByExecutor() throws Exception {
+        EasyMock.expect(client.get("key1")).andReturn("value1");
+        EasyMock.replay(client);
+
+        CompletableFuture<Object> result = asyncClient.get("key1");
+        assertFalse(result.isDone());
+        assertEquals(1, tasks.size());
+
+        tasks.get(0).run();
+        assertEquals("value1", result.get());
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void set() throws Exception {
+        EasyMock.expect(client.set("key1", 1, "value1")).andReturn(true);
+        EasyMock.replay(client);
+
+        CompletableFuture<Boolean> result = asyncClient.set("key1", 1, "value1");
+        tasks.get(0).run();
+        assertTrue(result.get());
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void failedOperation() throws Exception {
+        EasyMock.expect(client.delete("key1")).andThrow(new MemcachedException("failed"));
+        EasyMock.replay(client);
+
+        CompletableFuture<Boolean> result = asyncClient.delete("key1");
+        tasks.get(0).run();
+        assertFailure(result, CacheException.class);
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void timedOutOperation() throws Exception {
+        EasyMock.expect(client.incr("key1", 2, 5L)).andThrow(new TimeoutException("timeout"));
+        EasyMock.replay(client);
+
+        CompletableFuture<Long> result = asyncClient.incr("key1", 2, 5L);
+        tasks.get(0).run();
+        assertFailure(result, TimeoutException.class);
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void rejectedOperation() throws Exception {
+        EasyMock.replay(client);
+        AsyncCacheClient rejectingClient = new MemcacheClientWrapper(client, false, new Executor() {
+
+            @Override
+            public void execute(final Runnable command) {
+                throw new RejectedExecutionException("rejected");
+            }
+
+        }).getAsyncClient();
+
+        assertFailure(rejectingClient.get("key1"), CacheException.class);
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void operationRejectedByFullDefaultExecutor() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        EasyMock.expect(client.get("key1")).andAnswer(() -> {
+            started.countDown();
+            release.await();
+            return "value1";
+        });
+        EasyMock.expect(client.get("key2")).andReturn("value2");
+        EasyMock.replay(client);
+
+        // single thread busy with the first operation and queue for one more
+        final AsyncCacheClient boundedClient = new MemcacheClientWrapper(client, false, null, 1, 1).getAsyncClient();
+        final CompletableFuture<Object> running = boundedClient.get("key1");
+        started.await();
+        final CompletableFuture<Object> queued = boundedClient.get("key2");
+
+        assertFailure(boundedClient.get("key3"), CacheException.class);
+
+        release.countDown();
+        assertEquals("value1", running.get());
+        assertEquals("value2", queued.get());
+        EasyMock.verify(client);
+    }
+
+    private void assertFailure(final CompletableFuture<?> future, final Class<? extends Exception> expectedCause)
+            throws InterruptedException {
+        try {
+            future.get();
+            fail("Expected ExecutionException");
+        } catch (ExecutionException e) {
+            assertEquals(expectedCause, e.getCause().getClass());
+        }
+    }
+
+}
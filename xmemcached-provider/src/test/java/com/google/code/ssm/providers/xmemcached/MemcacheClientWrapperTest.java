@@ -19,11 +19,14 @@ package com.google.code.ssm.providers.xmemcached;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.TimeoutException;
 
@@ -98,6 +101,31 @@ public class MemcacheClientWrapperTest {
         EasyMock.verify(client);
     }
 
+    @Test
+    public void deleteCollectionOfString() throws TimeoutException, CacheException, InterruptedException, MemcachedException {
+        EasyMock.expect(client.delete("key1")).andThrow(new MemcachedException("error"));
+        EasyMock.expect(client.delete("key2")).andReturn(false);
+        EasyMock.replay(client);
+        try {
+            clientWrapper.delete(Arrays.asList("key1", "key2"));
+            fail("Expected CacheException");
+        } catch (CacheException e) {
+            assertTrue(e.getCause() instanceof MemcachedException);
+        }
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void deleteCollectionOfStringNoReply() throws TimeoutException, CacheException, InterruptedException, MemcachedException {
+        client.deleteWithNoReply("key1");
+        EasyMock.expectLastCall();
+        client.deleteWithNoReply("key2");
+        EasyMock.expectLastCall();
+        EasyMock.replay(client);
+        pipelinedClientWrapper().delete(Arrays.asList("key1", null, "key2"));
+        EasyMock.verify(client);
+    }
+
     @Test
     public void flush() throws TimeoutException, InterruptedException, MemcachedException, CacheException {
         client.flushAll();
@@ -214,6 +242,70 @@ public class MemcacheClientWrapperTest {
         EasyMock.verify(client);
     }
 
+    @Test
+    public void setBulk() throws TimeoutException, InterruptedException, MemcachedException, CacheException {
+        EasyMock.expect(client.set("key1", 1, "value1")).andReturn(true);
+        EasyMock.expect(client.set("key2", 1, "value2")).andReturn(true);
+        EasyMock.replay(client);
+        clientWrapper.setBulk(getItems(), 1);
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void addBulk() throws TimeoutException, InterruptedException, MemcachedException, CacheException {
+        EasyMock.expect(client.add("key1", 1, "value1")).andReturn(true);
+        EasyMock.expect(client.add("key2", 1, "value2")).andReturn(false);
+        EasyMock.replay(client);
+        clientWrapper.addBulk(getItems(), 1);
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void setBulkNoReply() throws TimeoutException, InterruptedException, MemcachedException, CacheException {
+        client.setWithNoReply("key1", 1, "value1");
+        EasyMock.expectLastCall();
+        client.setWithNoReply("key2", 1, "value2");
+        EasyMock.expectLastCall();
+        EasyMock.replay(client);
+        pipelinedClientWrapper().setBulk(getItems(), 1);
+        EasyMock.verify(client);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void setBulkNoReplyWithTranscoder() throws TimeoutException, InterruptedException, MemcachedException, CacheException {
+        CacheTranscoder transcoder = EasyMock.createMock(CacheTranscoder.class);
+        client.setWithNoReply(EasyMock.eq("key1"), EasyMock.eq(1), EasyMock.eq("value1"), EasyMock.anyObject(Transcoder.class));
+        EasyMock.expectLastCall();
+        client.setWithNoReply(EasyMock.eq("key2"), EasyMock.eq(1), EasyMock.eq("value2"), EasyMock.anyObject(Transcoder.class));
+        EasyMock.expectLastCall();
+        EasyMock.replay(client);
+        pipelinedClientWrapper().setBulk(getItems(), 1, transcoder);
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void addBulkNoReply() throws TimeoutException, InterruptedException, MemcachedException, CacheException {
+        client.addWithNoReply("key1", 1, "value1");
+        EasyMock.expectLastCall();
+        client.addWithNoReply("key2", 1, "value2");
+        EasyMock.expectLastCall();
+        EasyMock.replay(client);
+        pipelinedClientWrapper().addBulk(getItems(), 1);
+        EasyMock.verify(client);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void addBulkNoReplyWithTranscoder() throws TimeoutException, InterruptedException, MemcachedException, CacheException {
+        CacheTranscoder transcoder = EasyMock.createMock(CacheTranscoder.class);
+        client.addWithNoReply(EasyMock.eq("key1"), EasyMock.eq(1), EasyMock.eq("value1"), EasyMock.anyObject(Transcoder.class));
+        EasyMock.expectLastCall();
+        EasyMock.replay(client);
+        pipelinedClientWrapper().addBulk(Collections.<String, Object> singletonMap("key1", "value1"), 1, transcoder);
+        EasyMock.verify(client);
+    }
+
     @Test
     public void shutdown() throws IOException {
         client.shutdown();
@@ -237,6 +329,17 @@ public class MemcacheClientWrapperTest {
         assertSame(client, nativeClient);
     }
 
+    private MemcacheClientWrapper pipelinedClientWrapper() {
+        return new MemcacheClientWrapper(client, true, null);
+    }
+
+    private Map<String, Object> getItems() {
+        Map<String, Object> items = new LinkedHashMap<String, Object>();
+        items.put("key1", "value1");
+        items.put("key2", "value2");
+        return items;
+    }
+
     private MemcachedClient getMock() {
         return EasyMock.createMock(MemcachedClient.class);
     }